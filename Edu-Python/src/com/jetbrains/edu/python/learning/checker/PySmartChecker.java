@@ -3,145 +3,225 @@ package com.jetbrains.edu.python.learning.checker;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.process.CapturingProcessHandler;
 import com.intellij.execution.process.ProcessOutput;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.jetbrains.edu.learning.StudyTaskManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.checker.TestsOutputParser;
-import com.jetbrains.edu.learning.EduDocumentListener;
-import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder;
-import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.CheckStatus;
 import com.jetbrains.edu.learning.courseFormat.TaskFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
 
+/**
+ * Checks every answer placeholder of a task file separately: for each placeholder a variant of the file
+ * is created where this placeholder contains user's answer and all the others contain possible answers.
+ *
+ * Variants are built in memory from a snapshot of user's document and written to a temp directory outside of VFS,
+ * so tests for them can be run in background concurrently.
+ */
 class PySmartChecker {
+  private static final Logger LOG = Logger.getInstance(PySmartChecker.class);
+  private static final String WINDOW_PREFIX = "#educational_plugin_window = ";
+  private static final long CANCELLATION_CHECK_INTERVAL_MS = 100;
+
   private PySmartChecker() {
 
   }
 
-  private static final Logger LOG = Logger.getInstance(PySmartChecker.class);
+  /**
+   * Snapshot of task file state needed to run smart check outside of EDT
+   */
+  static class SmartCheckRequest {
+    @NotNull private final VirtualFile myTaskDir;
+    @NotNull private final String myFileName;
+    @NotNull private final String myText;
+    @NotNull private final List<AnswerPlaceholder> myPlaceholders;
+    private final boolean myIsAdaptive;
 
-  private static void smartCheck(@NotNull final AnswerPlaceholder placeholder,
-                                @NotNull final Project project,
-                                @NotNull final VirtualFile answerFile,
-                                @NotNull final TaskFile answerTaskFile,
-                                @NotNull final TaskFile usersTaskFile,
-                                @NotNull final PyTestRunner testRunner,
-                                @NotNull final VirtualFile virtualFile,
-                                @NotNull final Document usersDocument) {
-    VirtualFile fileWindows = null;
-    VirtualFile windowCopy = null;
-    try {
-      final int index = placeholder.getIndex();
-      String windowCopyName = answerFile.getNameWithoutExtension() + index + EduNames.WINDOW_POSTFIX + answerFile.getExtension();
-      windowCopy = answerFile.copy(project, answerFile.getParent(), windowCopyName);
-      final FileDocumentManager documentManager = FileDocumentManager.getInstance();
-      final Document windowDocument = documentManager.getDocument(windowCopy);
-      if (windowDocument != null) {
-        TaskFile windowTaskFile = answerTaskFile.getTask().copy().getTaskFile(EduUtils.pathRelativeToTask(project, virtualFile));
-        if (windowTaskFile == null) {
-          return;
-        }
-        EduDocumentListener listener = new EduDocumentListener(project, windowTaskFile);
-        windowDocument.addDocumentListener(listener);
-        int start = placeholder.getOffset();
-        int end = start + placeholder.getRealLength();
-        final AnswerPlaceholder userAnswerPlaceholder = usersTaskFile.getAnswerPlaceholders().get(placeholder.getIndex());
-        int userStart = userAnswerPlaceholder.getOffset();
-        int userEnd = userStart + userAnswerPlaceholder.getRealLength();
-        String text = usersDocument.getText(new TextRange(userStart, userEnd));
-        windowDocument.replaceString(start, end, text);
-        ApplicationManager.getApplication().runWriteAction(() -> documentManager.saveDocument(windowDocument));
-        windowDocument.removeDocumentListener(listener);
-
-        fileWindows = EduUtils.flushWindows(windowTaskFile, windowCopy);
-        Process smartTestProcess = testRunner.createCheckProcess(project, windowCopy.getPath());
-        final CapturingProcessHandler handler = new CapturingProcessHandler(smartTestProcess, null, windowCopy.getPath());
-        final ProcessOutput output = handler.runProcess();
-        final Course course = StudyTaskManager.getInstance(project).getCourse();
-        if (course != null) {
-          boolean res = TestsOutputParser.getTestsOutput(output, course.isAdaptive()).isSuccess();
-          userAnswerPlaceholder.setStatus(res ? CheckStatus.Solved : CheckStatus.Failed);
-        }
-      }
-    }
-    catch (ExecutionException | IOException e) {
-      LOG.error(e);
-    }
-    finally {
-      EduUtils.deleteFile(windowCopy);
-      EduUtils.deleteFile(fileWindows);
+    private SmartCheckRequest(@NotNull VirtualFile taskDir,
+                              @NotNull String fileName,
+                              @NotNull String text,
+                              @NotNull List<AnswerPlaceholder> placeholders,
+                              boolean isAdaptive) {
+      myTaskDir = taskDir;
+      myFileName = fileName;
+      myText = text;
+      myPlaceholders = placeholders;
+      myIsAdaptive = isAdaptive;
     }
   }
 
-  static void runSmartTestProcess(@NotNull final VirtualFile taskDir,
-                                  @NotNull final PyTestRunner testRunner,
-                                  @NotNull final TaskFile taskFile,
-                                  @NotNull final Project project) {
+  /**
+   * Should be called in read action
+   */
+  @Nullable
+  static SmartCheckRequest createRequest(@NotNull final VirtualFile taskDir, @NotNull final TaskFile taskFile, boolean isAdaptive) {
     final VirtualFile virtualFile = EduUtils.findTaskFileInDir(taskFile, taskDir);
     if (virtualFile == null) {
-      return;
+      return null;
+    }
+    final Document document = FileDocumentManager.getInstance().getDocument(virtualFile);
+    if (document == null) {
+      return null;
+    }
+    final String text = document.getText();
+    for (AnswerPlaceholder placeholder : taskFile.getAnswerPlaceholders()) {
+      if (placeholder.getOffset() + placeholder.getRealLength() > text.length()) {
+        LOG.warn("Placeholder is out of document bounds in " + virtualFile.getPath());
+        return null;
+      }
+    }
+    return new SmartCheckRequest(taskDir, virtualFile.getName(), text, new ArrayList<>(taskFile.getAnswerPlaceholders()), isAdaptive);
+  }
+
+  /**
+   * Runs tests for all placeholder variants concurrently and returns new statuses of placeholders.
+   * Placeholders themselves aren't modified, statuses should be applied on EDT by caller.
+   */
+  @NotNull
+  static Map<AnswerPlaceholder, CheckStatus> runSmartCheck(@NotNull final Project project,
+                                                           @NotNull final List<SmartCheckRequest> requests,
+                                                           @NotNull final ProgressIndicator indicator) {
+    int variantsCount = requests.stream().mapToInt(request -> request.myPlaceholders.size()).sum();
+    if (variantsCount == 0) {
+      return Collections.emptyMap();
+    }
+    final File tempDir;
+    try {
+      tempDir = FileUtil.createTempDirectory("pySmartCheck", null, true);
     }
-    Pair<VirtualFile, TaskFile> pair = getCopyWithAnswers(project, taskDir, virtualFile, taskFile);
-    if (pair == null) {
-      return;
+    catch (IOException e) {
+      LOG.error(e);
+      return Collections.emptyMap();
     }
-    VirtualFile answerFile = pair.getFirst();
-    TaskFile answerTaskFile = pair.getSecond();
+
+    final int threadsCount = Math.min(variantsCount, Runtime.getRuntime().availableProcessors());
+    final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("PySmartChecker", threadsCount);
+    final Map<AnswerPlaceholder, Future<CheckStatus>> futures = new LinkedHashMap<>();
     try {
-      for (final AnswerPlaceholder answerPlaceholder : answerTaskFile.getAnswerPlaceholders()) {
-        final Document document = FileDocumentManager.getInstance().getDocument(virtualFile);
-        if (document == null) {
-          continue;
+      int variantIndex = 0;
+      for (SmartCheckRequest request : requests) {
+        for (AnswerPlaceholder placeholder : request.myPlaceholders) {
+          final File variantDir = new File(tempDir, String.valueOf(variantIndex++));
+          futures.put(placeholder, executor.submit(() -> checkVariant(project, request, placeholder, variantDir, indicator)));
+        }
+      }
+
+      final Map<AnswerPlaceholder, CheckStatus> statuses = new HashMap<>();
+      for (Map.Entry<AnswerPlaceholder, Future<CheckStatus>> entry : futures.entrySet()) {
+        CheckStatus status = waitForResult(entry.getValue(), indicator);
+        if (status != null) {
+          statuses.put(entry.getKey(), status);
         }
-        smartCheck(answerPlaceholder, project, answerFile, answerTaskFile, taskFile, testRunner,
-                   virtualFile, document);
       }
+      return statuses;
     }
     finally {
-      EduUtils.deleteFile(answerFile);
+      for (Future<CheckStatus> future : futures.values()) {
+        future.cancel(true);
+      }
+      executor.shutdownNow();
+      FileUtil.delete(tempDir);
     }
   }
 
-  static Pair<VirtualFile, TaskFile> getCopyWithAnswers(@NotNull Project project,
-                                                        @NotNull final VirtualFile taskDir,
-                                                        @NotNull final VirtualFile file,
-                                                        @NotNull final TaskFile source) {
-    try {
-      VirtualFile answerFile = file.copy(taskDir, taskDir, file.getNameWithoutExtension() + EduNames.ANSWERS_POSTFIX + "." + file.getExtension());
-      final FileDocumentManager documentManager = FileDocumentManager.getInstance();
-      final Document document = documentManager.getDocument(answerFile);
-      if (document != null) {
-        TaskFile answerTaskFile = source.getTask().copy().getTaskFile(EduUtils.pathRelativeToTask(project, file));
-        if (answerTaskFile == null) {
-          return null;
-        }
-        EduDocumentListener listener = new EduDocumentListener(project, answerTaskFile);
-        document.addDocumentListener(listener);
-        for (AnswerPlaceholder answerPlaceholder : answerTaskFile.getAnswerPlaceholders()) {
-          final int start = answerPlaceholder.getOffset();
-          final int end = start + answerPlaceholder.getRealLength();
-          final String text = answerPlaceholder.getPossibleAnswer();
-          document.replaceString(start, end, text);
-        }
-        ApplicationManager.getApplication().runWriteAction(() -> documentManager.saveDocument(document));
-        document.removeDocumentListener(listener);
-        return Pair.create(answerFile, answerTaskFile);
+  @Nullable
+  private static CheckStatus waitForResult(@NotNull Future<CheckStatus> future, @NotNull ProgressIndicator indicator) {
+    while (true) {
+      indicator.checkCanceled();
+      try {
+        return future.get(CANCELLATION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException ignored) {
+      }
+      catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      }
+      catch (java.util.concurrent.ExecutionException e) {
+        LOG.error(e.getCause());
+        return null;
       }
     }
-    catch (IOException e) {
+  }
+
+  @Nullable
+  private static CheckStatus checkVariant(@NotNull final Project project,
+                                          @NotNull final SmartCheckRequest request,
+                                          @NotNull final AnswerPlaceholder userPlaceholder,
+                                          @NotNull final File variantDir,
+                                          @NotNull final ProgressIndicator indicator) {
+    if (indicator.isCanceled()) return null;
+    try {
+      final File variantFile = new File(variantDir, request.myFileName);
+      final String windowsFileName = FileUtil.getNameWithoutExtension(request.myFileName) + EduNames.WINDOWS_POSTFIX;
+      final StringBuilder windows = new StringBuilder();
+      final String variantText = createVariant(request, userPlaceholder, windows);
+      FileUtil.writeToFile(variantFile, variantText);
+      FileUtil.writeToFile(new File(variantDir, windowsFileName), windows.toString());
+
+      final PyTestRunner testRunner = new PyTestRunner(request.myTaskDir);
+      final Process smartTestProcess = testRunner.createCheckProcess(project, variantFile.getPath());
+      if (smartTestProcess == null) return null;
+      final CapturingProcessHandler handler = new CapturingProcessHandler(smartTestProcess, null, variantFile.getPath());
+      final ProcessOutput output = handler.runProcessWithProgressIndicator(indicator);
+      if (output.isCancelled()) return null;
+      boolean res = TestsOutputParser.getTestsOutput(output, request.myIsAdaptive).isSuccess();
+      return res ? CheckStatus.Solved : CheckStatus.Failed;
+    }
+    catch (ExecutionException | IOException e) {
       LOG.error(e);
+      return null;
+    }
+  }
+
+  /**
+   * Builds file text where {@code userPlaceholder} contains user's answer and other placeholders contain possible answers.
+   * Texts of all placeholders in resulting variant are written to {@code windows} in the same format as
+   * {@link EduUtils#flushWindows(TaskFile, VirtualFile)} does.
+   */
+  @NotNull
+  static String createVariant(@NotNull final SmartCheckRequest request,
+                              @NotNull final AnswerPlaceholder userPlaceholder,
+                              @NotNull final StringBuilder windows) {
+    final String text = request.myText;
+    final List<AnswerPlaceholder> sorted = new ArrayList<>(request.myPlaceholders);
+    sorted.sort(Comparator.comparingInt(AnswerPlaceholder::getOffset));
+
+    final Map<AnswerPlaceholder, String> placeholderTexts = new HashMap<>();
+    final StringBuilder variant = new StringBuilder(text.length());
+    int lastEnd = 0;
+    for (AnswerPlaceholder placeholder : sorted) {
+      final int start = placeholder.getOffset();
+      final int end = start + placeholder.getRealLength();
+      variant.append(text, lastEnd, start);
+      final String placeholderText = placeholder == userPlaceholder
+                                     ? text.substring(start, end)
+                                     : StringUtil.notNullize(placeholder.getPossibleAnswer());
+      variant.append(placeholderText);
+      placeholderTexts.put(placeholder, placeholderText);
+      lastEnd = end;
+    }
+    variant.append(text, lastEnd, text.length());
+
+    final String lineSeparator = System.lineSeparator();
+    for (AnswerPlaceholder placeholder : request.myPlaceholders) {
+      windows.append(WINDOW_PREFIX).append(placeholderTexts.get(placeholder)).append(lineSeparator);
     }
-    return null;
+    return variant.toString();
   }
 }
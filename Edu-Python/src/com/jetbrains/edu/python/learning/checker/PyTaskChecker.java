@@ -2,8 +2,9 @@ package com.jetbrains.edu.python.learning.checker;
 
 import com.intellij.execution.ExecutionException;
 import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.jetbrains.edu.learning.EduState;
@@ -12,6 +13,7 @@ import com.jetbrains.edu.learning.checker.CheckResult;
 import com.jetbrains.edu.learning.checker.CheckUtils;
 import com.jetbrains.edu.learning.checker.TaskChecker;
 import com.jetbrains.edu.learning.checker.TestsOutputParser;
+import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder;
 import com.jetbrains.edu.learning.courseFormat.CheckStatus;
 import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.TaskFile;
@@ -21,6 +23,9 @@ import com.jetbrains.edu.learning.editor.EduEditor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
@@ -85,19 +90,41 @@ public class PyTaskChecker extends TaskChecker<EduTask> {
     ApplicationManager.getApplication().invokeLater(() -> {
       VirtualFile taskDir = task.getTaskDir(project);
       if (taskDir == null) return;
-      for (Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
-        final TaskFile taskFile = entry.getValue();
-        if (taskFile.getAnswerPlaceholders().size() < 2) {
-          continue;
-        }
-        final Course course = task.getLesson().getCourse();
-        if (course != null && course.isStudy()) {
-          CommandProcessor.getInstance().runUndoTransparentAction(
-            () -> ApplicationManager.getApplication().runWriteAction(
-              () -> PySmartChecker.runSmartTestProcess(taskDir, new PyTestRunner(taskDir), taskFile, project)));
+      final Course course = task.getLesson().getCourse();
+      final List<PySmartChecker.SmartCheckRequest> requests = new ArrayList<>();
+      if (course != null && course.isStudy()) {
+        for (Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
+          final TaskFile taskFile = entry.getValue();
+          if (taskFile.getAnswerPlaceholders().size() < 2) {
+            continue;
+          }
+          PySmartChecker.SmartCheckRequest request = PySmartChecker.createRequest(taskDir, taskFile, course.isAdaptive());
+          if (request != null) {
+            requests.add(request);
+          }
         }
       }
-      CheckUtils.navigateToFailedPlaceholder(new EduState(EduUtils.getSelectedEduEditor(project)), task, taskDir, project);
+      if (requests.isEmpty()) {
+        CheckUtils.navigateToFailedPlaceholder(new EduState(EduUtils.getSelectedEduEditor(project)), task, taskDir, project);
+        return;
+      }
+      ProgressManager.getInstance().run(new com.intellij.openapi.progress.Task.Backgroundable(project, "Checking Answer Placeholders", true) {
+        private Map<AnswerPlaceholder, CheckStatus> myStatuses = Collections.emptyMap();
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+          myStatuses = PySmartChecker.runSmartCheck(project, requests, indicator);
+        }
+
+        @Override
+        public void onSuccess() {
+          for (Map.Entry<AnswerPlaceholder, CheckStatus> entry : myStatuses.entrySet()) {
+            entry.getKey().setStatus(entry.getValue());
+          }
+          EduUtils.updateToolWindows(project);
+          CheckUtils.navigateToFailedPlaceholder(new EduState(EduUtils.getSelectedEduEditor(project)), task, taskDir, project);
+        }
+      });
     });
   }
 
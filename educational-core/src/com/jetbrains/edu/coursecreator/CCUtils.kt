@@ -90,23 +90,6 @@ object CCUtils {
     }
   }
 
-  @JvmStatic
-  fun generateFolder(project: Project, module: Module, name: String): VirtualFile? {
-    val generatedRoot = getGeneratedFilesFolder(project, module) ?: return null
-
-    var folder = generatedRoot.findChild(name)
-    //need to delete old folder
-    runWriteAction {
-      try {
-        folder?.delete(CCUtils::class.java)
-        folder = generatedRoot.createChildDirectory(null, name)
-      } catch (e: IOException) {
-        LOG.info("Failed to generate folder $name", e)
-      }
-    }
-    return folder
-  }
-
   @JvmStatic
   fun isCourseCreator(project: Project): Boolean {
     val course = StudyTaskManager.getInstance(project).course ?: return false
@@ -323,8 +306,9 @@ object CCUtils {
   }
 
   @JvmStatic
-  fun wrapIntoSection(project: Project, course: Course, lessonsToWrap: List<Lesson>, sectionName: String): Section? {
-    Collections.sort(lessonsToWrap, EduUtils.INDEX_COMPARATOR)
+  fun wrapIntoSection(project: Project, course: Course, lessons: List<Lesson>, sectionName: String): Section? {
+    // lessons can be a view of course lessons, which is changed below
+    val lessonsToWrap = lessons.sortedWith(EduUtils.INDEX_COMPARATOR)
     val minIndex = lessonsToWrap[0].index
     val maxIndex = lessonsToWrap[lessonsToWrap.size - 1].index
 
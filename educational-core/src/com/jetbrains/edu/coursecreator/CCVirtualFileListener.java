@@ -11,6 +11,7 @@ import com.jetbrains.edu.coursecreator.configuration.YamlFormatSynchronizer;
 import com.jetbrains.edu.learning.EduConfigurator;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.StudyTaskManager;
+import com.jetbrains.edu.learning.TaskResolveCache;
 import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.Lesson;
 import com.jetbrains.edu.learning.courseFormat.Section;
@@ -92,6 +93,7 @@ public class CCVirtualFileListener implements VirtualFileListener {
       deleteSection(course, removedFile);
       StepikCourseChangeHandler.INSTANCE.contentChanged(course);
     }
+    TaskResolveCache.getInstance(myProject).invalidate();
   }
 
   private static void deleteLesson(@NotNull final Course course, @NotNull final VirtualFile removedLessonFile) {
@@ -136,7 +138,7 @@ public class CCVirtualFileListener implements VirtualFileListener {
       return;
     }
     CCUtils.updateHigherElements(lessonDir.getChildren(), file -> lesson.getTask(file.getName()), task.getIndex(), -1);
-    lesson.getTaskList().remove(task);
+    lesson.removeTask(task);
     StepikCourseChangeHandler.contentChanged(lesson);
     YamlFormatSynchronizer.saveItem(lesson);
   }
@@ -1,30 +1,34 @@
 package com.jetbrains.edu.coursecreator.actions;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import com.intellij.ide.projectView.ProjectView;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.Presentation;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DumbAwareAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.Messages;
-import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.containers.hash.HashMap;
-import com.intellij.util.io.ZipUtil;
 import com.jetbrains.edu.coursecreator.CCUtils;
+import com.jetbrains.edu.coursecreator.settings.CCSettings;
 import com.jetbrains.edu.coursecreator.ui.CCCreateCourseArchiveDialog;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
@@ -35,17 +39,24 @@ import com.jetbrains.edu.learning.courseFormat.tasks.Task;
 import com.jetbrains.edu.learning.serialization.SerializationUtils;
 import com.jetbrains.edu.learning.statistics.EduUsagesCollector;
 import kotlin.collections.ArraysKt;
+import org.apache.commons.codec.binary.Base64;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import static com.jetbrains.edu.learning.EduNames.COURSE_META_FILE;
@@ -55,6 +66,7 @@ public class CCCreateCourseArchive extends DumbAwareAction {
 
   public static final String GENERATE_COURSE_ARCHIVE = "&Generate Course Archive";
   public static final String LAST_ARCHIVE_LOCATION = "Edu.CourseCreator.LastArchiveLocation";
+  private static final String CREATING_COURSE_ARCHIVE = "Creating Course Archive";
 
   private String myZipName;
   private String myLocationDir;
@@ -92,171 +104,365 @@ public class CCCreateCourseArchive extends DumbAwareAction {
     if (dlg.getExitCode() != DialogWrapper.OK_EXIT_CODE) {
       return;
     }
-    boolean isSuccessful = createCourseArchive(project, module, myZipName, myLocationDir, true);
-    if (isSuccessful) {
-      PropertiesComponent.getInstance(project).setValue(LAST_ARCHIVE_LOCATION, myLocationDir);
-      EduUsagesCollector.createdCourseArchive();
-    } else {
-      Messages.showErrorDialog("Can not create archive for current course", "Failed to Create Course Archive");
-    }
+    final Course course = StudyTaskManager.getInstance(project).getCourse();
+    if (course == null) return;
+    FileDocumentManager.getInstance().saveAllDocuments();
+
+    final String locationDir = myLocationDir;
+    final File zipFile = new File(locationDir, myZipName + ".zip");
+    ProgressManager.getInstance().run(new com.intellij.openapi.progress.Task.Backgroundable(project, CREATING_COURSE_ARCHIVE, true) {
+      private boolean myIsSuccessful;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        myIsSuccessful = createCourseArchive(project, course, zipFile, indicator);
+      }
+
+      @Override
+      public void onSuccess() {
+        if (myIsSuccessful) {
+          synchronize(project, zipFile);
+          PropertiesComponent.getInstance(project).setValue(LAST_ARCHIVE_LOCATION, locationDir);
+          EduUsagesCollector.createdCourseArchive();
+          Messages.showInfoMessage("Course archive was saved to " + zipFile.getPath(), "Course Archive Was Created Successfully");
+        }
+        else {
+          Messages.showErrorDialog("Can not create archive for current course", "Failed to Create Course Archive");
+        }
+      }
+    });
   }
 
   /**
+   * Creates course archive under modal progress, must be called from EDT
+   *
    * @return true if course archive was created successfully, false otherwise
    */
-  public static boolean createCourseArchive(final Project project, Module module, String zipName, String locationDir, boolean showMessage) {
+  public static boolean createCourseArchive(final Project project, String zipName, String locationDir) {
     final Course course = StudyTaskManager.getInstance(project).getCourse();
     if (course == null) return false;
-    VirtualFile archiveFolder = CCUtils.generateFolder(project, module, zipName);
-    if (archiveFolder == null) {
-      return false;
-    }
     FileDocumentManager.getInstance().saveAllDocuments();
+    final File zipFile = new File(locationDir, zipName + ".zip");
+    boolean isSuccessful = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+      () -> createCourseArchive(project, course, zipFile, ProgressManager.getInstance().getProgressIndicator()),
+      CREATING_COURSE_ARCHIVE, true, project);
+    if (isSuccessful) {
+      synchronize(project, zipFile);
+    }
+    return isSuccessful;
+  }
 
-    final Ref<Boolean> isCreationSuccessful = Ref.create();
-    ApplicationManager.getApplication().runWriteAction(new Runnable() {
-      @Override
-      public void run() {
-        archiveFolder.refresh(false, true);
-        Course courseCopy = course.copy();
-        replaceAnswerFilesWithTaskFiles(courseCopy);
-        courseCopy.sortItems();
-        createAdditionalFiles(courseCopy);
-        try {
-          generateJson(archiveFolder, courseCopy);
-          VirtualFileManager.getInstance().refreshWithoutFileWatcher(false);
-          packCourse(archiveFolder, locationDir, zipName, showMessage);
-          synchronize(project);
-          isCreationSuccessful.set(true);
-        } catch (IOException e) {
-          LOG.error("Failed to create course archive", e);
-          isCreationSuccessful.set(false);
-        }
+  /**
+   * Creates course archive in background:
+   * <ol>
+   *   <li>snapshot of the course and texts of its files are taken under read action</li>
+   *   <li>answer files are converted to student ones, tests and descriptions are loaded and tasks are serialized in parallel</li>
+   *   <li>course json is streamed directly to the archive</li>
+   * </ol>
+   * All documents are expected to be saved before.
+   *
+   * @return true if course archive was created successfully, false otherwise
+   */
+  private static boolean createCourseArchive(@NotNull Project project,
+                                             @NotNull Course course,
+                                             @NotNull File zipFile,
+                                             @Nullable ProgressIndicator indicator) {
+    try {
+      if (indicator != null) {
+        indicator.setIndeterminate(false);
+        indicator.setText("Collecting course files");
       }
+      final CourseSnapshot snapshot = ReadAction.compute(() -> takeSnapshot(project, course));
+      final Course courseCopy = snapshot.course;
 
-      private void createAdditionalFiles(Course course) {
-        final Lesson lesson = CCUtils.createAdditionalLesson(course, project, EduNames.ADDITIONAL_MATERIALS);
-        if (lesson != null) {
-          course.addLesson(lesson);
-        }
+      final Gson gson = createGson(Collections.emptyMap());
+      final Map<Task, JsonElement> serializedTasks = Collections.synchronizedMap(new IdentityHashMap<>());
+      processTasks(snapshot.tasks, indicator, task -> {
+        prepareTask(project, task);
+        serializedTasks.put(task.task, gson.toJsonTree(task.task, Task.class));
+      });
+
+      courseCopy.sortItems();
+      if (indicator != null) {
+        indicator.checkCanceled();
+        indicator.setText("Collecting additional files");
+      }
+      final Lesson additionalLesson =
+        ReadAction.compute(() -> CCUtils.createAdditionalLesson(courseCopy, project, EduNames.ADDITIONAL_MATERIALS));
+      if (additionalLesson != null) {
+        courseCopy.addLesson(additionalLesson);
       }
 
-      private void replaceAnswerFilesWithTaskFiles(@NotNull Course courseCopy) {
-        courseCopy.visitLessons((lesson) -> {
-          final VirtualFile lessonDir = lesson.getLessonDir(project);
-          if (lessonDir == null) return true;
-          for (Task task : lesson.getTaskList()) {
-            final VirtualFile taskDir = task.getTaskDir(project);
-            if (taskDir == null) continue;
-            convertToStudentTaskFiles(task, taskDir);
-            addTestsToTask(task);
-            addDescriptions(task);
-          }
-          return true;
-        });
+      if (indicator != null) {
+        indicator.checkCanceled();
+        indicator.setText("Writing course archive");
       }
+      packCourse(zipFile, courseCopy, createGson(serializedTasks));
+      return true;
+    }
+    catch (ProcessCanceledException e) {
+      LOG.info("Course archive creation was cancelled");
+      return false;
+    }
+    catch (IOException e) {
+      LOG.error("Failed to create course archive", e);
+      return false;
+    }
+  }
 
-      private void convertToStudentTaskFiles(Task task, VirtualFile taskDir) {
-        final HashMap<String, TaskFile> studentTaskFiles = new HashMap<>();
-        for (Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
-          VirtualFile answerFile = EduUtils.findTaskFileInDir(entry.getValue(), taskDir);
-          if (answerFile == null) {
-            continue;
-          }
-          final TaskFile studentFile = EduUtils.createStudentFile(project, answerFile, task);
-          if (studentFile != null) {
-            studentTaskFiles.put(entry.getKey(), studentFile);
-          }
-        }
-        task.taskFiles = studentTaskFiles;
+  @NotNull
+  private static CourseSnapshot takeSnapshot(@NotNull Project project, @NotNull Course course) {
+    Course courseCopy = course.copy();
+    List<TaskSnapshot> tasks = new ArrayList<>();
+    courseCopy.visitLessons((lesson) -> {
+      final VirtualFile lessonDir = lesson.getLessonDir(project);
+      if (lessonDir == null) return true;
+      for (Task task : lesson.getTaskList()) {
+        final VirtualFile taskDir = task.getTaskDir(project);
+        if (taskDir == null) continue;
+        tasks.add(new TaskSnapshot(project, task, taskDir));
       }
+      return true;
+    });
+    return new CourseSnapshot(courseCopy, tasks);
+  }
 
-      private void addDescriptions(@NotNull final Task task) {
-        VirtualFile descriptionFile = TaskExt.getDescriptionFile(task, project);
+  private interface TaskProcessor {
+    void process(@NotNull TaskSnapshot task) throws IOException;
+  }
 
-        if (descriptionFile != null) {
-          try {
-            task.setDescriptionText(VfsUtilCore.loadText(descriptionFile));
-            String extension = descriptionFile.getExtension();
-            DescriptionFormat descriptionFormat =
-              ArraysKt.firstOrNull(DescriptionFormat.values(), format -> format.getFileExtension().equals(extension));
-            if (descriptionFormat != null) {
-              task.setDescriptionFormat(descriptionFormat);
-            }
-          } catch (IOException e) {
-            LOG.warn("Failed to load text " + descriptionFile.getName());
+  private static void processTasks(@NotNull List<TaskSnapshot> tasks,
+                                   @Nullable ProgressIndicator indicator,
+                                   @NotNull TaskProcessor processor) throws IOException {
+    ExecutorService executor =
+      AppExecutorUtil.createBoundedApplicationPoolExecutor("Course archive creation", Runtime.getRuntime().availableProcessors());
+    AtomicInteger processed = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (TaskSnapshot task : tasks) {
+        futures.add(executor.submit(() -> {
+          if (indicator != null) {
+            indicator.checkCanceled();
           }
-        } else {
-          LOG.warn(String.format("Can't find description file for task `%s`", task.getName()));
-        }
+          processor.process(task);
+          if (indicator != null) {
+            indicator.setFraction((double)processed.incrementAndGet() / tasks.size());
+          }
+          return null;
+        }));
       }
-
-      private void addTestsToTask(Task task) {
-        task.getTestsText().clear();
-        final List<VirtualFile> testFiles = getTestFiles(task, project);
-        for (VirtualFile file : testFiles) {
+      for (Future<?> future : futures) {
+        while (true) {
+          if (indicator != null) {
+            indicator.checkCanceled();
+          }
           try {
-            task.addTestsTexts(file.getName(), VfsUtilCore.loadText(file));
+            future.get(100, TimeUnit.MILLISECONDS);
+            break;
+          }
+          catch (TimeoutException ignored) {
           }
-          catch (IOException e) {
-            LOG.warn("Failed to load text " + file.getName());
+          catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+          }
+          catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException)cause;
+            if (cause instanceof ProcessCanceledException) throw (ProcessCanceledException)cause;
+            throw new IOException(cause);
           }
         }
       }
+    }
+    finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+      executor.shutdownNow();
+    }
+  }
 
-      private List<VirtualFile> getTestFiles(@NotNull Task task, @NotNull Project project) {
-        List<VirtualFile> testFiles = new ArrayList<>();
-        VirtualFile taskDir = task.getTaskDir(project);
-        if (taskDir == null) {
-          return testFiles;
-        }
-        String testDirPath = TaskExt.getTestDir(task);
-        if (StringUtil.isNotEmpty(testDirPath)) {
-          VirtualFile testDir = taskDir.findFileByRelativePath(testDirPath);
-          if (testDir == null) {
-            return testFiles;
-          }
-          testFiles.addAll(Arrays.asList(testDir.getChildren()));
-        } else {
-          testFiles.addAll(Arrays.stream(taskDir.getChildren())
-                             .filter(file -> EduUtils.isTestsFile(project, file))
-                             .collect(Collectors.toList()));
+  private static void prepareTask(@NotNull Project project, @NotNull TaskSnapshot snapshot) {
+    Task task = snapshot.task;
+    final HashMap<String, TaskFile> studentTaskFiles = new HashMap<>();
+    for (AnswerFile answerFile : snapshot.answerFiles) {
+      CharSequence text = answerFile.getText();
+      if (text == null) continue;
+      final TaskFile studentFile = EduUtils.createStudentFile(project, answerFile.pathInTask, text, task);
+      if (studentFile != null) {
+        studentTaskFiles.put(answerFile.key, studentFile);
+      }
+    }
+    task.taskFiles = studentTaskFiles;
+
+    task.getTestsText().clear();
+    for (VirtualFile file : snapshot.testFiles) {
+      try {
+        task.addTestsTexts(file.getName(), VfsUtilCore.loadText(file));
+      }
+      catch (IOException e) {
+        LOG.warn("Failed to load text " + file.getName());
+      }
+    }
+
+    VirtualFile descriptionFile = snapshot.descriptionFile;
+    if (descriptionFile != null) {
+      try {
+        task.setDescriptionText(VfsUtilCore.loadText(descriptionFile));
+        String extension = descriptionFile.getExtension();
+        DescriptionFormat descriptionFormat =
+          ArraysKt.firstOrNull(DescriptionFormat.values(), format -> format.getFileExtension().equals(extension));
+        if (descriptionFormat != null) {
+          task.setDescriptionFormat(descriptionFormat);
         }
-        return testFiles;
+      } catch (IOException e) {
+        LOG.warn("Failed to load text " + descriptionFile.getName());
       }
-    });
+    } else {
+      LOG.warn(String.format("Can't find description file for task `%s`", task.getName()));
+    }
+  }
 
-    return isCreationSuccessful.get();
+  private static List<VirtualFile> getTestFiles(@NotNull Task task, @NotNull VirtualFile taskDir, @NotNull Project project) {
+    List<VirtualFile> testFiles = new ArrayList<>();
+    String testDirPath = TaskExt.getTestDir(task);
+    if (StringUtil.isNotEmpty(testDirPath)) {
+      VirtualFile testDir = taskDir.findFileByRelativePath(testDirPath);
+      if (testDir == null) {
+        return testFiles;
+      }
+      testFiles.addAll(Arrays.asList(testDir.getChildren()));
+    } else {
+      testFiles.addAll(Arrays.stream(taskDir.getChildren())
+                         .filter(file -> EduUtils.isTestsFile(project, file))
+                         .collect(Collectors.toList()));
+    }
+    return testFiles;
   }
 
-  private static void synchronize(@NotNull final Project project) {
-    VirtualFileManager.getInstance().refreshWithoutFileWatcher(true);
+  private static void synchronize(@NotNull final Project project, @NotNull File zipFile) {
+    LocalFileSystem.getInstance().refreshAndFindFileByIoFile(zipFile);
     ProjectView.getInstance(project).refresh();
   }
 
-  private static void packCourse(@NotNull final VirtualFile baseDir, String locationDir,
-                                    String zipName, boolean showMessage) throws IOException {
-    final File zipFile = new File(locationDir, zipName + ".zip");
-    VirtualFile[] courseFiles = baseDir.getChildren();
-    try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))) {
-      for (VirtualFile file : courseFiles) {
-        ZipUtil.addFileOrDirRecursively(zos, null, new File(file.getPath()), file.getName(), null, null);
+  /**
+   * Streams course json directly to the archive. Archive is written to a temp file first, so failed or cancelled
+   * creation doesn't spoil previously created archive
+   */
+  private static void packCourse(@NotNull File zipFile, @NotNull Course course, @NotNull Gson gson) throws IOException {
+    File parentDir = zipFile.getParentFile();
+    if (parentDir != null) {
+      FileUtil.createDirectory(parentDir);
+    }
+    File tempFile = FileUtil.createTempFile(parentDir, zipFile.getName(), ".tmp", true, true);
+    try {
+      try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        zos.putNextEntry(new ZipEntry(COURSE_META_FILE));
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(zos, StandardCharsets.UTF_8));
+        gson.toJson(course, Course.class, writer);
+        writer.flush();
+        zos.closeEntry();
+      }
+      catch (JsonIOException e) {
+        throw e.getCause() instanceof IOException ? (IOException)e.getCause() : new IOException(e);
       }
-      if (showMessage) {
-        ApplicationManager.getApplication().invokeLater(
-          () -> Messages.showInfoMessage("Course archive was saved to " + zipFile.getPath(),
-                                         "Course Archive Was Created Successfully"));
+      Files.move(tempFile.toPath(), zipFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally {
+      FileUtil.delete(tempFile);
+    }
+  }
 
+  /**
+   * @param serializedTasks tasks already converted to json, they are written as is
+   */
+  @NotNull
+  private static Gson createGson(@NotNull Map<Task, JsonElement> serializedTasks) {
+    GsonBuilder builder = new GsonBuilder();
+    if (!CCSettings.getInstance().useCompactJsonInArchive()) {
+      builder.setPrettyPrinting();
+    }
+    SerializationUtils.Json.TaskAdapter taskAdapter = new SerializationUtils.Json.TaskAdapter();
+    return builder.excludeFieldsWithoutExposeAnnotation()
+      .registerTypeAdapter(StudyItem.class, new SerializationUtils.Json.LessonSectionAdapter())
+      .registerTypeAdapter(Task.class, new JsonSerializer<Task>() {
+        @Override
+        public JsonElement serialize(Task src, Type typeOfSrc, JsonSerializationContext context) {
+          JsonElement serialized = serializedTasks.get(src);
+          return serialized != null ? serialized : taskAdapter.serialize(src, typeOfSrc, context);
+        }
+      })
+      .create();
+  }
+
+  private static class CourseSnapshot {
+    private final Course course;
+    private final List<TaskSnapshot> tasks;
+
+    CourseSnapshot(@NotNull Course course, @NotNull List<TaskSnapshot> tasks) {
+      this.course = course;
+      this.tasks = tasks;
+    }
+  }
+
+  /**
+   * Files of the task collected under read action
+   */
+  private static class TaskSnapshot {
+    private final Task task;
+    private final List<AnswerFile> answerFiles = new ArrayList<>();
+    private final List<VirtualFile> testFiles;
+    @Nullable private final VirtualFile descriptionFile;
+
+    TaskSnapshot(@NotNull Project project, @NotNull Task task, @NotNull VirtualFile taskDir) {
+      this.task = task;
+      for (Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
+        VirtualFile file = EduUtils.findTaskFileInDir(entry.getValue(), taskDir);
+        if (file == null) continue;
+        String pathInTask = EduUtils.pathRelativeToTask(project, file);
+        if (EduUtils.isImage(file.getName())) {
+          answerFiles.add(new AnswerFile(entry.getKey(), pathInTask, file, null));
+        }
+        else {
+          Document document = FileDocumentManager.getInstance().getDocument(file);
+          if (document != null) {
+            answerFiles.add(new AnswerFile(entry.getKey(), pathInTask, null, document.getImmutableCharSequence()));
+          }
+        }
       }
+      testFiles = getTestFiles(task, taskDir, project);
+      descriptionFile = TaskExt.getDescriptionFile(task, project);
     }
   }
 
-  public static void generateJson(VirtualFile parentDir, Course course) throws IOException {
-    final Gson gson = new GsonBuilder().setPrettyPrinting().excludeFieldsWithoutExposeAnnotation().
-      registerTypeAdapter(StudyItem.class, new SerializationUtils.Json.LessonSectionAdapter()).
-      registerTypeAdapter(Task.class, new SerializationUtils.Json.TaskAdapter()).create();
-    final String json = gson.toJson(course);
-    final VirtualFile courseJsonFile = parentDir.findOrCreateChildData(CCCreateCourseArchive.class, COURSE_META_FILE);
-    VfsUtil.saveText(courseJsonFile, json);
+  private static class AnswerFile {
+    private final String key;
+    private final String pathInTask;
+    @Nullable private final VirtualFile image;
+    @Nullable private final CharSequence text;
+
+    AnswerFile(@NotNull String key, @NotNull String pathInTask, @Nullable VirtualFile image, @Nullable CharSequence text) {
+      this.key = key;
+      this.pathInTask = pathInTask;
+      this.image = image;
+      this.text = text;
+    }
+
+    /**
+     * @return text of the answer file, content of images is encoded with Base64
+     */
+    @Nullable
+    CharSequence getText() {
+      if (image == null) {
+        return text;
+      }
+      try {
+        return Base64.encodeBase64String(image.contentsToByteArray());
+      }
+      catch (IOException e) {
+        LOG.error("Failed to convert answer file to student one");
+        return null;
+      }
+    }
   }
 }
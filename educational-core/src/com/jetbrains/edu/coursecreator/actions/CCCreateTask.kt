@@ -56,7 +56,7 @@ open class CCCreateTask : CCCreateStudyItemActionBase<Task>(EduNames.TASK, Educa
 
   override fun sortSiblings(course: Course, parentItem: StudyItem?) {
     if (parentItem is Lesson) {
-      Collections.sort(parentItem.getTaskList(), EduUtils.INDEX_COMPARATOR)
+      parentItem.sortTasks()
     }
   }
 
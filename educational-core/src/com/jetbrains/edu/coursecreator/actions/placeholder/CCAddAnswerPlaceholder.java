@@ -85,7 +85,7 @@ public class CCAddAnswerPlaceholder extends CCAnswerPlaceholderAction {
     public void performUndo() {
       final List<AnswerPlaceholder> answerPlaceholders = getTaskFile().getAnswerPlaceholders();
       if (answerPlaceholders.contains(myPlaceholder)) {
-        answerPlaceholders.remove(myPlaceholder);
+        getTaskFile().removeAnswerPlaceholder(myPlaceholder);
         NewPlaceholderPainter.removePainter(getEditor(), myPlaceholder);
       }
     }
@@ -103,7 +103,9 @@ public class CCDeleteAllAnswerPlaceholdersAction extends DumbAwareAction {
 
     @Override
     public void performUndo() {
-      myTaskFile.getAnswerPlaceholders().addAll(myPlaceholders);
+      for (AnswerPlaceholder placeholder : myPlaceholders) {
+        myTaskFile.addAnswerPlaceholder(placeholder);
+      }
       updateView(myEditor, myTaskFile);
     }
 
@@ -13,6 +13,7 @@ import com.intellij.openapi.project.DumbAwareAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.jetbrains.edu.coursecreator.CCUtils;
+import com.jetbrains.edu.coursecreator.stepik.StepikPushReport;
 import com.jetbrains.edu.learning.StudyTaskManager;
 import com.jetbrains.edu.learning.courseFormat.*;
 import com.jetbrains.edu.learning.courseFormat.ext.CourseExt;
@@ -21,6 +22,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 import static com.jetbrains.edu.coursecreator.stepik.CCStepikConnector.*;
 
@@ -77,7 +79,8 @@ public class CCPushCourse extends DumbAwareAction {
         public void run(@NotNull ProgressIndicator indicator) {
           indicator.setIndeterminate(false);
           if (updateCourseInfo(project, (RemoteCourse) course)) {
-            updateCourseContent(indicator, course, project);
+            final StepikPushReport report = new StepikPushReport();
+            updateCourseContent(course, project, report);
             setStatusRecursively(course, StepikChangeStatus.UP_TO_DATE);
             try {
               updateAdditionalMaterials(project, course.getId());
@@ -85,8 +88,8 @@ public class CCPushCourse extends DumbAwareAction {
             catch (IOException e1) {
               LOG.warn(e1);
             }
-            showNotification(project, "Course is updated", openOnStepikAction("/course/" + course.getId())
-            );
+            LOG.info("Course is updated: " + report.getDetails());
+            showNotification(project, "Course is updated", report.getSummary(), openOnStepikAction("/course/" + course.getId()));
           }
         }
       });
@@ -108,7 +111,7 @@ public class CCPushCourse extends DumbAwareAction {
     return false;
   }
 
-  private static void updateCourseContent(@NotNull ProgressIndicator indicator, Course course, Project project) {
+  private static void updateCourseContent(Course course, Project project, @NotNull StepikPushReport report) {
     if (!((RemoteCourse)course).getSectionIds().isEmpty() && course.getLessons().isEmpty()) {
       deleteSection(project, ((RemoteCourse)course).getSectionIds().get(0));
       ((RemoteCourse)course).setSectionIds(Collections.emptyList());
@@ -118,23 +121,17 @@ public class CCPushCourse extends DumbAwareAction {
     for (Section section : course.getSections()) {
       section.setPosition(position++);
       if (section.getId() > 0) {
-        updateSection(project, section);
+        updateSection(project, section, report);
       }
       else {
-        postSection(project, section, indicator);
+        postSection(project, section, report);
         updateAdditionalSection(project);
       }
     }
 
-    for (Lesson lesson : course.getLessons()) {
-      if (lesson.getId() > 0) {
-        updateLesson(project, lesson, false);
-      }
-      else {
-        int lessonId = postLesson(project, lesson);
-        Integer sectionId = ((RemoteCourse)course).getSectionIds().get(0);
-        lesson.unitId = postUnit(lessonId, lesson.getIndex(), sectionId, project);
-      }
+    final List<Lesson> lessons = course.getLessons();
+    if (!lessons.isEmpty()) {
+      updateLessons(project, lessons, ((RemoteCourse)course).getSectionIds().get(0), report);
     }
   }
 
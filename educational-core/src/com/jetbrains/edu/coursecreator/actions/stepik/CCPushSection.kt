@@ -10,6 +10,7 @@ import com.intellij.openapi.project.DumbAwareAction
 import com.intellij.openapi.project.Project
 import com.jetbrains.edu.coursecreator.CCUtils
 import com.jetbrains.edu.coursecreator.stepik.CCStepikConnector
+import com.jetbrains.edu.coursecreator.stepik.StepikPushReport
 import com.jetbrains.edu.learning.StudyTaskManager
 import com.jetbrains.edu.learning.courseFormat.RemoteCourse
 import com.jetbrains.edu.learning.courseFormat.Section
@@ -101,7 +102,7 @@ class CCPushSection : DumbAwareAction("Update Section on Stepik", "Update Sectio
           }
           else {
             section.position = sectionPosition(course, section.name)
-            CCStepikConnector.postSection(project, section, indicator)
+            CCStepikConnector.postSection(project, section, StepikPushReport())
             CCStepikConnector.updateAdditionalSection(project)
             if (section.position < course.sections.size) {
               updateSectionsPositions(project, course.sections.slice(IntRange(section.position, course.sections.size - 1)),
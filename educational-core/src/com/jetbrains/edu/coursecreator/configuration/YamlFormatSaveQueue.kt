@@ -0,0 +1,174 @@
+package com.jetbrains.edu.coursecreator.configuration
+
+import com.intellij.AppTopics
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.FileDocumentManagerAdapter
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.project.ProjectManagerListener
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.Alarm
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.containers.ContainerUtil
+import com.jetbrains.edu.learning.courseFormat.StudyItem
+import org.jetbrains.annotations.TestOnly
+import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Write-behind queue for yaml configs of study items.
+ *
+ * Scheduled items are coalesced and saved once there were no new requests for [SAVE_DELAY_MS],
+ * before documents are saved and on project closing. Items are serialized in parallel off EDT,
+ * then all changed configs are written in a single write action. Configs which content wasn't changed are not touched.
+ */
+class YamlFormatSaveQueue(private val project: Project) : Disposable {
+  private val lock = Any()
+  private val pendingItems: MutableSet<StudyItem> = Collections.newSetFromMap(IdentityHashMap())
+  // items taken by background flush which aren't written yet, synchronous flush saves them itself
+  private val inFlightItems: MutableSet<StudyItem> = Collections.newSetFromMap(IdentityHashMap())
+  private val alarm = Alarm(Alarm.ThreadToUse.POOLED_THREAD, this)
+  private val serializationExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Yaml config serialization",
+                                                                                          Runtime.getRuntime().availableProcessors())
+  // hash of text written to config and document modification stamp after write
+  private val writtenConfigs = ContainerUtil.createConcurrentWeakMap<VirtualFile, Pair<Int, Long>>()
+  // incremented on each synchronous flush, so configs serialized in background before it are known to be outdated
+  private val syncFlushCount = AtomicLong()
+
+  init {
+    val connection = ApplicationManager.getApplication().messageBus.connect(this)
+    connection.subscribe(AppTopics.FILE_DOCUMENT_SYNC, object : FileDocumentManagerAdapter() {
+      override fun beforeAllDocumentsSaving() = flushNow()
+    })
+    connection.subscribe(ProjectManager.TOPIC, object : ProjectManagerListener {
+      override fun projectClosing(closingProject: Project) {
+        if (closingProject == project) {
+          flushNow()
+        }
+      }
+    })
+  }
+
+  fun schedule(items: Collection<StudyItem>, delayMs: Int = SAVE_DELAY_MS) {
+    if (items.isEmpty()) return
+    synchronized(lock) {
+      pendingItems.addAll(items)
+    }
+    alarm.cancelAllRequests()
+    alarm.addRequest({ flush() }, delayMs)
+  }
+
+  /**
+   * Saves given items and all pending ones on current thread
+   */
+  fun saveNow(items: Collection<StudyItem>) {
+    synchronized(lock) {
+      pendingItems.addAll(items)
+    }
+    flushNow()
+  }
+
+  private fun flushNow() {
+    alarm.cancelAllRequests()
+    val items = synchronized(lock) {
+      // background flush which has already taken in-flight items skips writing them when the count is changed
+      syncFlushCount.incrementAndGet()
+      val items = ArrayList(pendingItems)
+      items.addAll(inFlightItems.filter { it !in pendingItems })
+      pendingItems.clear()
+      inFlightItems.clear()
+      items
+    }
+    if (items.isEmpty() || project.isDisposed) return
+    write(items.mapNotNull { ReadAction.compute<SerializedConfig?, RuntimeException> { serialize(it) } })
+  }
+
+  private fun flush() {
+    val (items, flushCount) = synchronized(lock) {
+      val items = ArrayList(pendingItems)
+      pendingItems.clear()
+      inFlightItems.addAll(items)
+      items to syncFlushCount.get()
+    }
+    if (items.isEmpty() || project.isDisposed) return
+    val jobs = items.map { item -> Callable { ReadAction.compute<SerializedConfig?, RuntimeException> { serialize(item) } } }
+    val configs = serializationExecutor.invokeAll(jobs).mapNotNull {
+      try {
+        it.get()
+      }
+      catch (e: ExecutionException) {
+        LOG.error(e.cause ?: e)
+        null
+      }
+    }
+    // items stay in flight until they're written, so they're saved by synchronous flush if the project is closed before that
+    ApplicationManager.getApplication().invokeLater({
+      synchronized(lock) {
+        if (flushCount != syncFlushCount.get()) return@invokeLater
+        inFlightItems.removeAll(items)
+      }
+      write(configs)
+    }, project.disposed)
+  }
+
+  @TestOnly
+  fun getPendingCount(): Int = synchronized(lock) { pendingItems.size }
+
+  @TestOnly
+  fun getInFlightCount(): Int = synchronized(lock) { inFlightItems.size }
+
+  private fun serialize(item: StudyItem): SerializedConfig? {
+    if (project.isDisposed) return null
+    val dir = item.getDir(project)
+    if (dir == null || !dir.isValid) {
+      // item can be removed while its config is waiting to be saved
+      LOG.warn("Failed to save ${item.javaClass.name} '${item.name}' to config file: directory not found")
+      return null
+    }
+    return SerializedConfig(item, dir, YamlFormatSynchronizer.getConfigFileName(item), YamlFormatSynchronizer.MAPPER.writeValueAsString(item))
+  }
+
+  private fun write(configs: List<SerializedConfig>) {
+    if (configs.isEmpty()) return
+    runWriteAction {
+      for (config in configs) {
+        if (!config.dir.isValid) continue
+        val hash = config.text.hashCode()
+        val existingFile = config.dir.findChild(config.fileName)
+        if (existingFile != null && writtenConfigs[existingFile] == (hash to existingFile.getDocument()?.modificationStamp)) continue
+
+        val file = existingFile ?: config.dir.findOrCreateChildData(YamlFormatSaveQueue::class.java, config.fileName)
+        val document = file.getDocument() ?: continue
+        if (!StringUtil.equals(document.immutableCharSequence, config.text)) {
+          document.setText(config.text)
+        }
+        writtenConfigs[file] = hash to document.modificationStamp
+      }
+    }
+  }
+
+  private fun VirtualFile.getDocument() = FileDocumentManager.getInstance().getDocument(this)
+
+  override fun dispose() {
+    serializationExecutor.shutdownNow()
+  }
+
+  private class SerializedConfig(val item: StudyItem, val dir: VirtualFile, val fileName: String, val text: String)
+
+  companion object {
+    private val LOG = Logger.getInstance(YamlFormatSaveQueue::class.java)
+    private const val SAVE_DELAY_MS = 500
+
+    @JvmStatic
+    fun getInstance(project: Project): YamlFormatSaveQueue = ServiceManager.getService(project, YamlFormatSaveQueue::class.java)
+  }
+}
@@ -4,7 +4,7 @@ import com.intellij.openapi.application.Experiments
 
 
 object YamlFormatSettings {
-  private const val FEATURE_ID = "edu.course.creator.yaml"
+  const val FEATURE_ID = "edu.course.creator.yaml"
 
   const val COURSE_CONFIG = "course-info.yaml"
   const val SECTION_CONFIG = "section-info.yaml"
@@ -10,8 +10,6 @@ import com.fasterxml.jackson.module.kotlin.registerKotlinModule
 import com.google.common.annotations.VisibleForTesting
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.diagnostic.Logger
-import com.intellij.openapi.editor.Document
-import com.intellij.openapi.fileEditor.FileDocumentManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import com.jetbrains.edu.coursecreator.configuration.YamlFormatSettings.COURSE_CONFIG
@@ -57,8 +55,9 @@ object YamlFormatSynchronizer {
     mapper.addMixIn(AnswerPlaceholderDependency::class.java, AnswerPlaceholderDependencyYamlMixin::class.java)
   }
 
-  private fun VirtualFile.getDocument(): Document? = FileDocumentManager.getInstance().getDocument(this)
-
+  /**
+   * Schedules saving of item config, see [YamlFormatSaveQueue]. Config is saved immediately in unit test mode
+   */
   @JvmStatic
   fun saveItem(item: StudyItem) {
     if (YamlFormatSettings.isDisabled()) {
@@ -73,41 +72,51 @@ object YamlFormatSynchronizer {
       LOG.info("Failed to find project for course")
       return
     }
-    val fileName = when (item) {
-      is Course -> COURSE_CONFIG
-      is Section -> SECTION_CONFIG
-      is Lesson -> LESSON_CONFIG
-      is Task -> TASK_CONFIG
-      else -> error("Unknown StudyItem type: ${item.javaClass.name}")
-    }
-    val dir = item.getDir(project)
-    if (dir == null) {
-      LOG.error("Failed to save ${item.javaClass.name} '${item.name}' to config file: directory not found")
-      return
+    val queue = YamlFormatSaveQueue.getInstance(project)
+    if (ApplicationManager.getApplication().isUnitTestMode) {
+      queue.saveNow(listOf(item))
     }
-    ApplicationManager.getApplication().runWriteAction {
-      val file = dir.findOrCreateChildData(YamlFormatSynchronizer.javaClass, fileName)
-      val document = file.getDocument() ?: return@runWriteAction
-      document.setText(MAPPER.writeValueAsString(item))
+    else {
+      queue.schedule(listOf(item))
     }
   }
 
   @JvmStatic
   fun saveAll(project: Project) {
+    if (YamlFormatSettings.isDisabled()) {
+      return
+    }
     val course = StudyTaskManager.getInstance(project).course
     if (course == null) {
       LOG.error("Attempt to create config files for project without course")
       return
     }
-    saveItem(course)
-    course.visitSections(SectionVisitor { section -> saveItem(section) })
+    if (course.isStudy) {
+      return
+    }
+    val items = ArrayList<StudyItem>()
+    items.add(course)
+    course.visitSections(SectionVisitor { section -> items.add(section) })
     course.visitLessons(LessonVisitor { lesson ->
-      for (task in lesson.getTaskList()) {
-        saveItem(task)
-      }
-      saveItem(lesson)
+      items.addAll(lesson.getTaskList())
+      items.add(lesson)
       true
     })
+    val queue = YamlFormatSaveQueue.getInstance(project)
+    if (ApplicationManager.getApplication().isUnitTestMode) {
+      queue.saveNow(items)
+    }
+    else {
+      queue.schedule(items, 0)
+    }
+  }
+
+  fun getConfigFileName(item: StudyItem): String = when (item) {
+    is Course -> COURSE_CONFIG
+    is Section -> SECTION_CONFIG
+    is Lesson -> LESSON_CONFIG
+    is Task -> TASK_CONFIG
+    else -> error("Unknown StudyItem type: ${item.javaClass.name}")
   }
 
   @JvmStatic
@@ -24,6 +24,7 @@ import com.jetbrains.edu.coursecreator.ui.CCMoveStudyItemDialog;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.StudyTaskManager;
+import com.jetbrains.edu.learning.TaskResolveCache;
 import com.jetbrains.edu.learning.courseFormat.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -145,6 +146,7 @@ public class CCLessonMoveHandlerDelegate extends MoveHandlerDelegate {
         }
       }
     });
+    TaskResolveCache.getInstance(project).invalidate();
     ProjectView.getInstance(project).refresh();
     YamlFormatSynchronizer.saveItem(targetContainer);
     YamlFormatSynchronizer.saveItem(sourceContainer);
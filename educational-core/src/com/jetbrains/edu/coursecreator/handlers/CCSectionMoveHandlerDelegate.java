@@ -22,6 +22,7 @@ import com.jetbrains.edu.coursecreator.ui.CCMoveStudyItemDialog;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.StudyTaskManager;
+import com.jetbrains.edu.learning.TaskResolveCache;
 import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.Section;
 import com.jetbrains.edu.learning.courseFormat.StudyItem;
@@ -99,6 +100,7 @@ public class CCSectionMoveHandlerDelegate extends MoveHandlerDelegate {
     sourceSection.setIndex(newItemIndex);
     StepikCourseChangeHandler.infoChanged(sourceSection);
     course.sortItems();
+    TaskResolveCache.getInstance(project).invalidate();
     ProjectView.getInstance(project).refresh();
     YamlFormatSynchronizer.saveItem(course);
   }
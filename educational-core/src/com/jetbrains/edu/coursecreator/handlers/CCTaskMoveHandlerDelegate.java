@@ -24,6 +24,7 @@ import com.jetbrains.edu.coursecreator.ui.CCMoveStudyItemDialog;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.StudyTaskManager;
+import com.jetbrains.edu.learning.TaskResolveCache;
 import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.Lesson;
 import com.jetbrains.edu.learning.courseFormat.StudyItem;
@@ -32,7 +33,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 
 public class CCTaskMoveHandlerDelegate extends MoveHandlerDelegate {
@@ -132,6 +132,7 @@ public class CCTaskMoveHandlerDelegate extends MoveHandlerDelegate {
       YamlFormatSynchronizer.saveItem(sourceLesson);
       YamlFormatSynchronizer.saveItem(targetTask.getLesson());
     }
+    TaskResolveCache.getInstance(project).invalidate();
     ProjectView.getInstance(project).refresh();
   }
 
@@ -159,14 +160,14 @@ public class CCTaskMoveHandlerDelegate extends MoveHandlerDelegate {
 
     final int newItemIndex = targetTask != null ? targetTask.getIndex() + indexDelta : 1;
     taskToMove.setIndex(-1);
-    taskToMove.getLesson().getTaskList().remove(taskToMove);
+    taskToMove.getLesson().removeTask(taskToMove);
     final Lesson finalTargetLesson = targetLesson;
     CCUtils.updateHigherElements(targetDirectory.getChildren(), file -> finalTargetLesson.getTask(file.getName()), newItemIndex - 1, 1);
 
     taskToMove.setIndex(newItemIndex);
     taskToMove.setLesson(targetLesson);
-    targetLesson.getTaskList().add(taskToMove);
-    Collections.sort(targetLesson.getTaskList(), EduUtils.INDEX_COMPARATOR);
+    targetLesson.addTask(taskToMove);
+    targetLesson.sortTasks();
     ApplicationManager.getApplication().runWriteAction(new Runnable() {
       @Override
       public void run() {
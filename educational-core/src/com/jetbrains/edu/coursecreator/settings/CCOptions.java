@@ -11,6 +11,7 @@ import javax.swing.*;
 public class CCOptions implements OptionsProvider {
   private JRadioButton myHtmlRadioButton;
   private JRadioButton myMarkdownRadioButton;
+  private JCheckBox myCompactJsonCheckBox;
   private JPanel myPanel;
 
   @Nullable
@@ -27,19 +28,22 @@ public class CCOptions implements OptionsProvider {
       IdeFocusManager.getGlobalInstance().doWhenFocusSettlesDown(
         () -> IdeFocusManager.getGlobalInstance().requestFocus(myMarkdownRadioButton, true));
     }
+    myCompactJsonCheckBox.setSelected(CCSettings.getInstance().useCompactJsonInArchive());
     return myPanel;
   }
 
   @Override
   public boolean isModified() {
-    final boolean htmlAsDefaultTaskFormat = CCSettings.getInstance().useHtmlAsDefaultTaskFormat();
-    return myHtmlRadioButton.isSelected() != htmlAsDefaultTaskFormat;
+    final CCSettings settings = CCSettings.getInstance();
+    return myHtmlRadioButton.isSelected() != settings.useHtmlAsDefaultTaskFormat() ||
+           myCompactJsonCheckBox.isSelected() != settings.useCompactJsonInArchive();
   }
 
   @Override
   public void apply() {
     if (isModified()) {
       CCSettings.getInstance().setUseHtmlAsDefaultTaskFormat(myHtmlRadioButton.isSelected());
+      CCSettings.getInstance().setUseCompactJsonInArchive(myCompactJsonCheckBox.isSelected());
     }
   }
 
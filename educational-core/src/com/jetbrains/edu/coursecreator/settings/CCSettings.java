@@ -13,6 +13,7 @@ public class CCSettings implements PersistentStateComponent<CCSettings.State> {
 
   public static class State {
     public boolean isHtmlDefault = true;
+    public boolean useCompactJsonInArchive = false;
   }
   @Nullable
   @Override
@@ -33,6 +34,14 @@ public class CCSettings implements PersistentStateComponent<CCSettings.State> {
     myState.isHtmlDefault = useHtml;
   }
 
+  public boolean useCompactJsonInArchive() {
+    return myState.useCompactJsonInArchive;
+  }
+
+  public void setUseCompactJsonInArchive(final boolean useCompactJson) {
+    myState.useCompactJsonInArchive = useCompactJson;
+  }
+
   public static CCSettings getInstance() {
     return ServiceManager.getService(CCSettings.class);
   }
@@ -10,6 +10,7 @@ import com.intellij.notification.NotificationType;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.progress.ProgressIndicator;
@@ -47,11 +48,12 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.event.HyperlinkEvent;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.jetbrains.edu.learning.EduUtils.showOAuthDialog;
@@ -62,6 +64,10 @@ public class CCStepikConnector {
   private static final String JETBRAINS_USER_ID = "17813950";
   private static final List<Integer> TESTER_USER_IDS = Lists.newArrayList(17869355);
   private static final String PUSH_COURSE_GROUP_ID = "Push.course";
+  private static final String PUSH_PARALLELISM_PROPERTY = "edu.stepik.push.parallelism";
+  /** Max number of lessons or steps pushed at once, requests are additionally limited by {@link StepikIoScheduler} */
+  private static final int PUSH_PARALLELISM = Math.max(1, Integer.getInteger(PUSH_PARALLELISM_PROPERTY, 4));
+  private static final Gson STEP_SOURCE_GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
 
   private CCStepikConnector() {
   }
@@ -122,7 +128,7 @@ public class CCStepikConnector {
         LOG.warn("Http client is null");
         return;
       }
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -144,13 +150,14 @@ public class CCStepikConnector {
       if (!ApplicationManager.getApplication().isInternal() && !isTestAccount(currentUser)) {
         addJetBrainsUserAsAdmin(client, getAdminsGroupId(responseString));
       }
+      final StepikPushReport report = new StepikPushReport();
       int sectionCount;
       if (CourseExt.getHasSections(course)) {
-        sectionCount = postSections(project, courseOnRemote);
+        sectionCount = postSections(project, courseOnRemote, report);
       }
       else {
         sectionCount = 1;
-        postTopLevelLessons(project, courseOnRemote);
+        postTopLevelLessons(project, courseOnRemote, report);
       }
 
       ApplicationManager.getApplication().invokeAndWait(() -> FileDocumentManager.getInstance().saveAllDocuments());
@@ -158,7 +165,8 @@ public class CCStepikConnector {
       StudyTaskManager.getInstance(project).setCourse(courseOnRemote);
       courseOnRemote.init(null, null, true);
       courseOnRemote.setUpdated();
-      showNotification(project, "Course is published", openOnStepikAction("/course/" + courseOnRemote.getId()));
+      LOG.info("Course is published: " + report.getDetails());
+      showNotification(project, "Course is published", report.getSummary(), openOnStepikAction("/course/" + courseOnRemote.getId()));
     }
     catch (IOException e) {
       LOG.error(e.getMessage());
@@ -179,7 +187,7 @@ public class CCStepikConnector {
     HttpPost post = new HttpPost(StepikNames.STEPIK_API_URL + StepikNames.MEMBERS);
     post.setEntity(new StringEntity(object.toString(), ContentType.APPLICATION_JSON));
     try {
-      final CloseableHttpResponse response = client.execute(post);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, post);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -210,10 +218,10 @@ public class CCStepikConnector {
     });
   }
 
-  private static int postSections(@NotNull Project project, @NotNull RemoteCourse course) {
-    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+  private static int postSections(@NotNull Project project, @NotNull RemoteCourse course, @NotNull StepikPushReport report) {
     course.sortItems();
     final List<StudyItem> items = course.getItems();
+    final List<LessonUnit> units = new ArrayList<>();
     int i = 1;
     for (StudyItem item : items) {
       Section section = new Section();
@@ -221,54 +229,75 @@ public class CCStepikConnector {
       section.setName(item.getName());
       List<Lesson> lessons = ((Section)item).getLessons();
 
+      final long start = System.currentTimeMillis();
       final int sectionId = postModule(project, section, course.getId());
+      report.add("Section '" + section.getName() + "'", sectionId > 0 ? StepikPushReport.Action.POSTED : StepikPushReport.Action.FAILED, start);
       ((Section)item).setId(sectionId);
 
-      postLessons(project, indicator, course, sectionId, lessons);
+      units.addAll(createUnits(lessons, sectionId));
     }
+    // lessons of all sections are independent from each other, so they're posted together
+    postLessons(project, units, report);
     return items.size();
   }
 
-  private static void postTopLevelLessons(@NotNull Project project, @NotNull RemoteCourse course) {
-    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+  private static void postTopLevelLessons(@NotNull Project project, @NotNull RemoteCourse course, @NotNull StepikPushReport report) {
     Section section = new Section();
     section.setName(course.getName());
     section.setPosition(1);
     final int sectionId = postModule(project, section, course.getId());
     course.setSectionIds(Collections.singletonList(sectionId));
-    postLessons(project, indicator, course, sectionId, course.getLessons());
+    postLessons(project, createUnits(course.getLessons(), sectionId), report);
   }
 
-  public static int postSection(@NotNull Project project, @NotNull Section section, @Nullable ProgressIndicator indicator) {
+  public static int postSection(@NotNull Project project, @NotNull Section section, @NotNull StepikPushReport report) {
     RemoteCourse course = (RemoteCourse)StudyTaskManager.getInstance(project).getCourse();
     assert course != null;
+    final long start = System.currentTimeMillis();
     final int sectionId = postModule(project, copySection(section), course.getId());
+    report.add("Section '" + section.getName() + "'", sectionId > 0 ? StepikPushReport.Action.POSTED : StepikPushReport.Action.FAILED, start);
     section.setId(sectionId);
-    postLessons(project, indicator, course, sectionId, section.getLessons());
+    postLessons(project, createUnits(section.getLessons(), sectionId), report);
 
     return sectionId;
   }
 
   public static boolean updateSection(@NotNull Project project, @NotNull Section section) {
+    return updateSection(project, section, new StepikPushReport());
+  }
+
+  public static boolean updateSection(@NotNull Project project, @NotNull Section section, @NotNull StepikPushReport report) {
     RemoteCourse course = (RemoteCourse)StudyTaskManager.getInstance(project).getCourse();
     assert course != null;
     section.setCourseId(course.getId());
+    final long start = System.currentTimeMillis();
     boolean updated = updateSectionInfo(project, section);
+    report.add("Section '" + section.getName() + "'", updated ? StepikPushReport.Action.UPDATED : StepikPushReport.Action.FAILED, start);
     if (updated) {
-      for (Lesson lesson : section.getLessons()) {
-        if (lesson.getId() > 0) {
-          updateLesson(project, lesson, false);
-        }
-        else {
-          postLesson(project, lesson);
-          lesson.unitId = postUnit(lesson.getId(), lesson.getIndex(), section.getId(), project);
-        }
-      }
+      updateLessons(project, section.getLessons(), section.getId(), report);
     }
 
     return updated;
   }
 
+  /**
+   * Updates already pushed lessons and posts new ones, lessons are pushed concurrently
+   */
+  public static void updateLessons(@NotNull Project project,
+                                   @NotNull List<Lesson> lessons,
+                                   int sectionId,
+                                   @NotNull StepikPushReport report) {
+    pushConcurrently(lessons, lesson -> {
+      if (lesson.getId() > 0) {
+        updateLesson(project, lesson, false, report);
+      }
+      else {
+        final int lessonId = postLesson(project, lesson, report);
+        lesson.unitId = postUnit(lessonId, lesson.getIndex(), sectionId, project);
+      }
+    });
+  }
+
   private static Section copySection(@NotNull Section section) {
     Section sectionToPost = new Section();
     sectionToPost.setName(section.getName());
@@ -279,24 +308,54 @@ public class CCStepikConnector {
     return sectionToPost;
   }
 
-  private static void postLessons(@NotNull Project project,
-                                  @Nullable ProgressIndicator indicator,
-                                  RemoteCourse course,
-                                  int sectionId,
-                                  List<Lesson> lessons) {
+  @NotNull
+  private static List<LessonUnit> createUnits(@NotNull List<Lesson> lessons, int sectionId) {
+    final List<LessonUnit> units = new ArrayList<>(lessons.size());
     int position = 1;
     for (Lesson lesson : lessons) {
+      units.add(new LessonUnit(lesson, sectionId, position++));
+    }
+    return units;
+  }
+
+  private static void postLessons(@NotNull Project project, @NotNull List<LessonUnit> units, @NotNull StepikPushReport report) {
+    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    final AtomicInteger postedCount = new AtomicInteger();
+    pushConcurrently(units, unit -> {
       if (indicator != null) {
-        indicator.checkCanceled();
-        indicator.setText2("Publishing lesson " + lesson.getIndex());
+        indicator.setText2("Publishing lesson " + unit.lesson.getName());
       }
-      final int lessonId = postLesson(project, lesson);
-      lesson.unitId = postUnit(lessonId, position, sectionId, project);
+      final int lessonId = postLesson(project, unit.lesson, report);
+      unit.lesson.unitId = postUnit(lessonId, unit.position, unit.sectionId, project);
       if (indicator != null) {
-        indicator.setFraction((double)lesson.getIndex() / course.getLessons().size());
-        indicator.checkCanceled();
+        indicator.setFraction((double)postedCount.incrementAndGet() / units.size());
       }
-      position += 1;
+    });
+  }
+
+  /**
+   * Pushes {@code items} by at most {@link #PUSH_PARALLELISM} workers at once.
+   * Workers are executed by {@link StepikIoScheduler} and take items from the shared queue until it's empty.
+   */
+  private static <T> void pushConcurrently(@NotNull List<T> items, @NotNull Consumer<T> push) {
+    if (items.isEmpty()) return;
+    final Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+    final List<Callable<Void>> workers = new ArrayList<>();
+    for (int i = 0; i < Math.min(PUSH_PARALLELISM, items.size()); i++) {
+      workers.add(() -> {
+        T item;
+        while ((item = queue.poll()) != null) {
+          ProgressManager.checkCanceled();
+          push.accept(item);
+        }
+        return null;
+      });
+    }
+    try {
+      StepikIoScheduler.getInstance().invokeAll(StepikIoScheduler.Priority.NORMAL, workers);
+    }
+    catch (IOException e) {
+      LOG.error(e);
     }
   }
 
@@ -356,7 +415,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return lessonId;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -398,7 +457,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -426,7 +485,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return -1;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -458,7 +517,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return false;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -479,56 +538,83 @@ public class CCStepikConnector {
 
   public static boolean updateTask(@NotNull final Project project, @NotNull final Task task) {
     if (!checkIfAuthorized(project, "update task")) return false;
-    final Lesson lesson = task.getLesson();
-    final int lessonId = lesson.getId();
+    final String requestBody = ReadAction.compute(() -> createUpdatedStepSource(project, task));
+    if (requestBody == null) return false;
+    return updateStepSource(project, task, requestBody, new StepikPushReport());
+  }
 
+  /**
+   * Should be called under read action
+   *
+   * @return step source of the task with actual tests or null if task directory or configurator is not found
+   */
+  @Nullable
+  private static String createUpdatedStepSource(@NotNull Project project, @NotNull Task task) {
+    final Lesson lesson = task.getLesson();
     VirtualFile taskDir = task.getTaskDir(project);
-    if (taskDir == null) return false;
+    if (taskDir == null) return null;
+
+    final Language language = lesson.getCourse().getLanguageById();
+    final EduConfigurator configurator = EduConfiguratorManager.forLanguage(language);
+    if (configurator == null) return null;
+    List<VirtualFile> testFiles = Arrays.stream(taskDir.getChildren()).filter(configurator::isTestFile)
+                                        .collect(Collectors.toList());
+    for (VirtualFile file : testFiles) {
+      try {
+        task.addTestsTexts(file.getName(), VfsUtilCore.loadText(file));
+      }
+      catch (IOException e) {
+        LOG.warn("Failed to load text " + file.getName());
+      }
+    }
+    return createStepSource(project, task, lesson.getId());
+  }
+
+  /**
+   * Should be called under read action
+   */
+  @NotNull
+  private static String createStepSource(@NotNull Project project, @NotNull Task task, int lessonId) {
+    return STEP_SOURCE_GSON.toJson(new StepikWrappers.StepSourceWrapper(project, task, lessonId));
+  }
 
+  private static boolean updateStepSource(@NotNull Project project,
+                                          @NotNull Task task,
+                                          @NotNull String requestBody,
+                                          @NotNull StepikPushReport report) {
+    final long start = System.currentTimeMillis();
     final HttpPut request = new HttpPut(StepikNames.STEPIK_API_URL + StepikNames.STEP_SOURCES
                                         + String.valueOf(task.getStepId()));
-    final Gson gson = new GsonBuilder().setPrettyPrinting().excludeFieldsWithoutExposeAnnotation().create();
-
-      final Language language = lesson.getCourse().getLanguageById();
-      final EduConfigurator configurator = EduConfiguratorManager.forLanguage(language);
-      if (configurator == null) return false;
-      List<VirtualFile> testFiles = Arrays.stream(taskDir.getChildren()).filter(configurator::isTestFile)
-                                                 .collect(Collectors.toList());
-      for (VirtualFile file : testFiles) {
-        try {
-          task.addTestsTexts(file.getName(), VfsUtilCore.loadText(file));
-        }
-        catch (IOException e) {
-          LOG.warn("Failed to load text " + file.getName());
-        }
-      }
-    final String[] requestBody = new String[1];
-      ApplicationManager.getApplication().invokeAndWait(() -> requestBody[0] = gson.toJson(new StepikWrappers.StepSourceWrapper(project, task, lessonId)));
-      request.setEntity(new StringEntity(requestBody[0], ContentType.APPLICATION_JSON));
+    request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
 
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return false;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       EntityUtils.consume(responseEntity);
       final StatusLine line = response.getStatusLine();
       switch (line.getStatusCode()) {
         case HttpStatus.SC_OK:
+          StepikPushedStepSources.getInstance(project).setPushed(task.getStepId(), requestBody);
+          report.add(getReportName(task), StepikPushReport.Action.UPDATED, start);
           return true;
         case HttpStatus.SC_NOT_FOUND:
           // TODO: support case when lesson was removed from Stepik too
-          return postTask(project, task, task.getLesson().getId());
+          StepikPushedStepSources.getInstance(project).remove(task.getStepId());
+          return postStepSource(project, task, requestBody, report);
         default:
           final String message = "Failed to update task ";
           LOG.error(message + responseString);
+          report.add(getReportName(task), StepikPushReport.Action.FAILED, start);
           return false;
       }
     }
     catch (IOException e) {
       LOG.error(e.getMessage());
     }
+    report.add(getReportName(task), StepikPushReport.Action.FAILED, start);
     return false;
   }
 
@@ -555,7 +641,7 @@ public class CCStepikConnector {
         LOG.warn("Http client is null");
         return false;
       }
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -639,7 +725,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return null;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -685,20 +771,36 @@ public class CCStepikConnector {
   public static int updateLesson(@NotNull final Project project,
                                  @NotNull final Lesson lesson,
                                  boolean showNotification) {
+    return updateLesson(project, lesson, showNotification, new StepikPushReport());
+  }
+
+  public static int updateLesson(@NotNull final Project project,
+                                 @NotNull final Lesson lesson,
+                                 boolean showNotification,
+                                 @NotNull StepikPushReport report) {
+    final long start = System.currentTimeMillis();
     Lesson postedLesson = updateLessonInfo(project, lesson, showNotification);
+    report.add(getReportName(lesson), postedLesson != null ? StepikPushReport.Action.UPDATED : StepikPushReport.Action.FAILED, start);
 
     if (postedLesson != null) {
-      updateLessonTasks(project, lesson, postedLesson);
+      updateLessonTasks(project, lesson, postedLesson, report);
       return postedLesson.getId();
     }
 
     return -1;
   }
 
+  /**
+   * Step sources of all tasks are created in one read action and then only changed ones are sent to Stepik.
+   * Task is considered to be changed if its {@link StepikChangeStatus} says so or its step source differs
+   * from the one sent from this project last time, see {@link StepikPushedStepSources}.
+   */
   private static void updateLessonTasks(@NotNull Project project,
                                         @NotNull Lesson localLesson,
-                                        @NotNull Lesson remoteLesson) {
-    final Set<Integer> localTasksIds = localLesson.getTaskList()
+                                        @NotNull Lesson remoteLesson,
+                                        @NotNull StepikPushReport report) {
+    final List<Task> tasks = localLesson.getTaskList();
+    final Set<Integer> localTasksIds = tasks
       .stream()
       .map(task -> task.getStepId())
       .filter(id -> id > 0)
@@ -709,19 +811,48 @@ public class CCStepikConnector {
       .collect(Collectors.toList());
 
     // Remove all tasks from Stepik which are not in our lessons now
-    for (Integer step : taskIdsToDelete) {
+    pushConcurrently(taskIdsToDelete, step -> {
       deleteTask(step, project);
-    }
+      StepikPushedStepSources.getInstance(project).remove(step);
+    });
+
+    final Map<Task, String> stepSources = ReadAction.compute(() -> {
+      final Map<Task, String> result = new IdentityHashMap<>();
+      for (Task task : tasks) {
+        final String stepSource;
+        if (task.getStepId() > 0) {
+          stepSource = createUpdatedStepSource(project, task);
+        }
+        else {
+          stepSource = canBePosted(task) ? createStepSource(project, task, localLesson.getId()) : null;
+        }
+        if (stepSource != null) {
+          result.put(task, stepSource);
+        }
+      }
+      return result;
+    });
 
-    for (Task task : localLesson.getTaskList()) {
-      checkCancelled();
-      if (task.getStepId() > 0) {
-        updateTask(project, task);
+    pushConcurrently(tasks, task -> {
+      final String stepSource = stepSources.get(task);
+      if (stepSource == null) return;
+      if (task.getStepId() <= 0) {
+        if (checkIfAuthorized(project, "postTask")) {
+          postStepSource(project, task, stepSource, report);
+        }
+      }
+      else if (isPushed(project, task, stepSource)) {
+        report.add(getReportName(task), StepikPushReport.Action.SKIPPED, System.currentTimeMillis());
       }
       else {
-        postTask(project, task, localLesson.getId());
+        updateStepSource(project, task, stepSource, report);
       }
-    }
+    });
+  }
+
+  private static boolean isPushed(@NotNull Project project, @NotNull Task task, @NotNull String stepSource) {
+    return task.getStepikChangeStatus() == StepikChangeStatus.UP_TO_DATE &&
+           StepikPushedStepSources.getInstance(project).isPushed(task.getStepId(), stepSource);
   }
 
   public static void showErrorNotification(@NotNull Project project, String title, String message) {
@@ -749,8 +880,15 @@ public class CCStepikConnector {
   public static void showNotification(@NotNull Project project,
                                       @NotNull String title,
                                       @Nullable AnAction action) {
+    showNotification(project, title, "", action);
+  }
+
+  public static void showNotification(@NotNull Project project,
+                                      @NotNull String title,
+                                      @NotNull String content,
+                                      @Nullable AnAction action) {
     final Notification notification =
-      new Notification("Push.course", title, "", NotificationType.INFORMATION);
+      new Notification("Push.course", title, content, NotificationType.INFORMATION);
     if (action != null) {
       notification.addAction(action);
     }
@@ -783,7 +921,12 @@ public class CCStepikConnector {
   }
 
   public static int postLesson(@NotNull final Project project, @NotNull final Lesson lesson) {
+    return postLesson(project, lesson, new StepikPushReport());
+  }
+
+  public static int postLesson(@NotNull final Project project, @NotNull final Lesson lesson, @NotNull StepikPushReport report) {
     if (!checkIfAuthorized(project, "postLesson")) return -1;
+    final long start = System.currentTimeMillis();
     Course course = StudyTaskManager.getInstance(project).getCourse();
     assert course != null;
 
@@ -795,7 +938,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return -1;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       final StatusLine line = response.getStatusLine();
@@ -808,34 +951,61 @@ public class CCStepikConnector {
         final String detailString = detail != null ? detail.getAsString() : responseString;
 
         showErrorNotification(project, message, detailString);
+        report.add(getReportName(lesson), StepikPushReport.Action.FAILED, start);
         return 0;
       }
 
       final Lesson postedLesson = getLessonFromString(responseString);
       if (postedLesson == null) {
+        report.add(getReportName(lesson), StepikPushReport.Action.FAILED, start);
         return -1;
       }
+      report.add(getReportName(lesson), StepikPushReport.Action.POSTED, start);
       lesson.setId(postedLesson.getId());
-      for (Task task : lesson.getTaskList()) {
-        final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
-        if (indicator != null) {
-          indicator.checkCanceled();
-        }
-        postTask(project, task, postedLesson.getId());
-      }
+      postTasks(project, lesson.getTaskList(), postedLesson.getId(), report);
       return postedLesson.getId();
     }
     catch (IOException e) {
       LOG.error(e.getMessage());
     }
+    report.add(getReportName(lesson), StepikPushReport.Action.FAILED, start);
     return -1;
   }
 
-  private static void checkCancelled() {
-    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
-    if (indicator != null) {
-      indicator.checkCanceled();
-    }
+  /**
+   * Step sources of all tasks are created in one read action, then tasks are posted concurrently
+   */
+  private static void postTasks(@NotNull Project project, @NotNull List<Task> tasks, int lessonId, @NotNull StepikPushReport report) {
+    if (!checkIfAuthorized(project, "postTask")) return;
+    final Map<Task, String> stepSources = ReadAction.compute(() -> {
+      final Map<Task, String> result = new IdentityHashMap<>();
+      for (Task task : tasks) {
+        if (canBePosted(task)) {
+          result.put(task, createStepSource(project, task, lessonId));
+        }
+      }
+      return result;
+    });
+    pushConcurrently(tasks, task -> {
+      final String stepSource = stepSources.get(task);
+      if (stepSource != null) {
+        postStepSource(project, task, stepSource, report);
+      }
+    });
+  }
+
+  private static boolean canBePosted(@NotNull Task task) {
+    return !(task instanceof ChoiceTask || task instanceof CodeTask);
+  }
+
+  @NotNull
+  private static String getReportName(@NotNull Lesson lesson) {
+    return "Lesson '" + lesson.getName() + "'";
+  }
+
+  @NotNull
+  private static String getReportName(@NotNull Task task) {
+    return "Task '" + task.getLesson().getName() + "/" + task.getName() + "'";
   }
 
   private static String getErrorDetail(String responseString) {
@@ -870,7 +1040,7 @@ public class CCStepikConnector {
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
       EntityUtils.consume(responseEntity);
@@ -889,19 +1059,24 @@ public class CCStepikConnector {
 
   public static boolean postTask(final Project project, @NotNull final Task task, final int lessonId) {
     if (!checkIfAuthorized(project, "postTask")) return false;
-    if (task instanceof ChoiceTask || task instanceof CodeTask) return false;
+    if (!canBePosted(task)) return false;
 
-    final HttpPost request = new HttpPost(StepikNames.STEPIK_API_URL + "/step-sources");
-    final Gson gson = new GsonBuilder().setPrettyPrinting().excludeFieldsWithoutExposeAnnotation().create();
-    final String[] requestBody = new String[1];
-    ApplicationManager.getApplication().invokeAndWait(() -> requestBody[0] = gson.toJson(new StepikWrappers.StepSourceWrapper(project, task, lessonId)));
+    final String requestBody = ReadAction.compute(() -> createStepSource(project, task, lessonId));
+    return postStepSource(project, task, requestBody, new StepikPushReport());
+  }
 
-    request.setEntity(new StringEntity(requestBody[0], ContentType.APPLICATION_JSON));
+  private static boolean postStepSource(@NotNull Project project,
+                                        @NotNull Task task,
+                                        @NotNull String requestBody,
+                                        @NotNull StepikPushReport report) {
+    final long start = System.currentTimeMillis();
+    final HttpPost request = new HttpPost(StepikNames.STEPIK_API_URL + "/step-sources");
+    request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
 
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
       if (client == null) return false;
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final StatusLine line = response.getStatusLine();
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
@@ -912,18 +1087,34 @@ public class CCStepikConnector {
         final String detailString = getErrorDetail(responseString);
 
         showErrorNotification(project, message, detailString);
+        report.add(getReportName(task), StepikPushReport.Action.FAILED, start);
         return false;
       }
 
       final JsonObject postedTask = new Gson().fromJson(responseString, JsonObject.class);
       final JsonObject stepSource = postedTask.getAsJsonArray("step-sources").get(0).getAsJsonObject();
       task.setStepId(stepSource.getAsJsonPrimitive("id").getAsInt());
+      StepikPushedStepSources.getInstance(project).setPushed(task.getStepId(), requestBody);
+      report.add(getReportName(task), StepikPushReport.Action.POSTED, start);
       return true;
     }
     catch (IOException e) {
       LOG.error(e.getMessage());
     }
 
+    report.add(getReportName(task), StepikPushReport.Action.FAILED, start);
     return false;
   }
+
+  private static class LessonUnit {
+    final Lesson lesson;
+    final int sectionId;
+    final int position;
+
+    LessonUnit(@NotNull Lesson lesson, int sectionId, int position) {
+      this.lesson = lesson;
+      this.sectionId = sectionId;
+      this.position = position;
+    }
+  }
 }
@@ -0,0 +1,87 @@
+package com.jetbrains.edu.coursecreator.stepik;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Results of pushing course items to Stepik: what was done with every item and how long it took.
+ * Items are pushed concurrently, so all methods are thread-safe.
+ */
+public class StepikPushReport {
+  public enum Action {
+    POSTED,
+    UPDATED,
+    /** Item wasn't changed since the last push */
+    SKIPPED,
+    FAILED
+  }
+
+  private final long myStartTime = System.currentTimeMillis();
+  private final List<Entry> myEntries = new ArrayList<>();
+
+  public void add(@NotNull String itemName, @NotNull Action action, long startTime) {
+    Entry entry = new Entry(itemName, action, System.currentTimeMillis() - startTime);
+    synchronized (myEntries) {
+      myEntries.add(entry);
+    }
+  }
+
+  @NotNull
+  public List<Entry> getEntries() {
+    synchronized (myEntries) {
+      return new ArrayList<>(myEntries);
+    }
+  }
+
+  public int getCount(@NotNull Action action) {
+    return (int)getEntries().stream().filter(entry -> entry.action == action).count();
+  }
+
+  public boolean hasFailures() {
+    return getCount(Action.FAILED) > 0;
+  }
+
+  /**
+   * @return e.g. "3 posted, 5 updated, 42 unchanged, 0 failed in 7.3 s"
+   */
+  @NotNull
+  public String getSummary() {
+    return String.format("%d posted, %d updated, %d unchanged, %d failed in %s",
+                         getCount(Action.POSTED), getCount(Action.UPDATED), getCount(Action.SKIPPED), getCount(Action.FAILED),
+                         StringUtil.formatDuration(System.currentTimeMillis() - myStartTime));
+  }
+
+  /**
+   * @return summary followed by items which were sent to Stepik, the slowest ones first
+   */
+  @NotNull
+  public String getDetails() {
+    StringBuilder builder = new StringBuilder(getSummary());
+    getEntries().stream()
+      .filter(entry -> entry.action != Action.SKIPPED)
+      .sorted(Comparator.comparingLong((Entry entry) -> entry.latencyMs).reversed())
+      .forEach(entry -> builder.append("\n  ").append(entry));
+    return builder.toString();
+  }
+
+  public static class Entry {
+    public final String itemName;
+    public final Action action;
+    public final long latencyMs;
+
+    Entry(@NotNull String itemName, @NotNull Action action, long latencyMs) {
+      this.itemName = itemName;
+      this.action = action;
+      this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public String toString() {
+      return itemName + ": " + StringUtil.toLowerCase(action.name()) + " in " + latencyMs + " ms";
+    }
+  }
+}
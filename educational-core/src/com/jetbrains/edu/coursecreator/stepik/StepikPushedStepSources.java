@@ -0,0 +1,61 @@
+package com.jetbrains.edu.coursecreator.stepik;
+
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hashes of step sources sent to Stepik from this project by step id, so steps which weren't changed since the last push
+ * are not sent again. Hashes describe the local copy of the course, so they are kept in the workspace file.
+ * Steps are pushed concurrently, so all methods are thread-safe.
+ */
+@State(name = "StepikPushedStepSources", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public class StepikPushedStepSources implements PersistentStateComponent<StepikPushedStepSources.State> {
+  private final ConcurrentMap<Integer, String> myHashes = new ConcurrentHashMap<>();
+
+  public static class State {
+    public Map<Integer, String> hashes = new TreeMap<>();
+  }
+
+  @NotNull
+  public static StepikPushedStepSources getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, StepikPushedStepSources.class);
+  }
+
+  public boolean isPushed(int stepId, @NotNull String stepSource) {
+    return hash(stepSource).equals(myHashes.get(stepId));
+  }
+
+  public void setPushed(int stepId, @NotNull String stepSource) {
+    myHashes.put(stepId, hash(stepSource));
+  }
+
+  public void remove(int stepId) {
+    myHashes.remove(stepId);
+  }
+
+  @NotNull
+  @Override
+  public State getState() {
+    State state = new State();
+    state.hashes.putAll(myHashes);
+    return state;
+  }
+
+  @Override
+  public void loadState(@NotNull State state) {
+    myHashes.clear();
+    myHashes.putAll(state.hashes);
+  }
+
+  @NotNull
+  private static String hash(@NotNull String stepSource) {
+    return DigestUtils.sha1Hex(stepSource);
+  }
+}
@@ -0,0 +1,151 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.editor.FoldRegion
+import com.intellij.openapi.editor.ex.FoldingListener
+import com.intellij.openapi.editor.ex.FoldingModelEx
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.AbstractPainter
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.wm.IdeGlassPaneUtil
+import com.intellij.util.ui.JBUI
+import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder
+import java.awt.BasicStroke
+import java.awt.Component
+import java.awt.Graphics2D
+import java.awt.Point
+
+/**
+ * Draws all placeholders of an editor in one pass.
+ *
+ * Shapes of placeholders are cached until editor layout changes (document, folding, soft wraps, fonts or editor width).
+ * Only placeholders intersecting visible lines are painted, they are found with binary search over placeholders sorted by offset.
+ */
+internal class EditorPlaceholderPainter(private val editor: Editor, project: Project) : AbstractPainter(), Disposable {
+  private val isStudentProject = EduUtils.isStudentProject(project)
+  private val stroke = BasicStroke(JBUI.scale(2f))
+
+  val placeholders: MutableSet<AnswerPlaceholder> = LinkedHashSet()
+  private var sortedPlaceholders: List<AnswerPlaceholder>? = null
+
+  private val shapes = HashMap<AnswerPlaceholder, CachedShape>()
+  private var layout: Layout? = null
+  private var foldingModificationCount = 0
+
+  init {
+    Disposer.register(project, this)
+    (editor.foldingModel as? FoldingModelEx)?.addListener(object : FoldingListener {
+      override fun onFoldRegionStateChange(region: FoldRegion) {}
+
+      override fun onFoldProcessingEnd() {
+        foldingModificationCount++
+      }
+    }, this)
+    IdeGlassPaneUtil.installPainter(editor.contentComponent, this, this)
+  }
+
+  fun addPlaceholder(placeholder: AnswerPlaceholder) {
+    if (placeholders.add(placeholder)) {
+      sortedPlaceholders = null
+      setNeedsRepaint(true)
+    }
+  }
+
+  fun removePlaceholder(placeholder: AnswerPlaceholder) {
+    if (placeholders.remove(placeholder)) {
+      sortedPlaceholders = null
+      shapes.remove(placeholder)
+      setNeedsRepaint(true)
+    }
+  }
+
+  override fun needsRepaint() = !editor.isDisposed
+
+  override fun executePaint(component: Component?, g: Graphics2D) {
+    if (editor.isDisposed || placeholders.isEmpty()) return
+    validateLayout()
+
+    val document = editor.document
+    val visibleRect = editor.contentComponent.visibleRect
+    val lastLine = maxOf(document.lineCount - 1, 0)
+    val firstVisibleLine = minOf(editor.xyToLogicalPosition(visibleRect.location).line, lastLine)
+    val lastVisibleLine = minOf(editor.xyToLogicalPosition(Point(visibleRect.x, visibleRect.y + visibleRect.height)).line, lastLine)
+    val visibleStart = if (document.textLength == 0) 0 else document.getLineStartOffset(firstVisibleLine)
+    val visibleEnd = if (document.textLength == 0) 0 else document.getLineEndOffset(lastVisibleLine)
+
+    g.stroke = stroke
+    val sorted = getSortedPlaceholders()
+    var i = findFirstEndingAtOrAfter(sorted, visibleStart)
+    while (i < sorted.size && sorted[i].offset <= visibleEnd) {
+      val placeholder = sorted[i++]
+      if (isStudentProject && !placeholder.isVisible) continue
+      val shape = getShape(placeholder)?.getVisibleShape(editor) ?: continue
+      if (!visibleRect.contains(shape.bounds)) continue
+      g.color = placeholder.color
+      g.draw(shape)
+    }
+  }
+
+  private fun validateLayout() {
+    val currentLayout = Layout(editor.document.modificationStamp,
+                               foldingModificationCount,
+                               editor.settings.isUseSoftWraps,
+                               editor.lineHeight,
+                               editor.colorsScheme.editorFontSize,
+                               editor.contentComponent.width)
+    if (currentLayout != layout) {
+      layout = currentLayout
+      shapes.clear()
+      // placeholders keep their order on document changes, but placeholder offsets can also be changed directly
+      sortedPlaceholders = null
+    }
+  }
+
+  private fun getSortedPlaceholders(): List<AnswerPlaceholder> {
+    return sortedPlaceholders ?: placeholders.sortedBy { it.offset }.also { sortedPlaceholders = it }
+  }
+
+  private fun getShape(placeholder: AnswerPlaceholder): PlaceholderShape? {
+    val offset = placeholder.offset
+    val endOffset = placeholder.endOffset
+    val cachedShape = shapes[placeholder]
+    if (cachedShape != null && cachedShape.offset == offset && cachedShape.endOffset == endOffset) {
+      return cachedShape.shape
+    }
+    if (offset < 0 || endOffset < offset || endOffset > editor.document.textLength) return null
+    val shape = getPlaceholderShape(editor, offset, endOffset)
+    shapes[placeholder] = CachedShape(offset, endOffset, shape)
+    return shape
+  }
+
+  private fun findFirstEndingAtOrAfter(sorted: List<AnswerPlaceholder>, offset: Int): Int {
+    var low = 0
+    var high = sorted.size
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (sorted[mid].endOffset < offset) {
+        low = mid + 1
+      }
+      else {
+        high = mid
+      }
+    }
+    return low
+  }
+
+  override fun dispose() {
+    placeholders.clear()
+    sortedPlaceholders = null
+    shapes.clear()
+  }
+
+  private data class Layout(val documentModificationStamp: Long,
+                            val foldingModificationCount: Int,
+                            val useSoftWraps: Boolean,
+                            val lineHeight: Int,
+                            val fontSize: Int,
+                            val width: Int)
+
+  private class CachedShape(val offset: Int, val endOffset: Int, val shape: PlaceholderShape)
+}
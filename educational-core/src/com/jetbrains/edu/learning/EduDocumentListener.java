@@ -12,6 +12,10 @@ import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder;
 import com.jetbrains.edu.learning.courseFormat.TaskFile;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * Listens changes in study files and updates
  * coordinates of all the placeholders in current task file
@@ -20,6 +24,10 @@ public class EduDocumentListener implements DocumentListener {
   protected final Project myProject;
   protected final TaskFile myTaskFile;
 
+  private AnswerPlaceholder[] mySortedPlaceholders;
+  private List<AnswerPlaceholder> myIndexedPlaceholders;
+  private int myIndexedModificationCount;
+
   public EduDocumentListener(Project project, TaskFile taskFile) {
     myProject = project;
     myTaskFile = taskFile;
@@ -53,14 +61,26 @@ public class EduDocumentListener implements DocumentListener {
 
     final CharSequence fragment = e.getNewFragment();
     CharSequence oldFragment = e.getOldFragment();
-
-    for (AnswerPlaceholder placeholder : myTaskFile.getAnswerPlaceholders()) {
+    boolean isNewLineRemoved = fragment.length() == 0 && startsWithNewLine(oldFragment);
+    boolean isNewLineInserted = oldFragment.length() == 0 && startsWithNewLine(fragment);
+
+    AnswerPlaceholder[] placeholders = getSortedPlaceholders();
+    boolean isShiftedPlaceholderSaved = false;
+    // placeholders which end before changed fragment are not affected by the change
+    for (int i = findFirstAffected(placeholders, offset); i < placeholders.length; i++) {
+      AnswerPlaceholder placeholder = placeholders[i];
       int placeholderStart = placeholder.getOffset();
       int placeholderEnd = placeholder.getEndOffset();
 
+      // placeholder located after changed fragment is just shifted
+      if (placeholderStart > offset + event.getOldLength()) {
+        isShiftedPlaceholderSaved |= shiftPlaceholder(placeholder, placeholderStart + change);
+        continue;
+      }
+
       int changeForPlaceholder = getChangeForPlaceholder(offset, change, placeholder);
 
-      if (placeholderStart - 1 == offset && fragment.toString().isEmpty() && oldFragment.toString().startsWith("\n")) {
+      if (placeholderStart - 1 == offset && isNewLineRemoved) {
         placeholderStart -= 1;
       }
 
@@ -75,7 +95,7 @@ public class EduDocumentListener implements DocumentListener {
       else if (placeholderEnd > offset) {
         placeholderEnd += placeholderStart >= offset ? change : changeForPlaceholder;
       }
-      if (placeholderStart == offset && oldFragment.toString().isEmpty() && fragment.toString().startsWith("\n")) {
+      if (placeholderStart == offset && isNewLineInserted) {
         placeholderStart += 1;
       }
 
@@ -84,6 +104,53 @@ public class EduDocumentListener implements DocumentListener {
       assert placeholderStart >= 0;
       updatePlaceholder(placeholder, document, placeholderStart, length);
     }
+    // offsets are stored in task config too, it's saved once for all shifted placeholders
+    if (isShiftedPlaceholderSaved) {
+      YamlFormatSynchronizer.saveItem(myTaskFile.getTask());
+    }
+  }
+
+  private static boolean startsWithNewLine(@NotNull CharSequence fragment) {
+    return fragment.length() > 0 && fragment.charAt(0) == '\n';
+  }
+
+  /**
+   * Placeholders don't intersect and document changes keep their relative order,
+   * so once sorted the index stays valid until placeholders of the task file are added, removed or reordered
+   */
+  @NotNull
+  private AnswerPlaceholder[] getSortedPlaceholders() {
+    List<AnswerPlaceholder> placeholders = myTaskFile.getAnswerPlaceholders();
+    int modificationCount = myTaskFile.getPlaceholdersModificationCount();
+    if (mySortedPlaceholders == null ||
+        myIndexedPlaceholders != placeholders ||
+        mySortedPlaceholders.length != placeholders.size() ||
+        myIndexedModificationCount != modificationCount) {
+      AnswerPlaceholder[] sorted = placeholders.toArray(new AnswerPlaceholder[0]);
+      Arrays.sort(sorted, Comparator.comparingInt(AnswerPlaceholder::getOffset));
+      mySortedPlaceholders = sorted;
+      myIndexedPlaceholders = placeholders;
+      myIndexedModificationCount = modificationCount;
+    }
+    return mySortedPlaceholders;
+  }
+
+  /**
+   * @return index of the first placeholder which ends at or after {@code offset}
+   */
+  private static int findFirstAffected(@NotNull AnswerPlaceholder[] placeholders, int offset) {
+    int low = 0;
+    int high = placeholders.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (placeholders[mid].getEndOffset() < offset) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
   }
 
   private static int getChangeForPlaceholder(int offset, int change, @NotNull final AnswerPlaceholder placeholder) {
@@ -101,6 +168,16 @@ public class EduDocumentListener implements DocumentListener {
     return changeForPlaceholder;
   }
 
+  /**
+   * Called for placeholders which are located after changed fragment, so only their offset is changed
+   *
+   * @return true if task config has to be saved after the change, as {@link #updatePlaceholder} does for such placeholders
+   */
+  protected boolean shiftPlaceholder(@NotNull AnswerPlaceholder answerPlaceholder, int start) {
+    answerPlaceholder.setOffset(start);
+    return !answerPlaceholder.getUseLength() && myTaskFile.isTrackLengths();
+  }
+
   protected void updatePlaceholder(@NotNull AnswerPlaceholder answerPlaceholder,
                                    @NotNull Document document, int start, int length) {
     answerPlaceholder.setOffset(start);
@@ -19,5 +19,11 @@ public class EduDocumentTransformListener extends EduDocumentListener {
   protected void updatePlaceholder(@NotNull AnswerPlaceholder answerPlaceholder, @NotNull Document document, int start, int length) {
     answerPlaceholder.setOffset(start);
   }
+
+  @Override
+  protected boolean shiftPlaceholder(@NotNull AnswerPlaceholder answerPlaceholder, int start) {
+    answerPlaceholder.setOffset(start);
+    return false;
+  }
 }
 
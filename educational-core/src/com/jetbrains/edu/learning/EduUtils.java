@@ -1,6 +1,5 @@
 package com.jetbrains.edu.learning;
 
-import com.google.common.collect.Lists;
 import com.google.gson.*;
 import com.intellij.ide.SaveAndSyncHandler;
 import com.intellij.ide.fileTemplates.FileTemplate;
@@ -36,7 +35,6 @@ import com.intellij.openapi.fileTypes.PlainTextFileType;
 import com.intellij.openapi.keymap.KeymapUtil;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
-import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModuleRootManager;
@@ -88,7 +86,6 @@ import com.jetbrains.edu.learning.projectView.CourseViewPane;
 import com.jetbrains.edu.learning.serialization.SerializationUtils;
 import com.jetbrains.edu.learning.stepik.OAuthDialog;
 import com.jetbrains.edu.learning.stepik.StepicUser;
-import com.jetbrains.edu.learning.stepik.StepikConnector;
 import com.jetbrains.edu.learning.stepik.StepikUserWidget;
 import com.jetbrains.edu.learning.twitter.TwitterPluginConfigurator;
 import com.jetbrains.edu.learning.ui.taskDescription.TaskDescriptionToolWindow;
@@ -128,6 +125,11 @@ public class EduUtils {
   public static final Comparator<StudyItem> INDEX_COMPARATOR = Comparator.comparingInt(StudyItem::getIndex);
   private static final String SHORTCUT_ENTITY = "&shortcut:";
   private static final Logger LOG = Logger.getInstance(EduUtils.class.getName());
+  private static final Gson LOCAL_COURSE_GSON = new GsonBuilder()
+    .registerTypeAdapter(Task.class, new SerializationUtils.Json.TaskAdapter())
+    .registerTypeAdapter(StudyItem.class, new SerializationUtils.Json.LessonSectionAdapter())
+    .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+    .create();
 
   public static void closeSilently(@Nullable final Closeable stream) {
     if (stream != null) {
@@ -543,24 +545,7 @@ public class EduUtils {
     if (course == null) {
       return null;
     }
-    VirtualFile taskDir = getTaskDir(course, file);
-    if (taskDir == null) {
-      return null;
-    }
-    final VirtualFile lessonDir = taskDir.getParent();
-    if (lessonDir != null) {
-      final Lesson lesson = getLesson(lessonDir, course);
-      if (lesson == null) {
-        return null;
-      }
-
-      if (lesson instanceof FrameworkLesson && course.isStudy()) {
-        return ((FrameworkLesson)lesson).currentTask();
-      } else {
-        return lesson.getTask(taskDir.getName());
-      }
-    }
-    return null;
+    return TaskResolveCache.getInstance(project).getTask(course, file);
   }
 
   // supposed to be called under progress
@@ -703,6 +688,13 @@ public class EduUtils {
     Course course = StudyTaskManager.getInstance(project).getCourse();
     if (course == null) return file.getName();
 
+    return TaskResolveCache.getInstance(project).getPathRelativeToTask(course, file);
+  }
+
+  @NotNull
+  static String pathRelativeToTask(@NotNull Course course, @Nullable VirtualFile taskDir, @NotNull VirtualFile file) {
+    if (taskDir == null) return file.getName();
+
     String sourceDir = CourseExt.getSourceDir(course);
     String testDir = CourseExt.getTestDir(course);
     List<String> prefixToRemove = new ArrayList<>(2);
@@ -713,9 +705,6 @@ public class EduUtils {
       prefixToRemove.add(testDir + VfsUtilCore.VFS_SEPARATOR_CHAR);
     }
 
-    VirtualFile taskDir = getTaskDir(course, file);
-    if (taskDir == null) return file.getName();
-
     String fullRelativePath = FileUtil.getRelativePath(taskDir.getPath(), file.getPath(), VfsUtilCore.VFS_SEPARATOR_CHAR);
     if (fullRelativePath == null) return file.getName();
 
@@ -908,6 +897,39 @@ public class EduUtils {
     }
   }
 
+  /**
+   * The same as {@link #createStudentFile(Project, VirtualFile, Task)} but works with already loaded text of answer file
+   * (Base64 encoded content for images) and doesn't need write action, so it can be called from any thread
+   */
+  @Nullable
+  public static TaskFile createStudentFile(@NotNull Project project,
+                                           @NotNull String pathInTask,
+                                           @NotNull CharSequence answerText,
+                                           @NotNull final Task task) {
+    Task taskCopy = task.copy();
+    TaskFile taskFile = taskCopy.getTaskFile(pathInTask);
+    if (taskFile == null) {
+      return null;
+    }
+    if (isImage(taskFile.name)) {
+      taskFile.text = answerText.toString();
+      return taskFile;
+    }
+    // document isn't bound to any file, so it can be modified outside of EDT
+    Document studentDocument = new DocumentImpl(answerText, true);
+    EduDocumentListener listener = new EduDocumentTransformListener(project, taskFile);
+    studentDocument.addDocumentListener(listener);
+    taskFile.setTrackLengths(false);
+    for (AnswerPlaceholder placeholder : taskFile.getAnswerPlaceholders()) {
+      int offset = placeholder.getOffset();
+      studentDocument.replaceString(offset, offset + placeholder.getPossibleAnswer().length(), placeholder.getPlaceholderText());
+    }
+    taskFile.setTrackLengths(true);
+    studentDocument.removeDocumentListener(listener);
+    taskFile.text = studentDocument.getImmutableCharSequence().toString();
+    return taskFile;
+  }
+
   @Nullable
   public static TaskFile createStudentFile(@NotNull Project project, @NotNull VirtualFile answerFile, @NotNull final Task task) {
     try {
@@ -1093,35 +1115,8 @@ public class EduUtils {
     return fileWindows;
   }
 
-  /**
-   * @return null if process was canceled, otherwise not null list of courses
-   */
-  @Nullable
-  public static List<Course> getCoursesUnderProgress() {
-    try {
-      return ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
-        ProgressManager.getInstance().getProgressIndicator().setIndeterminate(true);
-        List<Course> courses = execCancelable(() -> StepikConnector.getCourses(EduSettings.getInstance().getUser()));
-        if (courses == null) return Lists.newArrayList();
-        List<Course> bundledCourses = getBundledCourses();
-        for (Course bundledCourse : bundledCourses) {
-          if (courses.stream().anyMatch(course -> course.getName().equals(bundledCourse.getName()))) {
-            continue;
-          }
-          courses.add(bundledCourse);
-        }
-        Collections.sort(courses, (c1, c2) -> Boolean.compare(c1.isAdaptive(), c2.isAdaptive()));
-        return courses;
-      }, "Getting Available Courses", true, null);
-    } catch (ProcessCanceledException e) {
-      return null;
-    } catch (RuntimeException e) {
-      return Lists.newArrayList();
-    }
-  }
-
   @NotNull
-  private static List<Course> getBundledCourses() {
+  public static List<Course> getBundledCourses() {
     final ArrayList<Course> courses = new ArrayList<>();
     final List<LanguageExtensionPoint<EduConfigurator<?>>> extensions = EduConfiguratorManager.allExtensions();
     for (LanguageExtensionPoint<EduConfigurator<?>> extension : extensions) {
@@ -1142,25 +1137,24 @@ public class EduUtils {
   public static Course getLocalCourse(@NotNull final String zipFilePath) {
     try {
       final JBZipFile zipFile = new JBZipFile(zipFilePath);
-      final JBZipEntry entry = zipFile.getEntry(EduNames.COURSE_META_FILE);
-      if (entry == null) {
-        return null;
+      final JsonObject object;
+      try {
+        final JBZipEntry entry = zipFile.getEntry(EduNames.COURSE_META_FILE);
+        if (entry == null) {
+          return null;
+        }
+        try (Reader reader = new InputStreamReader(entry.getInputStream(), CharsetToolkit.UTF8_CHARSET)) {
+          object = new JsonParser().parse(LOCAL_COURSE_GSON.newJsonReader(reader)).getAsJsonObject();
+        }
+      }
+      finally {
+        zipFile.close();
       }
-      byte[] bytes = entry.getData();
-      final String jsonText = new String(bytes, CharsetToolkit.UTF8_CHARSET);
-      Gson gson = new GsonBuilder()
-          .registerTypeAdapter(Task.class, new SerializationUtils.Json.TaskAdapter())
-          .registerTypeAdapter(StudyItem.class, new SerializationUtils.Json.LessonSectionAdapter())
-          .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-          .create();
-      zipFile.close();
-      JsonParser parser = new JsonParser();
-      JsonObject object = parser.parse(jsonText).getAsJsonObject();
       JsonElement id = object.get("id");
       if (id != null && 0 != id.getAsInt()) {
-        return gson.fromJson(object, RemoteCourse.class);
+        return LOCAL_COURSE_GSON.fromJson(object, RemoteCourse.class);
       }
-      return gson.fromJson(object, Course.class);
+      return LOCAL_COURSE_GSON.fromJson(object, Course.class);
     }
     catch (IOException e) {
       LOG.error("Failed to unzip course archive");
@@ -1,56 +1,53 @@
 package com.jetbrains.edu.learning
 
-import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.editor.Editor
-import com.intellij.openapi.ui.AbstractPainter
-import com.intellij.openapi.wm.IdeGlassPaneUtil
-import com.intellij.util.ui.JBUI
+import com.intellij.openapi.editor.EditorFactory
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.util.Key
 import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder
-import java.awt.BasicStroke
-import java.awt.Component
-import java.awt.Graphics2D
-import java.awt.Shape
+import org.jetbrains.annotations.TestOnly
 
 
+/**
+ * Placeholders of an editor are drawn by single [EditorPlaceholderPainter] stored in editor user data.
+ * Painter is released with the editor, see [removePainters]
+ */
 object NewPlaceholderPainter {
 
-  @JvmStatic
-  val placeholderPainters = HashMap<AnswerPlaceholder, AbstractPainter>()
+  private val PAINTER_KEY = Key.create<EditorPlaceholderPainter>("Edu.PlaceholderPainter")
 
   @JvmStatic
   fun paintPlaceholder(editor: Editor, placeholder: AnswerPlaceholder) {
     val project = editor.project ?: return
-    if (project.isDisposed) return
-    val isStudentProject = EduUtils.isStudentProject(project)
-
-    val painter: AbstractPainter = object : AbstractPainter() {
-
-      override fun needsRepaint() = !editor.isDisposed
-
-      override fun executePaint(component: Component?, g: Graphics2D) {
-        if (isStudentProject && !placeholder.isVisible) return
-        g.color = placeholder.color
-        g.stroke = BasicStroke(JBUI.scale(2f))
-        val shape = getPlaceholderShape(editor, placeholder.offset, placeholder.endOffset).getShape()
-        if (!isVisible(shape, editor)) return
-        g.draw(shape)
-      }
+    if (project.isDisposed || editor.isDisposed) return
+    var painter = editor.getUserData(PAINTER_KEY)
+    if (painter == null) {
+      painter = EditorPlaceholderPainter(editor, project)
+      editor.putUserData(PAINTER_KEY, painter)
     }
-    placeholderPainters[placeholder] = painter
-    IdeGlassPaneUtil.installPainter(editor.contentComponent, painter, editor.project)
+    painter.addPlaceholder(placeholder)
+  }
+
+  @JvmStatic
+  fun removePainter(editor: Editor, placeholder: AnswerPlaceholder) {
+    editor.getUserData(PAINTER_KEY)?.removePlaceholder(placeholder)
   }
 
-  private fun isVisible(shape: Shape, editor: Editor) : Boolean {
-    return editor.contentComponent.visibleRect.contains(shape.bounds)
+  /**
+   * Removes all placeholders painted in the editor, should be called when editor is released
+   */
+  @JvmStatic
+  fun removePainters(editor: Editor) {
+    val painter = editor.getUserData(PAINTER_KEY) ?: return
+    editor.putUserData(PAINTER_KEY, null)
+    Disposer.dispose(painter)
   }
 
+  @TestOnly
   @JvmStatic
-  fun removePainter(editor: Editor, placeholder: AnswerPlaceholder) {
-    if (placeholderPainters.containsKey(placeholder)) {
-      val painter = placeholderPainters.remove(placeholder)
-      if (!ApplicationManager.getApplication().isUnitTestMode) {
-        IdeGlassPaneUtil.find(editor.contentComponent)?.removePainter(painter)
-      }
+  fun getPaintedPlaceholders(): Set<AnswerPlaceholder> {
+    return EditorFactory.getInstance().allEditors.flatMapTo(HashSet()) { editor ->
+      editor.getUserData(PAINTER_KEY)?.placeholders.orEmpty()
     }
   }
 }
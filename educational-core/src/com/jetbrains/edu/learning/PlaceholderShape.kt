@@ -9,10 +9,18 @@ import java.awt.Shape
 import java.awt.geom.GeneralPath
 
 
+/**
+ * Points of shape don't depend on editor scrolling, so shape can be cached until editor layout changes.
+ * Use [getVisibleShape] to get shape fitted into visible area of editor
+ */
 sealed class PlaceholderShape {
   val points = ArrayList<Point>()
 
-  fun getShape(): Shape {
+  fun getShape(): Shape = createShape(points)
+
+  fun getVisibleShape(editor: Editor): Shape = createShape(points.map { visiblePoint(editor, it) })
+
+  private fun createShape(points: List<Point>): Shape {
     if (points.size == 2) {
       return Rectangle(points[0].x, points[0].y, 1, points[1].y - points[0].y)
     }
@@ -28,8 +36,8 @@ sealed class PlaceholderShape {
   // Empty placeholder
   class Line(editor: Editor, point1: Point, point2: Point) : PlaceholderShape() {
     init {
-      points.addAll(listOf(visiblePoint(editor, point1),
-                           visiblePoint(editor, point2.bottom(editor))))
+      points.addAll(listOf(point1,
+                           point2.bottom(editor)))
     }
   }
 
@@ -41,10 +49,10 @@ sealed class PlaceholderShape {
     init {
       val point2 = Point(point3.x, point1.y)
       val point4 = Point(point1.x, point3.y)
-      points.addAll(listOf(visiblePoint(editor, point1),
-                           visiblePoint(editor, point2),
-                           visiblePoint(editor, point3.bottom(editor)),
-                           visiblePoint(editor, point4.bottom(editor))))
+      points.addAll(listOf(point1,
+                           point2,
+                           point3.bottom(editor),
+                           point4.bottom(editor)))
     }
   }
 
@@ -58,12 +66,12 @@ sealed class PlaceholderShape {
       val point2 = Point(point3.x, point1.y)
       val point4 = Point(point5.x, point3.y)
       val point6 = Point(point1.x, point5.y)
-      points.addAll(listOf(visiblePoint(editor, point1),
-                           visiblePoint(editor, point2),
-                           visiblePoint(editor, point3),
-                           visiblePoint(editor, point4),
-                           visiblePoint(editor, point5.bottom(editor)),
-                           visiblePoint(editor, point6.bottom(editor))
+      points.addAll(listOf(point1,
+                           point2,
+                           point3,
+                           point4,
+                           point5.bottom(editor),
+                           point6.bottom(editor)
       ))
     }
   }
@@ -78,12 +86,12 @@ sealed class PlaceholderShape {
       val point2 = Point(point3.x, point1.y)
       val point4 = Point(point5.x, point3.y)
       val point6 = Point(point1.x, point5.y)
-      points.addAll(listOf(visiblePoint(editor, point1),
-                           visiblePoint(editor, point2),
-                           visiblePoint(editor, point3.bottom(editor)),
-                           visiblePoint(editor, point4.bottom(editor)),
-                           visiblePoint(editor, point5),
-                           visiblePoint(editor, point6)
+      points.addAll(listOf(point1,
+                           point2,
+                           point3.bottom(editor),
+                           point4.bottom(editor),
+                           point5,
+                           point6
       ))
     }
   }
@@ -101,14 +109,14 @@ sealed class PlaceholderShape {
       val point6 = Point(point7.x, point5.y)
       val point8 = Point(point1.x, point7.y)
 
-      points.addAll(listOf(visiblePoint(editor, point1),
-                           visiblePoint(editor, point2),
-                           visiblePoint(editor, point3),
-                           visiblePoint(editor, point4),
-                           visiblePoint(editor, point5.bottom(editor)),
-                           visiblePoint(editor, point6.bottom(editor)),
-                           visiblePoint(editor, point7),
-                           visiblePoint(editor, point8)
+      points.addAll(listOf(point1,
+                           point2,
+                           point3,
+                           point4,
+                           point5.bottom(editor),
+                           point6.bottom(editor),
+                           point7,
+                           point8
       ))
     }
   }
@@ -0,0 +1,175 @@
+package com.jetbrains.edu.learning;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.util.containers.ContainerUtil;
+import com.jetbrains.edu.learning.courseFormat.Course;
+import com.jetbrains.edu.learning.courseFormat.FrameworkLesson;
+import com.jetbrains.edu.learning.courseFormat.Lesson;
+import com.jetbrains.edu.learning.courseFormat.StudyItem;
+import com.jetbrains.edu.learning.courseFormat.tasks.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches resolution of project files to tasks, see {@link EduUtils#getTaskForFile(Project, VirtualFile)}
+ * and {@link EduUtils#pathRelativeToTask(Project, VirtualFile)}.
+ *
+ * Cached values of files are dropped when these files or their parent directories are moved, renamed or deleted,
+ * when structure of the course changes (see {@link StudyItem#getStructureModificationCount()}) and on explicit {@link #invalidate()}.
+ */
+public class TaskResolveCache implements Disposable {
+  private static final Logger LOG = Logger.getInstance(TaskResolveCache.class);
+
+  private final Project myProject;
+  private final ConcurrentMap<VirtualFile, Entry> myEntries = ContainerUtil.createConcurrentWeakMap();
+  private final AtomicLong myHits = new AtomicLong();
+  private final AtomicLong myMisses = new AtomicLong();
+
+  public TaskResolveCache(@NotNull Project project) {
+    myProject = project;
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        invalidateIfNeeded(events);
+      }
+
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        invalidateIfNeeded(events);
+      }
+    });
+  }
+
+  public static TaskResolveCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, TaskResolveCache.class);
+  }
+
+  @Nullable
+  public Task getTask(@NotNull Course course, @NotNull VirtualFile file) {
+    return getEntry(course, file).getTask();
+  }
+
+  @NotNull
+  public String getPathRelativeToTask(@NotNull Course course, @NotNull VirtualFile file) {
+    return getEntry(course, file).myPathRelativeToTask;
+  }
+
+  public void invalidate() {
+    myEntries.clear();
+  }
+
+  public long getHitCount() {
+    return myHits.get();
+  }
+
+  public long getMissCount() {
+    return myMisses.get();
+  }
+
+  @NotNull
+  private Entry getEntry(@NotNull Course course, @NotNull VirtualFile file) {
+    long modificationCount = course.getStructureModificationCount();
+    Entry entry = myEntries.get(file);
+    if (entry != null && entry.myCourse == course && entry.myModificationCount == modificationCount) {
+      myHits.incrementAndGet();
+      return entry;
+    }
+    myMisses.incrementAndGet();
+    entry = computeEntry(course, file, modificationCount);
+    myEntries.put(file, entry);
+    return entry;
+  }
+
+  @NotNull
+  private static Entry computeEntry(@NotNull Course course, @NotNull VirtualFile file, long modificationCount) {
+    VirtualFile taskDir = EduUtils.getTaskDir(course, file);
+    Lesson lesson = null;
+    Task task = null;
+    VirtualFile lessonDir = taskDir == null ? null : taskDir.getParent();
+    if (lessonDir != null) {
+      lesson = EduUtils.getLesson(lessonDir, course);
+      if (lesson != null) {
+        task = lesson.getTask(taskDir.getName());
+      }
+    }
+    String pathRelativeToTask = EduUtils.pathRelativeToTask(course, taskDir, file);
+    return new Entry(course, modificationCount, lesson, task, pathRelativeToTask);
+  }
+
+  private void invalidateIfNeeded(@NotNull List<? extends VFileEvent> events) {
+    if (myEntries.isEmpty()) return;
+    Set<VirtualFile> changedFiles = new HashSet<>();
+    for (VFileEvent event : events) {
+      // created and copied files are new, so they can't affect resolution of cached files
+      if (event instanceof VFileMoveEvent || event instanceof VFileDeleteEvent ||
+          event instanceof VFilePropertyChangeEvent && VirtualFile.PROP_NAME.equals(((VFilePropertyChangeEvent)event).getPropertyName())) {
+        ContainerUtil.addIfNotNull(changedFiles, event.getFile());
+      }
+    }
+    if (changedFiles.isEmpty()) return;
+    int removed = 0;
+    for (VirtualFile file : myEntries.keySet()) {
+      if (isUnder(file, changedFiles)) {
+        myEntries.remove(file);
+        removed++;
+      }
+    }
+    if (removed > 0 && LOG.isDebugEnabled()) {
+      LOG.debug(removed + " cached files are invalidated by " + events.size() + " events. Hits: " + myHits.get() + ", misses: " + myMisses.get());
+    }
+  }
+
+  private static boolean isUnder(@NotNull VirtualFile file, @NotNull Set<VirtualFile> changedFiles) {
+    for (VirtualFile current = file; current != null; current = current.getParent()) {
+      if (changedFiles.contains(current)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void dispose() {
+    invalidate();
+  }
+
+  private static class Entry {
+    private final Course myCourse;
+    private final long myModificationCount;
+    @Nullable private final Lesson myLesson;
+    @Nullable private final Task myTask;
+    @NotNull private final String myPathRelativeToTask;
+
+    Entry(@NotNull Course course,
+          long modificationCount,
+          @Nullable Lesson lesson,
+          @Nullable Task task,
+          @NotNull String pathRelativeToTask) {
+      myCourse = course;
+      myModificationCount = modificationCount;
+      myLesson = lesson;
+      myTask = task;
+      myPathRelativeToTask = pathRelativeToTask;
+    }
+
+    @Nullable
+    Task getTask() {
+      // current task of framework lesson changes without any changes in course structure
+      if (myLesson instanceof FrameworkLesson && myCourse.isStudy()) {
+        return ((FrameworkLesson)myLesson).currentTask();
+      }
+      return myTask;
+    }
+  }
+}
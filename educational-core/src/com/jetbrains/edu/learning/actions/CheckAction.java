@@ -1,7 +1,6 @@
 package com.jetbrains.edu.learning.actions;
 
 import com.intellij.icons.AllIcons;
-import com.intellij.ide.projectView.ProjectView;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.Presentation;
@@ -28,6 +27,7 @@ import com.jetbrains.edu.learning.courseFormat.RemoteCourse;
 import com.jetbrains.edu.learning.courseFormat.tasks.Task;
 import com.jetbrains.edu.learning.courseFormat.tasks.TheoryTask;
 import com.jetbrains.edu.learning.editor.EduEditor;
+import com.jetbrains.edu.learning.projectView.CourseViewPane;
 import com.jetbrains.edu.learning.statistics.EduUsagesCollector;
 import icons.EducationalCoreIcons;
 import org.jetbrains.annotations.NotNull;
@@ -213,7 +213,7 @@ public class CheckAction extends DumbAwareActionWithShortcut {
       }
       ApplicationManager.getApplication().invokeLater(() -> {
         EduUtils.updateToolWindows(myProject);
-        ProjectView.getInstance(myProject).refresh();
+        CourseViewPane.updateTaskNodes(myProject, myTask);
 
         for (CheckListener listener : CheckListener.EP_NAME.getExtensions()) {
           listener.afterCheck(myProject, myTask, myResult);
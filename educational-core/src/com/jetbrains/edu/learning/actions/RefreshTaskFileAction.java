@@ -25,6 +25,7 @@ import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholder;
 import com.jetbrains.edu.learning.courseFormat.CheckStatus;
 import com.jetbrains.edu.learning.courseFormat.Course;
 import com.jetbrains.edu.learning.courseFormat.TaskFile;
+import com.jetbrains.edu.learning.courseFormat.ext.TaskFileExt;
 import com.jetbrains.edu.learning.courseFormat.tasks.ChoiceTask;
 import com.jetbrains.edu.learning.courseFormat.tasks.EduTask;
 import com.jetbrains.edu.learning.courseFormat.tasks.Task;
@@ -123,6 +124,8 @@ public class RefreshTaskFileAction extends DumbAwareActionWithShortcut {
   static void resetDocument(@NotNull final Document document,
                             @NotNull final TaskFile taskFile) {
     EduUtils.deleteGuardedBlocks(document);
+    // unchanged documents aren't rewritten, so resetting a course doesn't reparse every file
+    if (!TaskFileExt.isChanged(taskFile, document)) return;
     taskFile.setTrackChanges(false);
     clearDocument(document);
 
@@ -11,7 +11,7 @@ import com.jetbrains.edu.learning.stepik.StepikAdaptiveConnector
 class ChoiceTaskChecker(task: ChoiceTask, project: Project) : TaskChecker<ChoiceTask>(task, project) {
     override fun checkOnRemote(): CheckResult {
         val user = EduSettings.getInstance().user ?: return CheckResult.LOGIN_NEEDED
-        return StepikAdaptiveConnector.checkChoiceTask(task, user)
+        return StepikAdaptiveConnector.getCheckResult(StepikAdaptiveConnector.checkChoiceTask(task, user))
     }
 
     override fun onTaskFailed(message: String) {
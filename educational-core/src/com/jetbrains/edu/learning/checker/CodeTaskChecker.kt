@@ -14,6 +14,6 @@ class CodeTaskChecker(task: CodeTask, project: Project) : TaskChecker<CodeTask>(
     override fun checkOnRemote(): CheckResult {
         val user = EduSettings.getInstance().user
                 ?: return CheckResult.LOGIN_NEEDED
-        return StepikAdaptiveConnector.checkCodeTask(project, task, user)
+        return StepikAdaptiveConnector.getCheckResult(StepikAdaptiveConnector.checkCodeTask(project, task, user))
     }
 }
@@ -0,0 +1,94 @@
+package com.jetbrains.edu.learning.checker
+
+/**
+ * Compares output of a program with the expected output while the program is running,
+ * so the program can be stopped as soon as its output diverges from the expected one or gets too long.
+ *
+ * Output isn't accumulated: matched part is known to be equal to the expected output, so only a small part
+ * of actual output after the first mismatch is kept to show it in the failure message.
+ * As before, a single trailing line break of both outputs is ignored and empty output is compared as `<no output>`,
+ * i.e. the whole output has to be equal to the expected one without its trailing line break, optionally followed by a line break.
+ */
+class OutputComparator(expectedOutput: String, private val maxOutputLength: Int) {
+  private val expected: String = expectedOutput.dropLastLineBreak()
+  // number of matched chars of actual output
+  private var position: Int = 0
+  private var outputLength: Long = 0
+  private var mismatch: StringBuilder? = null
+  private var isTooLong: Boolean = false
+
+  /**
+   * @return false if the output can't match anymore, so the program can be stopped
+   */
+  @Synchronized
+  fun append(text: CharSequence): Boolean {
+    outputLength += text.length
+    for (i in 0 until text.length) {
+      val mismatch = mismatch
+      if (mismatch != null) {
+        if (mismatch.length >= DIFF_WINDOW) break
+        mismatch.append(text[i])
+        continue
+      }
+      if (!matchNext(text[i])) {
+        this.mismatch = StringBuilder().append(text[i])
+      }
+    }
+    if (outputLength > maxOutputLength) {
+      isTooLong = true
+    }
+    return mismatch == null && !isTooLong
+  }
+
+  private fun matchNext(char: Char): Boolean {
+    if (position < expected.length) {
+      if (expected[position] != char) return false
+    }
+    // the only char allowed after the expected output is a trailing line break
+    else if (position > expected.length || char != '\n') {
+      return false
+    }
+    position++
+    return true
+  }
+
+  /**
+   * Should be called after the program is terminated
+   *
+   * @return true if the output is equal to the expected one
+   */
+  @Synchronized
+  fun isMatched(): Boolean {
+    if (outputLength == 0L) {
+      append(NO_OUTPUT)
+    }
+    if (mismatch != null || isTooLong) return false
+    // output without the trailing line break has to be equal to the expected one, so output `a\n` doesn't match expected `a\n\n`
+    return position == expected.length + 1 || position == expected.length && !expected.endsWith('\n')
+  }
+
+  /**
+   * @return description of the mismatch with parts of the expected and actual output around it
+   */
+  @Synchronized
+  fun getMismatchMessage(): String {
+    if (isTooLong) {
+      return "Output is longer than $maxOutputLength characters"
+    }
+    val start = maxOf(0, minOf(position, expected.length) - DIFF_WINDOW)
+    val prefix = (if (start > 0) "..." else "") + expected.substring(start, minOf(position, expected.length))
+    val expectedEnd = minOf(expected.length, position + DIFF_WINDOW)
+    val expectedWindow = prefix + expected.substring(minOf(position, expected.length), expectedEnd) +
+                         if (expectedEnd < expected.length) "..." else ""
+    val actualWindow = prefix + (mismatch ?: "") + if (mismatch?.length == DIFF_WINDOW) "..." else ""
+    return "Expected output:\n$expectedWindow \nActual output:\n$actualWindow"
+  }
+
+  companion object {
+    private const val NO_OUTPUT = "<no output>"
+    /** Max number of chars shown before and after the first mismatch */
+    private const val DIFF_WINDOW = 500
+
+    private fun String.dropLastLineBreak(): String = if (endsWith('\n')) dropLast(1) else this
+  }
+}
@@ -6,6 +6,7 @@ import com.intellij.execution.RunnerRegistry
 import com.intellij.execution.executors.DefaultRunExecutor
 import com.intellij.execution.process.ProcessAdapter
 import com.intellij.execution.process.ProcessEvent
+import com.intellij.execution.process.ProcessHandler
 import com.intellij.execution.process.ProcessOutputTypes
 import com.intellij.execution.runners.ExecutionEnvironment
 import com.intellij.execution.runners.ExecutionEnvironmentBuilder
@@ -16,13 +17,20 @@ import com.jetbrains.edu.learning.checker.CheckUtils.NOT_RUNNABLE_MESSAGE
 import com.jetbrains.edu.learning.checker.CheckUtils.createDefaultRunConfiguration
 import com.jetbrains.edu.learning.courseFormat.CheckStatus
 import com.jetbrains.edu.learning.courseFormat.tasks.OutputTask
-import java.util.*
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
 
 
 open class OutputTaskChecker(task: OutputTask, project: Project) : TaskChecker<OutputTask>(task, project) {
   companion object {
     val OUTPUT_PATTERN_NAME = "output.txt"
+
+    /** Max number of chars of program output, longer output can't be expected from a task */
+    private val MAX_OUTPUT_LENGTH = Math.max(1, Integer.getInteger("edu.output.checker.max.length", 1024 * 1024))
+    /** Max time to wait for the program to finish */
+    private val TIMEOUT_SECONDS = Math.max(1, Integer.getInteger("edu.output.checker.timeout.seconds", 60)).toLong()
   }
 
   override fun onTaskFailed(message: String) {
@@ -32,27 +40,33 @@ open class OutputTaskChecker(task: OutputTask, project: Project) : TaskChecker<O
 
   override fun check(): CheckResult {
     val configuration = createDefaultRunConfiguration(project) ?: return CheckResult(CheckStatus.Unchecked, NOT_RUNNABLE_MESSAGE)
+    val outputPatternFile = task.getTaskDir(project)?.findChild(OUTPUT_PATTERN_NAME)
+            ?: return CheckResult.FAILED_TO_CHECK
+    val comparator = OutputComparator(VfsUtil.loadText(outputPatternFile), MAX_OUTPUT_LENGTH)
     val executor = DefaultRunExecutor.getRunExecutorInstance()
     val runner = RunnerRegistry.getInstance().getRunner(executor.id, configuration.configuration)
     configuration.isActivateToolWindowBeforeRun = false
     val env = ExecutionEnvironmentBuilder.create(executor, configuration).build()
-    var processNotStarted = false
+    val processNotStarted = AtomicBoolean(false)
     val connection = project.messageBus.connect()
     val latch = CountDownLatch(1)
-    val output = ArrayList<String>()
+    val processHandler = AtomicReference<ProcessHandler>()
     connection.subscribe(ExecutionManager.EXECUTION_TOPIC, object : ExecutionListener {
       override fun processNotStarted(executorId: String, e: ExecutionEnvironment) {
         if (executorId == executor.id && e == env) {
+          processNotStarted.set(true)
           latch.countDown()
-          processNotStarted = true
         }
       }
     })
     runner?.execute(env) {
-      it.processHandler?.addProcessListener(object : ProcessAdapter() {
+      val handler = it.processHandler ?: return@execute
+      processHandler.set(handler)
+      handler.addProcessListener(object : ProcessAdapter() {
         override fun onTextAvailable(event: ProcessEvent, outputType: Key<*>) {
-          if (outputType == ProcessOutputTypes.STDOUT) {
-            output.add(event.text)
+          // output is compared while the program is running, so it's stopped on the first mismatch
+          if (outputType == ProcessOutputTypes.STDOUT && !comparator.append(event.text)) {
+            handler.destroyProcess()
           }
         }
 
@@ -62,24 +76,33 @@ open class OutputTaskChecker(task: OutputTask, project: Project) : TaskChecker<O
       })
     }
 
-    latch.await()
-    connection.disconnect()
-    if (processNotStarted) {
-      return CheckResult(CheckStatus.Unchecked, NOT_RUNNABLE_MESSAGE)
+    val result = try {
+      waitForOutput(latch, TIMEOUT_SECONDS, comparator) { processHandler.get()?.destroyProcess() }
     }
-
-    val outputPatternFile = task.getTaskDir(project)?.findChild(OUTPUT_PATTERN_NAME)
-            ?: return CheckResult.FAILED_TO_CHECK
-    val expectedOutput = VfsUtil.loadText(outputPatternFile)
-    var outputString = output.joinToString("")
-    if (outputString.isEmpty()) {
-      outputString = "<no output>"
+    finally {
+      connection.disconnect()
     }
-    if (expectedOutput.dropLastLineBreak() == outputString.dropLastLineBreak()) {
-      return CheckResult(CheckStatus.Solved, TestsOutputParser.CONGRATULATIONS)
+    if (processNotStarted.get()) {
+      return CheckResult(CheckStatus.Unchecked, NOT_RUNNABLE_MESSAGE)
     }
-    return CheckResult(CheckStatus.Failed, "Expected output:\n$expectedOutput \nActual output:\n$outputString")
+    return result
   }
+}
 
-  private fun String.dropLastLineBreak() : String = if (this.endsWith('\n')) this.dropLast(1) else this
-}
\ No newline at end of file
+/**
+ * Waits until [terminated] is counted down by the finished program and checks its output.
+ * The program is stopped with [stopProcess] if it doesn't finish in [timeoutSeconds].
+ */
+internal fun waitForOutput(terminated: CountDownLatch,
+                           timeoutSeconds: Long,
+                           comparator: OutputComparator,
+                           stopProcess: () -> Unit): CheckResult {
+  if (!terminated.await(timeoutSeconds, TimeUnit.SECONDS)) {
+    stopProcess()
+    return CheckResult(CheckStatus.Failed, "Program was stopped after $timeoutSeconds seconds")
+  }
+  if (comparator.isMatched()) {
+    return CheckResult(CheckStatus.Solved, TestsOutputParser.CONGRATULATIONS)
+  }
+  return CheckResult(CheckStatus.Failed, comparator.getMismatchMessage())
+}
@@ -0,0 +1,162 @@
+package com.jetbrains.edu.learning.checker.gradle
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.io.FileUtil
+import org.gradle.tooling.*
+import org.gradle.tooling.events.OperationType
+import org.gradle.tooling.events.ProgressEvent
+import org.gradle.tooling.events.ProgressListener
+import org.gradle.tooling.events.task.TaskFailureResult
+import org.gradle.tooling.events.task.TaskFinishEvent
+import org.gradle.tooling.events.test.JvmTestOperationDescriptor
+import org.gradle.tooling.events.test.TestFailureResult
+import org.gradle.tooling.events.test.TestFinishEvent
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Keeps a warm Gradle Tooling API connection for the project, so that every check reuses
+ * the same daemon and configured build instead of spawning `./gradlew` from scratch.
+ *
+ * Test results are collected from Tooling API progress events, not from the process output.
+ */
+class GradleCheckingService(private val project: Project) : Disposable {
+
+  private var connection: ProjectConnection? = null
+
+  /**
+   * Runs given gradle tasks in one build and waits for its completion.
+   * Returns `null` if connection to gradle can't be established, in this case caller should fall back to command line.
+   */
+  fun runTasks(taskNames: List<String>, vararg arguments: String): GradleRunResult? {
+    val connection = getConnection() ?: return null
+    val javaHome = ProjectRootManager.getInstance(project).projectSdk?.homePath ?: return null
+
+    val stdout = ByteArrayOutputStream()
+    val stderr = ByteArrayOutputStream()
+    val tests = mutableListOf<GradleTestResult>()
+    val failedTasks = mutableListOf<String>()
+
+    val cancellationTokenSource = GradleConnector.newCancellationTokenSource()
+    val launcher = connection.newBuild()
+      .forTasks(taskNames)
+      .withArguments(*arguments)
+      .setJavaHome(File(javaHome))
+      .setStandardOutput(stdout)
+      .setStandardError(stderr)
+      .withCancellationToken(cancellationTokenSource.token())
+      .addProgressListener(ProgressListener { event -> collectEvent(event, tests, failedTasks) },
+                           EnumSet.of(OperationType.TEST, OperationType.TASK))
+
+    val latch = CountDownLatch(1)
+    var failure: GradleConnectionException? = null
+    launcher.run(object : ResultHandler<Void> {
+      override fun onComplete(result: Void?) = latch.countDown()
+
+      override fun onFailure(e: GradleConnectionException) {
+        failure = e
+        latch.countDown()
+      }
+    })
+
+    val indicator: ProgressIndicator? = ProgressManager.getInstance().progressIndicator
+    while (!latch.await(CANCELLATION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+      if (indicator != null && indicator.isCanceled) {
+        cancellationTokenSource.cancel()
+      }
+    }
+
+    val buildFailure = failure
+    if (buildFailure != null && buildFailure !is BuildException && buildFailure !is BuildCancelledException) {
+      // something is wrong with the connection itself, so don't reuse it anymore
+      LOG.warn("#educational: failed to execute ${taskNames.joinToString(" ")} with gradle tooling api", buildFailure)
+      closeConnection()
+      return null
+    }
+
+    return GradleRunResult(stdout.toString(), stderr.toString(), tests, failedTasks,
+                           buildFailure is BuildCancelledException)
+  }
+
+  private fun collectEvent(event: ProgressEvent, tests: MutableList<GradleTestResult>, failedTasks: MutableList<String>) {
+    when (event) {
+      is TestFinishEvent -> {
+        val descriptor = event.descriptor as? JvmTestOperationDescriptor ?: return
+        // skip suite and class level events, we are interested in test methods only
+        val methodName = descriptor.methodName ?: return
+        val result = event.result
+        val failureMessage = if (result is TestFailureResult) {
+          result.failures.firstOrNull()?.message ?: "Wrong answer"
+        }
+        else {
+          null
+        }
+        synchronized(tests) {
+          tests += GradleTestResult(descriptor.className ?: "", methodName, failureMessage)
+        }
+      }
+      is TaskFinishEvent -> {
+        if (event.result is TaskFailureResult) {
+          synchronized(failedTasks) {
+            failedTasks += event.descriptor.taskPath
+          }
+        }
+      }
+    }
+  }
+
+  @Synchronized
+  private fun getConnection(): ProjectConnection? {
+    connection?.let { return it }
+    val basePath = project.basePath ?: return null
+    return try {
+      GradleConnector.newConnector()
+        .forProjectDirectory(File(FileUtil.toSystemDependentName(basePath)))
+        .connect()
+        .also { connection = it }
+    }
+    catch (e: GradleConnectionException) {
+      LOG.warn("#educational: failed to connect to gradle", e)
+      null
+    }
+  }
+
+  @Synchronized
+  private fun closeConnection() {
+    connection?.close()
+    connection = null
+  }
+
+  override fun dispose() = closeConnection()
+
+  companion object {
+    private val LOG = Logger.getInstance(GradleCheckingService::class.java)
+    private const val CANCELLATION_CHECK_INTERVAL_MS = 100L
+
+    @JvmStatic
+    fun getInstance(project: Project): GradleCheckingService = ServiceManager.getService(project, GradleCheckingService::class.java)
+  }
+}
+
+class GradleTestResult(val className: String, val methodName: String, val failureMessage: String?) {
+  val isSuccess: Boolean get() = failureMessage == null
+}
+
+class GradleRunResult(
+  val stdout: String,
+  val stderr: String,
+  val tests: List<GradleTestResult>,
+  val failedTasks: List<String>,
+  val isCancelled: Boolean
+) {
+  val hasCompilationErrors: Boolean get() = failedTasks.any { it.substringAfterLast(":").startsWith("compile") }
+}
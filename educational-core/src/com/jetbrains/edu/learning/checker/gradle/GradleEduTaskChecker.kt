@@ -11,9 +11,19 @@ import com.jetbrains.edu.learning.courseFormat.tasks.EduTask
 
 class GradleEduTaskChecker(task: EduTask, project: Project) : TaskChecker<EduTask>(task, project) {
   override fun check(): CheckResult {
-    val taskName = "${getGradleProjectName(task)}:test"
+    val projectName = getGradleProjectName(task)
+    val taskName = "$projectName:test"
+    // test task without changes in sources is up-to-date and doesn't run tests at all, so its results are always removed
+    val cleanTaskName = "$projectName:cleanTest"
+    val result = GradleCheckingService.getInstance(project).runTasks(listOf(cleanTaskName, taskName))
+    if (result != null) {
+      return result.toCheckResult()
+    }
+
+    // fall back to command line if tooling api connection can't be established
     val cmd = generateGradleCommandLine(
       project,
+      cleanTaskName,
       taskName
     ) ?: return FAILED_TO_CHECK
 
@@ -77,6 +77,10 @@ fun getProcessOutput(process: Process, commandLine: String, taskName: String): G
     return GradleOutput(false, listOf("$FAILED_TO_CHECK_MESSAGE. See idea.log for more details."))
   }
 
+  return GradleOutput(true, collectStudyMessages(output.stdoutLines))
+}
+
+private fun collectStudyMessages(lines: List<String>): List<String> {
   var currentMessage: StringBuilder? = null
   val allMessages = mutableListOf<String>()
 
@@ -86,7 +90,7 @@ fun getProcessOutput(process: Process, commandLine: String, taskName: String): G
     }
   }
 
-  for (line in output.stdoutLines) {
+  for (line in lines) {
     if (line.startsWith(STUDY_PREFIX)) {
       val messageLine = line.removePrefix(STUDY_PREFIX)
       if (currentMessage != null) {
@@ -102,7 +106,25 @@ fun getProcessOutput(process: Process, commandLine: String, taskName: String): G
 
   addCurrentMessageIfNeeded()
 
-  return GradleOutput(true, allMessages)
+  return allMessages
+}
+
+/**
+ * Converts result of gradle execution via tooling api to [GradleOutput].
+ * Output of the run task is still taken from stdout as it's the output of user program.
+ */
+fun GradleRunResult.toGradleOutput(taskName: String): GradleOutput {
+  if (hasCompilationErrors) {
+    return GradleOutput(false, listOf(COMPILATION_FAILED_MESSAGE))
+  }
+  if (isCancelled) {
+    return GradleOutput(false, listOf("Checking was cancelled"))
+  }
+  if (failedTasks.any { it == taskName }) {
+    TaskChecker.LOG.warn("#educational: executing $taskName fails: \n$stderr")
+    return GradleOutput(false, listOf(stderr.takeIf { it.isNotBlank() } ?: "$FAILED_TO_CHECK_MESSAGE. See idea.log for more details."))
+  }
+  return GradleOutput(true, collectStudyMessages(stdout.lines()))
 }
 
 fun String.postProcessOutput() = replace(System.getProperty("line.separator"), "\n").removeSuffix("\n")
@@ -111,21 +133,46 @@ fun parseTestsOutput(process: Process, commandLine: String, taskName: String): C
   val output = getProcessOutput(process, commandLine, taskName)
   if (!output.isSuccess) return CheckResult(CheckStatus.Failed, output.firstMessage)
 
-  var congratulations = TestsOutputParser.CONGRATULATIONS
+  for (message in output.messages) {
+    if (TestsOutputParser.TEST_OK !in message && TestsOutputParser.CONGRATS_MESSAGE !in message && TestsOutputParser.TEST_FAILED in message) {
+      return CheckResult(CheckStatus.Failed, message.substringAfter(TestsOutputParser.TEST_FAILED).prettify())
+    }
+  }
 
-  loop@for (message in output.messages) {
-    when {
-      TestsOutputParser.TEST_OK in message -> continue@loop
-      TestsOutputParser.CONGRATS_MESSAGE in message -> {
-        congratulations = message.substringAfter(TestsOutputParser.CONGRATS_MESSAGE)
-      }
-      TestsOutputParser.TEST_FAILED in message -> {
-        return CheckResult(CheckStatus.Failed, message.substringAfter(TestsOutputParser.TEST_FAILED).prettify())
-      }
+  return CheckResult(CheckStatus.Solved, getCongratulations(output.messages))
+}
+
+/**
+ * Courses can replace default congratulation printing study message with [TestsOutputParser.CONGRATS_MESSAGE] prefix
+ */
+private fun getCongratulations(messages: List<String>): String {
+  var congratulations = TestsOutputParser.CONGRATULATIONS
+  for (message in messages) {
+    if (TestsOutputParser.TEST_OK !in message && TestsOutputParser.CONGRATS_MESSAGE in message) {
+      congratulations = message.substringAfter(TestsOutputParser.CONGRATS_MESSAGE)
     }
   }
+  return congratulations
+}
 
-  return CheckResult(CheckStatus.Solved, congratulations)
+/**
+ * Converts test events collected by [GradleCheckingService] to check result
+ */
+fun GradleRunResult.toCheckResult(): CheckResult {
+  if (hasCompilationErrors) return CheckResult(CheckStatus.Failed, COMPILATION_FAILED_MESSAGE)
+  if (isCancelled) return CheckResult(CheckStatus.Unchecked, "Checking was cancelled")
+  if (tests.isEmpty()) {
+    TaskChecker.LOG.warn("#educational: no tests were executed: \n$stderr")
+    return CheckResult(CheckStatus.Failed, "$FAILED_TO_CHECK_MESSAGE. See idea.log for more details.")
+  }
+
+  val failedTest = tests.firstOrNull { !it.isSuccess }
+  if (failedTest != null) {
+    return CheckResult(CheckStatus.Failed, failedTest.failureMessage!!.postProcessOutput().prettify())
+  }
+  // test events don't carry output of tests, so custom congratulations are taken from the build output
+  val messages = collectStudyMessages(stdout.lines()).map { it.postProcessOutput() }
+  return CheckResult(CheckStatus.Solved, getCongratulations(messages))
 }
 
 private fun String.prettify(): String {
@@ -153,13 +200,12 @@ fun runGradleRunTask(project: Project, task: Task,
   val mainClassName = findMainClass(project, task, mainClassForFile)
           ?: return Err(CheckResult(CheckStatus.Unchecked, "Unable to execute task ${task.name}"))
   val taskName = "${getGradleProjectName(task)}:run"
-  val cmd = generateGradleCommandLine(
-    project,
-    taskName,
-    "${MAIN_CLASS_PROPERTY_PREFIX}$mainClassName"
-  ) ?: return Err(CheckResult.FAILED_TO_CHECK)
-
-  val gradleOutput = getProcessOutput(cmd.createProcess(), cmd.commandLineString, taskName)
+  val mainClassParam = "${MAIN_CLASS_PROPERTY_PREFIX}$mainClassName"
+  val gradleOutput = GradleCheckingService.getInstance(project).runTasks(listOf(taskName), mainClassParam)?.toGradleOutput(taskName)
+                     ?: run {
+                       val cmd = generateGradleCommandLine(project, taskName, mainClassParam) ?: return Err(CheckResult.FAILED_TO_CHECK)
+                       getProcessOutput(cmd.createProcess(), cmd.commandLineString, taskName)
+                     }
   if (!gradleOutput.isSuccess) {
     return Err(CheckResult(CheckStatus.Failed, gradleOutput.firstMessage))
   }
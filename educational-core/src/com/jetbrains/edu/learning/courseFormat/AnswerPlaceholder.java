@@ -204,6 +204,30 @@ public class AnswerPlaceholder {
     return myPlaceholderDependency == null || myPlaceholderDependency.isVisible() || !isInitializedFromDependency();
   }
 
+  /**
+   * @return deep copy of the placeholder including its initial state and dependency. Copy isn't attached to any task file
+   */
+  @NotNull
+  public AnswerPlaceholder copy() {
+    AnswerPlaceholder copy = new AnswerPlaceholder();
+    copy.myOffset = myOffset;
+    copy.myLength = myLength;
+    copy.myIndex = myIndex;
+    copy.myInitialState = myInitialState != null ? new MyInitialState(myInitialState.getOffset(), myInitialState.getLength()) : null;
+    copy.myUseLength = myUseLength;
+    if (myPlaceholderDependency != null) {
+      copy.myPlaceholderDependency = myPlaceholderDependency.copy(copy);
+    }
+    copy.myIsInitializedFromDependency = myIsInitializedFromDependency;
+    copy.myHints = new ArrayList<>(myHints);
+    copy.myPossibleAnswer = myPossibleAnswer;
+    copy.myPlaceholderText = myPlaceholderText;
+    copy.mySelected = mySelected;
+    copy.myStatus = myStatus;
+    copy.myStudentAnswer = myStudentAnswer;
+    return copy;
+  }
+
   public static class MyInitialState {
     private int length = -1;
     private int offset = -1;
@@ -248,6 +272,7 @@ public class AnswerPlaceholder {
     if (placeholderDependency != null) {
       myPlaceholderDependency.setAnswerPlaceholder(this);
     }
+    PlaceholderDependencyGraph.dependencyChanged(this);
   }
 
   public boolean isInitializedFromDependency() {
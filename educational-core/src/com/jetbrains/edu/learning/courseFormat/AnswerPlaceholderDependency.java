@@ -94,6 +94,12 @@ public class AnswerPlaceholderDependency {
     myAnswerPlaceholder = answerPlaceholder;
   }
 
+  @NotNull
+  public AnswerPlaceholderDependency copy(@NotNull AnswerPlaceholder answerPlaceholder) {
+    return new AnswerPlaceholderDependency(answerPlaceholder, mySectionName, myLessonName, myTaskName, myFileName, myPlaceholderIndex,
+                                           myIsVisible);
+  }
+
   @Nullable
   public static AnswerPlaceholderDependency create(@NotNull AnswerPlaceholder answerPlaceholder, @NotNull String text) {
     return create(answerPlaceholder, text, true);
@@ -4,20 +4,19 @@ import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import com.intellij.lang.Language;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.xmlb.XmlSerializer;
 import com.intellij.util.xmlb.annotations.Transient;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.stepik.StepicUser;
-import one.util.streamex.StreamEx;
-import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -38,6 +37,11 @@ public class Course extends ItemContainer {
   protected CourseVisibility myVisibility = CourseVisibility.LocalVisibility.INSTANCE;
   protected CourseCompatibility myCompatibility = CourseCompatibility.COMPATIBLE;
 
+  transient private final StudyItemIndex<Section> mySectionIndex = new StudyItemIndex<>(this, Section.class);
+  // lessons view from the index paired with the same view without additional lesson
+  transient private volatile Pair<List<Lesson>, List<Lesson>> myLessonsWithoutAdditional;
+  transient private final PlaceholderDependencyGraph myDependencyGraph = new PlaceholderDependencyGraph(this);
+
   public Course() {}
 
   public void init(@Nullable Course course, @Nullable StudyItem parentItem, boolean isRestarted) {
@@ -46,10 +50,12 @@ public class Course extends ItemContainer {
       item.setIndex(i + 1);
       item.init(this, this, isRestarted);
     }
+    myDependencyGraph.invalidate();
+    invalidateProgress();
   }
 
   /**
-   * exclude service lesson containing additional files for the course. Returns lessons copy.
+   * exclude service lesson containing additional files for the course. Returns unmodifiable view.
    */
   @NotNull
   @Override
@@ -61,26 +67,42 @@ public class Course extends ItemContainer {
    * returns service lesson as well. Meant to be used in project generation/serialization
    */
   public List<Lesson> getLessons(boolean withAdditional) {
-    final List<Lesson> lessons = items.stream().filter(Lesson.class::isInstance).map(Lesson.class::cast).collect(Collectors.toList());
-    return withAdditional ? lessons : lessons.stream().filter(lesson -> !lesson.isAdditional()).collect(Collectors.toList());
+    final List<Lesson> lessons = super.getLessons();
+    if (withAdditional) {
+      return lessons;
+    }
+    // lessons view is recreated by the index on every change of items, so it's used as a cache key
+    Pair<List<Lesson>, List<Lesson>> cached = myLessonsWithoutAdditional;
+    if (cached == null || cached.first != lessons) {
+      List<Lesson> withoutAdditional = lessons.stream().filter(lesson -> !lesson.isAdditional()).collect(Collectors.toList());
+      cached = Pair.create(lessons, Collections.unmodifiableList(withoutAdditional));
+      myLessonsWithoutAdditional = cached;
+    }
+    return cached.second;
   }
 
   public void addSection(@NotNull Section section) {
     items.add(section);
+    invalidateIndex();
   }
 
+  /**
+   * Returns unmodifiable view of sections which is shared between calls until items are changed
+   */
   @NotNull
   public List<Section> getSections() {
-    return items.stream().filter(Section.class::isInstance).map(Section.class::cast).collect(Collectors.toList());
+    return mySectionIndex.getItems(items);
   }
 
   public void removeSection(@NotNull final Section toRemove) {
     items.remove(toRemove);
+    invalidateIndex();
   }
 
   public void removeAdditionalLesson() {
     items.stream().filter(it -> it instanceof Lesson && ((Lesson)it).isAdditional()).findFirst().
       ifPresent(lesson -> items.remove(lesson));
+    invalidateIndex();
   }
 
   @Nullable
@@ -91,20 +113,12 @@ public class Course extends ItemContainer {
         return section.getLesson(lessonName);
       }
     }
-    return (Lesson)StreamEx.of(items).filter(Lesson.class::isInstance)
-      .findFirst(lesson -> lessonName.equals(lesson.getName())).orElse(null);
+    return getLesson(lessonName);
   }
 
   @Nullable
   public Section getSection(@NotNull final String name) {
-    return (Section)items.stream().filter(Section.class::isInstance).
-      filter(item -> item.getName().equals(name)).findFirst().orElse(null);
-  }
-
-  @Nullable
-  public Lesson getLesson(int lessonId) {
-    return (Lesson)items.stream().filter(Lesson.class::isInstance).
-      filter(item -> ((Lesson)item).getId() == lessonId).findFirst().orElse(null);
+    return mySectionIndex.getByName(items, name);
   }
 
   @NotNull
@@ -224,11 +238,28 @@ public class Course extends ItemContainer {
     this.courseMode = courseMode;
   }
 
+  @NotNull
+  @Override
   public Course copy() {
-    Element element = XmlSerializer.serialize(this);
-    Course copy = XmlSerializer.deserialize(element, getClass());
-    copy.init(null, null, true);
-    return copy;
+    return (Course)super.copy();
+  }
+
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    Course course = (Course)source;
+    authors = new ArrayList<>(course.authors.size());
+    for (StepicUser author : course.authors) {
+      authors.add(author.copy());
+    }
+    description = course.description;
+    name = course.name;
+    myProgrammingLanguage = course.myProgrammingLanguage;
+    myLanguageCode = course.myLanguageCode;
+    courseType = course.courseType;
+    courseMode = course.courseMode;
+    myVisibility = course.myVisibility;
+    myCompatibility = course.myCompatibility;
   }
 
   public boolean isAdaptive() {
@@ -298,7 +329,20 @@ public class Course extends ItemContainer {
     return myCompatibility;
   }
 
+  @Transient
+  @NotNull
+  public PlaceholderDependencyGraph getDependencyGraph() {
+    return myDependencyGraph;
+  }
+
   public void addItem(@NotNull StudyItem item, int index) {
     items.add(index, item);
+    invalidateIndex();
+  }
+
+  @Override
+  void invalidateIndex() {
+    super.invalidateIndex();
+    mySectionIndex.invalidate();
   }
 }
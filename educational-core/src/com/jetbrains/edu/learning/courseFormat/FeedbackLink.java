@@ -38,6 +38,14 @@ public class FeedbackLink {
     myLink = link;
   }
 
+  @NotNull
+  public FeedbackLink copy() {
+    FeedbackLink copy = new FeedbackLink();
+    copy.myType = myType;
+    copy.myLink = myLink;
+    return copy;
+  }
+
   public enum LinkType {
     STEPIK, CUSTOM, NONE
   }
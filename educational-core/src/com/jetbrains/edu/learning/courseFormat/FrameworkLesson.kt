@@ -28,44 +28,53 @@ class FrameworkLesson() : Lesson() {
   var currentTaskIndex: Int = 0
 
   /**
-   * Contains diffs between neighbor tasks.
-   * [diffs]`[i]` is diff list between [taskList]`[i]` and [taskList]`[i - 1]`.
-   * [diffs]`[0]` is supposed to be empty.
+   * Contains recently used diffs between neighbor tasks.
+   * Value for key `i` is diff list between [taskList]`[i]` and [taskList]`[i - 1]`.
+   * Diffs are calculated on demand since only diffs around current task are needed.
    */
   @Transient
-  private var diffs: List<List<TaskDiff>> = emptyList()
+  private val diffs: MutableMap<Int, List<TaskDiff>> = object : LinkedHashMap<Int, List<TaskDiff>>(MAX_CACHED_DIFFS, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, List<TaskDiff>>): Boolean = size > MAX_CACHED_DIFFS
+  }
 
   fun currentTask(): Task = taskList[currentTaskIndex]
 
   override fun init(course: Course?, section: StudyItem?, isRestarted: Boolean) {
     super.init(course, section, isRestarted)
-    // We don't need calculate diffs in CC mode because we don't use them
-    if (course?.isStudy == true) {
-      diffs = List(taskList.size) { index ->
-        if (index == 0) return@List emptyList<TaskDiff>()
-        val task = taskList[index]
-        val prevTask = taskList[index - 1]
-        calculateDiffs(prevTask, task)
-      }
+    // tasks could be changed, so cached diffs can be outdated
+    synchronized(diffs) {
+      diffs.clear()
     }
   }
 
+  override fun copyFrom(source: StudyItem) {
+    super.copyFrom(source)
+    currentTaskIndex = (source as FrameworkLesson).currentTaskIndex
+  }
+
   fun prepareNextTask(project: Project, taskDir: VirtualFile) {
     check(EduUtils.isStudentProject(project)) {
       "`prepareNextTask` should be called only if course in study mode"
     }
     currentTaskIndex++
-    diffs[currentTaskIndex].forEach { diff -> diff.apply(project, taskDir) }
+    getDiffs(currentTaskIndex).forEach { diff -> diff.apply(project, taskDir) }
   }
 
   fun preparePrevTask(project: Project, taskDir: VirtualFile) {
     check(EduUtils.isStudentProject(project)) {
       "`preparePrevTask` should be called only if course in study mode"
     }
-    diffs[currentTaskIndex].forEach { diff -> diff.revert(project, taskDir) }
+    getDiffs(currentTaskIndex).forEach { diff -> diff.revert(project, taskDir) }
     currentTaskIndex--
   }
 
+  private fun getDiffs(index: Int): List<TaskDiff> {
+    if (index == 0) return emptyList()
+    return synchronized(diffs) {
+      diffs.getOrPut(index) { calculateDiffs(taskList[index - 1], taskList[index]) }
+    }
+  }
+
   private fun calculateDiffs(prevTask: Task, nextTask: Task): List<TaskDiff> {
     val diffs = mutableListOf<TaskDiff>()
     diffs += calculateDiffs(
@@ -95,6 +104,9 @@ class FrameworkLesson() : Lesson() {
   }
 }
 
+// current task diff and diffs of its neighbors
+private const val MAX_CACHED_DIFFS = 3
+
 private inline fun <T> calculateDiffs(
   prevItems: Map<String, T>,
   nextItems: Map<String, T>,
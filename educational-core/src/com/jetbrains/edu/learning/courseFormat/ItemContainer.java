@@ -3,14 +3,12 @@ package com.jetbrains.edu.learning.courseFormat;
 import com.google.gson.annotations.Expose;
 import com.intellij.util.xmlb.annotations.AbstractCollection;
 import com.jetbrains.edu.learning.EduUtils;
-import one.util.streamex.StreamEx;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public abstract class ItemContainer extends StudyItem {
   @AbstractCollection(elementTypes = {
@@ -20,21 +18,26 @@ public abstract class ItemContainer extends StudyItem {
   })
   @Expose protected List<StudyItem> items = new ArrayList<>();
 
+  transient private final StudyItemIndex<StudyItem> myItemIndex = new StudyItemIndex<>(this, StudyItem.class);
+  transient private final StudyItemIndex<Lesson> myLessonIndex = new StudyItemIndex<>(this, Lesson.class);
+  // progress counters, -1 means that they should be calculated, see getSolvedTaskCount()
+  transient private int mySolvedTaskCount = -1;
+  transient private int myTaskCountForProgress;
+  transient private long myProgressModificationCount;
+
   @Nullable
   public Lesson getLesson(@NotNull final String name) {
-    return (Lesson)StreamEx.of(items).filter(Lesson.class::isInstance)
-      .findFirst(lesson -> name.equals(lesson.getName())).orElse(null);
+    return myLessonIndex.getByName(items, name);
   }
 
   @Nullable
   public Lesson getLesson(int id) {
-    return (Lesson)StreamEx.of(items).filter(Lesson.class::isInstance)
-      .findFirst(item -> id == ((Lesson)item).getId()).orElse(null);
+    return myLessonIndex.getById(items, id);
   }
 
   @Nullable
   public StudyItem getItem(@NotNull final String name) {
-    return items.stream().filter(item -> item.getName().equals(name)).findFirst().orElse(null);
+    return myItemIndex.getByName(items, name);
   }
 
   @NotNull
@@ -42,25 +45,32 @@ public abstract class ItemContainer extends StudyItem {
     return Collections.unmodifiableList(items);
   }
 
+  /**
+   * Returns unmodifiable view of lessons which is shared between calls until items are changed
+   */
   @NotNull
   public List<Lesson> getLessons() {
-    return items.stream().filter(Lesson.class::isInstance).map(Lesson.class::cast).collect(Collectors.toList());
+    return myLessonIndex.getItems(items);
   }
 
   public void addLessons(@NotNull final List<Lesson> lessons) {
     items.addAll(lessons);
+    invalidateIndex();
   }
 
   public void addLesson(@NotNull final Lesson lesson) {
     items.add(lesson);
+    invalidateIndex();
   }
 
   public void removeLesson(@NotNull Lesson lesson) {
     items.remove(lesson);
+    invalidateIndex();
   }
 
   public void sortItems() {
     Collections.sort(items, EduUtils.INDEX_COMPARATOR);
+    invalidateIndex();
   }
 
   public void visitLessons(@NotNull LessonVisitor visitor) {
@@ -90,7 +100,68 @@ public abstract class ItemContainer extends StudyItem {
     }
   }
 
+  /**
+   * Progress counters are calculated on the first query from counters of lessons, updated when status of a task is changed
+   * (see {@link Lesson#changeTaskStatus}) and recalculated after course structure was changed.
+   *
+   * @return number of solved tasks of all lessons visited by {@link #visitLessons}
+   */
+  public synchronized int getSolvedTaskCount() {
+    updateProgress();
+    return mySolvedTaskCount;
+  }
+
+  /**
+   * @return number of tasks of all lessons visited by {@link #visitLessons} which are counted in progress,
+   * see {@link Lesson#getTaskListForProgress()}
+   */
+  public synchronized int getTaskCountForProgress() {
+    updateProgress();
+    return myTaskCountForProgress;
+  }
+
+  private void updateProgress() {
+    if (mySolvedTaskCount >= 0 && myProgressModificationCount == getStructureModificationCount()) return;
+    int[] counts = new int[2];
+    visitLessons(lesson -> {
+      counts[0] += lesson.getSolvedTaskCount();
+      counts[1] += lesson.getTaskCountForProgress();
+      return true;
+    });
+    mySolvedTaskCount = counts[0];
+    myTaskCountForProgress = counts[1];
+    // lookup indexes of lessons can be rebuilt above, so the count is taken after them
+    myProgressModificationCount = getStructureModificationCount();
+  }
+
+  synchronized void solvedTaskCountChanged(int delta) {
+    if (mySolvedTaskCount >= 0) {
+      mySolvedTaskCount += delta;
+    }
+  }
+
+  synchronized void invalidateProgress() {
+    mySolvedTaskCount = -1;
+  }
+
   public void setItems(List<StudyItem> items) {
     this.items = items;
+    invalidateIndex();
+  }
+
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    List<StudyItem> sourceItems = ((ItemContainer)source).items;
+    items = new ArrayList<>(sourceItems.size());
+    for (StudyItem item : sourceItems) {
+      items.add(item.copyItem());
+    }
+  }
+
+  @Override
+  void invalidateIndex() {
+    myItemIndex.invalidate();
+    myLessonIndex.invalidate();
   }
 }
@@ -13,13 +13,14 @@ import com.jetbrains.edu.learning.stepik.StepikConnector;
 import com.jetbrains.edu.learning.stepik.StepikNames;
 import com.jetbrains.edu.learning.stepik.StepikWrappers;
 import kotlin.collections.CollectionsKt;
-import one.util.streamex.StreamEx;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class Lesson extends StudyItem {
   @Expose @SerializedName("id") private int myId;
@@ -52,6 +53,12 @@ public class Lesson extends StudyItem {
   @Transient
   private Section mySection = null;
 
+  transient private final StudyItemIndex<Task> myTaskIndex = new StudyItemIndex<>(this, Task.class);
+  // progress counters, -1 means that they should be calculated, see getSolvedTaskCount()
+  transient private int mySolvedTaskCount = -1;
+  transient private int myTaskCountForProgress;
+  transient private long myProgressModificationCount;
+
   public Lesson() {
   }
 
@@ -64,6 +71,14 @@ public class Lesson extends StudyItem {
       task.setIndex(i + 1);
       task.init(course, this, isRestarted);
     }
+    // statuses of tasks could be reset above
+    invalidateProgress();
+    if (mySection != null) {
+      mySection.invalidateProgress();
+    }
+    if (course != null) {
+      course.invalidateProgress();
+    }
   }
 
   @Override
@@ -74,8 +89,13 @@ public class Lesson extends StudyItem {
   @Override
   public void setName(String name) {
     this.name = name;
+    invalidateParentIndex();
   }
 
+  /**
+   * Lookup index notices only replacement or resizing of the task list. Tasks which are replaced or reordered in place
+   * must be changed through {@link #setTask}, {@link #sortTasks} or {@link #updateTaskList}, not directly in the returned list
+   */
   public List<Task> getTaskList() {
     return taskList;
   }
@@ -97,24 +117,137 @@ public class Lesson extends StudyItem {
 
   public void addTask(@NotNull final Task task) {
     taskList.add(task);
+    invalidateIndex();
+  }
+
+  public void removeTask(@NotNull final Task task) {
+    taskList.remove(task);
+    invalidateIndex();
+  }
+
+  public void setTask(int index, @NotNull final Task task) {
+    taskList.set(index, task);
+    invalidateIndex();
   }
 
   @Nullable
   public Task getTask(@NotNull final String name) {
-    return StreamEx.of(taskList).findFirst(task -> name.equals(task.getName())).orElse(null);
+    return myTaskIndex.getByName(taskList, name);
   }
 
   public Task getTask(int id) {
+    return myTaskIndex.getById(taskList, id);
+  }
+
+  /**
+   * Sorts tasks by index. Lookup index doesn't notice reordering of the task list, so tasks shouldn't be sorted directly
+   */
+  public void sortTasks() {
+    Collections.sort(taskList, EduUtils.INDEX_COMPARATOR);
+    invalidateIndex();
+  }
+
+  public void updateTaskList(List<Task> taskList) {
+    this.taskList = taskList;
+    invalidateIndex();
+  }
+
+  @Override
+  void invalidateIndex() {
+    myTaskIndex.invalidate();
+  }
+
+  @NotNull
+  @Override
+  public Lesson copy() {
+    return (Lesson)super.copy();
+  }
+
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    Lesson lesson = (Lesson)source;
+    myId = lesson.myId;
+    steps = copyList(lesson.steps);
+    tags = copyList(lesson.tags);
+    is_public = lesson.is_public;
+    myUpdateDate = copyDate(lesson.myUpdateDate);
+    name = lesson.name;
+    taskList = new ArrayList<>(lesson.taskList.size());
+    for (Task task : lesson.taskList) {
+      taskList.add((Task)task.copyItem());
+    }
+    unitId = lesson.unitId;
+  }
+
+  /**
+   * Progress counters are calculated on the first query, updated when status of a task is changed
+   * (see {@link #changeTaskStatus}) and recalculated after course structure was changed.
+   *
+   * @return number of solved tasks from {@link #getTaskListForProgress()}
+   */
+  public synchronized int getSolvedTaskCount() {
+    updateProgress();
+    return mySolvedTaskCount;
+  }
+
+  /**
+   * @return size of {@link #getTaskListForProgress()}
+   */
+  public synchronized int getTaskCountForProgress() {
+    updateProgress();
+    return myTaskCountForProgress;
+  }
+
+  private void updateProgress() {
+    if (mySolvedTaskCount >= 0 && myProgressModificationCount == getStructureModificationCount()) return;
+    int solved = 0;
+    int total = 0;
     for (Task task : taskList) {
-      if (task.getStepId() == id) {
-        return task;
+      if (task instanceof TheoryTask) continue;
+      total++;
+      if (task.getStatus() == CheckStatus.Solved) {
+        solved++;
       }
     }
-    return null;
+    mySolvedTaskCount = solved;
+    myTaskCountForProgress = total;
+    myProgressModificationCount = getStructureModificationCount();
   }
 
-  public void updateTaskList(List<Task> taskList) {
-    this.taskList = taskList;
+  synchronized void invalidateProgress() {
+    mySolvedTaskCount = -1;
+  }
+
+  /**
+   * Should be called by task of the lesson to change its status, so progress of the lesson, its section and course
+   * is updated without counting all their tasks again.
+   * {@code statusChange} sets the new status and returns the previous one. It's run together with update of the counters
+   * under locks of the course, section and lesson, taken in the order progress counting takes them, so counting
+   * in another thread sees either old status and counters or the new ones.
+   */
+  public void changeTaskStatus(@NotNull Task task, @Nullable CheckStatus newStatus, @NotNull Supplier<CheckStatus> statusChange) {
+    final Course course = myCourse;
+    final Section section = mySection;
+    synchronized (course != null ? course : this) {
+      synchronized (section != null ? section : this) {
+        synchronized (this) {
+          CheckStatus oldStatus = statusChange.get();
+          if (task instanceof TheoryTask) return;
+          int delta = (newStatus == CheckStatus.Solved ? 1 : 0) - (oldStatus == CheckStatus.Solved ? 1 : 0);
+          if (delta == 0) return;
+          if (mySolvedTaskCount >= 0) {
+            mySolvedTaskCount += delta;
+          }
+          if (section != null) {
+            section.solvedTaskCountChanged(delta);
+          }
+          if (course != null) {
+            course.solvedTaskCountChanged(delta);
+          }
+        }
+      }
+    }
   }
 
   public CheckStatus getStatus() {
@@ -132,6 +265,7 @@ public class Lesson extends StudyItem {
 
   public void setId(int id) {
     this.myId = id;
+    invalidateParentIndex();
   }
 
   public Date getUpdateDate() {
@@ -0,0 +1,227 @@
+package com.jetbrains.edu.learning.courseFormat;
+
+import com.jetbrains.edu.learning.courseFormat.tasks.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Graph of placeholder dependencies in a course. For every placeholder with a dependency it keeps the placeholder
+ * it depends on, and for every placeholder the ones which depend on it, so dependencies and dependents of a task
+ * are found in time proportional to the number of its dependencies instead of resolving all dependencies of the course.
+ *
+ * Graph is built on the first query after {@link Course#init} and is updated incrementally when dependency of a placeholder
+ * is changed through {@link AnswerPlaceholder#setPlaceholderDependency} or placeholders of a task file are added, removed
+ * or reordered: then only edges from and to placeholders of this file are resolved again on the next query.
+ * Dependencies refer to placeholders by names of their lesson, task and file and by index, so the graph is rebuilt
+ * after structure of the course was changed (see {@link StudyItem#getStructureModificationCount()}).
+ * Task files can be renamed or removed bypassing task methods, so edges are checked on access and resolved again if needed.
+ */
+public final class PlaceholderDependencyGraph {
+  @NotNull private final Course myCourse;
+  // placeholder -> placeholder it depends on
+  private final Map<AnswerPlaceholder, AnswerPlaceholder> myTargets = new HashMap<>();
+  // placeholder -> placeholders which depend on it
+  private final Map<AnswerPlaceholder, Set<AnswerPlaceholder>> myDependents = new HashMap<>();
+  // placeholders which dependencies can't be resolved now
+  private final Set<AnswerPlaceholder> myUnresolved = new HashSet<>();
+  // task file -> its placeholders with dependencies, both resolved and unresolved
+  private final Map<TaskFile, Set<AnswerPlaceholder>> mySources = new HashMap<>();
+  // task file -> placeholders which depend on placeholders of this file
+  private final Map<TaskFile, Set<AnswerPlaceholder>> myDependentsByFile = new HashMap<>();
+  // task files which placeholders were added, removed or reordered since the last query
+  private final Set<TaskFile> myChangedFiles = new HashSet<>();
+  private boolean myIsUpToDate;
+  private long myStructureModificationCount;
+
+  PlaceholderDependencyGraph(@NotNull Course course) {
+    myCourse = course;
+  }
+
+  /**
+   * @return tasks with placeholders depending on placeholders of the given task
+   */
+  @NotNull
+  public synchronized Set<Task> getDependentTasks(@NotNull Task task) {
+    ensureUpToDate();
+    Set<Task> tasks = new HashSet<>();
+    for (TaskFile taskFile : task.getTaskFiles().values()) {
+      for (AnswerPlaceholder placeholder : taskFile.getAnswerPlaceholders()) {
+        Set<AnswerPlaceholder> dependents = myDependents.get(placeholder);
+        if (dependents == null) continue;
+        for (AnswerPlaceholder dependent : new ArrayList<>(dependents)) {
+          if (getTarget(dependent) == placeholder) {
+            tasks.add(dependent.getTaskFile().getTask());
+          }
+        }
+      }
+    }
+    return tasks;
+  }
+
+  /**
+   * @return tasks which placeholders of the given task depend on, in order of dependent placeholders
+   */
+  @NotNull
+  public synchronized List<Task> getDependencyTasks(@NotNull Task task) {
+    ensureUpToDate();
+    Set<Task> tasks = new LinkedHashSet<>();
+    for (TaskFile taskFile : task.getTaskFiles().values()) {
+      for (AnswerPlaceholder placeholder : taskFile.getAnswerPlaceholders()) {
+        AnswerPlaceholder target = getTarget(placeholder);
+        if (target != null) {
+          tasks.add(target.getTaskFile().getTask());
+        }
+      }
+    }
+    return new ArrayList<>(tasks);
+  }
+
+  synchronized void invalidate() {
+    myIsUpToDate = false;
+    myTargets.clear();
+    myDependents.clear();
+    myUnresolved.clear();
+    mySources.clear();
+    myDependentsByFile.clear();
+    myChangedFiles.clear();
+  }
+
+  private synchronized void updateDependency(@NotNull AnswerPlaceholder placeholder) {
+    if (!myIsUpToDate) return;
+    updateEdge(placeholder);
+  }
+
+  private synchronized void markChanged(@NotNull TaskFile taskFile) {
+    if (!myIsUpToDate) return;
+    myChangedFiles.add(taskFile);
+  }
+
+  private void ensureUpToDate() {
+    if (myIsUpToDate && myStructureModificationCount == myCourse.getStructureModificationCount()) {
+      updateChangedFiles();
+      retryUnresolved();
+      return;
+    }
+    invalidate();
+    myCourse.visitLessons(lesson -> {
+      for (Task task : lesson.getTaskList()) {
+        for (TaskFile taskFile : task.getTaskFiles().values()) {
+          for (AnswerPlaceholder placeholder : taskFile.getAnswerPlaceholders()) {
+            addEdge(placeholder);
+          }
+        }
+      }
+      return true;
+    });
+    // lookup indexes used to resolve dependencies can be rebuilt above, so the count is taken after them
+    myStructureModificationCount = myCourse.getStructureModificationCount();
+    myIsUpToDate = true;
+  }
+
+  private void updateChangedFiles() {
+    if (myChangedFiles.isEmpty()) return;
+    Set<AnswerPlaceholder> placeholders = new HashSet<>();
+    for (TaskFile taskFile : myChangedFiles) {
+      placeholders.addAll(mySources.getOrDefault(taskFile, Collections.emptySet()));
+      placeholders.addAll(myDependentsByFile.getOrDefault(taskFile, Collections.emptySet()));
+      placeholders.addAll(taskFile.getAnswerPlaceholders());
+    }
+    myChangedFiles.clear();
+    for (AnswerPlaceholder placeholder : placeholders) {
+      removeEdge(placeholder);
+      TaskFile taskFile = placeholder.getTaskFile();
+      // placeholder could be removed from its file
+      if (taskFile != null && taskFile.getAnswerPlaceholders().contains(placeholder)) {
+        addEdge(placeholder);
+      }
+    }
+  }
+
+  private void retryUnresolved() {
+    if (myUnresolved.isEmpty()) return;
+    for (AnswerPlaceholder placeholder : new ArrayList<>(myUnresolved)) {
+      updateEdge(placeholder);
+    }
+  }
+
+  @Nullable
+  private AnswerPlaceholder getTarget(@NotNull AnswerPlaceholder placeholder) {
+    AnswerPlaceholder target = myTargets.get(placeholder);
+    if (target == null) return null;
+    AnswerPlaceholderDependency dependency = placeholder.getPlaceholderDependency();
+    TaskFile taskFile = target.getTaskFile();
+    Task task = taskFile != null ? taskFile.getTask() : null;
+    if (dependency == null || task == null || task.getTaskFile(dependency.getFileName()) != taskFile) {
+      updateEdge(placeholder);
+      target = myTargets.get(placeholder);
+    }
+    return target;
+  }
+
+  private void updateEdge(@NotNull AnswerPlaceholder placeholder) {
+    removeEdge(placeholder);
+    addEdge(placeholder);
+  }
+
+  private void addEdge(@NotNull AnswerPlaceholder placeholder) {
+    AnswerPlaceholderDependency dependency = placeholder.getPlaceholderDependency();
+    if (dependency == null) return;
+    addTo(mySources, placeholder.getTaskFile(), placeholder);
+    AnswerPlaceholder target = dependency.resolve(myCourse);
+    if (target == null) {
+      myUnresolved.add(placeholder);
+      return;
+    }
+    myTargets.put(placeholder, target);
+    addTo(myDependents, target, placeholder);
+    addTo(myDependentsByFile, target.getTaskFile(), placeholder);
+  }
+
+  private void removeEdge(@NotNull AnswerPlaceholder placeholder) {
+    myUnresolved.remove(placeholder);
+    removeFrom(mySources, placeholder.getTaskFile(), placeholder);
+    AnswerPlaceholder target = myTargets.remove(placeholder);
+    if (target == null) return;
+    removeFrom(myDependents, target, placeholder);
+    removeFrom(myDependentsByFile, target.getTaskFile(), placeholder);
+  }
+
+  private static <K> void addTo(@NotNull Map<K, Set<AnswerPlaceholder>> map, @Nullable K key, @NotNull AnswerPlaceholder placeholder) {
+    if (key == null) return;
+    map.computeIfAbsent(key, k -> new HashSet<>()).add(placeholder);
+  }
+
+  private static <K> void removeFrom(@NotNull Map<K, Set<AnswerPlaceholder>> map, @Nullable K key, @NotNull AnswerPlaceholder placeholder) {
+    if (key == null) return;
+    Set<AnswerPlaceholder> placeholders = map.get(key);
+    if (placeholders != null) {
+      placeholders.remove(placeholder);
+      if (placeholders.isEmpty()) {
+        map.remove(key);
+      }
+    }
+  }
+
+  static void dependencyChanged(@NotNull AnswerPlaceholder placeholder) {
+    Course course = getCourse(placeholder.getTaskFile());
+    if (course != null) {
+      course.getDependencyGraph().updateDependency(placeholder);
+    }
+  }
+
+  static void placeholdersChanged(@NotNull TaskFile taskFile) {
+    Course course = getCourse(taskFile);
+    if (course != null) {
+      course.getDependencyGraph().markChanged(taskFile);
+    }
+  }
+
+  @Nullable
+  private static Course getCourse(@Nullable TaskFile taskFile) {
+    Task task = taskFile != null ? taskFile.getTask() : null;
+    Lesson lesson = task != null ? task.getLesson() : null;
+    return lesson != null ? lesson.getCourse() : null;
+  }
+}
@@ -191,6 +191,21 @@ public class RemoteCourse extends Course {
     this.id = id;
   }
 
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    RemoteCourse course = (RemoteCourse)source;
+    myType = course.myType;
+    isCompatible = course.isCompatible;
+    sectionIds = copyList(course.sectionIds);
+    instructors = copyList(course.instructors);
+    id = course.id;
+    myUpdateDate = copyDate(course.myUpdateDate);
+    isAdaptive = course.isAdaptive;
+    isPublic = course.isPublic;
+    myLoadSolutions = course.myLoadSolutions;
+  }
+
   public void copyCourseParameters(RemoteCourse course) {
     setName(course.getName());
     setUpdateDate(course.getUpdateDate());
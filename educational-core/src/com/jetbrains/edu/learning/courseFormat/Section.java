@@ -45,6 +45,7 @@ public class Section extends ItemContainer {
         lesson.init(course, this, isRestarted);
       }
     }
+    invalidateProgress();
   }
 
   public int getId() {
@@ -53,6 +54,7 @@ public class Section extends ItemContainer {
 
   public void setId(int id) {
     this.id = id;
+    invalidateParentIndex();
   }
 
   public void setCourseId(int courseId) {
@@ -79,6 +81,7 @@ public class Section extends ItemContainer {
   @Override
   public void setName(String name) {
     this.name = name;
+    invalidateParentIndex();
   }
 
   public boolean isUpToDate() {
@@ -106,6 +109,18 @@ public class Section extends ItemContainer {
     return myUpdateDate;
   }
 
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    Section section = (Section)source;
+    units = copyList(section.units);
+    courseId = section.courseId;
+    name = section.name;
+    position = section.position;
+    id = section.id;
+    myUpdateDate = copyDate(section.myUpdateDate);
+  }
+
   @Override
   @Nullable
   public VirtualFile getDir(@NotNull Project project) {
@@ -2,10 +2,19 @@ package com.jetbrains.edu.learning.courseFormat;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ReflectionUtil;
+import com.intellij.util.xmlb.annotations.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 public abstract class StudyItem {
+  private static final AtomicLong ourStructureModificationCount = new AtomicLong();
+
   // from 1 to number of items
   private int myIndex = -1;
 
@@ -15,6 +24,11 @@ public abstract class StudyItem {
   // but original non unique name is displayed
   @Nullable private String myCustomPresentableName = null;
 
+  // parent which lookup index contains this item, it's notified when name or id of the item changes
+  @Nullable transient private StudyItem myIndexOwner = null;
+  // meaningful only for the root of index owners, values are unique among all items so counts of different courses never match
+  transient private volatile long myStructureModificationCount = ourStructureModificationCount.incrementAndGet();
+
   //TODO: move name to this class
   // can't do it now because name in descendants have different serialized names and it will cause additional migration
 
@@ -70,4 +84,86 @@ public abstract class StudyItem {
 
   @NotNull
   public abstract Course getCourse();
+
+  /**
+   * Creates deep copy of the item. Copy isn't attached to parents of this item, its children are initialized.
+   * Fields are copied directly, so it's much cheaper than XML serialization round trip
+   */
+  @NotNull
+  public StudyItem copy() {
+    StudyItem copy = copyItem();
+    copy.init(null, null, true);
+    return copy;
+  }
+
+  /**
+   * Creates deep copy of the item and its children without initialization
+   */
+  @NotNull
+  protected StudyItem copyItem() {
+    StudyItem copy = ReflectionUtil.newInstance(getClass());
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  /**
+   * Copies state of {@code source} which has the same class as this item.
+   * Should be overridden by every subclass with own state: copy has to contain everything that is serialized to XML
+   */
+  protected void copyFrom(@NotNull StudyItem source) {
+    myIndex = source.myIndex;
+    myStepikChangeStatus = source.myStepikChangeStatus;
+    myCustomPresentableName = source.myCustomPresentableName;
+  }
+
+  @Nullable
+  protected static Date copyDate(@Nullable Date date) {
+    return date != null ? new Date(date.getTime()) : null;
+  }
+
+  @Nullable
+  protected static <T> List<T> copyList(@Nullable List<T> list) {
+    return list != null ? new ArrayList<>(list) : null;
+  }
+
+  /**
+   * Changes on every change of children or of their names and ids in the course of this item
+   * (in the topmost item containing this one if it isn't attached to a course yet),
+   * so it can be used to invalidate data computed from course structure
+   */
+  @Transient
+  public long getStructureModificationCount() {
+    return getIndexRoot().myStructureModificationCount;
+  }
+
+  void structureChanged() {
+    getIndexRoot().myStructureModificationCount = ourStructureModificationCount.incrementAndGet();
+  }
+
+  @NotNull
+  private StudyItem getIndexRoot() {
+    StudyItem item = this;
+    while (item.myIndexOwner != null) {
+      item = item.myIndexOwner;
+    }
+    return item;
+  }
+
+  void setIndexOwner(@Nullable StudyItem indexOwner) {
+    myIndexOwner = indexOwner;
+  }
+
+  /**
+   * Should be called when name or id of the item changes
+   */
+  protected void invalidateParentIndex() {
+    if (myIndexOwner != null) {
+      myIndexOwner.invalidateIndex();
+    }
+  }
+
+  /**
+   * Drops lookup indexes of children, see {@link StudyItemIndex}
+   */
+  void invalidateIndex() {}
 }
@@ -0,0 +1,96 @@
+package com.jetbrains.edu.learning.courseFormat;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Lookup index over children of a study item, maps names and ids of children of the given type to these children
+ * and keeps unmodifiable view of them.
+ *
+ * Index is rebuilt lazily on the first lookup after the list of children was replaced, resized or explicitly invalidated.
+ * Children notify their parent about changes of their names or ids, see {@link StudyItem#invalidateParentIndex()}.
+ */
+final class StudyItemIndex<T extends StudyItem> {
+  @NotNull private final StudyItem myOwner;
+  @NotNull private final Class<T> myItemClass;
+  @Nullable private volatile Snapshot<T> mySnapshot;
+
+  StudyItemIndex(@NotNull StudyItem owner, @NotNull Class<T> itemClass) {
+    myOwner = owner;
+    myItemClass = itemClass;
+  }
+
+  @Nullable
+  T getByName(@NotNull List<? extends StudyItem> items, @NotNull String name) {
+    T item = getSnapshot(items).byName.get(name);
+    if (item != null && !name.equals(item.getName())) {
+      // item was renamed bypassing its setter
+      invalidate();
+      item = getSnapshot(items).byName.get(name);
+    }
+    return item;
+  }
+
+  @Nullable
+  T getById(@NotNull List<? extends StudyItem> items, int id) {
+    T item = getSnapshot(items).byId.get(id);
+    if (item != null && item.getId() != id) {
+      invalidate();
+      item = getSnapshot(items).byId.get(id);
+    }
+    return item;
+  }
+
+  @NotNull
+  List<T> getItems(@NotNull List<? extends StudyItem> items) {
+    return getSnapshot(items).items;
+  }
+
+  void invalidate() {
+    mySnapshot = null;
+    myOwner.structureChanged();
+  }
+
+  @NotNull
+  private Snapshot<T> getSnapshot(@NotNull List<? extends StudyItem> items) {
+    Snapshot<T> snapshot = mySnapshot;
+    if (snapshot == null || snapshot.source != items || snapshot.size != items.size()) {
+      if (snapshot != null) {
+        // children list was changed directly
+        myOwner.structureChanged();
+      }
+      snapshot = new Snapshot<>(items, myItemClass, myOwner);
+      mySnapshot = snapshot;
+    }
+    return snapshot;
+  }
+
+  private static class Snapshot<T extends StudyItem> {
+    private final List<? extends StudyItem> source;
+    private final int size;
+    private final Map<String, T> byName = new HashMap<>();
+    private final Map<Integer, T> byId = new HashMap<>();
+    private final List<T> items;
+
+    Snapshot(@NotNull List<? extends StudyItem> source, @NotNull Class<T> itemClass, @NotNull StudyItem owner) {
+      this.source = source;
+      size = source.size();
+      List<T> filtered = new ArrayList<>(size);
+      for (StudyItem studyItem : source) {
+        if (!itemClass.isInstance(studyItem)) continue;
+        T item = itemClass.cast(studyItem);
+        item.setIndexOwner(owner);
+        filtered.add(item);
+        // the first item wins as linear search did before
+        String name = item.getName();
+        if (name != null) {
+          byName.putIfAbsent(name, item);
+        }
+        byId.putIfAbsent(item.getId(), item);
+      }
+      items = Collections.unmodifiableList(filtered);
+    }
+  }
+}
@@ -30,6 +30,7 @@ public class TaskFile {
   private boolean myHighlightErrors = false;
   @Expose @SerializedName("placeholders") private List<AnswerPlaceholder> myAnswerPlaceholders = new ArrayList<>();
   @Transient private Task myTask;
+  private int myPlaceholdersModificationCount = 0;
 
   public TaskFile() {
   }
@@ -41,6 +42,7 @@ public class TaskFile {
       answerPlaceholder.initAnswerPlaceholder(this, isRestarted);
     }
     answerPlaceholders.sort(new AnswerPlaceholderComparator());
+    placeholdersChanged();
     for (int i = 0; i < answerPlaceholders.size(); i++) {
       answerPlaceholders.get(i).setIndex(i);
     }
@@ -52,10 +54,41 @@ public class TaskFile {
 
   public void setAnswerPlaceholders(List<AnswerPlaceholder> answerPlaceholders) {
     this.myAnswerPlaceholders = answerPlaceholders;
+    placeholdersChanged();
   }
 
   public void addAnswerPlaceholder(AnswerPlaceholder answerPlaceholder) {
     myAnswerPlaceholders.add(answerPlaceholder);
+    placeholdersChanged();
+  }
+
+  public void removeAnswerPlaceholder(AnswerPlaceholder answerPlaceholder) {
+    if (myAnswerPlaceholders.remove(answerPlaceholder)) {
+      placeholdersChanged();
+    }
+  }
+
+  private void placeholdersChanged() {
+    myPlaceholdersModificationCount++;
+    PlaceholderDependencyGraph.placeholdersChanged(this);
+  }
+
+  /**
+   * Incremented on every change of placeholder set or order made through task file methods.
+   * Used to detect when cached placeholder structures (e.g. in {@link com.jetbrains.edu.learning.EduDocumentListener}) are outdated
+   */
+  @Transient
+  public int getPlaceholdersModificationCount() {
+    return myPlaceholdersModificationCount;
+  }
+
+  /**
+   * @return hash of the original {@link #text} compatible with {@link StringUtil#stringHashCode(CharSequence)}.
+   * String caches its hash, so it's calculated once for every text assigned to the task file
+   */
+  @Transient
+  public int getTextHash() {
+    return text == null ? 0 : text.hashCode();
   }
 
   @Transient
@@ -106,6 +139,28 @@ public class TaskFile {
     target.setAnswerPlaceholders(answerPlaceholdersCopy);
   }
 
+  /**
+   * @return deep copy of the task file which isn't attached to any task
+   */
+  @NotNull
+  public TaskFile copy() {
+    TaskFile copy = new TaskFile();
+    copy.name = name;
+    copy.text = text;
+    copy.myUserCreated = myUserCreated;
+    copy.myTrackChanges = myTrackChanges;
+    copy.myTrackLengths = myTrackLengths;
+    copy.myHighlightErrors = myHighlightErrors;
+    List<AnswerPlaceholder> answerPlaceholders = new ArrayList<>(myAnswerPlaceholders.size());
+    for (AnswerPlaceholder answerPlaceholder : myAnswerPlaceholders) {
+      AnswerPlaceholder answerPlaceholderCopy = answerPlaceholder.copy();
+      answerPlaceholderCopy.setTaskFile(copy);
+      answerPlaceholders.add(answerPlaceholderCopy);
+    }
+    copy.myAnswerPlaceholders = answerPlaceholders;
+    return copy;
+  }
+
   public void setUserCreated(boolean userCreated) {
     myUserCreated = userCreated;
   }
@@ -132,6 +187,7 @@ public class TaskFile {
 
   public void sortAnswerPlaceholders() {
     myAnswerPlaceholders.sort(new AnswerPlaceholderComparator());
+    placeholdersChanged();
     for (int i = 0; i < myAnswerPlaceholders.size(); i++) {
       myAnswerPlaceholders.get(i).setIndex(i);
     }
@@ -43,29 +43,19 @@ val Task.placeholderDependencies: List<AnswerPlaceholderDependency>
   get() = taskFiles.values.flatMap { it.answerPlaceholders.mapNotNull { it.placeholderDependency } }
 
 fun Task.getUnsolvedTaskDependencies(): List<Task> {
-  return placeholderDependencies
-    .mapNotNull { it.resolve(course ?: return@mapNotNull null)?.taskFile?.task }
-    .filter { it.status != CheckStatus.Solved }
-    .distinct()
+  val course = course ?: return emptyList()
+  return course.dependencyGraph.getDependencyTasks(this).filter { it.status != CheckStatus.Solved }
 }
 
 fun Task.getDependentTasks(): Set<Task> {
   val course = course ?: return emptySet()
-  return course.items.flatMap { item ->
-    when (item) {
-      is Lesson -> item.getTaskList()
-      is Section -> item.lessons.flatMap { it.taskList }
-      else -> emptyList()
-    }
-  }.filterTo(HashSet()) { task ->
-    task.placeholderDependencies.any { it.resolve(course)?.taskFile?.task == this }
-  }
+  return course.dependencyGraph.getDependentTasks(this)
 }
 
 fun Task.hasChangedFiles(project: Project): Boolean {
   for (taskFile in taskFiles.values) {
     val document = taskFile.getDocument(project) ?: continue
-    if (taskFile.text != null && document.text != taskFile.text) {
+    if (taskFile.isChanged(document)) {
       return true
     }
   }
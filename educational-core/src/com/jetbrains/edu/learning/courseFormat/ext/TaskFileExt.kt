@@ -5,10 +5,13 @@ package com.jetbrains.edu.learning.courseFormat.ext
 import com.intellij.openapi.editor.Document
 import com.intellij.openapi.fileEditor.FileDocumentManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.text.StringUtil
 import com.intellij.openapi.vfs.VirtualFile
 import com.jetbrains.edu.learning.EduUtils
 import com.jetbrains.edu.learning.courseFormat.TaskFile
 
+private val TEXT_HASH: Key<DocumentTextHash> = Key.create("Edu.documentTextHash")
 
 fun TaskFile.getDocument(project: Project): Document? {
   val virtualFile = getVirtualFile(project) ?: return null
@@ -18,4 +21,34 @@ fun TaskFile.getDocument(project: Project): Document? {
 fun TaskFile.getVirtualFile(project: Project): VirtualFile? {
   val taskDir = task.getTaskDir(project) ?: return null
   return EduUtils.findTaskFileInDir(this, taskDir)
-}
\ No newline at end of file
+}
+
+/**
+ * Checks if the document text differs from the original text of the task file without copying the document text.
+ * Hash of the document is cached until the document is modified, so for unchanged documents only lengths and hashes are compared,
+ * texts are compared char by char once after modification to exclude hash collisions.
+ */
+fun TaskFile.isChanged(document: Document): Boolean {
+  val text = text ?: return false
+  if (document.textLength != text.length) return true
+  val documentHash = document.textHash
+  if (documentHash.hash != textHash) return true
+  if (documentHash.sameText === text) return false
+  if (!StringUtil.equals(document.immutableCharSequence, text)) return true
+  documentHash.sameText = text
+  return false
+}
+
+private val Document.textHash: DocumentTextHash get() {
+  val stamp = modificationStamp
+  val cached = getUserData(TEXT_HASH)
+  if (cached != null && cached.modificationStamp == stamp) return cached
+  val textHash = DocumentTextHash(stamp, StringUtil.stringHashCode(immutableCharSequence))
+  putUserData(TEXT_HASH, textHash)
+  return textHash
+}
+
+private class DocumentTextHash(val modificationStamp: Long, val hash: Int) {
+  // text of a task file which is known to be equal to the document text with this modification stamp
+  @Volatile var sameText: String? = null
+}
@@ -2,6 +2,7 @@ package com.jetbrains.edu.learning.courseFormat.tasks;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.jetbrains.edu.learning.courseFormat.StudyItem;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -44,6 +45,15 @@ public class ChoiceTask extends Task {
     super(name);
   }
 
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    ChoiceTask task = (ChoiceTask)source;
+    myChoiceVariants = new ArrayList<>(task.myChoiceVariants);
+    myIsMultipleChoice = task.myIsMultipleChoice;
+    mySelectedVariants = new ArrayList<>(task.mySelectedVariants);
+  }
+
   @Override
   public String getTaskType() {
     return "choice";
@@ -5,7 +5,6 @@ import com.google.gson.annotations.SerializedName;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.xmlb.XmlSerializer;
 import com.intellij.util.xmlb.annotations.Transient;
 import com.jetbrains.edu.learning.EduUtils;
 import com.jetbrains.edu.learning.checker.TaskCheckerProvider;
@@ -16,7 +15,6 @@ import com.jetbrains.edu.learning.stepik.StepikConnector;
 import com.jetbrains.edu.learning.stepik.StepikTaskBuilder;
 import com.jetbrains.edu.learning.stepik.StepikUtils;
 import icons.EducationalCoreIcons;
-import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -91,6 +89,7 @@ public abstract class Task extends StudyItem {
   @Override
   public void setName(String name) {
     this.name = name;
+    invalidateParentIndex();
   }
 
   public String getDescriptionText() {
@@ -236,6 +235,7 @@ public abstract class Task extends StudyItem {
 
   public void setStepId(int stepId) {
     myStepId = stepId;
+    invalidateParentIndex();
   }
 
   public int getStepId() {
@@ -252,14 +252,40 @@ public abstract class Task extends StudyItem {
         placeholder.setStatus(status);
       }
     }
-    myStatus = status;
+    if (myLesson == null) {
+      myStatus = status;
+      return;
+    }
+    myLesson.changeTaskStatus(this, status, () -> {
+      CheckStatus oldStatus = myStatus;
+      myStatus = status;
+      return oldStatus;
+    });
   }
 
+  @NotNull
+  @Override
   public Task copy() {
-    Element element = XmlSerializer.serialize(this);
-    Task copy = XmlSerializer.deserialize(element, getClass());
-    copy.init(null, null, true);
-    return copy;
+    return (Task)super.copy();
+  }
+
+  @Override
+  protected void copyFrom(@NotNull StudyItem source) {
+    super.copyFrom(source);
+    Task task = (Task)source;
+    name = task.name;
+    myStatus = task.myStatus;
+    myStepId = task.myStepId;
+    taskFiles = new HashMap<>();
+    for (Map.Entry<String, TaskFile> entry : task.taskFiles.entrySet()) {
+      taskFiles.put(entry.getKey(), entry.getValue().copy());
+    }
+    testsText = new HashMap<>(task.testsText);
+    descriptionText = task.descriptionText;
+    descriptionFormat = task.descriptionFormat;
+    additionalFiles = new HashMap<>(task.additionalFiles);
+    myUpdateDate = copyDate(task.myUpdateDate);
+    myFeedbackLink = task.myFeedbackLink.copy();
   }
 
   public void setUpdateDate(Date date) {
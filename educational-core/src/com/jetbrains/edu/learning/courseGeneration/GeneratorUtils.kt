@@ -9,8 +9,10 @@ import com.intellij.openapi.ui.Messages
 import com.intellij.openapi.util.SystemInfo
 import com.intellij.openapi.util.ThrowableComputable
 import com.intellij.openapi.vfs.VfsUtil
+import com.intellij.openapi.vfs.VfsUtilCore
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.ThrowableRunnable
+import com.intellij.util.concurrency.AppExecutorUtil
 import com.jetbrains.edu.coursecreator.CCUtils
 import com.jetbrains.edu.learning.EduNames
 import com.jetbrains.edu.learning.EduUtils
@@ -23,8 +25,14 @@ import com.jetbrains.edu.learning.courseFormat.tasks.CodeTask
 import com.jetbrains.edu.learning.courseFormat.tasks.Task
 import com.jetbrains.edu.learning.intellij.EduIntellijUtils
 import org.apache.commons.codec.binary.Base64
+import java.io.File
 import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
 import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicReference
 
 object GeneratorUtils {
@@ -34,11 +42,22 @@ object GeneratorUtils {
   private val UNIX_INVALID_SYMBOLS: Regex = "[/:]".toRegex()
   private val WINDOWS_INVALID_SYMBOLS: Regex = "[/\\\\:<>\"?*|;&]".toRegex()
 
+  private const val BULK_GENERATION_PROPERTY = "edu.course.generation.bulk"
+
+  /**
+   * Generates course files. If [baseDir] is on the local file system, the whole tree is written with NIO in parallel per top level item
+   * and then VFS is refreshed once, see [createCourseInBulk]. Otherwise every file is created through VFS.
+   * Bulk mode can be turned off with `-Dedu.course.generation.bulk=false`.
+   */
   @Throws(IOException::class)
   @JvmStatic
   fun createCourse(course: Course,
                    baseDir: VirtualFile,
                    indicator: ProgressIndicator) {
+    if (baseDir.isInLocalFileSystem && System.getProperty(BULK_GENERATION_PROPERTY, "true").toBoolean()) {
+      createCourseInBulk(course, baseDir, indicator)
+      return
+    }
     indicator.isIndeterminate = false
     indicator.fraction = 0.0
 
@@ -63,6 +82,156 @@ object GeneratorUtils {
     course.removeAdditionalLesson()
   }
 
+  /**
+   * Bulk course generation is performed in three phases:
+   * 1. planning: unique directory names are chosen (and items are renamed the same way as [createUniqueDir] does)
+   *    and list of files to write is collected for every top level item;
+   * 2. writing: files of different top level items are written to disk in parallel bypassing VFS;
+   * 3. refresh: VFS is synchronously refreshed once for [baseDir].
+   */
+  @Throws(IOException::class)
+  private fun createCourseInBulk(course: Course, baseDir: VirtualFile, indicator: ProgressIndicator) {
+    indicator.isIndeterminate = false
+    indicator.fraction = 0.0
+    indicator.text = "Preparing course files"
+
+    val start = System.currentTimeMillis()
+    val courseDir = PlannedDir(VfsUtilCore.virtualToIoFile(baseDir))
+    val groups = course.items.map { item ->
+      val group = GenerationGroup()
+      when (item) {
+        is Lesson -> planLesson(item, courseDir, group)
+        is Section -> {
+          val sectionDir = planUniqueDir(courseDir, item, group)
+          for (lesson in item.lessons) {
+            planLesson(lesson, sectionDir, group)
+          }
+        }
+      }
+      group
+    }
+    val planned = System.currentTimeMillis()
+
+    indicator.text = "Writing course files"
+    val executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Course generation", Runtime.getRuntime().availableProcessors())
+    val written = AtomicInteger()
+    try {
+      val futures = groups.map { group ->
+        executor.submit(Callable<Unit> {
+          group.write()
+          indicator.fraction = written.incrementAndGet().toDouble() / groups.size
+        })
+      }
+      for (future in futures) {
+        try {
+          future.get()
+        }
+        catch (e: ExecutionException) {
+          val cause = e.cause
+          throw cause as? IOException ?: IOException(cause)
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow()
+    }
+    val writeFinished = System.currentTimeMillis()
+
+    indicator.text = "Refreshing course files"
+    VfsUtil.markDirtyAndRefresh(false, true, true, baseDir)
+    val refreshed = System.currentTimeMillis()
+
+    LOG.info("Course `${course.name}` is generated: ${groups.sumBy { it.fileCount }} files, planning ${planned - start} ms, " +
+             "writing ${writeFinished - planned} ms, VFS refresh ${refreshed - writeFinished} ms")
+    course.removeAdditionalLesson()
+  }
+
+  private fun planLesson(lesson: Lesson, courseDir: PlannedDir, group: GenerationGroup) {
+    if (EduNames.ADDITIONAL_MATERIALS == lesson.name) {
+      val taskList = lesson.getTaskList()
+      if (taskList.size != 1) return
+      val task = taskList[0]
+      val filesToCreate = HashMap(task.testsText)
+      task.getTaskFiles().mapValuesTo(filesToCreate) { entry -> entry.value.text }
+      filesToCreate.putAll(task.additionalFiles)
+      planFiles(courseDir, filesToCreate, group)
+      return
+    }
+    val lessonDir = planUniqueDir(courseDir, lesson, group)
+    val isStudy = lesson.course.isStudy
+    for ((i, task) in lesson.getTaskList().withIndex()) {
+      // see `createLesson`
+      if (!isStudy || lesson !is FrameworkLesson || i == 0) {
+        val taskDir = planUniqueDir(lessonDir, task, group)
+        for ((_, taskFile) in task.getTaskFiles()) {
+          taskDir.planFile(taskFile.pathInTask, taskFile.text, group)
+        }
+        planFiles(taskDir, task.testTextMap, group)
+        planFiles(taskDir, task.additionalFiles, group)
+        val course = task.course
+        if (course != null && CCUtils.COURSE_MODE == course.courseMode) {
+          taskDir.planFile(getDescriptionFileName(task), task.descriptionText, group)
+        }
+      }
+    }
+  }
+
+  private fun planFiles(dir: PlannedDir, texts: Map<String, String>, group: GenerationGroup) {
+    for ((name, value) in texts) {
+      // the same check as `taskDir.findChild(name) == null` in `createFiles`
+      if (name !in dir.children) {
+        dir.planFile(name, value, group)
+      }
+    }
+  }
+
+  private fun planUniqueDir(parentDir: PlannedDir, item: StudyItem, group: GenerationGroup): PlannedDir {
+    val dirName = chooseUniqueDirName(item) { it in parentDir.children }
+    parentDir.children += dirName
+    val dir = PlannedDir(File(parentDir.file, dirName))
+    group.dirs += dir.file
+    return dir
+  }
+
+  private class PlannedDir(val file: File) {
+    // mirrors `VirtualFile.findChild` which respects case sensitivity of file system
+    val children: MutableSet<String> =
+      (if (SystemInfo.isFileSystemCaseSensitive) HashSet<String>() else TreeSet(String.CASE_INSENSITIVE_ORDER)).apply {
+        file.list()?.let { addAll(it) }
+      }
+
+    fun planFile(path: String, text: String, group: GenerationGroup) {
+      children += path.substringBefore("/")
+      group.files += PlannedFile(File(file, path), path, text)
+    }
+  }
+
+  private class PlannedFile(val file: File, val path: String, val text: String)
+
+  private class GenerationGroup {
+    val dirs: MutableList<File> = ArrayList()
+    val files: MutableList<PlannedFile> = ArrayList()
+
+    val fileCount: Int get() = files.size
+
+    @Throws(IOException::class)
+    fun write() {
+      for (dir in dirs) {
+        Files.createDirectories(dir.toPath())
+      }
+      for (plannedFile in files) {
+        val path = plannedFile.file.toPath()
+        Files.createDirectories(path.parent)
+        val content = if (EduUtils.isImage(plannedFile.path)) {
+          Base64.decodeBase64(plannedFile.text)
+        } else {
+          plannedFile.text.toByteArray(StandardCharsets.UTF_8)
+        }
+        Files.write(path, content)
+      }
+    }
+  }
+
   fun createSection(item: Section, baseDir: VirtualFile) {
     val sectionDir = createUniqueDir(baseDir, item)
 
@@ -121,7 +290,11 @@ object GeneratorUtils {
   @Throws(IOException::class)
   @JvmStatic
   fun createDescriptionFile(taskDir: VirtualFile, task: Task): VirtualFile? {
-    val descriptionFileName = when (task.descriptionFormat) {
+    return createChildFile(taskDir, getDescriptionFileName(task), task.descriptionText)
+  }
+
+  private fun getDescriptionFileName(task: Task): String {
+    return when (task.descriptionFormat) {
       HTML -> EduNames.TASK_HTML
       MD -> EduNames.TASK_MD
       else -> {
@@ -129,7 +302,6 @@ object GeneratorUtils {
         EduNames.TASK_HTML
       }
     }
-    return createChildFile(taskDir, descriptionFileName, task.descriptionText)
   }
 
   @Throws(IOException::class)
@@ -248,10 +420,14 @@ object GeneratorUtils {
    */
   @JvmStatic
   fun getUniqueValidName(parentDir: VirtualFile, name: String): String {
+    return getUniqueValidName(name) { parentDir.findChild(it) != null }
+  }
+
+  private fun getUniqueValidName(name: String, exists: (String) -> Boolean): String {
     val validName = name.convertToValidName()
     var index = 0
     var candidateName = validName
-    while (parentDir.findChild(candidateName) != null) {
+    while (exists(candidateName)) {
       index++
       candidateName = "$validName ($index)"
     }
@@ -264,20 +440,25 @@ object GeneratorUtils {
   }
 
   private fun createUniqueDir(parentDir: VirtualFile, item: StudyItem): VirtualFile {
+    val uniqueDirName = chooseUniqueDirName(item) { parentDir.findChild(it) != null }
+    return runInWriteActionAndWait(ThrowableComputable {
+      VfsUtil.createDirectoryIfMissing(parentDir, uniqueDirName)
+    })
+  }
+
+  private fun chooseUniqueDirName(item: StudyItem, exists: (String) -> Boolean): String {
     val (baseDirName, needUpdateItem) = if (item is Task && item.isFrameworkTask && item.course?.isStudy == true)  {
       item.dirName to false
     } else {
       item.name to true
     }
 
-    val uniqueDirName = getUniqueValidName(parentDir, baseDirName)
+    val uniqueDirName = getUniqueValidName(baseDirName, exists)
     if (uniqueDirName != baseDirName && needUpdateItem) {
       item.customPresentableName = item.name
       item.name = uniqueDirName
     }
-    return runInWriteActionAndWait(ThrowableComputable {
-      VfsUtil.createDirectoryIfMissing(parentDir, uniqueDirName)
-    })
+    return uniqueDirName
   }
 
   @JvmStatic
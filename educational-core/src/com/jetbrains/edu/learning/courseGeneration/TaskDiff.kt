@@ -3,9 +3,13 @@ package com.jetbrains.edu.learning.courseGeneration
 import com.intellij.openapi.application.runReadAction
 import com.intellij.openapi.application.runUndoTransparentWriteAction
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.Document
 import com.intellij.openapi.fileEditor.FileDocumentManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.diff.Diff
+import com.intellij.util.diff.FilesTooBigForDiffException
 import com.jetbrains.edu.learning.courseFormat.TaskFile
 import com.jetbrains.edu.learning.courseFormat.ext.getDocument
 import java.io.IOException
@@ -97,35 +101,147 @@ private class FileRemoved(path: String, text: String) : TaskDiff {
   override fun revert(project: Project, baseDir: VirtualFile) = add.apply(project, baseDir)
 }
 
+/**
+ * Keeps only text of previous task (which is shared with course model) and line-level delta to the next one
+ */
 private class FileChanged(
   private val path: String,
   private val prevText: String,
-  private val nextText: String
+  nextText: String
 ) : TaskDiff {
+
+  private val delta: TextDelta = TextDelta.compute(prevText, nextText)
+
   override fun apply(project: Project, baseDir: VirtualFile) {
-    setText(baseDir, path, nextText)
+    val document = findDocument(baseDir, path) ?: return
+    runUndoTransparentWriteAction {
+      if (StringUtil.equals(document.charsSequence, prevText)) {
+        delta.applyTo(document)
+      } else {
+        document.setText(delta.apply(prevText))
+      }
+    }
   }
 
   override fun revert(project: Project, baseDir: VirtualFile) {
-    setText(baseDir, path, prevText)
+    val document = findDocument(baseDir, path) ?: return
+    runUndoTransparentWriteAction {
+      if (StringUtil.equals(document.charsSequence, delta.apply(prevText))) {
+        delta.revertIn(document, prevText)
+      } else {
+        document.setText(prevText)
+      }
+    }
   }
 
   companion object {
     private val LOG: Logger = Logger.getInstance(FileChanged::class.java)
 
-    private fun setText(baseDir: VirtualFile, path: String, text: String) {
+    private fun findDocument(baseDir: VirtualFile, path: String): Document? {
       val file = baseDir.findFileByRelativePath(path)
       if (file == null) {
         LOG.warn("Can't find file `$path` in `$baseDir`")
-        return
+        return null
       }
 
       val document = runReadAction { FileDocumentManager.getInstance().getDocument(file) }
       if (document == null) {
         LOG.warn("Can't get document for `$file`")
-      } else {
-        runUndoTransparentWriteAction { document.setText(text) }
       }
+      return document
+    }
+  }
+}
+
+/**
+ * Line-level delta between two texts.
+ * Every hunk replaces `[start, end)` range of lines (in offsets of the base text) with new lines,
+ * so only changed lines of the new text are stored.
+ */
+class TextDelta private constructor(private val hunks: List<Hunk>) {
+
+  private class Hunk(val start: Int, val end: Int, val text: String)
+
+  fun apply(base: String): String {
+    val result = StringBuilder(base.length)
+    var offset = 0
+    for (hunk in hunks) {
+      result.append(base, offset, hunk.start).append(hunk.text)
+      offset = hunk.end
+    }
+    return result.append(base, offset, base.length).toString()
+  }
+
+  /**
+   * Changes only modified lines of [document] which contains base text
+   */
+  fun applyTo(document: Document) {
+    // hunks are applied from the end, so offsets of the rest hunks stay valid
+    for (hunk in hunks.asReversed()) {
+      document.replaceString(hunk.start, hunk.end, hunk.text)
+    }
+  }
+
+  /**
+   * Restores [base] text in [document] which contains result of [apply]
+   */
+  fun revertIn(document: Document, base: String) {
+    var shift = 0
+    val reverted = hunks.map { hunk ->
+      val start = hunk.start + shift
+      shift += hunk.text.length - (hunk.end - hunk.start)
+      Hunk(start, start + hunk.text.length, base.substring(hunk.start, hunk.end))
+    }
+    for (hunk in reverted.asReversed()) {
+      document.replaceString(hunk.start, hunk.end, hunk.text)
+    }
+  }
+
+  companion object {
+    fun compute(prevText: String, nextText: String): TextDelta {
+      if (prevText == nextText) return TextDelta(emptyList())
+      val prevLines = splitLines(prevText)
+      val nextLines = splitLines(nextText)
+      val change = try {
+        Diff.buildChanges(prevLines, nextLines)
+      } catch (e: FilesTooBigForDiffException) {
+        return TextDelta(listOf(Hunk(0, prevText.length, nextText)))
+      }
+      val prevOffsets = lineOffsets(prevLines)
+      val nextOffsets = lineOffsets(nextLines)
+      val hunks = mutableListOf<Hunk>()
+      var current = change
+      while (current != null) {
+        val start = prevOffsets[current.line0]
+        val end = prevOffsets[current.line0 + current.deleted]
+        val text = nextText.substring(nextOffsets[current.line1], nextOffsets[current.line1 + current.inserted])
+        hunks += Hunk(start, end, text)
+        current = current.link
+      }
+      return TextDelta(hunks)
+    }
+
+    /**
+     * Splits text into lines keeping line separators, so concatenation of lines is equal to the text
+     */
+    private fun splitLines(text: String): Array<String> {
+      val lines = mutableListOf<String>()
+      var start = 0
+      while (start < text.length) {
+        val lineEnd = text.indexOf('\n', start)
+        val end = if (lineEnd == -1) text.length else lineEnd + 1
+        lines += text.substring(start, end)
+        start = end
+      }
+      return lines.toTypedArray()
+    }
+
+    private fun lineOffsets(lines: Array<String>): IntArray {
+      val offsets = IntArray(lines.size + 1)
+      for ((i, line) in lines.withIndex()) {
+        offsets[i + 1] = offsets[i] + line.length
+      }
+      return offsets
     }
   }
 }
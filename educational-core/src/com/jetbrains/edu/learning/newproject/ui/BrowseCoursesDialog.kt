@@ -1,19 +1,22 @@
 package com.jetbrains.edu.learning.newproject.ui
 
 import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.openapi.util.Disposer
 import com.jetbrains.edu.learning.courseFormat.Course
 import com.jetbrains.edu.learning.newproject.OpenCourseAction
 import javax.swing.JComponent
 
-class BrowseCoursesDialog(val courses: List<Course>) : DialogWrapper(true) {
+class BrowseCoursesDialog : DialogWrapper(true) {
 
-  val panel = CoursesPanel(courses)
+  val panel = CoursesPanel(emptyList())
 
   init {
     title = "Select Course"
     myOKAction = OpenCourseAction(this)
     init()
     panel.addCourseValidationListener(this::setOKActionEnabled)
+    Disposer.register(disposable, panel)
+    panel.loadCourses()
   }
 
   override fun createCenterPanel(): JComponent = panel
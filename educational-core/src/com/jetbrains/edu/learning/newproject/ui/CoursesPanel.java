@@ -1,8 +1,8 @@
 package com.jetbrains.edu.learning.newproject.ui;
 
-import com.google.common.collect.Lists;
 import com.intellij.icons.AllIcons;
 import com.intellij.lang.Language;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.ActionToolbarPosition;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
@@ -12,6 +12,9 @@ import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileChooser.FileChooser;
 import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DefaultProjectFactory;
 import com.intellij.openapi.ui.Messages;
@@ -53,10 +56,18 @@ import java.util.List;
 
 import static com.jetbrains.edu.learning.PluginUtilsKt.enablePlugins;
 
-public class CoursesPanel extends JPanel {
+public class CoursesPanel extends JPanel implements Disposable {
   private static final JBColor LIST_COLOR = new JBColor(Gray.xFF, Gray.x39);
   private static final Logger LOG = Logger.getInstance(CoursesPanel.class);
   private static final String NO_COURSES = "No courses found";
+  private static final String LOADING_COURSES = "Loading courses...";
+  private static final Comparator<Course> COURSE_COMPARATOR = (first, second) -> {
+    int visibilityCompared = first.getVisibility().compareTo(second.getVisibility());
+    if (visibilityCompared != 0) {
+      return visibilityCompared;
+    }
+    return first.getName().compareTo(second.getName());
+  };
 
   private JPanel myMainPanel;
   private JPanel myCourseListPanel;
@@ -69,11 +80,16 @@ public class CoursesPanel extends JPanel {
   private List<Course> myCourses;
   private List<CourseValidationListener> myListeners = new ArrayList<>();
   private MessageBusConnection myBusConnection;
+  // bundled courses are replaced with Stepik courses with the same name
+  private final Map<String, Course> myBundledCourses = new HashMap<>();
+  @Nullable private ProgressIndicator myLoadingIndicator;
+  @Nullable private String myCourseToSelect;
+  @NotNull private String myLastFilter = "";
 
   private ErrorState myErrorState = ErrorState.NothingSelected.INSTANCE;
 
   public CoursesPanel(@NotNull List<Course> courses) {
-    myCourses = courses;
+    myCourses = new ArrayList<>(courses);
     setLayout(new BorderLayout());
     add(myMainPanel, BorderLayout.CENTER);
     initUI();
@@ -140,13 +156,128 @@ public class CoursesPanel extends JPanel {
 
   private void updateCoursesList() {
     Course selectedCourse = myCoursesList.getSelectedValue();
-    List<Course> courses = EduUtils.getCoursesUnderProgress();
-    myCourses = courses != null ? courses : Lists.newArrayList();
-    updateModel(myCourses, selectedCourse.getName());
+    myCourses = new ArrayList<>();
+    myBundledCourses.clear();
+    updateModel(myCourses, null);
+    loadCourses();
+    myCourseToSelect = selectedCourse != null ? selectedCourse.getName() : null;
     myErrorLabel.setVisible(false);
     notifyListeners(true);
   }
 
+  /**
+   * Loads bundled and Stepik courses in background and adds them to the list as soon as they are loaded,
+   * so the first courses are shown while Stepik course list is still being paged.
+   * Previous loading is cancelled.
+   */
+  public void loadCourses() {
+    cancelLoading();
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+    myLoadingIndicator = indicator;
+    myCoursesList.setPaintBusy(true);
+    myCoursesList.setEmptyText(LOADING_COURSES);
+    StepicUser user = EduSettings.getInstance().getUser();
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      try {
+        ProgressManager.getInstance().runProcess(() -> {
+          List<Course> bundledCourses = EduUtils.getBundledCourses();
+          addCoursesLater(indicator, bundledCourses, true);
+          StepikConnector.getCourses(user, courses -> addCoursesLater(indicator, courses, false));
+        }, indicator);
+      }
+      catch (ProcessCanceledException ignored) {
+      }
+      catch (RuntimeException e) {
+        LOG.warn("Failed to load courses", e);
+      }
+      finally {
+        ApplicationManager.getApplication().invokeLater(() -> {
+          if (myLoadingIndicator == indicator) {
+            myLoadingIndicator = null;
+            myCoursesList.setPaintBusy(false);
+            myCoursesList.setEmptyText(NO_COURSES);
+          }
+        }, ModalityState.any());
+      }
+    });
+  }
+
+  private void addCoursesLater(@NotNull ProgressIndicator indicator, @NotNull List<Course> courses, boolean bundled) {
+    if (courses.isEmpty()) return;
+    ApplicationManager.getApplication().invokeLater(() -> {
+      if (!indicator.isCanceled()) {
+        addCourses(courses, bundled);
+      }
+    }, ModalityState.any());
+  }
+
+  private void cancelLoading() {
+    if (myLoadingIndicator != null) {
+      myLoadingIndicator.cancel();
+      myLoadingIndicator = null;
+    }
+  }
+
+  /**
+   * Adds courses to already shown list: only new courses are checked against current filter
+   * and inserted into their sorted positions, the rest of the list isn't touched
+   */
+  private void addCourses(@NotNull List<Course> courses, boolean bundled) {
+    DefaultListModel<Course> listModel = (DefaultListModel<Course>)myCoursesList.getModel();
+    Course selectedCourse = myCoursesList.getSelectedValue();
+    String filter = mySearchField.getFilter();
+    for (Course course : courses) {
+      if (bundled) {
+        if (myBundledCourses.putIfAbsent(course.getName(), course) != null) continue;
+      }
+      else {
+        Course bundledCourse = myBundledCourses.remove(course.getName());
+        if (bundledCourse != null) {
+          myCourses.remove(bundledCourse);
+          listModel.removeElement(bundledCourse);
+          if (bundledCourse == selectedCourse) {
+            selectedCourse = null;
+            myCourseToSelect = course.getName();
+          }
+        }
+      }
+      myCourses.add(course);
+      if (accept(filter, course)) {
+        insertSorted(listModel, course);
+        if (course.getName().equals(myCourseToSelect)) {
+          myCourseToSelect = null;
+          selectedCourse = course;
+        }
+      }
+    }
+    if (selectedCourse != null) {
+      myCoursesList.setSelectedValue(selectedCourse, true);
+    }
+    else if (!listModel.isEmpty()) {
+      myCoursesList.setSelectedIndex(0);
+    }
+  }
+
+  private static void insertSorted(@NotNull DefaultListModel<Course> listModel, @NotNull Course course) {
+    int low = 0;
+    int high = listModel.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (COURSE_COMPARATOR.compare(listModel.get(middle), course) <= 0) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+    listModel.add(low, course);
+  }
+
+  @Override
+  public void dispose() {
+    cancelLoading();
+  }
+
   @NotNull
   private ColoredListCellRenderer<Course> getCourseRenderer() {
     return new ColoredListCellRenderer<Course>() {
@@ -184,13 +315,7 @@ public class CoursesPanel extends JPanel {
   }
 
   private static List<Course> sortCourses(List<Course> courses) {
-    return ContainerUtil.sorted(courses, (first, second) -> {
-      int visibilityCompared = first.getVisibility().compareTo(second.getVisibility());
-      if (visibilityCompared != 0) {
-        return visibilityCompared;
-      }
-      return first.getName().compareTo(second.getName());
-    });
+    return ContainerUtil.sorted(courses, COURSE_COMPARATOR);
   }
 
   private void updateModel(List<Course> courses, @Nullable String courseToSelect) {
@@ -225,8 +350,11 @@ public class CoursesPanel extends JPanel {
       public void filter() {
         Course selectedCourse = myCoursesList.getSelectedValue();
         String filter = getFilter();
+        // a narrowed filter can only match already shown courses
+        List<Course> candidates = isNarrowed(myLastFilter, filter) ? getShownCourses() : myCourses;
+        myLastFilter = filter;
         List<Course> filtered = new ArrayList<>();
-        for (Course course : myCourses) {
+        for (Course course : candidates) {
           if (accept(filter, course)) {
             filtered.add(course);
           }
@@ -238,6 +366,26 @@ public class CoursesPanel extends JPanel {
     UIUtil.setBackgroundRecursively(mySearchField, UIUtil.getTextFieldBackground());
   }
 
+  @NotNull
+  private List<Course> getShownCourses() {
+    ListModel<Course> listModel = myCoursesList.getModel();
+    List<Course> courses = new ArrayList<>(listModel.getSize());
+    for (int i = 0; i < listModel.getSize(); i++) {
+      courses.add(listModel.getElementAt(i));
+    }
+    return courses;
+  }
+
+  /**
+   * Course is accepted if any of filter parts matches, so filter is narrowed only if its last part is extended
+   */
+  private static boolean isNarrowed(@NotNull String oldFilter, @NotNull String newFilter) {
+    if (oldFilter.isEmpty() || oldFilter.endsWith(" ") || !newFilter.startsWith(oldFilter)) {
+      return false;
+    }
+    return !newFilter.substring(oldFilter.length()).contains(" ");
+  }
+
   private static boolean accept(@NonNls String filter, Course course) {
     if (filter.isEmpty()) {
       return true;
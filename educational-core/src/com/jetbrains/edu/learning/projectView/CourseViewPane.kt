@@ -29,11 +29,13 @@ import com.intellij.ide.util.PropertiesComponent
 import com.intellij.ide.util.treeView.AbstractTreeBuilder
 import com.intellij.ide.util.treeView.AbstractTreeNode
 import com.intellij.ide.util.treeView.AbstractTreeUpdater
+import com.intellij.ide.util.treeView.NodeDescriptor
 import com.intellij.openapi.actionSystem.*
 import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.progress.util.ColorProgressBar
 import com.intellij.openapi.project.DumbAware
 import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiManager
 import com.intellij.ui.Gray
 import com.intellij.ui.JBColor
 import com.intellij.ui.ScrollPaneFactory
@@ -49,6 +51,7 @@ import com.jetbrains.edu.learning.EduUtils
 import com.jetbrains.edu.learning.StudyTaskManager
 import com.jetbrains.edu.learning.courseFormat.Course
 import com.jetbrains.edu.learning.courseFormat.StudyItem
+import com.jetbrains.edu.learning.courseFormat.tasks.Task
 import icons.EducationalCoreIcons
 import org.jetbrains.annotations.NonNls
 import org.jetbrains.annotations.TestOnly
@@ -144,6 +147,29 @@ class CourseViewPane(project: Project) : AbstractProjectViewPSIPane(project) {
     progressBar.value = taskSolved
   }
 
+  /**
+   * Updates presentation of nodes of the task, its lesson, section and course without rebuilding the whole tree,
+   * e.g. after status of the task was changed
+   */
+  fun updateTaskNodes(task: Task) {
+    val builder = treeBuilder
+    if (builder == null) {
+      updateFromRoot(false)
+      return
+    }
+    val lesson = task.lesson
+    val psiManager = PsiManager.getInstance(myProject)
+    for (item in listOfNotNull(task, lesson, lesson.section, lesson.course)) {
+      val dir = item.getDir(myProject) ?: continue
+      val psiDirectory = psiManager.findDirectory(dir) ?: continue
+      val node = builder.getNodeForElement(psiDirectory) ?: continue
+      val descriptor = node.userObject as? NodeDescriptor<*> ?: continue
+      if (descriptor.update()) {
+        (tree.model as DefaultTreeModel).nodeChanged(node)
+      }
+    }
+  }
+
   @TestOnly
   fun getProgressBar(): JProgressBar = progressBar
 
@@ -205,5 +231,11 @@ class CourseViewPane(project: Project) : AbstractProjectViewPSIPane(project) {
     const val HIDE_SOLVED_LESSONS = "Edu.HideSolvedLessons"
 
     val STUDY_ITEM: DataKey<StudyItem> = DataKey.create<StudyItem>("Edu.studyItem")
+
+    @JvmStatic
+    fun updateTaskNodes(project: Project, task: Task) {
+      val pane = ProjectView.getInstance(project).getProjectViewPaneById(ID) as? CourseViewPane ?: return
+      pane.updateTaskNodes(task)
+    }
   }
 }
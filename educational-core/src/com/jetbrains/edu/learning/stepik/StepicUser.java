@@ -95,6 +95,18 @@ public class StepicUser {
     isGuest = guest;
   }
 
+  @NotNull
+  public StepicUser copy() {
+    StepicUser copy = new StepicUser();
+    copy.id = id;
+    copy.myFirstName = myFirstName;
+    copy.myLastName = myLastName;
+    copy.myAccessToken = myAccessToken;
+    copy.myRefreshToken = myRefreshToken;
+    copy.isGuest = isGuest;
+    return copy;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
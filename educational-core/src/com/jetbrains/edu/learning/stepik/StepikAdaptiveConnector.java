@@ -9,11 +9,15 @@ import com.intellij.lang.LanguageCommenters;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.ExceptionUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.edu.learning.*;
 import com.jetbrains.edu.learning.checker.CheckResult;
 import com.jetbrains.edu.learning.courseFormat.CheckStatus;
@@ -42,9 +46,9 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 public class StepikAdaptiveConnector {
   public static final String EDU_TOOLS_COMMENT = " Posted from EduTools plugin\n";
@@ -56,6 +60,9 @@ public class StepikAdaptiveConnector {
   private static final int CONNECTION_TIMEOUT = 60 * 1000;
   // Stepik uses some code complexity measure, but we agreed that it's not obvious measure and should be improved
   private static final String CODE_COMPLEXITY_NOTE = "code complexity score";
+  private static final Gson GSON = new Gson();
+  private static final Gson RECOMMENDATIONS_GSON =
+    new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
 
   @Nullable
   public static Task getNextRecommendation(@Nullable Project project, @NotNull RemoteCourse course) {
@@ -78,29 +85,28 @@ public class StepikAdaptiveConnector {
       final HttpGet request = new HttpGet(uri);
       setTimeout(request);
 
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final HttpEntity responseEntity = response.getEntity();
       final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
 
       final int statusCode = response.getStatusLine().getStatusCode();
       EntityUtils.consume(responseEntity);
       if (statusCode == HttpStatus.SC_OK) {
-        final Gson gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
-        final StepikWrappers.RecommendationWrapper recomWrapper = gson.fromJson(responseString, StepikWrappers.RecommendationWrapper.class);
+        final StepikWrappers.RecommendationWrapper recomWrapper = RECOMMENDATIONS_GSON.fromJson(responseString, StepikWrappers.RecommendationWrapper.class);
 
         if (recomWrapper.recommendations.length != 0) {
           final StepikWrappers.Recommendation recommendation = recomWrapper.recommendations[0];
           final String lessonId = recommendation.lesson;
-          final StepikWrappers.LessonContainer lessonContainer = StepikAuthorizedClient.getFromStepik(StepikNames.LESSONS + lessonId,
-                                                                                                         StepikWrappers.LessonContainer.class);
-          if (lessonContainer != null && lessonContainer.lessons.size() == 1) {
-            final Lesson realLesson = lessonContainer.lessons.get(0);
+          // steps of the lesson are usually prefetched while the previous task was solved
+          final StepikRecommendationPrefetcher.RecommendedLesson recommendedLesson =
+            StepikRecommendationPrefetcher.getInstance().getLesson(lessonId);
+          if (recommendedLesson != null) {
+            final Lesson realLesson = recommendedLesson.lesson;
             course.getLessons().get(0).setId(Integer.parseInt(lessonId));
 
-            for (int stepId : realLesson.steps) {
-              StepikWrappers.StepSource step = StepikConnector.getStep(stepId);
+            for (StepikWrappers.StepSource step : recommendedLesson.steps) {
               String stepType = step.block.name;
-              StepikTaskBuilder taskBuilder = new StepikTaskBuilder(course, realLesson.getName(), step, stepId, user.getId());
+              StepikTaskBuilder taskBuilder = new StepikTaskBuilder(course, realLesson.getName(), step, step.id, user.getId());
               if (taskBuilder.isSupported(stepType)) {
                 final Task taskFromStep = taskBuilder.createTask(stepType);
                 if (taskFromStep != null) return taskFromStep;
@@ -110,9 +116,6 @@ public class StepikAdaptiveConnector {
               }
             }
           }
-          else {
-            LOG.warn("Got unexpected number of lessons: " + (lessonContainer == null ? null : lessonContainer.lessons.size()));
-          }
         }
         else {
           LOG.warn("Got empty recommendation for the task: " + responseString);
@@ -135,6 +138,80 @@ public class StepikAdaptiveConnector {
     return null;
   }
 
+  /**
+   * @return ids of lessons Stepik currently recommends for the course, the first one is what {@link #getNextRecommendation} would return
+   */
+  @NotNull
+  static List<String> getRecommendedLessonIds(@NotNull RemoteCourse course, int count) throws IOException {
+    final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
+    if (client == null) {
+      throw new IOException("Http client is null");
+    }
+    try {
+      final URI uri = new URIBuilder(StepikNames.STEPIK_API_URL + StepikNames.RECOMMENDATIONS_URL)
+        .addParameter(EduNames.COURSE, String.valueOf(course.getId()))
+        .addParameter("count", String.valueOf(count))
+        .build();
+      final HttpGet request = new HttpGet(uri);
+      setTimeout(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
+      final HttpEntity responseEntity = response.getEntity();
+      final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
+      EntityUtils.consume(responseEntity);
+      final int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode != HttpStatus.SC_OK) {
+        throw new IOException("Stepik returned non 200 status code: " + responseString);
+      }
+      final StepikWrappers.RecommendationWrapper wrapper = RECOMMENDATIONS_GSON.fromJson(responseString, StepikWrappers.RecommendationWrapper.class);
+      final List<String> lessonIds = new ArrayList<>();
+      if (wrapper.recommendations != null) {
+        for (StepikWrappers.Recommendation recommendation : wrapper.recommendations) {
+          lessonIds.add(recommendation.lesson);
+        }
+      }
+      return lessonIds;
+    }
+    catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Loads lesson with all its steps, steps are requested together and ordered as in the lesson
+   */
+  @Nullable
+  static StepikRecommendationPrefetcher.RecommendedLesson loadRecommendedLesson(@NotNull String lessonId) throws IOException {
+    final StepikWrappers.LessonContainer lessonContainer = StepikAuthorizedClient.getFromStepik(StepikNames.LESSONS + lessonId,
+                                                                                                   StepikWrappers.LessonContainer.class);
+    if (lessonContainer == null || lessonContainer.lessons.size() != 1) {
+      LOG.warn("Got unexpected number of lessons: " + (lessonContainer == null ? null : lessonContainer.lessons.size()));
+      return null;
+    }
+    final Lesson lesson = lessonContainer.lessons.get(0);
+    final String[] stepIds = lesson.steps.stream().map(stepId -> String.valueOf(stepId)).toArray(String[]::new);
+    final Map<Integer, StepikWrappers.StepSource> stepsById = new HashMap<>();
+    try {
+      for (StepikWrappers.StepContainer container : StepikConnector.multipleRequestToStepik(StepikNames.STEPS, stepIds,
+                                                                                             StepikWrappers.StepContainer.class)) {
+        for (StepikWrappers.StepSource step : container.steps) {
+          stepsById.put(step.id, step);
+        }
+      }
+    }
+    catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+    final List<StepikWrappers.StepSource> steps = new ArrayList<>();
+    for (int stepId : lesson.steps) {
+      final StepikWrappers.StepSource step = stepsById.get(stepId);
+      if (step == null) {
+        throw new IOException("Step " + stepId + " of lesson " + lessonId + " is not found");
+      }
+      steps.add(step);
+    }
+    return new StepikRecommendationPrefetcher.RecommendedLesson(lesson, steps);
+  }
+
   private static Task skipRecommendation(@Nullable Project project, @NotNull RemoteCourse course, StepicUser user, String lessonId) {
     postRecommendationReaction(lessonId, String.valueOf(user.getId()), TOO_HARD_RECOMMENDATION_REACTION);
     return getNextRecommendation(project, course);
@@ -160,7 +237,7 @@ public class StepikAdaptiveConnector {
 
   private static StepikWrappers.AdaptiveAttemptWrapper.Attempt createNewAttempt(int id) throws IOException {
     final String response = StepikConnector.postAttempt(id);
-    final StepikWrappers.AdaptiveAttemptContainer attempt = new Gson().fromJson(response, StepikWrappers.AdaptiveAttemptContainer.class);
+    final StepikWrappers.AdaptiveAttemptContainer attempt = GSON.fromJson(response, StepikWrappers.AdaptiveAttemptContainer.class);
     return attempt.attempts.get(0);
   }
 
@@ -195,15 +272,16 @@ public class StepikAdaptiveConnector {
   }
 
   public static boolean postRecommendationReaction(@NotNull String lessonId, @NotNull String user, int reaction) {
+    StepikRecommendationPrefetcher.getInstance().onReaction(lessonId);
     final HttpPost post = new HttpPost(StepikNames.STEPIK_API_URL + StepikNames.RECOMMENDATION_REACTIONS_URL);
-    final String json = new Gson()
+    final String json = GSON
       .toJson(new StepikWrappers.RecommendationReactionWrapper(new StepikWrappers.RecommendationReaction(reaction, user, lessonId)));
     post.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
     final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
     if (client == null) return false;
     setTimeout(post);
     try {
-      final CloseableHttpResponse execute = client.execute(post);
+      final CloseableHttpResponse execute = StepikIoScheduler.execute(client, post);
       final int statusCode = execute.getStatusLine().getStatusCode();
       final HttpEntity entity = execute.getEntity();
       final String entityString = EntityUtils.toString(entity);
@@ -273,6 +351,7 @@ public class StepikAdaptiveConnector {
       ProjectView.getInstance(project).refresh();
       NavigationUtils.navigateToTask(project, task);
     });
+    StepikRecommendationPrefetcher.getInstance().prefetch((RemoteCourse)course, String.valueOf(lesson.getId()));
   }
 
   private static void addAsNextTask(@NotNull Project project, @NotNull Task task, @NotNull Lesson lesson) {
@@ -309,7 +388,7 @@ public class StepikAdaptiveConnector {
     int taskIndex = lesson.getTaskList().size();
 
     task.setIndex(taskIndex);
-    lesson.getTaskList().set(taskIndex - 1, task);
+    lesson.setTask(taskIndex - 1, task);
 
     updateProjectFiles(project, task, oldTaskName, course.getLanguageById());
     setToolWindowText(project, task);
@@ -357,8 +436,15 @@ public class StepikAdaptiveConnector {
     }
   }
 
-  public static CheckResult checkChoiceTask(@NotNull ChoiceTask task, @NotNull StepicUser user) {
-    if (task.getSelectedVariants().isEmpty()) return new CheckResult(CheckStatus.Failed, "No variants selected");
+  /**
+   * Posts solution of the task to Stepik. Result is available once Stepik evaluates the solution,
+   * see {@link #getCheckResult(CompletableFuture)}.
+   */
+  @NotNull
+  public static CompletableFuture<CheckResult> checkChoiceTask(@NotNull ChoiceTask task, @NotNull StepicUser user) {
+    if (task.getSelectedVariants().isEmpty()) {
+      return CompletableFuture.completedFuture(new CheckResult(CheckStatus.Failed, "No variants selected"));
+    }
     final StepikWrappers.AdaptiveAttemptWrapper.Attempt attempt = getAttemptForStep(task.getStepId(), user.getId());
 
     if (attempt != null) {
@@ -366,31 +452,42 @@ public class StepikAdaptiveConnector {
 
       final boolean isActiveAttempt = task.getSelectedVariants().stream()
         .allMatch(index -> attempt.dataset.options.get(index).equals(task.getChoiceVariants().get(index)));
-      if (!isActiveAttempt) return new CheckResult(CheckStatus.Failed, "Your solution is out of date. Please try again");
+      if (!isActiveAttempt) {
+        return CompletableFuture.completedFuture(new CheckResult(CheckStatus.Failed, "Your solution is out of date. Please try again"));
+      }
       final StepikWrappers.SubmissionToPostWrapper wrapper = new StepikWrappers.SubmissionToPostWrapper(String.valueOf(attemptId),
                                                                                                         createChoiceTaskAnswerArray(task));
-      final CheckResult result = doAdaptiveCheck(wrapper, attemptId, user.getId());
-      if (result.getStatus() == CheckStatus.Failed) {
-        try {
-          createNewAttempt(task.getStepId());
-          StepikWrappers.StepSource step = StepikConnector.getStep(task.getStepId());
-          StepikTaskBuilder taskBuilder = new StepikTaskBuilder((RemoteCourse)task.getLesson().getCourse(), task.getName(),
-                                                                step, task.getStepId(), user.getId());
-          final Task updatedTask = taskBuilder.createTask(step.block.name);
-          if (updatedTask instanceof ChoiceTask) {
-            final List<String> variants = ((ChoiceTask)updatedTask).getChoiceVariants();
-            task.setChoiceVariants(variants);
-            task.setSelectedVariants(new ArrayList<>());
-          }
+      final CompletableFuture<CheckResult> checkResult = doAdaptiveCheck(wrapper);
+      // updating variants requests Stepik, so it's not done in the poller thread
+      final CompletableFuture<CheckResult> result = checkResult.thenApplyAsync(r -> {
+        if (r.getStatus() == CheckStatus.Failed) {
+          updateChoiceVariants(task, user);
         }
-        catch (IOException e) {
-          LOG.warn(e.getMessage());
-        }
-      }
+        return r;
+      }, AppExecutorUtil.getAppExecutorService());
+      propagateCancellation(result, checkResult);
       return result;
     }
 
-    return CheckResult.FAILED_TO_CHECK;
+    return CompletableFuture.completedFuture(CheckResult.FAILED_TO_CHECK);
+  }
+
+  private static void updateChoiceVariants(@NotNull ChoiceTask task, @NotNull StepicUser user) {
+    try {
+      createNewAttempt(task.getStepId());
+      StepikWrappers.StepSource step = StepikConnector.getStep(task.getStepId());
+      StepikTaskBuilder taskBuilder = new StepikTaskBuilder((RemoteCourse)task.getLesson().getCourse(), task.getName(),
+                                                            step, task.getStepId(), user.getId());
+      final Task updatedTask = taskBuilder.createTask(step.block.name);
+      if (updatedTask instanceof ChoiceTask) {
+        final List<String> variants = ((ChoiceTask)updatedTask).getChoiceVariants();
+        task.setChoiceVariants(variants);
+        task.setSelectedVariants(new ArrayList<>());
+      }
+    }
+    catch (IOException e) {
+      LOG.warn(e.getMessage());
+    }
   }
 
   private static boolean[] createChoiceTaskAnswerArray(@NotNull ChoiceTask task) {
@@ -402,7 +499,12 @@ public class StepikAdaptiveConnector {
     return answer;
   }
 
-  public static CheckResult checkCodeTask(@NotNull Project project, @NotNull Task task, @NotNull StepicUser user) {
+  /**
+   * Posts solution of the task to Stepik. Result is available once Stepik evaluates the solution,
+   * see {@link #getCheckResult(CompletableFuture)}.
+   */
+  @NotNull
+  public static CompletableFuture<CheckResult> checkCodeTask(@NotNull Project project, @NotNull Task task, @NotNull StepicUser user) {
     int attemptId = -1;
     try {
       attemptId = getAttemptId(task);
@@ -421,31 +523,66 @@ public class StepikAdaptiveConnector {
         assert defaultLanguage != null : ("Default Stepik language not found for: " + courseLanguage.getDisplayName());
         final StepikWrappers.SubmissionToPostWrapper submissionToPost =
           new StepikWrappers.SubmissionToPostWrapper(String.valueOf(attemptId), defaultLanguage, answer);
-        return doAdaptiveCheck(submissionToPost, attemptId, user.getId());
+        return doAdaptiveCheck(submissionToPost);
       }
     }
     else {
       LOG.warn("Got an incorrect attempt id: " + attemptId);
     }
-    return CheckResult.FAILED_TO_CHECK;
+    return CompletableFuture.completedFuture(CheckResult.FAILED_TO_CHECK);
+  }
+
+  /**
+   * Waits for result of a check started by {@link #checkCodeTask(Project, Task, StepicUser)} or
+   * {@link #checkChoiceTask(ChoiceTask, StepicUser)}. The check is cancelled if current progress is cancelled.
+   */
+  @NotNull
+  public static CheckResult getCheckResult(@NotNull CompletableFuture<CheckResult> checkResult) {
+    try {
+      return StepikIoScheduler.getResult(checkResult, ProgressManager.getInstance().getProgressIndicator());
+    }
+    catch (ProcessCanceledException e) {
+      checkResult.cancel(false);
+      throw e;
+    }
+    catch (IOException e) {
+      LOG.warn(e.getMessage());
+      return CheckResult.FAILED_TO_CHECK;
+    }
   }
 
-  private static CheckResult doAdaptiveCheck(@NotNull StepikWrappers.SubmissionToPostWrapper submission,
-                                             int attemptId, int userId) {
+  private static void propagateCancellation(@NotNull CompletableFuture<?> from, @NotNull CompletableFuture<?> to) {
+    from.whenComplete((result, e) -> {
+      if (from.isCancelled()) {
+        to.cancel(false);
+      }
+    });
+  }
+
+  @NotNull
+  private static CompletableFuture<CheckResult> doAdaptiveCheck(@NotNull StepikWrappers.SubmissionToPostWrapper submission) {
     final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
     if (client != null) {
       StepikWrappers.ResultSubmissionWrapper wrapper = postResultsForCheck(client, submission);
       if (wrapper != null) {
-        wrapper = getCheckResults(client, wrapper, attemptId, userId);
         if (wrapper.submissions.length > 0) {
-          final String status = wrapper.submissions[0].status;
-          final String hint = wrapper.submissions[0].hint;
-          final boolean isSolved = !status.equals("wrong");
-          String message = hint;
-          if (message.isEmpty() || message.contains(CODE_COMPLEXITY_NOTE)) {
-            message = StringUtil.capitalize(status) + " solution";
-          }
-          return new CheckResult(isSolved ? CheckStatus.Solved : CheckStatus.Failed, message);
+          final StepikWrappers.ResultSubmissionWrapper.ResultSubmission posted = wrapper.submissions[0];
+          final CompletableFuture<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> evaluated =
+            StepikSubmissionPoller.EVALUATION_STATUS.equals(posted.status)
+            ? StepikSubmissionPoller.getInstance().awaitResult(posted.id)
+            : CompletableFuture.completedFuture(posted);
+          final CompletableFuture<CheckResult> result = evaluated.handle((evaluatedSubmission, e) -> {
+            if (e == null) {
+              return createCheckResult(evaluatedSubmission);
+            }
+            if (ExceptionUtil.getRootCause(e) instanceof TimeoutException) {
+              return new CheckResult(CheckStatus.Unchecked, "Stepik didn't check the solution in time, please try again later");
+            }
+            LOG.warn(e.getMessage());
+            return CheckResult.FAILED_TO_CHECK;
+          });
+          propagateCancellation(result, evaluated);
+          return result;
         }
         else {
           LOG.warn("Got a submission wrapper with incorrect submissions number: " + wrapper.submissions.length);
@@ -453,10 +590,21 @@ public class StepikAdaptiveConnector {
       }
       else {
         LOG.warn("Can't do adaptive check: " + "wrapper is null");
-        return new CheckResult(CheckStatus.Unchecked, "Can't get check results for Stepik");
+        return CompletableFuture.completedFuture(new CheckResult(CheckStatus.Unchecked, "Can't get check results for Stepik"));
       }
     }
-    return CheckResult.FAILED_TO_CHECK;
+    return CompletableFuture.completedFuture(CheckResult.FAILED_TO_CHECK);
+  }
+
+  @NotNull
+  private static CheckResult createCheckResult(@NotNull StepikWrappers.ResultSubmissionWrapper.ResultSubmission submission) {
+    final String status = submission.status;
+    final boolean isSolved = !status.equals("wrong");
+    String message = StringUtil.notNullize(submission.hint);
+    if (message.isEmpty() || message.contains(CODE_COMPLEXITY_NOTE)) {
+      message = StringUtil.capitalize(status) + " solution";
+    }
+    return new CheckResult(isSolved ? CheckStatus.Solved : CheckStatus.Failed, message);
   }
 
   @Nullable
@@ -467,16 +615,16 @@ public class StepikAdaptiveConnector {
       final HttpPost httpPost = new HttpPost(StepikNames.STEPIK_API_URL + StepikNames.SUBMISSIONS);
       setTimeout(httpPost);
       try {
-        httpPost.setEntity(new StringEntity(new Gson().toJson(submissionToPostWrapper)));
+        httpPost.setEntity(new StringEntity(GSON.toJson(submissionToPostWrapper)));
       }
       catch (UnsupportedEncodingException e) {
         LOG.warn(e.getMessage());
       }
-      response = client.execute(httpPost);
+      response = StepikIoScheduler.execute(client, httpPost);
       final HttpEntity entity = response.getEntity();
       final String entityString = EntityUtils.toString(entity);
       EntityUtils.consume(entity);
-      return new Gson().fromJson(entityString, StepikWrappers.ResultSubmissionWrapper.class);
+      return GSON.fromJson(entityString, StepikWrappers.ResultSubmissionWrapper.class);
     }
     catch (IOException e) {
       LOG.warn(e.getMessage());
@@ -484,51 +632,56 @@ public class StepikAdaptiveConnector {
     return null;
   }
 
+  /**
+   * Used by {@link StepikSubmissionPoller} to get statuses of all pending submissions with one request
+   */
   @NotNull
-  private static StepikWrappers.ResultSubmissionWrapper getCheckResults(@NotNull CloseableHttpClient client,
-                                                                        @NotNull StepikWrappers.ResultSubmissionWrapper wrapper,
-                                                                        int attemptId,
-                                                                        int userId) {
+  static List<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> getSubmissions(@NotNull List<Integer> submissionIds)
+    throws IOException {
+    final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
+    if (client == null) {
+      throw new IOException("Http client is null");
+    }
     try {
-      while (wrapper.submissions.length == 1 && wrapper.submissions[0].status.equals("evaluation")) {
-        TimeUnit.MILLISECONDS.sleep(500);
-        final URI submissionURI = new URIBuilder(StepikNames.STEPIK_API_URL + StepikNames.SUBMISSIONS)
-          .addParameter("attempt", String.valueOf(attemptId))
-          .addParameter("order", "desc")
-          .addParameter("user", String.valueOf(userId))
-          .build();
-        final HttpGet httpGet = new HttpGet(submissionURI);
-        setTimeout(httpGet);
-        final CloseableHttpResponse httpResponse = client.execute(httpGet);
-        final HttpEntity entity = httpResponse.getEntity();
-        final String entityString = EntityUtils.toString(entity);
-        EntityUtils.consume(entity);
-        wrapper = new Gson().fromJson(entityString, StepikWrappers.ResultSubmissionWrapper.class);
+      final URIBuilder builder = new URIBuilder(StepikNames.STEPIK_API_URL + StepikNames.SUBMISSIONS);
+      for (Integer id : submissionIds) {
+        builder.addParameter("ids[]", String.valueOf(id));
       }
+      final HttpGet httpGet = new HttpGet(builder.build());
+      setTimeout(httpGet);
+      final CloseableHttpResponse httpResponse = StepikIoScheduler.execute(client, httpGet);
+      final HttpEntity entity = httpResponse.getEntity();
+      final String entityString = EntityUtils.toString(entity);
+      EntityUtils.consume(entity);
+      final int statusCode = httpResponse.getStatusLine().getStatusCode();
+      if (statusCode != HttpStatus.SC_OK) {
+        throw new IOException("Stepik returned non-200 status code: " + statusCode + " " + entityString);
+      }
+      final StepikWrappers.ResultSubmissionWrapper wrapper = GSON.fromJson(entityString, StepikWrappers.ResultSubmissionWrapper.class);
+      return wrapper.submissions == null ? Collections.emptyList() : Arrays.asList(wrapper.submissions);
     }
-    catch (InterruptedException | URISyntaxException | IOException e) {
-      LOG.warn(e.getMessage());
+    catch (URISyntaxException e) {
+      throw new IOException(e);
     }
-    return wrapper;
   }
 
   private static int getAttemptId(@NotNull Task task) throws IOException {
     final StepikWrappers.AdaptiveAttemptWrapper attemptWrapper = new StepikWrappers.AdaptiveAttemptWrapper(task.getStepId());
 
     final HttpPost post = new HttpPost(StepikNames.STEPIK_API_URL + StepikNames.ATTEMPTS);
-    post.setEntity(new StringEntity(new Gson().toJson(attemptWrapper)));
+    post.setEntity(new StringEntity(GSON.toJson(attemptWrapper)));
 
     final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
     if (client == null) return -1;
     setTimeout(post);
-    final CloseableHttpResponse httpResponse = client.execute(post);
+    final CloseableHttpResponse httpResponse = StepikIoScheduler.execute(client, post);
     final int statusCode = httpResponse.getStatusLine().getStatusCode();
     final HttpEntity entity = httpResponse.getEntity();
     final String entityString = EntityUtils.toString(entity);
     EntityUtils.consume(entity);
     if (statusCode == HttpStatus.SC_CREATED) {
       final StepikWrappers.AttemptContainer container =
-        new Gson().fromJson(entityString, StepikWrappers.AttemptContainer.class);
+        GSON.fromJson(entityString, StepikWrappers.AttemptContainer.class);
       return (container.attempts != null && !container.attempts.isEmpty()) ? container.attempts.get(0).id : -1;
     }
     return -1;
@@ -11,7 +11,10 @@ import com.intellij.openapi.project.Project;
 import com.intellij.ui.JBColor;
 import com.intellij.util.ui.UIUtil;
 import com.jetbrains.edu.learning.EduUtils;
+import com.jetbrains.edu.learning.StudyTaskManager;
 import com.jetbrains.edu.learning.courseFormat.CheckStatus;
+import com.jetbrains.edu.learning.courseFormat.Course;
+import com.jetbrains.edu.learning.courseFormat.RemoteCourse;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -59,6 +62,15 @@ public class StepikAdaptiveReactionsPanel extends JPanel {
     c.gridx = 5;
     c.weightx = 0;
     add(Box.createHorizontalStrut(3), c);
+    prefetchRecommendations();
+  }
+
+  private void prefetchRecommendations() {
+    final Course course = StudyTaskManager.getInstance(myProject).getCourse();
+    if (course instanceof RemoteCourse && course.isAdaptive() && !course.getLessons().isEmpty()) {
+      final int currentLessonId = course.getLessons().get(0).getId();
+      StepikRecommendationPrefetcher.getInstance().prefetch((RemoteCourse)course, String.valueOf(currentLessonId));
+    }
   }
 
   public void setEnabledRecursive(final boolean isEnabled) {
@@ -1,8 +1,5 @@
 package com.jetbrains.edu.learning.stepik;
 
-import com.google.gson.FieldNamingPolicy;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.intellij.openapi.diagnostic.Logger;
 import com.jetbrains.edu.learning.EduSettings;
 import org.apache.commons.codec.binary.Base64;
@@ -54,7 +51,8 @@ public class StepikAuthorizedClient {
   @Nullable
   public static <T> T getFromStepik(@NotNull String link, @NotNull final Class<T> container) throws IOException {
     final CloseableHttpClient client = getHttpClient();
-    return client == null ? null : StepikClient.getFromStepik(link, container, client);
+    final StepicUser user = EduSettings.getInstance().getUser();
+    return client == null || user == null ? null : StepikClient.getFromStepik(link, container, client, user.getId());
   }
 
   /*
@@ -90,7 +88,7 @@ public class StepikAuthorizedClient {
    * This method should be used only in project generation while project is not available.
    */
   public static <T> T getFromStepik(String link, final Class<T> container, @NotNull final StepicUser stepicUser) throws IOException {
-    return StepikClient.getFromStepik(link, container, getHttpClient(stepicUser));
+    return StepikClient.getFromStepik(link, container, getHttpClient(stepicUser), stepicUser.getId());
   }
 
   @NotNull
@@ -171,8 +169,6 @@ public class StepikAuthorizedClient {
 
   @Nullable
   public static StepikWrappers.TokenInfo getTokens(@NotNull final List<NameValuePair> parameters, @Nullable String credentials) {
-    final Gson gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
-
     final HttpPost request = new HttpPost(StepikNames.TOKEN_URL);
 
     if (credentials != null) {
@@ -182,16 +178,19 @@ public class StepikAuthorizedClient {
 
     try {
       final CloseableHttpClient client = StepikClient.getHttpClient();
-      final CloseableHttpResponse response = client.execute(request);
+      final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       final StatusLine statusLine = response.getStatusLine();
       final HttpEntity responseEntity = response.getEntity();
-      final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
-      EntityUtils.consume(responseEntity);
-      if (statusLine.getStatusCode() == HttpStatus.SC_OK) {
-        return gson.fromJson(responseString, StepikWrappers.TokenInfo.class);
+      try {
+        if (statusLine.getStatusCode() == HttpStatus.SC_OK) {
+          return StepikClient.deserializeStepikResponse(StepikWrappers.TokenInfo.class, responseEntity);
+        }
+        else {
+          LOG.warn("Failed to get tokens: " + statusLine.getStatusCode() + statusLine.getReasonPhrase());
+        }
       }
-      else {
-        LOG.warn("Failed to get tokens: " + statusLine.getStatusCode() + statusLine.getReasonPhrase());
+      finally {
+        EntityUtils.consume(responseEntity);
       }
     }
     catch (IOException e) {
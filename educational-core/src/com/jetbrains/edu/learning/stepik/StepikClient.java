@@ -3,6 +3,8 @@ package com.jetbrains.edu.learning.stepik;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.util.PlatformUtils;
 import com.intellij.util.net.HttpConfigurable;
@@ -14,13 +16,17 @@ import com.jetbrains.edu.learning.courseFormat.Lesson;
 import com.jetbrains.edu.learning.stepik.serialization.StepikLessonAdapter;
 import com.jetbrains.edu.learning.stepik.serialization.StepikReplyAdapter;
 import com.jetbrains.edu.learning.stepik.serialization.StepikStepOptionsAdapter;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -28,13 +34,18 @@ import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -45,6 +56,8 @@ public class StepikClient {
   private static final Logger LOG = Logger.getInstance(StepikClient.class.getName());
   private static CloseableHttpClient ourClient;
   private static final int TIMEOUT_SECONDS = 10;
+  // Gson is thread-safe, so building it with all adapters once is enough
+  private static final Gson ourGson = createGson();
 
   private StepikClient() {
   }
@@ -62,19 +75,99 @@ public class StepikClient {
   }
 
   static <T> T getFromStepik(String link, final Class<T> container, @NotNull final CloseableHttpClient client) throws IOException {
+    return getFromStepik(link, container, client, 0);
+  }
+
+  /**
+   * @param userId id of the user whose client is used, responses are cached separately for every user
+   */
+  static <T> T getFromStepik(String link, final Class<T> container, @NotNull final CloseableHttpClient client, int userId)
+    throws IOException {
     if (!link.startsWith("/")) link = "/" + link;
-    final HttpGet request = new HttpGet(StepikNames.STEPIK_API_URL + link);
+    final String url = StepikNames.STEPIK_API_URL + link;
+    if (!StepikResponseCache.isCacheable(link)) {
+      return getFromStepik(url, container, client, null, null, null);
+    }
+
+    final StepikResponseCache cache = StepikResponseCache.getInstance();
+    final String key = StepikResponseCache.getKey(url, userId);
+    final StepikResponseCache.Entry cached = cache.get(key);
+    if (cached != null && cache.isOfflineMode()) {
+      cache.recordStaleHit(cached);
+      return deserializeCachedResponse(container, cached);
+    }
+    try {
+      return getFromStepik(url, container, client, cache, key, cached);
+    }
+    catch (IOException e) {
+      if (cached == null || !StepikResponseCache.isConnectionFailure(e)) {
+        throw e;
+      }
+      LOG.warn("Failed to connect to " + url + ", cached response is used", e);
+      cache.recordStaleHit(cached);
+      return deserializeCachedResponse(container, cached);
+    }
+  }
+
+  private static <T> T getFromStepik(@NotNull String url,
+                                     @NotNull Class<T> container,
+                                     @NotNull CloseableHttpClient client,
+                                     @Nullable StepikResponseCache cache,
+                                     @Nullable String key,
+                                     @Nullable StepikResponseCache.Entry cached) throws IOException {
+    final HttpGet request = new HttpGet(url);
     addTimeout(request);
+    if (cached != null) {
+      if (cached.getEtag() != null) {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+      }
+      if (cached.getLastModified() != null) {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+      }
+    }
 
-    final CloseableHttpResponse response = client.execute(request);
+    final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
     final StatusLine statusLine = response.getStatusLine();
     final HttpEntity responseEntity = response.getEntity();
-    final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
-    EntityUtils.consume(responseEntity);
-    if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
-      throw new IOException("Stepik returned non 200 status code " + responseString);
+    try {
+      if (cache != null && cached != null && cached.canBeRevalidated() && statusLine.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+        cache.recordHit(cached);
+        return deserializeCachedResponse(container, cached);
+      }
+      if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+        final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
+        throw new IOException("Stepik returned non 200 status code " + responseString);
+      }
+      if (cache == null || key == null || responseEntity == null) {
+        return deserializeStepikResponse(container, responseEntity);
+      }
+      cache.recordMiss();
+      final String etag = getHeaderValue(response, HttpHeaders.ETAG);
+      final String lastModified = getHeaderValue(response, HttpHeaders.LAST_MODIFIED);
+      if (etag == null && lastModified == null) {
+        // response can't be revalidated, so it isn't cached
+        return deserializeStepikResponse(container, responseEntity);
+      }
+      final StepikResponseCache.Entry entry = cache.put(key, url, etag, lastModified, responseEntity.getContent());
+      return deserializeCachedResponse(container, entry);
+    }
+    finally {
+      EntityUtils.consume(responseEntity);
+    }
+  }
+
+  @Nullable
+  private static String getHeaderValue(@NotNull HttpResponse response, @NotNull String name) {
+    final Header header = response.getFirstHeader(name);
+    return header != null ? header.getValue() : null;
+  }
+
+  @Nullable
+  private static <T> T deserializeCachedResponse(@NotNull Class<T> container, @NotNull StepikResponseCache.Entry entry)
+    throws IOException {
+    try (Reader reader = new InputStreamReader(entry.openStream(), StandardCharsets.UTF_8)) {
+      return deserialize(ourGson, reader, container);
     }
-    return deserializeStepikResponse(container, responseString);
   }
 
   private static void addTimeout(@NotNull HttpGet request) {
@@ -88,8 +181,47 @@ public class StepikClient {
   }
 
   static <T> T deserializeStepikResponse(Class<T> container, String responseString) {
-    Gson gson = createGson();
-    return gson.fromJson(responseString, container);
+    return ourGson.fromJson(responseString, container);
+  }
+
+  /**
+   * Parses response body right from the entity stream without buffering it into a string
+   */
+  @Nullable
+  static <T> T deserializeStepikResponse(@NotNull Class<T> container, @Nullable HttpEntity responseEntity) throws IOException {
+    if (responseEntity == null) {
+      return null;
+    }
+    try (Reader reader = new InputStreamReader(responseEntity.getContent(), getCharset(responseEntity))) {
+      return deserialize(ourGson, reader, container);
+    }
+  }
+
+  @Nullable
+  public static <T> T deserialize(@NotNull Gson gson, @NotNull Reader reader, @NotNull Class<T> container) throws IOException {
+    final JsonReader jsonReader = gson.newJsonReader(reader);
+    try {
+      return gson.fromJson(jsonReader, container);
+    }
+    catch (JsonIOException e) {
+      // stream failures are wrapped by gson, but they should be reported like any other connection problem
+      throw e.getCause() instanceof IOException ? (IOException)e.getCause() : new IOException(e);
+    }
+  }
+
+  @NotNull
+  private static Charset getCharset(@NotNull HttpEntity entity) {
+    final ContentType contentType = ContentType.get(entity);
+    final Charset charset = contentType != null ? contentType.getCharset() : null;
+    return charset != null ? charset : StandardCharsets.UTF_8;
+  }
+
+  /**
+   * Returns shared instance of {@link #createGson()}
+   */
+  @NotNull
+  public static Gson getGson() {
+    return ourGson;
   }
 
   public static Gson createGson() {
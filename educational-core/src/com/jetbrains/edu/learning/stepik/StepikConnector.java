@@ -15,6 +15,7 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.ex.FileEditorManagerEx;
 import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task.Backgroundable;
@@ -22,7 +23,6 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.StreamUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.ConcurrencyUtil;
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.edu.learning.EduNames;
 import com.jetbrains.edu.learning.EduSettings;
@@ -59,10 +59,9 @@ import java.net.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -82,8 +81,7 @@ public class StepikConnector {
   private static final String PROMOTED_COURSES_LINK = "https://raw.githubusercontent.com/JetBrains/educational-plugin/master/featured_courses.txt";
   private static final String IN_PROGRESS_COURSES_LINK = "https://raw.githubusercontent.com/JetBrains/educational-plugin/master/in_progress_courses.txt";
   public static final int MAX_REQUEST_PARAMS = 100; // restriction of Stepik API for multiple requests
-  private static final int THREAD_NUMBER = Runtime.getRuntime().availableProcessors();
-  private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(THREAD_NUMBER);
+  private static final int COURSE_PAGE_LOADERS = Runtime.getRuntime().availableProcessors();
 
   private StepikConnector() {
   }
@@ -95,7 +93,7 @@ public class StepikConnector {
       final EnrollmentWrapper enrollment = new EnrollmentWrapper(String.valueOf(courseId));
       post.setEntity(new StringEntity(new GsonBuilder().create().toJson(enrollment)));
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient(user);
-      CloseableHttpResponse response = client.execute(post);
+      CloseableHttpResponse response = StepikIoScheduler.execute(client, post);
       StatusLine line = response.getStatusLine();
       return line.getStatusCode() == HttpStatus.SC_CREATED;
     }
@@ -110,7 +108,7 @@ public class StepikConnector {
     HttpGet request = new HttpGet(StepikNames.STEPIK_API_URL + StepikNames.ENROLLMENTS + "/" + courseId);
     try {
       final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient(user);
-      CloseableHttpResponse response = client.execute(request);
+      CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
       StatusLine line = response.getStatusLine();
       return line.getStatusCode() == HttpStatus.SC_OK;
     }
@@ -122,48 +120,65 @@ public class StepikConnector {
 
   @NotNull
   public static List<Course> getCourses(@Nullable StepicUser user) {
+    List<Course> result = Collections.synchronizedList(ContainerUtil.newArrayList());
+    getCourses(user, result::addAll);
+    return result;
+  }
+
+  /**
+   * Loads courses page by page and passes every loaded page to {@code consumer} as soon as it's loaded.
+   * {@code consumer} is called from different threads.
+   */
+  public static void getCourses(@Nullable StepicUser user, @NotNull Consumer<List<Course>> consumer) {
     LOG.info("Loading courses started...");
     long startTime = System.currentTimeMillis();
     final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
     final List<Integer> featuredCourses = getFeaturedCourses();
 
     List<Callable<List<Course>>> tasks = ContainerUtil.newArrayList();
-    for (int i = 0; i < THREAD_NUMBER; i++) {
+    for (int i = 0; i < COURSE_PAGE_LOADERS; i++) {
       final int currentThread = i;
       tasks.add(() -> {
-        List<Course> courses = ContainerUtil.newArrayList();
         try {
           int pageNumber = currentThread + 1;
-          while (addCoursesFromStepik(user, courses, pageNumber, featuredCourses)) {
+          while (true) {
+            List<Course> courses = ContainerUtil.newArrayList();
+            boolean hasNext = addCoursesFromStepik(user, courses, pageNumber, featuredCourses);
             if (indicator != null && indicator.isCanceled()) {
               return null;
             }
-            pageNumber += THREAD_NUMBER;
+            if (!courses.isEmpty()) {
+              consumer.accept(courses);
+            }
+            if (!hasNext) {
+              return null;
+            }
+            pageNumber += COURSE_PAGE_LOADERS;
           }
-          return courses;
         }
         catch (IOException e) {
-          return courses;
+          return null;
         }
       });
     }
-    List<Course> result = ContainerUtil.newArrayList();
     try {
-      for (Future<List<Course>> future : ConcurrencyUtil.invokeAll(tasks, EXECUTOR_SERVICE)) {
-        if (!future.isCancelled()) {
-          List<Course> courses = future.get();
-          if (courses != null) {
-            result.addAll(courses);
-          }
-        }
-      }
+      StepikIoScheduler.getInstance().invokeAll(StepikIoScheduler.Priority.NORMAL, tasks);
+    }
+    catch (ProcessCanceledException e) {
+      LOG.info("Loading courses cancelled");
+      return;
     }
     catch (Throwable e) {
       LOG.warn("Cannot load course list " + e.getMessage());
     }
-    addInProgressCourses(user, result);
+    if (indicator == null || !indicator.isCanceled()) {
+      List<Course> inProgressCourses = ContainerUtil.newArrayList();
+      addInProgressCourses(user, inProgressCourses);
+      if (!inProgressCourses.isEmpty()) {
+        consumer.accept(inProgressCourses);
+      }
+    }
     LOG.info("Loading courses finished...Took " + (System.currentTimeMillis() - startTime) + " ms");
-    return result;
   }
 
   private static void addInProgressCourses(@Nullable StepicUser user, List<Course> result) {
@@ -624,29 +639,38 @@ public class StepikConnector {
     try {
       List<Lesson> lessonsFromUnits = getLessons(unitIds);
 
-      final int lessonCount = lessonsFromUnits.size();
-      for (int lessonIndex = 0; lessonIndex < lessonCount; lessonIndex++) {
+      // steps of all lessons are requested together, so chunks aren't limited by lesson size
+      String[] allStepIds = lessonsFromUnits.stream()
+        .flatMap(lesson -> lesson.steps.stream())
+        .map(stepId -> String.valueOf(stepId))
+        .toArray(String[]::new);
+      if (progressIndicator != null && updateIndicator) {
+        progressIndicator.setText("Loading tasks of " + lessonsFromUnits.size() + " lessons");
+      }
+      List<StepContainer> stepContainers = multipleRequestToStepik(StepikNames.STEPS, allStepIds, StepContainer.class,
+                                                                   updateIndicator ? progressIndicator : null);
+      Map<Integer, StepSource> idToStepSource = new HashMap<>();
+      for (StepContainer stepContainer : stepContainers) {
+        for (StepSource step : stepContainer.steps) {
+          idToStepSource.put(step.id, step);
+        }
+      }
+
+      StepicUser user = EduSettings.getInstance().getUser();
+      for (int lessonIndex = 0; lessonIndex < lessonsFromUnits.size(); lessonIndex++) {
         Lesson lesson = lessonsFromUnits.get(lessonIndex);
         lesson.unitId = Integer.parseInt(unitIds[lessonIndex]);
-        if (progressIndicator != null && updateIndicator) {
-          final int readableIndex = lessonIndex + 1;
-          progressIndicator.checkCanceled();
-          progressIndicator.setText("Loading lesson " + readableIndex + " from " + lessonCount);
-          progressIndicator.setFraction((double)readableIndex / lessonCount);
-        }
-        String[] stepIds = lesson.steps.stream().map(stepId -> String.valueOf(stepId)).toArray(String[]::new);
-        List<StepContainer> stepContainers = multipleRequestToStepik(StepikNames.STEPS, stepIds, StepContainer.class);
-        List<StepSource> allStepSources = stepContainers.stream().flatMap(stepContainer -> stepContainer.steps.stream()).collect(Collectors.toList());
+        List<StepSource> allStepSources = lesson.steps.stream()
+          .map(idToStepSource::get)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toList());
 
         if (!allStepSources.isEmpty() && allStepSources.get(0).block.options.lessonType != null) {
           // TODO: find a better way to get framework lessons from stepik
           lesson = new FrameworkLesson(lesson);
         }
-        for (int i = 0; i < allStepSources.size(); i++) {
-          StepSource step = allStepSources.get(i);
-          Integer stepId = Integer.valueOf(stepIds[i]);
-          StepicUser user = EduSettings.getInstance().getUser();
-          StepikTaskBuilder builder = new StepikTaskBuilder(remoteCourse, step, stepId, user == null ? -1 : user.getId());
+        for (StepSource step : allStepSources) {
+          StepikTaskBuilder builder = new StepikTaskBuilder(remoteCourse, step, step.id, user == null ? -1 : user.getId());
           if (builder.isSupported(step.block.name)) {
             final Task task = builder.createTask(step.block.name);
             if (task != null) {
@@ -768,51 +792,59 @@ public class StepikConnector {
     return result;
   }
 
-  @Nullable
-  static Reply getLastSubmission(@NotNull String stepId, boolean isSolved) throws IOException {
+  /**
+   * Returns the latest page of user's submissions for the step with given status, the newest submission goes first
+   */
+  @NotNull
+  static Submission[] getSubmissions(int stepId, boolean isSolved) throws IOException {
     try {
       URI url = new URIBuilder(StepikNames.SUBMISSIONS)
         .addParameter("order", "desc")
         .addParameter("page", "1")
         .addParameter("status", isSolved ? "correct" : "wrong")
-        .addParameter("step", stepId).build();
+        .addParameter("step", String.valueOf(stepId)).build();
       Submission[] submissions = getFromStepik(url.toString(), SubmissionsWrapper.class).submissions;
-      if (submissions.length > 0) {
-        return submissions[0].reply;
-      }
+      return submissions != null ? submissions : new Submission[0];
     }
     catch (URISyntaxException e) {
       LOG.warn(e.getMessage());
     }
+    return new Submission[0];
+  }
+
+  @Nullable
+  static Reply getLastSubmission(@NotNull String stepId, boolean isSolved) throws IOException {
+    return getLastSubmission(getSubmissions(Integer.parseInt(stepId), isSolved));
+  }
+
+  @Nullable
+  static Reply getLastSubmission(@NotNull Submission[] submissions) {
+    if (submissions.length > 0) {
+      return submissions[0].reply;
+    }
     return null;
   }
 
   @NotNull
   static HashMap<String, String> getSolutionForStepikAssignment(@NotNull Task task, boolean isSolved) throws IOException {
+    return getSolutionForStepikAssignment(task, getSubmissions(task.getStepId(), isSolved));
+  }
+
+  @NotNull
+  static HashMap<String, String> getSolutionForStepikAssignment(@NotNull Task task, @NotNull Submission[] submissions) {
     HashMap<String, String> taskFileToText = new HashMap<>();
-    try {
-      URI url = new URIBuilder(StepikNames.SUBMISSIONS)
-              .addParameter("order", "desc")
-              .addParameter("page", "1")
-              .addParameter("status", isSolved ? "correct" : "wrong")
-              .addParameter("step", String.valueOf(task.getStepId())).build();
-      Submission[] submissions = getFromStepik(url.toString(), SubmissionsWrapper.class).submissions;
-      Language language = task.getLesson().getCourse().getLanguageById();
-      String stepikLanguage = StepikLanguages.langOfId(language.getID()).getLangName();
-      for (Submission submission : submissions) {
-        Reply reply = submission.reply;
-        if (stepikLanguage != null && stepikLanguage.equals(reply.language)) {
-          Collection<TaskFile> values = task.taskFiles.values();
-          assert values.size() == 1;
-          for (TaskFile value : values) {
-            taskFileToText.put(value.name, reply.code);
-          }
+    Language language = task.getLesson().getCourse().getLanguageById();
+    String stepikLanguage = StepikLanguages.langOfId(language.getID()).getLangName();
+    for (Submission submission : submissions) {
+      Reply reply = submission.reply;
+      if (stepikLanguage != null && stepikLanguage.equals(reply.language)) {
+        Collection<TaskFile> values = task.taskFiles.values();
+        assert values.size() == 1;
+        for (TaskFile value : values) {
+          taskFileToText.put(value.name, reply.code);
         }
       }
     }
-    catch (URISyntaxException e) {
-      LOG.warn(e.getMessage());
-    }
 
     return taskFileToText;
   }
@@ -841,8 +873,18 @@ public class StepikConnector {
   }
 
   public static <T> List<T> multipleRequestToStepik(String apiUrl, String[] ids, final Class<T> container) throws URISyntaxException, IOException {
-    List<T> result = new ArrayList<>();
+    return multipleRequestToStepik(apiUrl, ids, container, null);
+  }
 
+  /**
+   * Splits ids into chunks of {@link #MAX_REQUEST_PARAMS} and requests them concurrently.
+   * Result keeps the order of chunks. If indicator is passed, its fraction is updated after each loaded chunk.
+   */
+  public static <T> List<T> multipleRequestToStepik(String apiUrl,
+                                                    String[] ids,
+                                                    final Class<T> container,
+                                                    @Nullable ProgressIndicator indicator) throws URISyntaxException, IOException {
+    List<String> links = new ArrayList<>();
     int length = ids.length;
     for (int i = 0; i < length ; i += MAX_REQUEST_PARAMS) {
       URIBuilder builder = new URIBuilder(apiUrl);
@@ -850,10 +892,39 @@ public class StepikConnector {
       for (String id : sublist) {
         builder.addParameter("ids[]", id);
       }
-      String link = builder.build().toString();
-      result.add(getFromStepik(link, container));
+      links.add(builder.build().toString());
+    }
+
+    List<T> result = new ArrayList<>();
+    if (links.size() <= 1) {
+      for (String link : links) {
+        result.add(getFromStepik(link, container));
+      }
+      return result;
     }
 
+    AtomicInteger loadedChunks = new AtomicInteger();
+    List<Future<T>> futures = new ArrayList<>();
+    StepikIoScheduler scheduler = StepikIoScheduler.getInstance();
+    for (String link : links) {
+      futures.add(scheduler.submit(StepikIoScheduler.Priority.NORMAL, () -> {
+        T chunk = getFromStepik(link, container);
+        if (indicator != null) {
+          indicator.setFraction((double)loadedChunks.incrementAndGet() / links.size());
+        }
+        return chunk;
+      }));
+    }
+    try {
+      for (Future<T> future : futures) {
+        result.add(StepikIoScheduler.getResult(future, indicator));
+      }
+    }
+    finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
     return result;
   }
 
@@ -910,7 +981,7 @@ public class StepikConnector {
     String attemptRequestBody = new Gson().toJson(new AttemptWrapper(id));
     attemptRequest.setEntity(new StringEntity(attemptRequestBody, ContentType.APPLICATION_JSON));
 
-    final CloseableHttpResponse attemptResponse = client.execute(attemptRequest);
+    final CloseableHttpResponse attemptResponse = StepikIoScheduler.execute(client, attemptRequest);
     final HttpEntity responseEntity = attemptResponse.getEntity();
     final String attemptResponseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
     final StatusLine statusLine = attemptResponse.getStatusLine();
@@ -929,7 +1000,7 @@ public class StepikConnector {
     request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
     final CloseableHttpClient client = StepikAuthorizedClient.getHttpClient();
     if (client == null) return;
-    final CloseableHttpResponse response = client.execute(request);
+    final CloseableHttpResponse response = StepikIoScheduler.execute(client, request);
     final HttpEntity responseEntity = response.getEntity();
     final String responseString = responseEntity != null ? EntityUtils.toString(responseEntity) : "";
     final StatusLine line = response.getStatusLine();
@@ -1070,7 +1141,7 @@ public class StepikConnector {
 
         CloseableHttpClient httpClient = StepikAuthorizedClient.getHttpClient();
         if (httpClient != null) {
-          final CloseableHttpResponse viewPostResult = httpClient.execute(post);
+          final CloseableHttpResponse viewPostResult = StepikIoScheduler.execute(httpClient, post);
           if (viewPostResult.getStatusLine().getStatusCode() != HttpStatus.SC_CREATED) {
             LOG.warn("Error while Views post, code: " + viewPostResult.getStatusLine().getStatusCode());
           }
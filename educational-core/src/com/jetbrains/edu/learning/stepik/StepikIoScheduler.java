@@ -0,0 +1,389 @@
+package com.jetbrains.edu.learning.stepik;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.ConcurrencyUtil;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared scheduler for all Stepik I/O.
+ *
+ * Background jobs are executed by a bounded pool, jobs with higher {@link Priority} are taken from the queue first.
+ * Every HTTP request sent through {@link #execute(CloseableHttpClient, HttpUriRequest)} holds one of the limited per host permits,
+ * a few permits are reserved for {@link Priority#HIGH} requests. When Stepik replies with 429 or 5xx, all requests to the host
+ * are postponed (honoring {@code Retry-After}) and idempotent requests are retried with exponential backoff.
+ *
+ * Jobs inherit progress indicator of the submitting thread, so they're cancelled together with it.
+ */
+public class StepikIoScheduler implements Disposable {
+  private static final Logger LOG = Logger.getInstance(StepikIoScheduler.class);
+
+  private static final int THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors());
+  private static final int MAX_REQUESTS_PER_HOST = 6;
+  private static final int RESERVED_PRIORITY_REQUESTS = 2;
+  private static final int MAX_RETRIES = 3;
+  private static final long BACKOFF_BASE_MS = 500;
+  private static final long MAX_BACKOFF_MS = 30_000;
+  private static final long WAIT_INTERVAL_MS = 100;
+  private static final int SC_TOO_MANY_REQUESTS = 429;
+
+  public enum Priority {
+    /** Requests user is waiting for, e.g. current task */
+    HIGH,
+    NORMAL,
+    /** Prefetching and synchronization */
+    LOW
+  }
+
+  private final ThreadPoolExecutor myExecutor;
+  private final int myMaxRequestsPerHost;
+  private final int myReservedPriorityRequests;
+  private final ConcurrentMap<String, HostLimiter> myHosts = new ConcurrentHashMap<>();
+  private final ThreadLocal<Priority> myCurrentPriority = new ThreadLocal<>();
+  private final AtomicLong mySequence = new AtomicLong();
+
+  private final AtomicLong myCompletedJobs = new AtomicLong();
+  private final AtomicLong myTotalQueueWaitMs = new AtomicLong();
+  private final AtomicLong myRequests = new AtomicLong();
+  private final AtomicLong myTotalRequestLatencyMs = new AtomicLong();
+  private final AtomicLong myThrottledResponses = new AtomicLong();
+  private final AtomicLong myRetries = new AtomicLong();
+
+  public StepikIoScheduler() {
+    this(THREAD_COUNT, MAX_REQUESTS_PER_HOST, RESERVED_PRIORITY_REQUESTS);
+  }
+
+  StepikIoScheduler(int threadCount, int maxRequestsPerHost, int reservedPriorityRequests) {
+    myMaxRequestsPerHost = maxRequestsPerHost;
+    myReservedPriorityRequests = reservedPriorityRequests;
+    myExecutor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+                                        ConcurrencyUtil.newNamedThreadFactory("Stepik I/O", true, Thread.NORM_PRIORITY));
+    myExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @NotNull
+  public static StepikIoScheduler getInstance() {
+    return ServiceManager.getService(StepikIoScheduler.class);
+  }
+
+  /**
+   * Schedules {@code job} for execution in background.
+   * Jobs submitted from the scheduler threads are executed right away in the calling thread,
+   * so nested jobs can't exhaust the pool waiting for each other.
+   */
+  @NotNull
+  public <T> Future<T> submit(@NotNull Priority priority, @NotNull Callable<T> job) {
+    return submit(priority, job, ProgressManager.getInstance().getProgressIndicator());
+  }
+
+  /**
+   * Same as {@link #submit(Priority, Callable)}, but {@code job} is cancelled with the given {@code indicator}
+   * instead of the indicator of the calling thread
+   */
+  @NotNull
+  public <T> Future<T> submit(@NotNull Priority priority, @NotNull Callable<T> job, @Nullable ProgressIndicator indicator) {
+    Job<T> task = new Job<>(job, priority, indicator, mySequence.incrementAndGet());
+    if (myCurrentPriority.get() != null) {
+      task.run();
+    }
+    else {
+      myExecutor.execute(task);
+    }
+    return task;
+  }
+
+  /**
+   * Schedules all {@code jobs} and waits for their results, see {@link #getResult(Future, ProgressIndicator)}.
+   * Unfinished jobs are cancelled if waiting fails.
+   */
+  @NotNull
+  public <T> List<T> invokeAll(@NotNull Priority priority, @NotNull List<? extends Callable<T>> jobs) throws IOException {
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    List<Future<T>> futures = new ArrayList<>(jobs.size());
+    try {
+      for (Callable<T> job : jobs) {
+        futures.add(submit(priority, job));
+      }
+      List<T> results = new ArrayList<>(jobs.size());
+      for (Future<T> future : futures) {
+        results.add(getResult(future, indicator));
+      }
+      return results;
+    }
+    finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Waits for result of the job checking {@code indicator} for cancellation
+   */
+  public static <T> T getResult(@NotNull Future<T> future, @Nullable ProgressIndicator indicator) throws IOException {
+    while (true) {
+      if (indicator != null) {
+        indicator.checkCanceled();
+      }
+      try {
+        return future.get(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException ignored) {
+      }
+      catch (CancellationException | InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException)cause;
+        if (cause instanceof ProcessCanceledException) throw (ProcessCanceledException)cause;
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  /**
+   * Waits until all {@code futures} are completed in any way: finished, failed or cancelled, e.g. because their indicator
+   * was cancelled before they were started. If {@code indicator} is cancelled, unfinished futures are cancelled and waiting stops.
+   */
+  public static void awaitAll(@NotNull Collection<? extends Future<?>> futures, @Nullable ProgressIndicator indicator) {
+    for (Future<?> future : futures) {
+      try {
+        getResult(future, indicator);
+      }
+      catch (ProcessCanceledException e) {
+        if (indicator != null && indicator.isCanceled()) {
+          futures.forEach(f -> f.cancel(true));
+          return;
+        }
+        // only this job is cancelled
+      }
+      catch (IOException e) {
+        LOG.warn(e);
+      }
+    }
+  }
+
+  /**
+   * Sends {@code request} respecting per host limits and rate limiting of the host.
+   * Requests sent outside of the scheduler jobs are considered to be user visible and get {@link Priority#HIGH}.
+   */
+  @NotNull
+  public static CloseableHttpResponse execute(@NotNull CloseableHttpClient client, @NotNull HttpUriRequest request) throws IOException {
+    return getInstance().executeRequest(client, request);
+  }
+
+  @NotNull
+  CloseableHttpResponse executeRequest(@NotNull CloseableHttpClient client, @NotNull HttpUriRequest request) throws IOException {
+    Priority priority = myCurrentPriority.get();
+    if (priority == null) {
+      priority = Priority.HIGH;
+    }
+    HttpHost host = URIUtils.extractHost(request.getURI());
+    HostLimiter limiter = myHosts.computeIfAbsent(host != null ? host.getHostName() : "",
+                                                  name -> new HostLimiter(myMaxRequestsPerHost, myReservedPriorityRequests));
+    boolean canRetry = isIdempotent(request);
+    for (int attempt = 0; ; attempt++) {
+      limiter.waitForBackoff();
+      Semaphore permit = limiter.acquire(priority);
+      CloseableHttpResponse response;
+      long start = System.currentTimeMillis();
+      try {
+        response = client.execute(request);
+      }
+      finally {
+        permit.release();
+        myRequests.incrementAndGet();
+        myTotalRequestLatencyMs.addAndGet(System.currentTimeMillis() - start);
+      }
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode != SC_TOO_MANY_REQUESTS && statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+        return response;
+      }
+      myThrottledResponses.incrementAndGet();
+      long delay = getBackoffDelay(response, attempt);
+      limiter.postpone(delay);
+      LOG.info("Stepik replied with " + statusCode + " to " + request.getURI() + ", requests are postponed for " + delay + " ms");
+      if (!canRetry || attempt >= MAX_RETRIES) {
+        return response;
+      }
+      EntityUtils.consume(response.getEntity());
+      response.close();
+      myRetries.incrementAndGet();
+    }
+  }
+
+  private static boolean isIdempotent(@NotNull HttpUriRequest request) {
+    String method = request.getMethod();
+    return "GET".equals(method) || "HEAD".equals(method);
+  }
+
+  private static long getBackoffDelay(@NotNull CloseableHttpResponse response, int attempt) {
+    Header retryAfter = response.getFirstHeader("Retry-After");
+    if (retryAfter != null) {
+      try {
+        return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.getValue().trim())), MAX_BACKOFF_MS);
+      }
+      catch (NumberFormatException ignored) {
+        // http-date format isn't used by Stepik
+      }
+    }
+    long delay = Math.min(BACKOFF_BASE_MS << attempt, MAX_BACKOFF_MS);
+    return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  private static void sleepCancellable(long timeMs) {
+    long end = System.currentTimeMillis() + timeMs;
+    long left;
+    while ((left = end - System.currentTimeMillis()) > 0) {
+      ProgressManager.checkCanceled();
+      try {
+        Thread.sleep(Math.min(left, WAIT_INTERVAL_MS));
+      }
+      catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      }
+    }
+  }
+
+  public int getQueueDepth() {
+    return myExecutor.getQueue().size();
+  }
+
+  public int getActiveJobCount() {
+    return myExecutor.getActiveCount();
+  }
+
+  public long getAverageQueueWaitMs() {
+    long completed = myCompletedJobs.get();
+    return completed == 0 ? 0 : myTotalQueueWaitMs.get() / completed;
+  }
+
+  public long getAverageRequestLatencyMs() {
+    long requests = myRequests.get();
+    return requests == 0 ? 0 : myTotalRequestLatencyMs.get() / requests;
+  }
+
+  public long getThrottledResponseCount() {
+    return myThrottledResponses.get();
+  }
+
+  public long getRetryCount() {
+    return myRetries.get();
+  }
+
+  @Override
+  public void dispose() {
+    myExecutor.shutdownNow();
+    LOG.info(String.format("Stepik I/O: %d requests, average latency %d ms, average queue wait %d ms, %d throttled responses, %d retries",
+                           myRequests.get(), getAverageRequestLatencyMs(), getAverageQueueWaitMs(), myThrottledResponses.get(),
+                           myRetries.get()));
+  }
+
+  private class Job<T> extends FutureTask<T> implements Comparable<Job<?>> {
+    private final Priority myPriority;
+    @Nullable private final ProgressIndicator myIndicator;
+    private final long mySequenceNumber;
+    private final long mySubmitTime = System.currentTimeMillis();
+
+    Job(@NotNull Callable<T> callable, @NotNull Priority priority, @Nullable ProgressIndicator indicator, long sequenceNumber) {
+      super(callable);
+      myPriority = priority;
+      myIndicator = indicator;
+      mySequenceNumber = sequenceNumber;
+    }
+
+    @Override
+    public void run() {
+      if (myIndicator != null && myIndicator.isCanceled()) {
+        cancel(false);
+        return;
+      }
+      long waitTime = System.currentTimeMillis() - mySubmitTime;
+      Priority previousPriority = myCurrentPriority.get();
+      myCurrentPriority.set(myPriority);
+      try {
+        if (myIndicator != null) {
+          ProgressManager.getInstance().executeProcessUnderProgress(super::run, myIndicator);
+        }
+        else {
+          super.run();
+        }
+      }
+      finally {
+        myCurrentPriority.set(previousPriority);
+        myCompletedJobs.incrementAndGet();
+        myTotalQueueWaitMs.addAndGet(waitTime);
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(String.format("Stepik I/O job waited %d ms, queue depth %d", waitTime, getQueueDepth()));
+        }
+      }
+    }
+
+    @Override
+    public int compareTo(@NotNull Job<?> other) {
+      int priorityCompared = myPriority.compareTo(other.myPriority);
+      if (priorityCompared != 0) {
+        return priorityCompared;
+      }
+      return Long.compare(mySequenceNumber, other.mySequenceNumber);
+    }
+  }
+
+  private static class HostLimiter {
+    private final Semaphore myPermits;
+    private final Semaphore myPriorityPermits;
+    private volatile long myPostponedUntil;
+
+    HostLimiter(int maxRequests, int reservedPriorityRequests) {
+      myPermits = new Semaphore(maxRequests - reservedPriorityRequests);
+      myPriorityPermits = new Semaphore(reservedPriorityRequests);
+    }
+
+    @NotNull
+    Semaphore acquire(@NotNull Priority priority) {
+      while (true) {
+        ProgressManager.checkCanceled();
+        if (priority == Priority.HIGH && myPriorityPermits.tryAcquire()) {
+          return myPriorityPermits;
+        }
+        try {
+          if (myPermits.tryAcquire(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            return myPermits;
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessCanceledException(e);
+        }
+      }
+    }
+
+    void waitForBackoff() {
+      sleepCancellable(myPostponedUntil - System.currentTimeMillis());
+    }
+
+    synchronized void postpone(long delayMs) {
+      myPostponedUntil = Math.max(myPostponedUntil, System.currentTimeMillis() + delayMs);
+    }
+  }
+}
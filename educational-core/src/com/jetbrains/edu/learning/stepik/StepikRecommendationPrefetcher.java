@@ -0,0 +1,204 @@
+package com.jetbrains.edu.learning.stepik;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.ThrowableConvertor;
+import com.jetbrains.edu.learning.courseFormat.Lesson;
+import com.jetbrains.edu.learning.courseFormat.RemoteCourse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Loads lessons which Stepik is going to recommend in adaptive courses while the current task is being solved.
+ *
+ * Recommendation itself depends on reaction to the current task, so it's always requested after the reaction is posted,
+ * but steps of the recommended lesson are usually taken from this cache. Lessons are cached by id, a reaction to a lesson
+ * removes it from the cache and cancels prefetching which was started before the reaction.
+ * Only successfully loaded lessons stay in the cache, failed loading is repeated on the next request.
+ *
+ * Prefetching has its own progress indicator, so it doesn't depend on the indicator of the action which started it.
+ */
+public class StepikRecommendationPrefetcher implements Disposable {
+  private static final Logger LOG = Logger.getInstance(StepikRecommendationPrefetcher.class);
+  private static final int PREFETCHED_RECOMMENDATIONS = 3;
+  private static final int MAX_CACHED_LESSONS = 6;
+
+  private final Map<String, Future<RecommendedLesson>> myLessons = new LinkedHashMap<String, Future<RecommendedLesson>>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Future<RecommendedLesson>> eldest) {
+      return size() > MAX_CACHED_LESSONS;
+    }
+  };
+  @NotNull private final ThrowableConvertor<RemoteCourse, List<String>, IOException> myRecommendationsLoader;
+  @NotNull private final ThrowableConvertor<String, RecommendedLesson, IOException> myLoader;
+  @Nullable private Future<?> myPrefetch;
+  @Nullable private ProgressIndicator myPrefetchIndicator;
+  // incremented on every prefetch and reaction, so running prefetching knows it's outdated
+  private volatile int myGeneration;
+
+  public StepikRecommendationPrefetcher() {
+    this(course -> StepikAdaptiveConnector.getRecommendedLessonIds(course, PREFETCHED_RECOMMENDATIONS),
+         StepikAdaptiveConnector::loadRecommendedLesson);
+  }
+
+  StepikRecommendationPrefetcher(@NotNull ThrowableConvertor<RemoteCourse, List<String>, IOException> recommendationsLoader,
+                                 @NotNull ThrowableConvertor<String, RecommendedLesson, IOException> loader) {
+    myRecommendationsLoader = recommendationsLoader;
+    myLoader = loader;
+  }
+
+  @NotNull
+  public static StepikRecommendationPrefetcher getInstance() {
+    return ServiceManager.getService(StepikRecommendationPrefetcher.class);
+  }
+
+  /**
+   * Starts loading of lessons recommended for the course in background, {@code currentLessonId} is not loaded
+   */
+  public void prefetch(@NotNull RemoteCourse course, @Nullable String currentLessonId) {
+    final int generation;
+    final ProgressIndicator indicator = new EmptyProgressIndicator();
+    synchronized (myLessons) {
+      cancelPrefetch();
+      generation = ++myGeneration;
+      myPrefetchIndicator = indicator;
+    }
+    // submitted outside of the lock: jobs submitted from scheduler threads are executed right away
+    Future<?> prefetch = StepikIoScheduler.getInstance().submit(StepikIoScheduler.Priority.LOW, () -> {
+      List<String> lessonIds = myRecommendationsLoader.convert(course);
+      for (String lessonId : lessonIds) {
+        if (generation != myGeneration) break;
+        if (lessonId.equals(currentLessonId)) continue;
+        getOrLoad(lessonId);
+      }
+      return null;
+    }, indicator);
+    synchronized (myLessons) {
+      if (generation == myGeneration) {
+        myPrefetch = prefetch;
+      }
+    }
+  }
+
+  private void cancelPrefetch() {
+    if (myPrefetch != null) {
+      myPrefetch.cancel(false);
+      myPrefetch = null;
+    }
+    if (myPrefetchIndicator != null) {
+      myPrefetchIndicator.cancel();
+      myPrefetchIndicator = null;
+    }
+  }
+
+  /**
+   * @return lesson with its steps, loaded in the current thread if it wasn't prefetched
+   */
+  @Nullable
+  public RecommendedLesson getLesson(@NotNull String lessonId) throws IOException {
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    try {
+      return StepikIoScheduler.getResult(getOrLoad(lessonId), indicator);
+    }
+    catch (ProcessCanceledException e) {
+      if (indicator != null && indicator.isCanceled()) throw e;
+      // the lesson was being prefetched when prefetching was cancelled by a reaction, failed loading isn't cached
+      LOG.debug("Prefetching of lesson " + lessonId + " is cancelled, loading it again");
+      return StepikIoScheduler.getResult(getOrLoad(lessonId), indicator);
+    }
+  }
+
+  /**
+   * Lesson is loaded in the current thread unless it's already loaded or being loaded by another thread
+   */
+  @NotNull
+  private Future<RecommendedLesson> getOrLoad(@NotNull String lessonId) {
+    final FutureTask<RecommendedLesson> loading;
+    synchronized (myLessons) {
+      Future<RecommendedLesson> lesson = myLessons.get(lessonId);
+      if (lesson != null && (!lesson.isDone() || isLoaded(lesson))) {
+        return lesson;
+      }
+      loading = new FutureTask<>(() -> myLoader.convert(lessonId));
+      myLessons.put(lessonId, loading);
+    }
+    loading.run();
+    if (!isLoaded(loading)) {
+      // don't keep failed loading, lesson is requested again next time
+      synchronized (myLessons) {
+        myLessons.remove(lessonId, loading);
+      }
+    }
+    return loading;
+  }
+
+  /**
+   * @return true if loading of the lesson is finished successfully
+   */
+  private static boolean isLoaded(@NotNull Future<RecommendedLesson> lesson) {
+    if (!lesson.isDone() || lesson.isCancelled()) return false;
+    try {
+      return lesson.get() != null;
+    }
+    catch (InterruptedException | ExecutionException e) {
+      return false;
+    }
+  }
+
+  @TestOnly
+  boolean isCached(@NotNull String lessonId) {
+    synchronized (myLessons) {
+      return myLessons.containsKey(lessonId);
+    }
+  }
+
+  /**
+   * Should be called when reaction to the lesson is posted: recommendations prefetched before are outdated
+   */
+  public void onReaction(@NotNull String lessonId) {
+    synchronized (myLessons) {
+      // lessons which are already loaded stay in cache, only loading of outdated recommendations is stopped
+      myGeneration++;
+      cancelPrefetch();
+      myLessons.remove(lessonId);
+    }
+    LOG.debug("Recommendations are invalidated by reaction to lesson " + lessonId);
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (myLessons) {
+      if (myPrefetch != null) {
+        myPrefetch.cancel(true);
+      }
+      cancelPrefetch();
+      myLessons.values().forEach(lesson -> lesson.cancel(false));
+      myLessons.clear();
+    }
+  }
+
+  public static class RecommendedLesson {
+    public final Lesson lesson;
+    public final List<StepikWrappers.StepSource> steps;
+
+    RecommendedLesson(@NotNull Lesson lesson, @NotNull List<StepikWrappers.StepSource> steps) {
+      this.lesson = lesson;
+      this.steps = Collections.unmodifiableList(steps);
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package com.jetbrains.edu.learning.stepik;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache of Stepik API responses stored under IDE system directory.
+ *
+ * Only responses with {@code ETag} or {@code Last-Modified} validators are stored, and they are never used without revalidation:
+ * requests are sent with {@code If-None-Match}/{@code If-Modified-Since} headers and the cached body is used only when
+ * server replies with 304. Stale responses are served without revalidation only in offline mode or when Stepik can't be
+ * reached (see {@link #isConnectionFailure}), HTTP errors are reported as usual.
+ *
+ * Total size of the cache is bounded, least recently used responses are evicted first.
+ */
+class StepikResponseCache {
+  private static final Logger LOG = Logger.getInstance(StepikResponseCache.class);
+
+  private static final String OFFLINE_MODE_PROPERTY = "edu.stepik.offline";
+  private static final long MAX_SIZE_BYTES = 64 * 1024 * 1024;
+  private static final String BODY_EXTENSION = ".json";
+  private static final String META_EXTENSION = ".meta";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+  private static final String URL = "url";
+
+  // only immutable-by-id objects are cached, user specific data (e.g. submissions or progresses) is always requested
+  private static final String[] CACHEABLE_PREFIXES = {
+    StepikNames.COURSES, StepikNames.SECTIONS, StepikNames.UNITS, StepikNames.LESSONS, StepikNames.STEPS
+  };
+
+  private final File myDir;
+  private final long myMaxSize;
+  private final Object myLock = new Object();
+  private long myTotalSize = -1;
+  private volatile boolean myOfflineMode = Boolean.getBoolean(OFFLINE_MODE_PROPERTY);
+
+  private final AtomicLong myHits = new AtomicLong();
+  private final AtomicLong myMisses = new AtomicLong();
+  private final AtomicLong myStaleHits = new AtomicLong();
+  private final AtomicLong myBytesSaved = new AtomicLong();
+
+  StepikResponseCache(@NotNull File dir, long maxSize) {
+    myDir = dir;
+    myMaxSize = maxSize;
+  }
+
+  @NotNull
+  static StepikResponseCache getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  private static class InstanceHolder {
+    private static final StepikResponseCache INSTANCE =
+      new StepikResponseCache(new File(PathManager.getSystemPath(), "edu" + File.separator + "stepik-responses"), MAX_SIZE_BYTES);
+  }
+
+  static boolean isCacheable(@NotNull String link) {
+    for (String prefix : CACHEABLE_PREFIXES) {
+      if (link.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @NotNull
+  static String getKey(@NotNull String url, int userId) {
+    return DigestUtils.sha1Hex(userId + ":" + url);
+  }
+
+  /**
+   * @return true if request failed because Stepik can't be reached, so stale cached response can be used instead
+   */
+  static boolean isConnectionFailure(@NotNull IOException e) {
+    return e instanceof UnknownHostException || e instanceof ConnectException ||
+           e instanceof ConnectTimeoutException || e instanceof SocketTimeoutException;
+  }
+
+  boolean isOfflineMode() {
+    return myOfflineMode;
+  }
+
+  void setOfflineMode(boolean offlineMode) {
+    myOfflineMode = offlineMode;
+  }
+
+  @Nullable
+  Entry get(@NotNull String key) {
+    File body = new File(myDir, key + BODY_EXTENSION);
+    File meta = new File(myDir, key + META_EXTENSION);
+    if (!body.isFile() || !meta.isFile()) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream stream = new FileInputStream(meta)) {
+      properties.load(stream);
+    }
+    catch (IOException e) {
+      LOG.warn("Failed to read cached response metadata " + meta.getPath(), e);
+      return null;
+    }
+    return new Entry(body, properties.getProperty(ETAG), properties.getProperty(LAST_MODIFIED));
+  }
+
+  /**
+   * Stores response body from {@code content} and returns new entry, {@code content} isn't closed
+   */
+  @NotNull
+  Entry put(@NotNull String key,
+            @NotNull String url,
+            @Nullable String etag,
+            @Nullable String lastModified,
+            @NotNull InputStream content) throws IOException {
+    FileUtil.createDirectory(myDir);
+    File body = new File(myDir, key + BODY_EXTENSION);
+    File meta = new File(myDir, key + META_EXTENSION);
+
+    File tempBody = FileUtil.createTempFile(myDir, key, BODY_EXTENSION + ".tmp", true, true);
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempBody))) {
+      FileUtil.copy(content, out);
+    }
+    catch (IOException e) {
+      FileUtil.delete(tempBody);
+      throw e;
+    }
+
+    Properties properties = new Properties();
+    properties.setProperty(URL, url);
+    if (etag != null) properties.setProperty(ETAG, etag);
+    if (lastModified != null) properties.setProperty(LAST_MODIFIED, lastModified);
+
+    synchronized (myLock) {
+      long oldSize = body.length();
+      try {
+        Files.move(tempBody.toPath(), body.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        try (OutputStream out = new FileOutputStream(meta)) {
+          properties.store(out, null);
+        }
+      }
+      catch (IOException e) {
+        // response is downloaded already, so it still can be read, it just won't be cached
+        LOG.warn("Failed to store cached response for " + url, e);
+        FileUtil.delete(meta);
+        return new Entry(tempBody, null, null);
+      }
+      if (myTotalSize >= 0) {
+        myTotalSize += body.length() - oldSize;
+      }
+      evictIfNeeded();
+    }
+    return new Entry(body, etag, lastModified);
+  }
+
+  void recordHit(@NotNull Entry entry) {
+    myHits.incrementAndGet();
+    myBytesSaved.addAndGet(entry.getSize());
+    // last modification time is used as last access time for LRU eviction
+    //noinspection ResultOfMethodCallIgnored
+    entry.myBody.setLastModified(System.currentTimeMillis());
+    logStatistics();
+  }
+
+  void recordStaleHit(@NotNull Entry entry) {
+    myStaleHits.incrementAndGet();
+    myBytesSaved.addAndGet(entry.getSize());
+    logStatistics();
+  }
+
+  void recordMiss() {
+    myMisses.incrementAndGet();
+    logStatistics();
+  }
+
+  long getHitCount() {
+    return myHits.get();
+  }
+
+  long getStaleHitCount() {
+    return myStaleHits.get();
+  }
+
+  long getMissCount() {
+    return myMisses.get();
+  }
+
+  long getBytesSaved() {
+    return myBytesSaved.get();
+  }
+
+  double getHitRate() {
+    long hits = myHits.get() + myStaleHits.get();
+    long total = hits + myMisses.get();
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  private void logStatistics() {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(String.format("Stepik response cache: hit rate %.2f, hits %d, stale hits %d, misses %d, bytes saved %d",
+                              getHitRate(), myHits.get(), myStaleHits.get(), myMisses.get(), myBytesSaved.get()));
+    }
+  }
+
+  private void evictIfNeeded() {
+    if (myTotalSize < 0) {
+      myTotalSize = Arrays.stream(getBodies()).mapToLong(File::length).sum();
+    }
+    if (myTotalSize <= myMaxSize) {
+      return;
+    }
+    // evict more than needed, so eviction doesn't run after every put
+    long sizeAfterEviction = myMaxSize * 3 / 4;
+    File[] bodies = getBodies();
+    Arrays.sort(bodies, Comparator.comparingLong(File::lastModified));
+    for (File body : bodies) {
+      if (myTotalSize <= sizeAfterEviction) {
+        break;
+      }
+      long size = body.length();
+      String key = FileUtil.getNameWithoutExtension(body);
+      if (FileUtil.delete(body)) {
+        FileUtil.delete(new File(myDir, key + META_EXTENSION));
+        myTotalSize -= size;
+      }
+    }
+  }
+
+  @NotNull
+  private File[] getBodies() {
+    File[] bodies = myDir.listFiles((dir, name) -> name.endsWith(BODY_EXTENSION));
+    return bodies == null ? new File[0] : bodies;
+  }
+
+  static class Entry {
+    private final File myBody;
+    @Nullable private final String myEtag;
+    @Nullable private final String myLastModified;
+
+    private Entry(@NotNull File body, @Nullable String etag, @Nullable String lastModified) {
+      myBody = body;
+      myEtag = etag;
+      myLastModified = lastModified;
+    }
+
+    @Nullable
+    String getEtag() {
+      return myEtag;
+    }
+
+    @Nullable
+    String getLastModified() {
+      return myLastModified;
+    }
+
+    boolean canBeRevalidated() {
+      return myEtag != null || myLastModified != null;
+    }
+
+    long getSize() {
+      return myBody.length();
+    }
+
+    @NotNull
+    InputStream openStream() throws IOException {
+      return new BufferedInputStream(new FileInputStream(myBody));
+    }
+  }
+}
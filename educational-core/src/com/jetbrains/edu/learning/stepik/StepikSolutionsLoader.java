@@ -40,9 +40,7 @@ import org.jetbrains.annotations.TestOnly;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -58,6 +56,11 @@ public class StepikSolutionsLoader implements Disposable {
 
   private static final Logger LOG = Logger.getInstance(StepikSolutionsLoader.class);
   private final HashMap<Integer, Future<Boolean>> myFutures = new HashMap<>();
+  /**
+   * Submissions downloaded while looking for tasks to update, they are reused when solutions are loaded
+   * so every submission is downloaded once per synchronization
+   */
+  private final Map<String, StepikWrappers.Submission[]> mySubmissions = new ConcurrentHashMap<>();
   private final Project myProject;
   private MessageBusConnection myBusConnection;
   private Task mySelectedTask;
@@ -136,29 +139,21 @@ public class StepikSolutionsLoader implements Disposable {
       .filter(task -> !(task instanceof TheoryTask))
       .collect(Collectors.toList());
 
-    CountDownLatch countDownLatch = new CountDownLatch(tasksToUpdate.size());
     for (int i = 0; i < tasksToUpdate.size(); i++) {
       final Task task = tasksToUpdate.get(i);
       final int progressIndex = i + 1;
-      if (progressIndicator == null || !progressIndicator.isCanceled()) {
-        Future<Boolean> future = ApplicationManager.getApplication().executeOnPooledThread(() -> {
-          try {
-            boolean isSolved = task.getStatus() == CheckStatus.Solved;
-            if (progressIndicator != null) {
-              progressIndicator.setFraction((double)progressIndex / tasksToUpdate.size());
-              progressIndicator.setText(String.format("Loading solution %d from %d", progressIndex, tasksToUpdate.size()));
-            }
-            return loadSolution(myProject, task, isSolved);
-          }
-          finally {
-            countDownLatch.countDown();
-          }
-        });
-        myFutures.put(task.getStepId(), future);
-      }
-      else {
-        countDownLatch.countDown();
-      }
+      if (progressIndicator != null && progressIndicator.isCanceled()) break;
+      // solution for the task opened in editor is loaded first as user is waiting for it
+      StepikIoScheduler.Priority priority = task == mySelectedTask ? StepikIoScheduler.Priority.HIGH : StepikIoScheduler.Priority.LOW;
+      Future<Boolean> future = StepikIoScheduler.getInstance().submit(priority, () -> {
+        boolean isSolved = task.getStatus() == CheckStatus.Solved;
+        if (progressIndicator != null) {
+          progressIndicator.setFraction((double)progressIndex / tasksToUpdate.size());
+          progressIndicator.setText(String.format("Loading solution %d from %d", progressIndex, tasksToUpdate.size()));
+        }
+        return loadSolution(myProject, task, isSolved);
+      });
+      myFutures.put(task.getStepId(), future);
     }
 
     ApplicationManager.getApplication().invokeLater(() -> {
@@ -172,7 +167,8 @@ public class StepikSolutionsLoader implements Disposable {
     });
 
     try {
-      countDownLatch.await();
+      // jobs can be cancelled without being started, so futures are awaited instead of the jobs themselves
+      StepikIoScheduler.awaitAll(new ArrayList<>(myFutures.values()), progressIndicator);
       final boolean needToShowNotification = needToShowUpdateNotification();
       ApplicationManager.getApplication().invokeLater(() -> ApplicationManager.getApplication().runWriteAction(() -> {
         if (needToShowNotification) {
@@ -183,15 +179,15 @@ public class StepikSolutionsLoader implements Disposable {
           updateUI(myProject, mySelectedTask);
         }
       }));
-      myBusConnection.disconnect();
     }
-    catch (InterruptedException e) {
-      LOG.warn(e);
+    finally {
+      myBusConnection.disconnect();
     }
   }
 
   private boolean needToShowUpdateNotification() {
     return myFutures.values().stream().anyMatch(future -> {
+      if (future.isCancelled()) return false;
       try {
         Boolean result = future.get();
         return result == Boolean.TRUE;
@@ -211,6 +207,7 @@ public class StepikSolutionsLoader implements Disposable {
   }
 
   public List<Task> tasksToUpdate(@NotNull Course course) {
+    mySubmissions.clear();
     List<Task> tasksToUpdate = new ArrayList<>();
     Stream<Lesson> lessonsFromSection = course.getSections().stream().flatMap(section -> section.getLessons().stream());
     Stream<Lesson> allLessons = Stream.concat(lessonsFromSection, course.getLessons().stream());
@@ -219,12 +216,21 @@ public class StepikSolutionsLoader implements Disposable {
     String[] progresses = Arrays.stream(allTasks).map(task -> PROGRESS_ID_PREFIX + String.valueOf(task.getStepId())).toArray(String[]::new);
     Boolean[] taskStatuses = taskStatuses(progresses);
     if (taskStatuses == null) return tasksToUpdate;
+
+    List<Task> unsolvedTasks = new ArrayList<>();
+    for (int j = 0; j < allTasks.length; j++) {
+      if (taskStatuses[j] == Boolean.FALSE && !(allTasks[j] instanceof TheoryTask)) {
+        unsolvedTasks.add(allTasks[j]);
+      }
+    }
+    prefetchSubmissions(unsolvedTasks, false);
+
     for (int j = 0; j < allTasks.length; j++) {
       Boolean isSolved = taskStatuses[j];
       Task task = allTasks[j];
       boolean toUpdate = false;
       if (isSolved != null && !(task instanceof TheoryTask)) {
-        toUpdate = isToUpdate(task, isSolved, task.getStatus(), task.getStepId());
+        toUpdate = isToUpdate(task, isSolved, task.getStatus());
       }
       if (toUpdate) {
         task.setStatus(checkStatus(isSolved));
@@ -234,6 +240,43 @@ public class StepikSolutionsLoader implements Disposable {
     return tasksToUpdate;
   }
 
+  /**
+   * Stepik doesn't allow to request submissions for several steps at once,
+   * so requests for different tasks are sent concurrently, number of simultaneous requests is limited by {@link StepikIoScheduler}
+   */
+  private void prefetchSubmissions(@NotNull List<Task> tasks, boolean isSolved) {
+    if (tasks.isEmpty()) return;
+    List<Callable<Void>> jobs = new ArrayList<>();
+    for (Task task : tasks) {
+      jobs.add(() -> {
+        try {
+          mySubmissions.put(submissionKey(task.getStepId(), isSolved), getSubmissions(task.getStepId(), isSolved));
+        }
+        catch (IOException e) {
+          LOG.warn(e.getMessage());
+        }
+        return null;
+      });
+    }
+    try {
+      StepikIoScheduler.getInstance().invokeAll(StepikIoScheduler.Priority.NORMAL, jobs);
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  @NotNull
+  private StepikWrappers.Submission[] getSubmissions(@NotNull Task task, boolean isSolved) throws IOException {
+    StepikWrappers.Submission[] submissions = mySubmissions.remove(submissionKey(task.getStepId(), isSolved));
+    return submissions != null ? submissions : StepikConnector.getSubmissions(task.getStepId(), isSolved);
+  }
+
+  @NotNull
+  private static String submissionKey(int stepId, boolean isSolved) {
+    return stepId + ":" + isSolved;
+  }
+
   private static CheckStatus checkStatus(boolean solved) {
     return solved ? CheckStatus.Solved : CheckStatus.Failed;
   }
@@ -280,27 +323,27 @@ public class StepikSolutionsLoader implements Disposable {
     });
   }
 
-  private static boolean isToUpdate(Task task, @NotNull Boolean isSolved, @NotNull CheckStatus currentStatus, int stepId) {
+  private boolean isToUpdate(Task task, @NotNull Boolean isSolved, @NotNull CheckStatus currentStatus) {
     if (isSolved && currentStatus != CheckStatus.Solved) {
       return true;
     }
     else if (!isSolved) {
-      try {
-        if (task instanceof EduTask) {
-          StepikWrappers.Reply reply = getLastSubmission(String.valueOf(stepId), isSolved);
-          if (reply != null && !reply.solution.isEmpty()) {
-            return true;
-          }
-        }
-        else {
-          HashMap<String, String> solution = getSolutionForStepikAssignment(task, isSolved);
-          if (!solution.isEmpty()) {
-            return true;
-          }
+      // submissions are only peeked here, they're taken from the cache when solution is loaded
+      StepikWrappers.Submission[] submissions = mySubmissions.get(submissionKey(task.getStepId(), isSolved));
+      if (submissions == null) {
+        return false;
+      }
+      if (task instanceof EduTask) {
+        StepikWrappers.Reply reply = getLastSubmission(submissions);
+        if (reply != null && !reply.solution.isEmpty()) {
+          return true;
         }
       }
-      catch (IOException e) {
-        LOG.warn(e.getMessage());
+      else {
+        HashMap<String, String> solution = getSolutionForStepikAssignment(task, submissions);
+        if (!solution.isEmpty()) {
+          return true;
+        }
       }
     }
 
@@ -324,17 +367,20 @@ public class StepikSolutionsLoader implements Disposable {
     }
   }
 
-  private static TaskSolutions loadSolutionTexts(@NotNull Task task, boolean isSolved) throws IOException {
+  private TaskSolutions loadSolutionTexts(@NotNull Task task, boolean isSolved) throws IOException {
+    StepikWrappers.Submission[] submissions = getSubmissions(task, isSolved);
     if (task instanceof EduTask) {
-      return getEduTaskSolution(task, isSolved);
+      return getEduTaskSolution(task, isSolved, submissions);
     }
     else {
-      return new TaskSolutions(getStepikTaskSolution(task, isSolved));
+      return new TaskSolutions(getStepikTaskSolution(task, isSolved, submissions));
     }
   }
 
-  private static HashMap<String, String> getStepikTaskSolution(@NotNull Task task, boolean isSolved) throws IOException {
-    HashMap<String, String> solutions = getSolutionForStepikAssignment(task, isSolved);
+  private static HashMap<String, String> getStepikTaskSolution(@NotNull Task task,
+                                                               boolean isSolved,
+                                                               @NotNull StepikWrappers.Submission[] submissions) {
+    HashMap<String, String> solutions = getSolutionForStepikAssignment(task, submissions);
     if (!solutions.isEmpty()) {
       for (Map.Entry<String, String> entry : solutions.entrySet()) {
         String solutionWithoutEduPrefix = removeEduPrefix(task, entry.getValue());
@@ -345,8 +391,10 @@ public class StepikSolutionsLoader implements Disposable {
     return solutions;
   }
 
-  private static TaskSolutions getEduTaskSolution(@NotNull Task task, boolean isSolved) throws IOException {
-    StepikWrappers.Reply reply = getLastSubmission(String.valueOf(task.getStepId()), isSolved);
+  private static TaskSolutions getEduTaskSolution(@NotNull Task task,
+                                                  boolean isSolved,
+                                                  @NotNull StepikWrappers.Submission[] submissions) {
+    StepikWrappers.Reply reply = getLastSubmission(submissions);
     if (reply == null || reply.solution == null || reply.solution.isEmpty()) {
       // https://youtrack.jetbrains.com/issue/EDU-1449
       if (reply != null && reply.solution == null) {
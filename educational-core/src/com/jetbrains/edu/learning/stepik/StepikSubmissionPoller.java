@@ -0,0 +1,196 @@
+package com.jetbrains.edu.learning.stepik;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Waits for Stepik to evaluate submissions.
+ *
+ * All pending submissions are polled by a single scheduled task: submissions which are due are requested together
+ * with one {@code GET /submissions?ids[]=...} request. After every poll of a submission which is still evaluated
+ * the delay before the next poll grows exponentially with random jitter, so many waiting users don't hit Stepik
+ * at the same moments. Results are delivered through {@link CompletableFuture}, cancelled futures are not polled anymore,
+ * futures of submissions which weren't evaluated in time are completed with {@link TimeoutException}.
+ */
+public class StepikSubmissionPoller implements Disposable {
+  private static final Logger LOG = Logger.getInstance(StepikSubmissionPoller.class);
+
+  public static final String EVALUATION_STATUS = "evaluation";
+  private static final long INITIAL_DELAY_MS = 500;
+  private static final long MAX_DELAY_MS = 10_000;
+  private static final long DEFAULT_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(3);
+  private static final int MAX_SUBMISSIONS_PER_REQUEST = 20;
+
+  interface SubmissionFetcher {
+    @NotNull
+    List<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> fetch(@NotNull List<Integer> submissionIds) throws IOException;
+  }
+
+  private final SubmissionFetcher myFetcher;
+  private final long myInitialDelayMs;
+  private final long myMaxDelayMs;
+  private final ScheduledExecutorService myScheduler =
+    AppExecutorUtil.createBoundedScheduledExecutorService("Stepik submission poller", 1);
+  private final Map<Integer, PendingSubmission> myPending = new ConcurrentHashMap<>();
+  private final Object myLock = new Object();
+  @Nullable private ScheduledFuture<?> myNextPoll;
+  private long myNextPollTime;
+
+  public StepikSubmissionPoller() {
+    this(StepikAdaptiveConnector::getSubmissions, INITIAL_DELAY_MS, MAX_DELAY_MS);
+  }
+
+  StepikSubmissionPoller(@NotNull SubmissionFetcher fetcher, long initialDelayMs, long maxDelayMs) {
+    myFetcher = fetcher;
+    myInitialDelayMs = initialDelayMs;
+    myMaxDelayMs = maxDelayMs;
+  }
+
+  @NotNull
+  public static StepikSubmissionPoller getInstance() {
+    return ServiceManager.getService(StepikSubmissionPoller.class);
+  }
+
+  @NotNull
+  CompletableFuture<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> awaitResult(int submissionId) {
+    return awaitResult(submissionId, DEFAULT_TIMEOUT_MS);
+  }
+
+  /**
+   * @return future completed with the submission once its status isn't {@link #EVALUATION_STATUS} anymore.
+   * Cancel the future to stop waiting.
+   */
+  @NotNull
+  CompletableFuture<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> awaitResult(int submissionId, long timeoutMs) {
+    long now = System.currentTimeMillis();
+    PendingSubmission pending = new PendingSubmission(submissionId, now + timeoutMs, now + myInitialDelayMs);
+    PendingSubmission previous = myPending.put(submissionId, pending);
+    if (previous != null) {
+      // the same submission is awaited twice, both futures get the same result
+      pending.future.whenComplete((result, e) -> complete(previous.future, result, e));
+    }
+    pending.future.whenComplete((result, e) -> myPending.remove(submissionId, pending));
+    schedulePoll(pending.nextPollTime);
+    return pending.future;
+  }
+
+  public int getPendingCount() {
+    return myPending.size();
+  }
+
+  private static <T> void complete(@NotNull CompletableFuture<T> future, @Nullable T result, @Nullable Throwable e) {
+    if (e != null) {
+      future.completeExceptionally(e);
+    }
+    else {
+      future.complete(result);
+    }
+  }
+
+  private void schedulePoll(long time) {
+    synchronized (myLock) {
+      if (myNextPoll != null && !myNextPoll.isDone() && myNextPollTime <= time) return;
+      if (myNextPoll != null) {
+        myNextPoll.cancel(false);
+      }
+      myNextPollTime = time;
+      try {
+        myNextPoll = myScheduler.schedule(this::poll, Math.max(0, time - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      }
+      catch (RejectedExecutionException e) {
+        // poller is disposed
+        LOG.debug(e);
+      }
+    }
+  }
+
+  private void poll() {
+    long now = System.currentTimeMillis();
+    List<PendingSubmission> due = new ArrayList<>();
+    for (PendingSubmission pending : myPending.values()) {
+      if (pending.future.isDone()) continue;
+      if (pending.deadline <= now) {
+        pending.future.completeExceptionally(new TimeoutException("Submission " + pending.id + " wasn't evaluated in time"));
+      }
+      else if (pending.nextPollTime <= now) {
+        due.add(pending);
+      }
+    }
+
+    for (int start = 0; start < due.size(); start += MAX_SUBMISSIONS_PER_REQUEST) {
+      List<PendingSubmission> batch = due.subList(start, Math.min(start + MAX_SUBMISSIONS_PER_REQUEST, due.size()));
+      Set<PendingSubmission> evaluated = new HashSet<>();
+      try {
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (PendingSubmission pending : batch) {
+          ids.add(pending.id);
+        }
+        for (StepikWrappers.ResultSubmissionWrapper.ResultSubmission submission : myFetcher.fetch(ids)) {
+          PendingSubmission pending = myPending.get(submission.id);
+          if (pending != null && !EVALUATION_STATUS.equals(submission.status)) {
+            evaluated.add(pending);
+            pending.future.complete(submission);
+          }
+        }
+      }
+      catch (IOException | RuntimeException e) {
+        // submissions are polled again later, so failure to get some of them is not fatal
+        LOG.warn("Failed to get submissions from Stepik: " + e.getMessage());
+      }
+      for (PendingSubmission pending : batch) {
+        if (!evaluated.contains(pending)) {
+          pending.nextPollTime = System.currentTimeMillis() + getBackoffDelay(pending.polls++);
+        }
+      }
+    }
+
+    synchronized (myLock) {
+      myNextPoll = null;
+    }
+    long nextPollTime = Long.MAX_VALUE;
+    for (PendingSubmission pending : myPending.values()) {
+      if (!pending.future.isDone()) {
+        nextPollTime = Math.min(nextPollTime, Math.min(pending.nextPollTime, pending.deadline));
+      }
+    }
+    if (nextPollTime != Long.MAX_VALUE) {
+      schedulePoll(nextPollTime);
+    }
+  }
+
+  private long getBackoffDelay(int polls) {
+    long delay = Math.min(myInitialDelayMs << Math.min(polls, 16), myMaxDelayMs);
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  @Override
+  public void dispose() {
+    myScheduler.shutdownNow();
+    for (PendingSubmission pending : myPending.values()) {
+      pending.future.cancel(false);
+    }
+    myPending.clear();
+  }
+
+  private static class PendingSubmission {
+    final int id;
+    final long deadline;
+    final CompletableFuture<StepikWrappers.ResultSubmissionWrapper.ResultSubmission> future = new CompletableFuture<>();
+    volatile long nextPollTime;
+    volatile int polls;
+
+    PendingSubmission(int id, long deadline, long nextPollTime) {
+      this.id = id;
+      this.deadline = deadline;
+      this.nextPollTime = nextPollTime;
+    }
+  }
+}
@@ -3,8 +3,8 @@ package com.jetbrains.edu.learning.stepik;
 import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VfsUtilCore;
@@ -15,7 +15,9 @@ import com.jetbrains.edu.learning.courseFormat.*;
 import com.jetbrains.edu.learning.courseFormat.tasks.Task;
 import com.jetbrains.edu.learning.serialization.SerializationUtils;
 import com.jetbrains.edu.learning.stepik.serialization.StepikSubmissionTaskAdapter;
+import org.apache.commons.codec.binary.Base64;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -90,13 +92,14 @@ public class StepikWrappers {
         final VirtualFile taskDir = task.getTaskDir(project);
         assert taskDir != null;
         for (final Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
-          ApplicationManager.getApplication().invokeAndWait(() -> ApplicationManager.getApplication().runWriteAction(() -> {
-            VirtualFile answerFile = EduUtils.findTaskFileInDir(entry.getValue(), taskDir);
-            if (answerFile == null) return;
-            TaskFile studentTaskFile = EduUtils.createStudentFile(project, answerFile, task);
-            if (studentTaskFile == null) return;
-            source.files.add(studentTaskFile);
-          }));
+          VirtualFile answerFile = EduUtils.findTaskFileInDir(entry.getValue(), taskDir);
+          if (answerFile == null) continue;
+          String answerText = loadAnswerText(answerFile);
+          if (answerText == null) continue;
+          // student file is built from unsaved document text, so step source can be created under read action on any thread
+          TaskFile studentTaskFile = EduUtils.createStudentFile(project, EduUtils.pathRelativeToTask(project, answerFile), answerText, task);
+          if (studentTaskFile == null) continue;
+          source.files.add(studentTaskFile);
         }
       } else {
         for (Map.Entry<String, TaskFile> entry : task.getTaskFiles().entrySet()) {
@@ -106,7 +109,6 @@ public class StepikWrappers {
     }
 
     private static void setTests(@NotNull Task task, @NotNull StepOptions source, @NotNull Project project) {
-      FileDocumentManager.getInstance().saveAllDocuments();
       source.test = new ArrayList<>();
       if (task.getLesson().isAdditional()) {
         return;
@@ -128,13 +130,37 @@ public class StepikWrappers {
 
   private static void addFileWrapper(@NotNull VirtualFile file, List<FileWrapper> wrappers) {
     try {
-      wrappers.add(new FileWrapper(file.getName(), VfsUtilCore.loadText(file)));
+      wrappers.add(new FileWrapper(file.getName(), loadText(file)));
     }
     catch (IOException e) {
       LOG.error(e);
     }
   }
 
+  /**
+   * @return text of the file including unsaved changes
+   */
+  @NotNull
+  private static String loadText(@NotNull VirtualFile file) throws IOException {
+    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    return document != null ? document.getText() : VfsUtilCore.loadText(file);
+  }
+
+  @Nullable
+  private static String loadAnswerText(@NotNull VirtualFile answerFile) {
+    try {
+      if (EduUtils.isImage(answerFile.getName())) {
+        return Base64.encodeBase64String(answerFile.contentsToByteArray());
+      }
+      Document document = FileDocumentManager.getInstance().getDocument(answerFile);
+      return document != null ? document.getText() : null;
+    }
+    catch (IOException e) {
+      LOG.error("Failed to load answer file " + answerFile.getPath(), e);
+      return null;
+    }
+  }
+
   public static class CoursesContainer {
     public List<RemoteCourse> courses;
     public Map meta;
@@ -182,6 +208,7 @@ public class StepikWrappers {
   }
 
   public static class StepSource {
+    public int id;
     @Expose public Step block;
     @Expose public int position;
     @Expose public int lesson;
@@ -11,15 +11,18 @@ import java.lang.reflect.Type
 class StepikLessonAdapter : JsonDeserializer<Lesson> {
   @Throws(JsonParseException::class)
   override fun deserialize(json: JsonElement, type: Type, jsonDeserializationContext: JsonDeserializationContext): Lesson {
-    val gson = GsonBuilder()
-      .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-      .registerTypeAdapter(StepikWrappers.StepOptions::class.java,
-                           StepikStepOptionsAdapter()).create()
-    val lesson = gson.fromJson(json, Lesson::class.java)
+    val lesson = GSON.fromJson(json, Lesson::class.java)
     val name = lesson.name
     if (StepikNames.PYCHARM_ADDITIONAL == name) {
       lesson.name = EduNames.ADDITIONAL_MATERIALS
     }
     return lesson
   }
+
+  companion object {
+    private val GSON: Gson = GsonBuilder()
+      .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+      .registerTypeAdapter(StepikWrappers.StepOptions::class.java,
+                           StepikStepOptionsAdapter()).create()
+  }
 }
@@ -28,8 +28,7 @@ class StepikStepOptionsAdapter : JsonDeserializer<StepikWrappers.StepOptions> {
       }
       version++
     }
-    val stepOptions = GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create()
-      .fromJson(stepOptionsJson, StepikWrappers.StepOptions::class.java)
+    val stepOptions = GSON.fromJson(stepOptionsJson, StepikWrappers.StepOptions::class.java)
     stepOptions.formatVersion = JSON_FORMAT_VERSION
     return stepOptions
   }
@@ -49,4 +48,8 @@ class StepikStepOptionsAdapter : JsonDeserializer<StepikWrappers.StepOptions> {
   private fun convertToFifthVersion(stepOptionsJson: JsonObject): JsonObject {
     return ToFifthVersionJsonStepOptionsConverter().convert(stepOptionsJson)
   }
+
+  companion object {
+    private val GSON: Gson = GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create()
+  }
 }
@@ -17,11 +17,14 @@ class StepikReplyAdapter : JsonDeserializer<StepikWrappers.Reply> {
   @Throws(JsonParseException::class)
   override fun deserialize(json: JsonElement, type: Type, context: JsonDeserializationContext): StepikWrappers.Reply {
     val jsonObject = json.asJsonObject
-    val gson = GsonBuilder().setPrettyPrinting().create()
-    return gson.fromJson<StepikWrappers.Reply>(jsonObject).apply {
+    return GSON.fromJson<StepikWrappers.Reply>(jsonObject).apply {
       version = jsonObject.getAsJsonPrimitive("version")?.asInt ?: 1
     }
   }
+
+  companion object {
+    private val GSON: Gson = GsonBuilder().setPrettyPrinting().create()
+  }
 }
 
 class StepikSubmissionTaskAdapter(private val replyVersion: Int = JSON_FORMAT_VERSION) : JsonSerializer<Task>, JsonDeserializer<Task> {
@@ -11,8 +11,11 @@ import com.intellij.openapi.editor.colors.EditorColorsManager;
 import com.intellij.openapi.editor.colors.EditorColorsScheme;
 import com.intellij.openapi.editor.colors.FontPreferences;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.AtomicNotNullLazyValue;
+import com.intellij.openapi.util.AtomicNullableLazyValue;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.io.StreamUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.jetbrains.edu.learning.EduLanguageDecorator;
 import com.jetbrains.edu.learning.EduUtils;
@@ -33,7 +36,6 @@ import javafx.scene.web.WebHistory;
 import javafx.scene.web.WebView;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.annotations.TestOnly;
 import org.jsoup.Jsoup;
 import org.jsoup.select.Elements;
 import org.w3c.dom.*;
@@ -49,7 +51,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -80,6 +85,28 @@ public class BrowserWindow extends JFrame {
   private static final double CODE_LINE_HEIGHT_SCALE_MAC = CODE_LINE_HEIGHT_MAC / CODE_FONT_SIZE_MAC;
   private static final double CODE_LINE_HEIGHT_SCALE = CODE_LINE_HEIGHT / CODE_FONT_SIZE;
 
+  private static final AtomicNullableLazyValue<HtmlTemplate> TEMPLATE = new AtomicNullableLazyValue<HtmlTemplate>() {
+    @Nullable
+    @Override
+    protected HtmlTemplate compute() {
+      return loadTemplate();
+    }
+  };
+
+  // urls of resources which don't depend on settings
+  private static final AtomicNotNullLazyValue<Map<String, String>> RESOURCE_URLS = new AtomicNotNullLazyValue<Map<String, String>>() {
+    @NotNull
+    @Override
+    protected Map<String, String> compute() {
+      Map<String, String> urls = new HashMap<>();
+      urls.put("codemirror", getResourceUrl("/code-mirror/codemirror.js"));
+      urls.put("runmode", getResourceUrl("/code-mirror/runmode.js"));
+      urls.put("colorize", getResourceUrl("/code-mirror/colorize.js"));
+      urls.put("javascript", getResourceUrl("/code-mirror/javascript.js"));
+      return Collections.unmodifiableMap(urls);
+    }
+  };
+
   public static final String SRC_ATTRIBUTE = "src";
   private JFXPanel myPanel;
   private WebView myWebComponent;
@@ -205,11 +232,26 @@ public class BrowserWindow extends JFrame {
     });
   }
 
-  @TestOnly
+  /**
+   * Loads html which is already processed with {@link #processContent(String, VirtualFile, Project)}
+   */
+  public void loadProcessedContent(@NotNull final String html) {
+    Platform.runLater(() -> {
+      updateLookWithProgressBarIfNeeded();
+      myEngine.loadContent(html);
+    });
+  }
+
+  /**
+   * Wraps task description into code mirror template and makes image paths absolute.
+   * Doesn't touch UI, so it can be called from any thread, see {@link TaskDescriptionHtmlCache}
+   */
+  @NotNull
   public static String processContent(@NotNull String content, @NotNull VirtualFile taskDir, Project project) {
     return doProcessContent(content, taskDir, project);
   }
 
+  @NotNull
   private static String doProcessContent(@NotNull String content, @NotNull VirtualFile taskDir, Project project) {
     Course course = StudyTaskManager.getInstance(project).getCourse();
     if (course == null) {
@@ -227,6 +269,9 @@ public class BrowserWindow extends JFrame {
 
   @NotNull
   private static String absolutizeImgPaths(@NotNull String withCodeHighlighting, @NotNull VirtualFile taskDir) {
+    if (!StringUtil.containsIgnoreCase(withCodeHighlighting, "<img")) {
+      return withCodeHighlighting;
+    }
     org.jsoup.nodes.Document document = Jsoup.parse(withCodeHighlighting);
     Elements imageElements = document.getElementsByTag("img");
     for (org.jsoup.nodes.Element imageElement : imageElements) {
@@ -243,24 +288,7 @@ public class BrowserWindow extends JFrame {
   private static String createHtmlWithCodeHighlighting(@NotNull final String content,
                                                 @NotNull String languageScriptUrl,
                                                 @NotNull String defaultHighlightingMode) {
-    String template = null;
-    ClassLoader classLoader = BrowserWindow.class.getClassLoader();
-    InputStream stream = classLoader.getResourceAsStream("/code-mirror/template.html");
-    try {
-      template = StreamUtil.readText(stream, "utf-8");
-    }
-    catch (IOException e) {
-      LOG.warn(e.getMessage());
-    }
-    finally {
-      try {
-        stream.close();
-      }
-      catch (IOException e) {
-        LOG.warn(e.getMessage());
-      }
-    }
-
+    HtmlTemplate template = TEMPLATE.getValue();
     if (template == null) {
       LOG.warn("Code mirror template is null");
       return content;
@@ -273,27 +301,52 @@ public class BrowserWindow extends JFrame {
     int bodyLineHeight = (int)(editorColorsScheme.getEditorFontSize() * (SystemInfo.isMac ? LINE_HEIGHT_SCALE_MAC : LINE_HEIGHT_SCALE));
     int codeLineHeight = (int)(editorColorsScheme.getEditorFontSize() * (SystemInfo.isMac ? CODE_LINE_HEIGHT_SCALE_MAC : CODE_LINE_HEIGHT_SCALE));
 
-    template = template.replace("${body_font_size}", String.valueOf(bodyFontSize));
-    template = template.replace("${code_font_size}", String.valueOf(codeFontSize));
-    template = template.replace("${body_line_height}", String.valueOf(bodyLineHeight));
-    template = template.replace("${code_line_height}", String.valueOf(codeLineHeight));
-    template = template.replace("${codemirror}", classLoader.getResource("/code-mirror/codemirror.js").toExternalForm());
-    template = template.replace("${language_script}", languageScriptUrl);
-    template = template.replace("${default_mode}", defaultHighlightingMode);
-    template = template.replace("${runmode}", classLoader.getResource("/code-mirror/runmode.js").toExternalForm());
-    template = template.replace("${colorize}", classLoader.getResource("/code-mirror/colorize.js").toExternalForm());
-    template = template.replace("${javascript}", classLoader.getResource("/code-mirror/javascript.js").toExternalForm());
+    Map<String, String> values = new HashMap<>(RESOURCE_URLS.getValue());
+    values.put("body_font_size", String.valueOf(bodyFontSize));
+    values.put("code_font_size", String.valueOf(codeFontSize));
+    values.put("body_line_height", String.valueOf(bodyLineHeight));
+    values.put("code_line_height", String.valueOf(codeLineHeight));
+    values.put("language_script", languageScriptUrl);
+    values.put("default_mode", defaultHighlightingMode);
     if (LafManager.getInstance().getCurrentLookAndFeel() instanceof DarculaLookAndFeelInfo) {
-      template = template.replace("${css_oldcodemirror}", classLoader.getResource("/code-mirror/codemirror-old-darcula.css").toExternalForm());
-      template = template.replace("${css_codemirror}", classLoader.getResource("/code-mirror/codemirror-darcula.css").toExternalForm());
+      values.put("css_oldcodemirror", getResourceUrl("/code-mirror/codemirror-old-darcula.css"));
+      values.put("css_codemirror", getResourceUrl("/code-mirror/codemirror-darcula.css"));
     }
     else {
-      template = template.replace("${css_oldcodemirror}", classLoader.getResource("/code-mirror/codemirror-old.css").toExternalForm());
-      template = template.replace("${css_codemirror}", classLoader.getResource("/code-mirror/codemirror.css").toExternalForm());
+      values.put("css_oldcodemirror", getResourceUrl("/code-mirror/codemirror-old.css"));
+      values.put("css_codemirror", getResourceUrl("/code-mirror/codemirror.css"));
     }
-    template = template.replace("${code}", content);
+    values.put("code", content);
+
+    return template.render(values);
+  }
 
-    return template;
+  @Nullable
+  private static HtmlTemplate loadTemplate() {
+    InputStream stream = BrowserWindow.class.getClassLoader().getResourceAsStream("/code-mirror/template.html");
+    if (stream == null) {
+      return null;
+    }
+    try {
+      return new HtmlTemplate(StreamUtil.readText(stream, "utf-8"));
+    }
+    catch (IOException e) {
+      LOG.warn(e.getMessage());
+      return null;
+    }
+    finally {
+      try {
+        stream.close();
+      }
+      catch (IOException e) {
+        LOG.warn(e.getMessage());
+      }
+    }
+  }
+
+  @NotNull
+  private static String getResourceUrl(@NotNull String path) {
+    return BrowserWindow.class.getClassLoader().getResource(path).toExternalForm();
   }
 
   private void updateLookWithProgressBarIfNeeded() {
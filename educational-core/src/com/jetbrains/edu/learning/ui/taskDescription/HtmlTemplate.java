@@ -0,0 +1,65 @@
+package com.jetbrains.edu.learning.ui.taskDescription;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template with {@code ${name}} placeholders which is parsed once and then rendered in a single pass.
+ * Unknown placeholders are kept as is.
+ */
+class HtmlTemplate {
+  private static final String PLACEHOLDER_START = "${";
+  private static final String PLACEHOLDER_END = "}";
+
+  // literal chunks and placeholder names go one after another starting with literal chunk
+  private final List<String> myParts = new ArrayList<>();
+  private final int myLiteralLength;
+
+  HtmlTemplate(@NotNull String text) {
+    int literalLength = 0;
+    int offset = 0;
+    while (true) {
+      int start = text.indexOf(PLACEHOLDER_START, offset);
+      int end = start < 0 ? -1 : text.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+      if (end < 0) {
+        String literal = text.substring(offset);
+        myParts.add(literal);
+        literalLength += literal.length();
+        break;
+      }
+      String literal = text.substring(offset, start);
+      myParts.add(literal);
+      myParts.add(text.substring(start + PLACEHOLDER_START.length(), end));
+      literalLength += literal.length();
+      offset = end + PLACEHOLDER_END.length();
+    }
+    myLiteralLength = literalLength;
+  }
+
+  @NotNull
+  String render(@NotNull Map<String, String> values) {
+    int length = myLiteralLength;
+    for (String value : values.values()) {
+      length += value.length();
+    }
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < myParts.size(); i++) {
+      String part = myParts.get(i);
+      if (i % 2 == 0) {
+        builder.append(part);
+        continue;
+      }
+      String value = values.get(part);
+      if (value != null) {
+        builder.append(value);
+      }
+      else {
+        builder.append(PLACEHOLDER_START).append(part).append(PLACEHOLDER_END);
+      }
+    }
+    return builder.toString();
+  }
+}
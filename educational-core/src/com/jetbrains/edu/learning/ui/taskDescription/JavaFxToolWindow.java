@@ -16,7 +16,9 @@
 package com.jetbrains.edu.learning.ui.taskDescription;
 import com.intellij.openapi.project.Project;
 import com.jetbrains.edu.learning.EduUtils;
+import com.jetbrains.edu.learning.courseFormat.tasks.Task;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 
@@ -39,12 +41,28 @@ public class JavaFxToolWindow extends TaskDescriptionToolWindow {
 
   @Override
   public void updateFonts(@NotNull Project project) {
-    final String text = EduUtils.getTaskText(project);
-    if (text != null) {
-      setText(text);
+    final Task task = EduUtils.getCurrentTask(project);
+    if (task != null) {
+      setTaskText(project, task);
     }
   }
 
+  @Override
+  protected void setTaskText(@NotNull Project project, @Nullable Task task) {
+    if (task == null) {
+      super.setTaskText(project, null);
+      return;
+    }
+    TaskDescriptionHtmlCache cache = TaskDescriptionHtmlCache.getInstance(project);
+    String html = cache.getHtml(task);
+    if (html == null) {
+      super.setTaskText(project, task);
+      return;
+    }
+    myBrowserWindow.loadProcessedContent(html);
+    cache.prefetchNeighbours(task);
+  }
+
   @Override
   public void setText(@NotNull String text) {
     myBrowserWindow.loadContent(text);
@@ -0,0 +1,174 @@
+package com.jetbrains.edu.learning.ui.taskDescription;
+
+import com.intellij.ide.ui.LafManager;
+import com.intellij.ide.ui.laf.darcula.DarculaLookAndFeelInfo;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.keymap.Keymap;
+import com.intellij.openapi.keymap.KeymapManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jetbrains.edu.learning.EduUtils;
+import com.jetbrains.edu.learning.courseFormat.DescriptionFormat;
+import com.jetbrains.edu.learning.courseFormat.tasks.Task;
+import com.jetbrains.edu.learning.navigation.NavigationUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Caches task descriptions rendered by {@link BrowserWindow#processContent(String, VirtualFile, Project)}.
+ *
+ * Entries are keyed by task, its description text and settings which affect rendering (look and feel, editor font size, keymap),
+ * so there is no need in explicit invalidation: outdated entries are just never requested again and evicted eventually.
+ * Descriptions of the next and previous tasks are rendered in background, so navigation between tasks doesn't wait for rendering.
+ */
+public class TaskDescriptionHtmlCache implements Disposable {
+  private static final Logger LOG = Logger.getInstance(TaskDescriptionHtmlCache.class);
+  private static final int MAX_CACHED_DESCRIPTIONS = 16;
+
+  private final Project myProject;
+  private final Map<Key, String> myCache = Collections.synchronizedMap(new LinkedHashMap<Key, String>(MAX_CACHED_DESCRIPTIONS, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+      return size() > MAX_CACHED_DESCRIPTIONS;
+    }
+  });
+  private final ExecutorService myPrefetchExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Task description prefetch", 1);
+
+  public TaskDescriptionHtmlCache(@NotNull Project project) {
+    myProject = project;
+  }
+
+  public static TaskDescriptionHtmlCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, TaskDescriptionHtmlCache.class);
+  }
+
+  /**
+   * @return rendered description of the task or null if task has no description
+   */
+  @Nullable
+  public String getHtml(@NotNull Task task) {
+    Key key = createKey(task);
+    if (key == null) {
+      return render(task);
+    }
+    String html = myCache.get(key);
+    if (html == null) {
+      html = render(task);
+      if (html != null) {
+        myCache.put(key, html);
+      }
+    }
+    return html;
+  }
+
+  /**
+   * Renders descriptions of tasks around the given one in background
+   */
+  public void prefetchNeighbours(@NotNull Task task) {
+    for (Task neighbour : Arrays.asList(NavigationUtils.nextTask(task), NavigationUtils.previousTask(task))) {
+      if (neighbour == null) continue;
+      Key key = createKey(neighbour);
+      if (key == null || myCache.containsKey(key)) continue;
+      try {
+        myPrefetchExecutor.execute(() -> {
+          if (myProject.isDisposed() || myCache.containsKey(key)) return;
+          String html = ReadAction.compute(() -> myProject.isDisposed() ? null : render(neighbour));
+          if (html != null) {
+            myCache.put(key, html);
+          }
+        });
+      }
+      catch (RejectedExecutionException e) {
+        LOG.debug(e);
+      }
+    }
+  }
+
+  @Nullable
+  private String render(@NotNull Task task) {
+    VirtualFile taskDir = task.getTaskDir(myProject);
+    if (taskDir == null) {
+      return null;
+    }
+    String text = EduUtils.getTaskTextFromTask(taskDir, task);
+    if (text == null) {
+      return null;
+    }
+    return BrowserWindow.processContent(text, taskDir, myProject);
+  }
+
+  /**
+   * @return null if rendered description can't be cached, e.g. when description is loaded from file
+   */
+  @Nullable
+  private static Key createKey(@NotNull Task task) {
+    String descriptionText = task.getDescriptionText();
+    if (descriptionText == null) {
+      return null;
+    }
+    Keymap keymap = KeymapManager.getInstance().getActiveKeymap();
+    return new Key(task,
+                   descriptionText.hashCode(),
+                   task.getDescriptionFormat(),
+                   LafManager.getInstance().getCurrentLookAndFeel() instanceof DarculaLookAndFeelInfo,
+                   EditorColorsManager.getInstance().getGlobalScheme().getEditorFontSize(),
+                   keymap.getName());
+  }
+
+  @Override
+  public void dispose() {
+    myPrefetchExecutor.shutdownNow();
+    myCache.clear();
+  }
+
+  private static class Key {
+    private final Task myTask;
+    private final int myDescriptionHash;
+    private final DescriptionFormat myDescriptionFormat;
+    private final boolean myIsDarcula;
+    private final int myFontSize;
+    private final String myKeymapName;
+
+    Key(@NotNull Task task,
+        int descriptionHash,
+        @Nullable DescriptionFormat descriptionFormat,
+        boolean isDarcula,
+        int fontSize,
+        @NotNull String keymapName) {
+      myTask = task;
+      myDescriptionHash = descriptionHash;
+      myDescriptionFormat = descriptionFormat;
+      myIsDarcula = isDarcula;
+      myFontSize = fontSize;
+      myKeymapName = keymapName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key)o;
+      // tasks are compared by identity: task equality depends on mutable state
+      return myTask == key.myTask &&
+             myDescriptionHash == key.myDescriptionHash &&
+             myDescriptionFormat == key.myDescriptionFormat &&
+             myIsDarcula == key.myIsDarcula &&
+             myFontSize == key.myFontSize &&
+             myKeymapName.equals(key.myKeymapName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(myTask), myDescriptionHash, myDescriptionFormat, myIsDarcula, myFontSize, myKeymapName);
+    }
+  }
+}
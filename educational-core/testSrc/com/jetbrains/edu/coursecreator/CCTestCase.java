@@ -11,7 +11,6 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileTypes.PlainTextLanguage;
-import com.intellij.openapi.ui.AbstractPainter;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.io.FileUtil;
@@ -37,9 +36,8 @@ import org.junit.ComparisonFailure;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -47,27 +45,25 @@ public abstract class CCTestCase extends LightPlatformCodeInsightFixtureTestCase
   private static final Logger LOG = Logger.getInstance(CCTestCase.class);
 
   @Nullable
-  public static AbstractPainter getPainter(AnswerPlaceholder placeholder) {
-    final HashMap<AnswerPlaceholder, AbstractPainter> painters = NewPlaceholderPainter.getPlaceholderPainters();
-    final AbstractPainter painter = painters.get(placeholder);
-    if (painter == null) {
-      for (Map.Entry<AnswerPlaceholder, AbstractPainter> entry : painters.entrySet()) {
-        final AnswerPlaceholder placeholder1 = entry.getKey();
-        if (placeholder1.getOffset() == placeholder.getOffset() &&
-            placeholder1.getLength() == placeholder.getLength()) {
-          return entry.getValue();
-        }
+  public static AnswerPlaceholder findPaintedPlaceholder(AnswerPlaceholder placeholder) {
+    final Set<AnswerPlaceholder> paintedPlaceholders = NewPlaceholderPainter.getPaintedPlaceholders();
+    if (paintedPlaceholders.contains(placeholder)) {
+      return placeholder;
+    }
+    for (AnswerPlaceholder paintedPlaceholder : paintedPlaceholders) {
+      if (paintedPlaceholder.getOffset() == placeholder.getOffset() &&
+          paintedPlaceholder.getLength() == placeholder.getLength()) {
+        return paintedPlaceholder;
       }
     }
-    return painter;
+    return null;
   }
 
   protected static void checkPainters(TaskFile taskFile) {
-    final HashMap<AnswerPlaceholder, AbstractPainter> painters = NewPlaceholderPainter.getPlaceholderPainters();
+    final Set<AnswerPlaceholder> paintedPlaceholders = NewPlaceholderPainter.getPaintedPlaceholders();
 
     for (AnswerPlaceholder answerPlaceholder : taskFile.getAnswerPlaceholders()) {
-      final AbstractPainter painter = painters.get(answerPlaceholder);
-      if (painter == null) {
+      if (!paintedPlaceholders.contains(answerPlaceholder)) {
         throw new AssertionError("No highlighter for placeholder: " + CCTestsUtil.getPlaceholderPresentation(answerPlaceholder));
       }
     }
@@ -52,7 +52,7 @@ public class CCShowPreviewTest extends CCTestCase {
       assertEquals("Files don't match", pair.getFirst().getText(), editor.getDocument().getText());
       for (AnswerPlaceholder placeholder : pair.getSecond()) {
         assertNotNull("No highlighter for placeholder:" + CCTestsUtil.getPlaceholderPresentation(placeholder),
-                      getPainter(placeholder));
+                      findPaintedPlaceholder(placeholder));
       }
     }
     finally {
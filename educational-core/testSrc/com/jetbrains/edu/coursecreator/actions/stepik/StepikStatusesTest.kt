@@ -262,8 +262,7 @@ class StepikStatusesTest: CCActionTestCase() {
     TestCase.assertTrue("Cannot move: ${sourceDir}, ${targetDir}", handler.canMove(arrayOf(sourceDir), targetDir))
     handler.doMove(project, arrayOf(sourceDir), targetDir, {})
 
-    course.sections.sortBy { it.index }
-    val changedSections = course.sections.subList(2, 6)
+    val changedSections = course.sections.sortedBy { it.index }.subList(2, 6)
     changedSections.forEach {
       checkStatus(it, StepikChangeStatus.INFO)
     }
@@ -332,8 +331,7 @@ class StepikStatusesTest: CCActionTestCase() {
     TestCase.assertTrue("Cannot move: ${sourceDir}, ${targetDir}", handler.canMove(arrayOf(sourceDir), targetDir))
     handler.doMove(project, arrayOf(sourceDir), targetDir, {})
 
-    course.sections.sortBy { it.index }
-    course.sections.forEach {
+    course.sections.sortedBy { it.index }.forEach {
       checkStatus(it, StepikChangeStatus.CONTENT)
     }
 
@@ -0,0 +1,71 @@
+package com.jetbrains.edu.coursecreator.configuration
+
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.PlatformTestUtil
+import com.jetbrains.edu.coursecreator.CCUtils
+import com.jetbrains.edu.learning.EduTestCase
+import com.jetbrains.edu.learning.courseFormat.tasks.Task
+
+class YamlFormatSaveQueueTest : EduTestCase() {
+
+  private lateinit var queue: YamlFormatSaveQueue
+
+  override fun setUp() {
+    super.setUp()
+    queue = YamlFormatSaveQueue(project)
+    Disposer.register(testRootDisposable, queue)
+  }
+
+  override fun createCourse() {
+    courseWithFiles(courseMode = CCUtils.COURSE_MODE) {
+      lesson("lesson1") {
+        eduTask("task1") {
+          taskFile("Task.txt", "<p>type here</p>")
+        }
+      }
+    }
+  }
+
+  fun `test scheduled items are saved in background`() {
+    val task = findTask(0, 0)
+    queue.schedule(listOf(task, task.lesson), 0)
+
+    waitUntil("Config wasn't saved") {
+      PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+      configFile(task) != null
+    }
+    assertEquals(YamlFormatSynchronizer.MAPPER.writeValueAsString(task), configText(task))
+    assertNotNull(task.lesson.getDir(project)!!.findChild(YamlFormatSynchronizer.getConfigFileName(task.lesson)))
+    assertEquals(0, queue.inFlightCount)
+  }
+
+  fun `test items in flight are saved by synchronous flush`() {
+    val task = findTask(0, 0)
+    queue.schedule(listOf(task), 0)
+    // events aren't dispatched, so background write can't happen until the test returns
+    waitUntil("Items weren't taken by background flush") { queue.pendingCount == 0 && queue.inFlightCount == 1 }
+    assertNull(configFile(task))
+
+    // like on project closing
+    queue.saveNow(emptyList())
+    assertEquals(YamlFormatSynchronizer.MAPPER.writeValueAsString(task), configText(task))
+    assertEquals(0, queue.inFlightCount)
+
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+    assertEquals(YamlFormatSynchronizer.MAPPER.writeValueAsString(task), configText(task))
+  }
+
+  private fun configFile(task: Task): VirtualFile? = task.getTaskDir(project)!!.findChild(YamlFormatSynchronizer.getConfigFileName(task))
+
+  private fun configText(task: Task): String = FileDocumentManager.getInstance().getDocument(configFile(task)!!)!!.text
+
+  private fun waitUntil(message: String, condition: () -> Boolean) {
+    val deadline = System.currentTimeMillis() + 10_000
+    while (!condition()) {
+      assertTrue(message, System.currentTimeMillis() < deadline)
+      Thread.sleep(10)
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.jetbrains.edu.coursecreator.configuration
+
+import com.intellij.openapi.application.Experiments
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.jetbrains.edu.coursecreator.CCUtils
+import com.jetbrains.edu.learning.EduTestCase
+
+class YamlPlaceholderOffsetTest : EduTestCase() {
+
+  override fun setUp() {
+    super.setUp()
+    Experiments.setFeatureEnabled(YamlFormatSettings.FEATURE_ID, true)
+  }
+
+  override fun tearDown() {
+    try {
+      Experiments.setFeatureEnabled(YamlFormatSettings.FEATURE_ID, false)
+    }
+    finally {
+      super.tearDown()
+    }
+  }
+
+  override fun createCourse() {
+    courseWithFiles(courseMode = CCUtils.COURSE_MODE) {
+      lesson("lesson1") {
+        eduTask("task1") {
+          taskFile("Task.kt", "fun foo() = <p>TODO()</p>")
+        }
+      }
+    }
+  }
+
+  fun `test config is saved after edit before placeholder`() {
+    val task = findTask(0, 0)
+    myFixture.openFileInEditor(findVirtualFile(0, 0, "Task.kt"))
+    myFixture.editor.caretModel.moveToOffset(0)
+    myFixture.type("private ")
+
+    assertEquals(20, task.getTaskFile("Task.kt")!!.answerPlaceholders[0].offset)
+    val config = task.getTaskDir(project)!!.findChild(YamlFormatSettings.TASK_CONFIG)!!
+    val configText = FileDocumentManager.getInstance().getDocument(config)!!.text
+    assertEquals(YamlFormatSynchronizer.MAPPER.writeValueAsString(task), configText)
+    assertTrue(configText, configText.contains("offset: 20"))
+  }
+}
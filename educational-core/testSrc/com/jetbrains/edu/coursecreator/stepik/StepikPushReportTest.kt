@@ -0,0 +1,37 @@
+package com.jetbrains.edu.coursecreator.stepik
+
+import com.jetbrains.edu.coursecreator.stepik.StepikPushReport.Action
+import org.junit.Assert.*
+import org.junit.Test
+
+class StepikPushReportTest {
+
+  @Test
+  fun `test report counts actions`() {
+    val report = StepikPushReport()
+    val start = System.currentTimeMillis()
+    report.add("Lesson 'lesson1'", Action.POSTED, start)
+    report.add("Task 'task1'", Action.UPDATED, start)
+    report.add("Task 'task2'", Action.SKIPPED, start)
+    report.add("Task 'task3'", Action.SKIPPED, start)
+
+    assertEquals(1, report.getCount(Action.POSTED))
+    assertEquals(1, report.getCount(Action.UPDATED))
+    assertEquals(2, report.getCount(Action.SKIPPED))
+    assertFalse(report.hasFailures())
+    assertTrue(report.summary, report.summary.startsWith("1 posted, 1 updated, 2 unchanged, 0 failed in "))
+  }
+
+  @Test
+  fun `test details contain only sent items`() {
+    val report = StepikPushReport()
+    val start = System.currentTimeMillis()
+    report.add("Task 'task1'", Action.FAILED, start)
+    report.add("Task 'task2'", Action.SKIPPED, start)
+
+    assertTrue(report.hasFailures())
+    val details = report.details
+    assertTrue(details, details.contains("Task 'task1': failed in "))
+    assertFalse(details, details.contains("task2"))
+  }
+}
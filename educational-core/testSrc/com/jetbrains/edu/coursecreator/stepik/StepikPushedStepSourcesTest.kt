@@ -0,0 +1,35 @@
+package com.jetbrains.edu.coursecreator.stepik
+
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class StepikPushedStepSourcesTest {
+
+  @Test
+  fun `test only the last pushed source is unchanged`() {
+    val sources = StepikPushedStepSources()
+    assertFalse(sources.isPushed(1, "{\"text\": \"a\"}"))
+
+    sources.setPushed(1, "{\"text\": \"a\"}")
+    assertTrue(sources.isPushed(1, "{\"text\": \"a\"}"))
+    assertFalse(sources.isPushed(1, "{\"text\": \"b\"}"))
+    assertFalse(sources.isPushed(2, "{\"text\": \"a\"}"))
+
+    sources.remove(1)
+    assertFalse(sources.isPushed(1, "{\"text\": \"a\"}"))
+  }
+
+  @Test
+  fun `test pushed sources are restored from state`() {
+    val sources = StepikPushedStepSources()
+    sources.setPushed(1, "{\"text\": \"a\"}")
+    sources.setPushed(2, "{\"text\": \"b\"}")
+
+    val restored = StepikPushedStepSources()
+    restored.loadState(sources.state)
+    assertTrue(restored.isPushed(1, "{\"text\": \"a\"}"))
+    assertTrue(restored.isPushed(2, "{\"text\": \"b\"}"))
+    assertFalse(restored.isPushed(2, "{\"text\": \"a\"}"))
+  }
+}
@@ -0,0 +1,65 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.jetbrains.edu.learning.courseGeneration.GeneratorUtils
+import org.apache.commons.codec.binary.Base64
+
+class BulkCourseGenerationTest : EduTestCase() {
+
+  fun `test course files are written to local file system`() {
+    val image = byteArrayOf(1, 2, 3, 4)
+    val course = course {
+      lesson("lesson") {
+        eduTask("task") {
+          taskFile("src/Task.txt", "task text")
+          taskFile("image.png", Base64.encodeBase64String(image))
+        }
+        eduTask("task") {
+          taskFile("Task.txt")
+          additionalFile("data/input.txt", "input")
+        }
+      }
+      lesson("lesson") {
+        eduTask("task")
+      }
+    }
+    course.init(null, null, false)
+
+    val ioDir = FileUtil.createTempDirectory("bulkGeneration", null)
+    try {
+      val baseDir = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(ioDir) ?: error("Can't find ${ioDir.path}")
+      GeneratorUtils.createCourse(course, baseDir, EmptyProgressIndicator())
+
+      fileTree {
+        dir("lesson") {
+          dir("task") {
+            dir("src") {
+              file("Task.txt", "task text")
+            }
+            file("image.png")
+          }
+          dir("task (1)") {
+            file("Task.txt", "")
+            dir("data") {
+              file("input.txt", "input")
+            }
+          }
+        }
+        dir("lesson (1)") {
+          dir("task")
+        }
+      }.assertEquals(baseDir)
+
+      val imageFile = baseDir.findFileByRelativePath("lesson/task/image.png") ?: error("Can't find image")
+      assertTrue(image.contentEquals(imageFile.contentsToByteArray()))
+      assertEquals("lesson (1)", course.lessons[1].name)
+      assertEquals("lesson", course.lessons[1].customPresentableName)
+      assertEquals("task (1)", course.lessons[0].taskList[1].name)
+    }
+    finally {
+      FileUtil.delete(ioDir)
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.jetbrains.edu.learning
+
+import com.jetbrains.edu.learning.courseFormat.Lesson
+import com.jetbrains.edu.learning.courseFormat.tasks.EduTask
+
+class CourseIndexTest : EduTestCase() {
+
+  fun `test lookup by name`() {
+    val course = course {
+      section("section1") {
+        lesson("lesson1") {
+          eduTask("task1")
+        }
+      }
+      lesson("lesson2") {
+        eduTask("task1")
+        eduTask("task2")
+      }
+    }
+    val section = course.getSection("section1")!!
+    assertSame(section.lessons[0], course.getLesson("section1", "lesson1"))
+    assertSame(course.lessons[0], course.getLesson(null, "lesson2"))
+    assertNull(course.getLesson("lesson1"))
+    assertNull(course.getSection("lesson2"))
+    assertSame(course.lessons[0].taskList[1], course.lessons[0].getTask("task2"))
+    assertNull(course.lessons[0].getTask("task3"))
+  }
+
+  fun `test lookup by id`() {
+    val course = course {
+      lesson("lesson1") {
+        eduTask("task1")
+        eduTask("task2")
+      }
+    }
+    val lesson = course.lessons[0]
+    lesson.id = 10
+    lesson.taskList[1].stepId = 20
+    assertSame(lesson, course.getLesson(10))
+    assertSame(lesson.taskList[1], lesson.getTask(20))
+    assertNull(lesson.getTask(30))
+  }
+
+  fun `test index is updated after rename`() {
+    val course = course {
+      section("section1") {
+        lesson("lesson1") {
+          eduTask("task1")
+        }
+      }
+    }
+    val section = course.getSection("section1")!!
+    val lesson = section.getLesson("lesson1")!!
+    val task = lesson.getTask("task1")!!
+
+    section.name = "section2"
+    lesson.name = "lesson2"
+    task.name = "task2"
+
+    assertNull(course.getSection("section1"))
+    assertSame(section, course.getSection("section2"))
+    assertNull(section.getLesson("lesson1"))
+    assertSame(lesson, section.getLesson("lesson2"))
+    assertNull(lesson.getTask("task1"))
+    assertSame(task, lesson.getTask("task2"))
+  }
+
+  fun `test index is updated after structure changes`() {
+    val course = course {
+      lesson("lesson1") {
+        eduTask("task1")
+      }
+    }
+    val lessons = course.lessons
+    assertSame(lessons, course.lessons)
+
+    val newLesson = Lesson()
+    newLesson.name = "lesson2"
+    course.addLesson(newLesson)
+    assertSame(newLesson, course.getLesson("lesson2"))
+    assertNotSame(lessons, course.lessons)
+    assertEquals(2, course.lessons.size)
+
+    val lesson = course.getLesson("lesson1")!!
+    val task = EduTask()
+    task.name = "task2"
+    lesson.addTask(task)
+    assertSame(task, lesson.getTask("task2"))
+
+    // list modified directly
+    lesson.taskList.remove(task)
+    assertNull(lesson.getTask("task2"))
+
+    course.removeLesson(newLesson)
+    assertNull(course.getLesson("lesson2"))
+    assertEquals(1, course.lessons.size)
+  }
+
+  fun `test index is updated after tasks are sorted`() {
+    val lesson = Lesson()
+    val second = EduTask("task")
+    second.index = 2
+    val first = EduTask("task")
+    first.index = 1
+    lesson.addTask(second)
+    lesson.addTask(first)
+    assertSame(second, lesson.getTask("task"))
+
+    lesson.sortTasks()
+    assertSame(first, lesson.getTask("task"))
+  }
+
+  fun `test additional lesson is excluded`() {
+    val course = course {
+      lesson("lesson1")
+      lesson(EduNames.ADDITIONAL_MATERIALS)
+    }
+    assertEquals(1, course.lessons.size)
+    assertEquals(2, course.getLessons(true).size)
+    course.removeAdditionalLesson()
+    assertEquals(1, course.getLessons(true).size)
+  }
+}
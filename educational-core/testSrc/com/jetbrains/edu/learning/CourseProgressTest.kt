@@ -0,0 +1,81 @@
+package com.jetbrains.edu.learning
+
+import com.jetbrains.edu.learning.courseFormat.CheckStatus
+import com.jetbrains.edu.learning.courseFormat.Course
+import com.jetbrains.edu.learning.courseFormat.Lesson
+import com.jetbrains.edu.learning.courseFormat.tasks.EduTask
+import com.jetbrains.edu.learning.projectView.ProgressUtil
+
+class CourseProgressTest : EduTestCase() {
+
+  private lateinit var course: Course
+
+  override fun setUp() {
+    super.setUp()
+    course = course {
+      section("section1") {
+        lesson("lesson1") {
+          eduTask("task1")
+          eduTask("task2")
+        }
+      }
+      lesson("lesson2") {
+        eduTask("task1")
+        theoryTask("task2")
+      }
+    }
+    course.init(null, null, true)
+  }
+
+  fun `test progress is counted`() {
+    assertEquals(Pair(0, 3), ProgressUtil.countProgress(course))
+    assertProgress(0, 2, section1Lesson())
+    assertEquals(2, course.getSection("section1")!!.taskCountForProgress)
+  }
+
+  fun `test progress is updated when task status is changed`() {
+    ProgressUtil.countProgress(course)
+    section1Lesson().taskList[0].status = CheckStatus.Solved
+    course.lessons[0].taskList[0].status = CheckStatus.Solved
+    assertEquals(Pair(2, 3), ProgressUtil.countProgress(course))
+    assertProgress(1, 2, section1Lesson())
+    assertEquals(1, course.getSection("section1")!!.solvedTaskCount)
+
+    section1Lesson().taskList[0].status = CheckStatus.Failed
+    assertEquals(Pair(1, 3), ProgressUtil.countProgress(course))
+    assertEquals(0, course.getSection("section1")!!.solvedTaskCount)
+  }
+
+  fun `test theory tasks are not counted`() {
+    ProgressUtil.countProgress(course)
+    course.lessons[0].taskList[1].status = CheckStatus.Solved
+    assertEquals(Pair(0, 3), ProgressUtil.countProgress(course))
+    assertProgress(0, 1, course.lessons[0])
+  }
+
+  fun `test progress is recalculated after structure change`() {
+    ProgressUtil.countProgress(course)
+    val task = EduTask()
+    task.name = "task3"
+    task.status = CheckStatus.Solved
+    val lesson = course.lessons[0]
+    lesson.addTask(task)
+    task.lesson = lesson
+    assertEquals(Pair(1, 4), ProgressUtil.countProgress(course))
+    assertProgress(1, 2, lesson)
+  }
+
+  fun `test progress is recalculated after init`() {
+    section1Lesson().taskList[0].status = CheckStatus.Solved
+    assertEquals(Pair(1, 3), ProgressUtil.countProgress(course))
+    course.init(null, null, false)
+    assertEquals(Pair(0, 3), ProgressUtil.countProgress(course))
+  }
+
+  private fun section1Lesson(): Lesson = course.getSection("section1")!!.lessons[0]
+
+  private fun assertProgress(solved: Int, total: Int, lesson: Lesson) {
+    assertEquals(solved, lesson.solvedTaskCount)
+    assertEquals(total, lesson.taskCountForProgress)
+  }
+}
@@ -261,6 +261,25 @@ class EduDocumentListenerTest : EduTestCase() {
     assertEquals(9, answerPlaceholders[1].length)
   }
 
+  fun testTypeBeforeUnsortedPlaceholders() {
+    val taskFileName = "taskFile2.txt"
+    configureByTaskFile(1, 2, taskFileName)
+    val taskFile = StudyTaskManager.getInstance(myFixture.project).course!!.getLesson("lesson1")!!
+      .getTask("task2")!!.getTaskFile(taskFileName)!!
+    taskFile.answerPlaceholders = taskFile.answerPlaceholders.reversed()
+
+    myFixture.editor.caretModel.moveToOffset(1)
+    myFixture.editor.selectionModel.removeSelection()
+    myFixture.type("test")
+
+    val answerPlaceholders = taskFile.answerPlaceholders
+    assertEquals(2, answerPlaceholders.size)
+    assertEquals(44, answerPlaceholders[0].offset)
+    assertEquals(10, answerPlaceholders[0].length)
+    assertEquals(16, answerPlaceholders[1].offset)
+    assertEquals(2, answerPlaceholders[1].length)
+  }
+
   @Throws(IOException::class)
   override fun createCourse() {
     myFixture.copyDirectoryToProject("lesson1", "lesson1")
@@ -159,6 +159,18 @@ class PlaceholderPainterTest : EduTestCase() {
     checkPointsCyclically(expected, placeholderShape.points)
   }
 
+  fun `test painters are released with editor`() {
+    val placeholders = getPlaceholders("""
+      |This is <placeholder>one line </placeholder> placeholder
+    """)
+    val editor = myFixture.editor
+    NewPlaceholderPainter.paintPlaceholder(editor, placeholders[0])
+    assertTrue(placeholders[0] in NewPlaceholderPainter.getPaintedPlaceholders())
+
+    NewPlaceholderPainter.removePainters(editor)
+    assertFalse(placeholders[0] in NewPlaceholderPainter.getPaintedPlaceholders())
+  }
+
   private fun checkRectangular(text: String, start: LogicalPosition, end: LogicalPosition) {
     val expected = listOf(LogicalPositionInLine(start.line, start.column),
                           LogicalPositionInLine(start.line, end.column),
@@ -0,0 +1,250 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.fileTypes.PlainTextLanguage
+import com.intellij.openapi.util.JDOMUtil
+import com.intellij.util.xmlb.XmlSerializer
+import com.jetbrains.edu.coursecreator.CCUtils
+import com.jetbrains.edu.learning.courseFormat.*
+import com.jetbrains.edu.learning.courseFormat.tasks.*
+import java.util.*
+
+class StudyItemCopyTest : EduTestCase() {
+
+  fun `test course copy is the same as xml round trip`() {
+    val random = Random(42)
+    repeat(50) {
+      val course = randomCourse(random)
+      assertEquals(serialize(xmlCopy(course)), serialize(course.copy()))
+    }
+  }
+
+  fun `test task copy is the same as xml round trip`() {
+    val random = Random(42)
+    repeat(20) {
+      val course = randomCourse(random)
+      course.visitLessons { lesson ->
+        for (task in lesson.taskList) {
+          assertEquals(serialize(xmlCopy(task)), serialize(task.copy()))
+        }
+        true
+      }
+    }
+  }
+
+  fun `test copy is initialized`() {
+    val copy = randomCourse(Random(42)).copy()
+    copy.visitLessons { lesson ->
+      assertSame(copy, lesson.course)
+      for (task in lesson.taskList) {
+        assertSame(lesson, task.lesson)
+        for (taskFile in task.taskFiles.values) {
+          assertSame(task, taskFile.task)
+          for (placeholder in taskFile.answerPlaceholders) {
+            assertSame(taskFile, placeholder.taskFile)
+            val dependency = placeholder.placeholderDependency ?: continue
+            assertSame(placeholder, dependency.answerPlaceholder)
+          }
+        }
+      }
+      true
+    }
+  }
+
+  fun `test copy doesn't share state with original`() {
+    val course = randomCourse(Random(42))
+    val expected = serialize(course)
+    val copy = course.copy()
+
+    copy.name = "copy"
+    copy.authors.clear()
+    copy.visitLessons { lesson ->
+      lesson.name = "copy"
+      for (task in lesson.taskList) {
+        task.name = "copy"
+        task.testsText.clear()
+        task.additionalFiles.clear()
+        task.feedbackLink.link = "copy"
+        task.updateDate.time = 0
+        if (task is ChoiceTask) {
+          task.choiceVariants.clear()
+          task.selectedVariants.clear()
+        }
+        for (taskFile in task.taskFiles.values) {
+          taskFile.text = "copy"
+          for (placeholder in taskFile.answerPlaceholders) {
+            placeholder.offset++
+            placeholder.initialState.offset++
+            placeholder.hints.clear()
+            placeholder.placeholderDependency?.taskName = "copy"
+          }
+        }
+        task.taskFiles.clear()
+      }
+      true
+    }
+    copy.visitSections { section -> section.name = "copy" }
+
+    assertEquals(expected, serialize(course))
+  }
+
+  /**
+   * Benchmark of structural copy against xml round trip which it replaced, timings depend on the machine,
+   * so they are only printed
+   */
+  fun `test copy and xml round trip timings`() {
+    val course = randomCourse(Random(42), 20)
+    // warm up both ways of copying
+    repeat(3) {
+      course.copy()
+      xmlCopy(course)
+    }
+    val copyTime = measure { course.copy() }
+    val xmlCopyTime = measure { xmlCopy(course) }
+    println("Copy of a course took $copyTime ms, xml round trip took $xmlCopyTime ms")
+  }
+
+  private fun measure(action: () -> Unit): Long {
+    val start = System.nanoTime()
+    repeat(10) { action() }
+    return (System.nanoTime() - start) / 1_000_000
+  }
+
+  private fun <T : StudyItem> xmlCopy(item: T): T {
+    @Suppress("UNCHECKED_CAST")
+    val copy = XmlSerializer.deserialize(XmlSerializer.serialize(item), item.javaClass) as T
+    copy.init(null, null, true)
+    return copy
+  }
+
+  private fun serialize(item: StudyItem): String = JDOMUtil.writeElement(XmlSerializer.serialize(item))
+
+  private fun randomCourse(random: Random, maxItems: Int = 3): Course {
+    val course = if (random.nextBoolean()) Course() else RemoteCourse().apply {
+      id = random.nextInt(1000)
+      setAdaptive(random.nextBoolean())
+      setPublic(random.nextBoolean())
+      setLoadSolutions(random.nextBoolean())
+      setCompatible(random.nextBoolean())
+      sectionIds = randomInts(random)
+      instructors = randomInts(random)
+      updateDate = Date(random.nextInt(Int.MAX_VALUE).toLong())
+    }
+    course.name = "course${random.nextInt(10)}"
+    course.description = randomText(random)
+    course.language = PlainTextLanguage.INSTANCE.id
+    course.languageCode = randomOf(random, "en", "ru")
+    course.courseMode = randomOf(random, EduNames.STUDY, CCUtils.COURSE_MODE)
+    course.setAuthorsAsString(arrayOf("Jane Doe", "John"))
+    fillItem(course, random)
+    repeat(1 + random.nextInt(maxItems)) { i ->
+      if (random.nextBoolean()) {
+        val section = Section()
+        section.name = "section$i"
+        section.id = random.nextInt(1000)
+        section.position = random.nextInt(10)
+        section.units = randomInts(random)
+        section.updateDate = Date(random.nextInt(Int.MAX_VALUE).toLong())
+        fillItem(section, random)
+        repeat(1 + random.nextInt(3)) { j -> section.addLesson(randomLesson(random, "lesson$j")) }
+        course.addSection(section)
+      }
+      else {
+        course.addLesson(randomLesson(random, "lesson$i"))
+      }
+    }
+    course.init(null, null, true)
+    return course
+  }
+
+  private fun randomLesson(random: Random, name: String): Lesson {
+    val lesson = if (random.nextBoolean()) Lesson() else FrameworkLesson()
+    lesson.name = name
+    lesson.id = random.nextInt(1000)
+    lesson.unitId = random.nextInt(1000)
+    lesson.updateDate = Date(random.nextInt(Int.MAX_VALUE).toLong())
+    fillItem(lesson, random)
+    repeat(1 + random.nextInt(4)) { i -> lesson.addTask(randomTask(random, "task$i")) }
+    if (lesson is FrameworkLesson) {
+      lesson.currentTaskIndex = random.nextInt(lesson.taskList.size)
+    }
+    return lesson
+  }
+
+  private fun randomTask(random: Random, name: String): Task {
+    val task = when (random.nextInt(6)) {
+      0 -> EduTask()
+      1 -> ChoiceTask()
+      2 -> TheoryTask()
+      3 -> CodeTask()
+      4 -> OutputTask()
+      else -> IdeTask()
+    }
+    task.name = name
+    task.stepId = random.nextInt(1000)
+    task.descriptionText = randomText(random)
+    task.descriptionFormat = randomOf(random, *DescriptionFormat.values())
+    task.status = randomOf(random, *CheckStatus.values())
+    task.updateDate = Date(random.nextInt(Int.MAX_VALUE).toLong())
+    task.feedbackLink = FeedbackLink().apply {
+      type = randomOf(random, *FeedbackLink.LinkType.values())
+      link = if (random.nextBoolean()) "https://example.com/${random.nextInt(10)}" else null
+    }
+    fillItem(task, random)
+    repeat(random.nextInt(3)) { i -> task.addTestsTexts("test$i.txt", randomText(random)) }
+    repeat(random.nextInt(3)) { i -> task.addAdditionalFile("additional$i.txt", randomText(random)) }
+    if (task is ChoiceTask) {
+      task.choiceVariants = MutableList(random.nextInt(4)) { randomText(random) }
+      task.isMultipleChoice = random.nextBoolean()
+      task.selectedVariants = randomInts(random)
+    }
+    repeat(1 + random.nextInt(3)) { i -> task.addTaskFile(randomTaskFile(random, "file$i.txt")) }
+    return task
+  }
+
+  private fun randomTaskFile(random: Random, name: String): TaskFile {
+    val taskFile = TaskFile()
+    taskFile.name = name
+    taskFile.text = randomText(random)
+    taskFile.isUserCreated = random.nextBoolean()
+    taskFile.isTrackChanges = random.nextBoolean()
+    taskFile.isTrackLengths = random.nextBoolean()
+    taskFile.isHighlightErrors = random.nextBoolean()
+    var offset = 0
+    repeat(random.nextInt(4)) {
+      val placeholder = AnswerPlaceholder()
+      placeholder.offset = offset + random.nextInt(5)
+      placeholder.length = random.nextInt(5)
+      offset = placeholder.offset + placeholder.length
+      placeholder.initialState = AnswerPlaceholder.MyInitialState(random.nextInt(10), random.nextInt(10))
+      placeholder.placeholderText = randomText(random)
+      placeholder.possibleAnswer = randomText(random)
+      placeholder.hints = MutableList(random.nextInt(3)) { randomText(random) }
+      placeholder.status = randomOf(random, *CheckStatus.values())
+      placeholder.useLength = random.nextBoolean()
+      placeholder.selected = random.nextBoolean()
+      placeholder.isInitializedFromDependency = random.nextBoolean()
+      placeholder.studentAnswer = if (random.nextBoolean()) randomText(random) else null
+      if (random.nextBoolean()) {
+        val sectionName = if (random.nextBoolean()) "section${random.nextInt(3)}" else null
+        placeholder.placeholderDependency = AnswerPlaceholderDependency(placeholder, sectionName, "lesson${random.nextInt(3)}",
+                                                                        "task${random.nextInt(3)}", "file0.txt", random.nextInt(3),
+                                                                        random.nextBoolean())
+      }
+      taskFile.addAnswerPlaceholder(placeholder)
+    }
+    return taskFile
+  }
+
+  private fun fillItem(item: StudyItem, random: Random) {
+    item.stepikChangeStatus = randomOf(random, *StepikChangeStatus.values())
+    if (random.nextBoolean()) {
+      item.customPresentableName = "presentable ${random.nextInt(10)}"
+    }
+  }
+
+  private fun randomText(random: Random): String = "text ${random.nextInt(100)}\nline ${random.nextInt(100)}"
+
+  private fun randomInts(random: Random): MutableList<Int> = MutableList(random.nextInt(4)) { random.nextInt(1000) }
+
+  private fun <T> randomOf(random: Random, vararg values: T): T = values[random.nextInt(values.size)]
+}
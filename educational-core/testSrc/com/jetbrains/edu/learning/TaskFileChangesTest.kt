@@ -0,0 +1,54 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.openapi.editor.Document
+import com.jetbrains.edu.learning.courseFormat.ext.getDocument
+import com.jetbrains.edu.learning.courseFormat.ext.hasChangedFiles
+import com.jetbrains.edu.learning.courseFormat.ext.isChanged
+
+class TaskFileChangesTest : EduTestCase() {
+
+  override fun createCourse() {
+    courseWithFiles {
+      lesson("lesson1") {
+        eduTask("task1") {
+          taskFile("Task.kt", "fun foo() = <p>TODO()</p>")
+          taskFile("Other.kt", "fun bar() = 42")
+        }
+      }
+    }
+  }
+
+  fun `test unchanged file`() {
+    val taskFile = findTask(0, 0).getTaskFile("Task.kt")!!
+    val document = taskFile.getDocument(project)!!
+    assertFalse(taskFile.isChanged(document))
+    assertFalse(taskFile.isChanged(document))
+    assertFalse(findTask(0, 0).hasChangedFiles(project))
+  }
+
+  fun `test changed file`() {
+    val task = findTask(0, 0)
+    val taskFile = task.getTaskFile("Other.kt")!!
+    val document = taskFile.getDocument(project)!!
+    replace(document, "fun bar() = 24")
+    assertTrue(taskFile.isChanged(document))
+    assertTrue(task.hasChangedFiles(project))
+
+    replace(document, "fun bar() = 42")
+    assertFalse(taskFile.isChanged(document))
+    assertFalse(task.hasChangedFiles(project))
+  }
+
+  fun `test original text is changed`() {
+    val taskFile = findTask(0, 0).getTaskFile("Other.kt")!!
+    val document = taskFile.getDocument(project)!!
+    assertFalse(taskFile.isChanged(document))
+    taskFile.text = "fun bar() = 24"
+    assertTrue(taskFile.isChanged(document))
+  }
+
+  private fun replace(document: Document, text: String) {
+    runWriteAction { document.replaceString(0, document.textLength, text) }
+  }
+}
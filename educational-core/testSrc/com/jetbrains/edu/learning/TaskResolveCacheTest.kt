@@ -0,0 +1,107 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.application.runWriteAction
+
+class TaskResolveCacheTest : EduTestCase() {
+
+  fun `test cached task is returned`() {
+    courseWithFiles {
+      lesson {
+        eduTask {
+          taskFile("src/Task.kt")
+        }
+      }
+    }
+    val cache = TaskResolveCache.getInstance(project)
+    val file = findVirtualFile(0, 0, "src/Task.kt")
+    val task = findTask(0, 0)
+
+    assertSame(task, EduUtils.getTaskForFile(project, file))
+    val hits = cache.hitCount
+    assertSame(task, EduUtils.getTaskForFile(project, file))
+    assertEquals("src/Task.kt", EduUtils.pathRelativeToTask(project, file))
+    assertEquals(hits + 2, cache.hitCount)
+  }
+
+  fun `test cache is invalidated on course structure change`() {
+    courseWithFiles {
+      lesson {
+        eduTask {
+          taskFile("Task.kt")
+        }
+      }
+    }
+    val file = findVirtualFile(0, 0, "Task.kt")
+    val task = findTask(0, 0)
+    assertSame(task, EduUtils.getTaskForFile(project, file))
+
+    task.name = "renamed"
+    assertNull(EduUtils.getTaskForFile(project, file))
+  }
+
+  fun `test cache is invalidated on file rename`() {
+    courseWithFiles {
+      lesson {
+        eduTask {
+          taskFile("Task.kt")
+        }
+      }
+    }
+    val file = findVirtualFile(0, 0, "Task.kt")
+    val task = findTask(0, 0)
+    val taskDir = file.parent
+    assertSame(task, EduUtils.getTaskForFile(project, file))
+
+    runWriteAction { taskDir.rename(this, "renamed") }
+    assertNull(EduUtils.getTaskForFile(project, file))
+
+    task.name = "renamed"
+    assertSame(task, EduUtils.getTaskForFile(project, file))
+  }
+
+  fun `test task file is resolved from cache`() {
+    courseWithFiles {
+      lesson {
+        eduTask {
+          taskFile("src/Task.kt")
+        }
+      }
+    }
+    val cache = TaskResolveCache.getInstance(project)
+    val file = findVirtualFile(0, 0, "src/Task.kt")
+    val taskFile = findTask(0, 0).getTaskFile("src/Task.kt")
+
+    assertSame(taskFile, EduUtils.getTaskFile(project, file))
+    val hits = cache.hitCount
+    val misses = cache.missCount
+    assertSame(taskFile, EduUtils.getTaskFile(project, file))
+    // task and path relative to task are both taken from cache
+    assertEquals(hits + 2, cache.hitCount)
+    assertEquals(misses, cache.missCount)
+  }
+
+  fun `test changes of other files keep cached values`() {
+    courseWithFiles {
+      lesson {
+        eduTask {
+          taskFile("Task.kt")
+        }
+        eduTask {
+          taskFile("Task.kt")
+        }
+      }
+    }
+    val cache = TaskResolveCache.getInstance(project)
+    val file = findVirtualFile(0, 0, "Task.kt")
+    val otherFile = findVirtualFile(0, 1, "Task.kt")
+    assertSame(findTask(0, 0), EduUtils.getTaskForFile(project, file))
+
+    runWriteAction {
+      otherFile.rename(this, "Renamed.kt")
+      otherFile.parent.createChildData(this, "Other.kt")
+    }
+    val misses = cache.missCount
+    assertSame(findTask(0, 0), EduUtils.getTaskForFile(project, file))
+    assertEquals(misses, cache.missCount)
+  }
+}
@@ -0,0 +1,49 @@
+package com.jetbrains.edu.learning
+
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.openapi.editor.EditorFactory
+import com.jetbrains.edu.learning.courseGeneration.TextDelta
+
+class TextDeltaDocumentTest : EduTestCase() {
+
+  fun `test delta is applied to document and reverted`() {
+    val prevText = """
+      |fun fizz() = TODO()
+      |fun buzz() = TODO()
+      |fun main() {}
+      |""".trimMargin()
+    val nextText = """
+      |fun fizz() = "Fizz"
+      |fun buzz() = TODO()
+      |fun fizzBuzz() = fizz() + buzz()
+      |fun main() {}
+      |""".trimMargin()
+    doTest(prevText, nextText, "fun buzz() = TODO()\n")
+  }
+
+  fun `test several changed ranges`() {
+    val prevText = (1..8).joinToString("") { "line $it\n" }
+    val nextText = "line 1\nchanged 2\nline 3\nline 4\nline 5\nline 7\nline 8\nadded 9"
+    doTest(prevText, nextText, "line 4\n")
+  }
+
+  /**
+   * @param unchangedLine line which is the same in both texts, it mustn't be touched by delta
+   */
+  private fun doTest(prevText: String, nextText: String, unchangedLine: String) {
+    val delta = TextDelta.compute(prevText, nextText)
+    val document = EditorFactory.getInstance().createDocument(prevText)
+    val lineStart = prevText.indexOf(unchangedLine)
+    val marker = document.createRangeMarker(lineStart, lineStart + unchangedLine.length)
+
+    runWriteAction { delta.applyTo(document) }
+    assertEquals(nextText, document.text)
+    assertTrue(marker.isValid)
+    assertEquals(unchangedLine, document.getText(marker.textRange))
+
+    runWriteAction { delta.revertIn(document, prevText) }
+    assertEquals(prevText, document.text)
+    assertTrue(marker.isValid)
+    assertEquals(lineStart, marker.startOffset)
+  }
+}
@@ -0,0 +1,43 @@
+package com.jetbrains.edu.learning
+
+import com.jetbrains.edu.learning.courseGeneration.TextDelta
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class TextDeltaTest {
+
+  @Test
+  fun `test changed lines`() = doTest("""
+    fun fizz() = TODO()
+    fun buzz() = TODO()
+    fun main() {}
+  """, """
+    fun fizz() = "Fizz"
+    fun buzz() = TODO()
+    fun fizzBuzz() = fizz() + buzz()
+    fun main() {}
+  """)
+
+  @Test
+  fun `test removed lines`() = doTest("""
+    line 1
+    line 2
+    line 3
+  """, """
+    line 2
+  """)
+
+  @Test
+  fun `test missing line separator at the end`() = doTest("first\nsecond", "first\nsecond\nthird")
+
+  @Test
+  fun `test empty text`() {
+    doTest("", "text\n")
+    doTest("text\n", "")
+  }
+
+  private fun doTest(prevText: String, nextText: String) {
+    val delta = TextDelta.compute(prevText.trimIndent(), nextText.trimIndent())
+    assertEquals(nextText.trimIndent(), delta.apply(prevText.trimIndent()))
+  }
+}
@@ -0,0 +1,87 @@
+package com.jetbrains.edu.learning.checker
+
+import org.junit.Assert.*
+import org.junit.Test
+
+class OutputComparatorTest {
+
+  @Test
+  fun `test output matched by chunks`() {
+    val comparator = OutputComparator("Hello\nWorld\n", 100)
+    assertTrue(comparator.append("Hel"))
+    assertTrue(comparator.append("lo\nWor"))
+    assertTrue(comparator.append("ld"))
+    assertTrue(comparator.isMatched())
+  }
+
+  @Test
+  fun `test trailing line break is ignored`() {
+    val comparator = OutputComparator("Hello", 100)
+    assertTrue(comparator.append("Hello\n"))
+    assertTrue(comparator.isMatched())
+  }
+
+  @Test
+  fun `test extra line is mismatch`() {
+    val comparator = OutputComparator("Hello", 100)
+    assertFalse(comparator.append("Hello\n\n"))
+    assertFalse(comparator.isMatched())
+  }
+
+  @Test
+  fun `test only one trailing line break is ignored`() {
+    val comparator = OutputComparator("Hello\n\n", 100)
+    assertTrue(comparator.append("Hello\n"))
+    assertFalse(comparator.isMatched())
+    assertTrue(comparator.append("\n"))
+    assertTrue(comparator.isMatched())
+  }
+
+  @Test
+  fun `test output without trailing line break`() {
+    val comparator = OutputComparator("Hello\n", 100)
+    assertTrue(comparator.append("Hello"))
+    assertTrue(comparator.isMatched())
+  }
+
+  @Test
+  fun `test stops on first mismatch`() {
+    val comparator = OutputComparator("Hello, World!", 100)
+    assertFalse(comparator.append("Hello World"))
+    assertFalse(comparator.isMatched())
+    assertEquals("Expected output:\nHello, World! \nActual output:\nHello World", comparator.getMismatchMessage())
+  }
+
+  @Test
+  fun `test shorter output`() {
+    val comparator = OutputComparator("Hello\nWorld", 100)
+    assertTrue(comparator.append("Hello\n"))
+    assertFalse(comparator.isMatched())
+    assertEquals("Expected output:\nHello\nWorld \nActual output:\nHello\n", comparator.getMismatchMessage())
+  }
+
+  @Test
+  fun `test mismatch window`() {
+    val line = "a".repeat(1000)
+    val comparator = OutputComparator(line + "b" + line, 10_000)
+    assertFalse(comparator.append(line + "c" + line))
+    val message = comparator.getMismatchMessage()
+    assertTrue(message, message.length < 2 * 1000 + 100)
+    assertTrue(message, message.contains("ab"))
+    assertTrue(message, message.contains("ac"))
+  }
+
+  @Test
+  fun `test output length is limited`() {
+    val comparator = OutputComparator("y\n".repeat(100), 10)
+    assertFalse(comparator.append("y\ny\ny\ny\ny\ny\n"))
+    assertFalse(comparator.isMatched())
+    assertEquals("Output is longer than 10 characters", comparator.getMismatchMessage())
+  }
+
+  @Test
+  fun `test no output`() {
+    assertTrue(OutputComparator("<no output>", 100).isMatched())
+    assertFalse(OutputComparator("Hello", 100).isMatched())
+  }
+}
@@ -0,0 +1,35 @@
+package com.jetbrains.edu.learning.checker
+
+import com.jetbrains.edu.learning.courseFormat.CheckStatus
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+
+class OutputTaskCheckerTest {
+
+  @Test
+  fun `test program is stopped on timeout`() {
+    val comparator = OutputComparator("Hello", 100)
+    comparator.append("Hel")
+    var isStopped = false
+    val result = waitForOutput(CountDownLatch(1), 1, comparator) { isStopped = true }
+    assertTrue(isStopped)
+    assertEquals(CheckStatus.Failed, result.status)
+    assertEquals("Program was stopped after 1 seconds", result.message)
+  }
+
+  @Test
+  fun `test output of terminated program is checked`() {
+    val terminated = CountDownLatch(1)
+    terminated.countDown()
+
+    val solved = OutputComparator("Hello", 100)
+    solved.append("Hello\n")
+    val result = waitForOutput(terminated, 1, solved) { fail("Terminated program can't be stopped") }
+    assertEquals(CheckStatus.Solved, result.status)
+
+    val failed = OutputComparator("Hello", 100)
+    failed.append("Bye\n")
+    assertEquals(CheckStatus.Failed, waitForOutput(terminated, 1, failed) { fail("Terminated program can't be stopped") }.status)
+  }
+}
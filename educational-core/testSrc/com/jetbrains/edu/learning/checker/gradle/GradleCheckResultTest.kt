@@ -0,0 +1,39 @@
+package com.jetbrains.edu.learning.checker.gradle
+
+import com.jetbrains.edu.learning.checker.CheckUtils.STUDY_PREFIX
+import com.jetbrains.edu.learning.checker.TestsOutputParser
+import com.jetbrains.edu.learning.courseFormat.CheckStatus
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class GradleCheckResultTest {
+
+  @Test
+  fun `test default congratulations`() {
+    val result = runResult("> Task :lesson1-task1:test\n").toCheckResult()
+    assertEquals(CheckStatus.Solved, result.status)
+    assertEquals(TestsOutputParser.CONGRATULATIONS, result.message)
+  }
+
+  @Test
+  fun `test custom congratulations`() {
+    val result = runResult("""
+      |> Task :lesson1-task1:test
+      |$STUDY_PREFIX ${TestsOutputParser.CONGRATS_MESSAGE}Well done!
+      |BUILD SUCCESSFUL
+      |""".trimMargin()).toCheckResult()
+    assertEquals(CheckStatus.Solved, result.status)
+    assertEquals("Well done!", result.message)
+  }
+
+  @Test
+  fun `test failed test wins over congratulations`() {
+    val result = runResult("$STUDY_PREFIX ${TestsOutputParser.CONGRATS_MESSAGE}Well done!\n",
+                           GradleTestResult("Tests", "testSolution", "Wrong answer")).toCheckResult()
+    assertEquals(CheckStatus.Failed, result.status)
+    assertEquals("Wrong answer", result.message)
+  }
+
+  private fun runResult(stdout: String, test: GradleTestResult = GradleTestResult("Tests", "testSolution", null)): GradleRunResult =
+    GradleRunResult(stdout, "", listOf(test), emptyList(), false)
+}
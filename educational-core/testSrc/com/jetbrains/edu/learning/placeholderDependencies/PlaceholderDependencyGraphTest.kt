@@ -0,0 +1,106 @@
+package com.jetbrains.edu.learning.placeholderDependencies
+
+import com.jetbrains.edu.learning.EduTestCase
+import com.jetbrains.edu.learning.courseFormat.AnswerPlaceholderDependency
+import com.jetbrains.edu.learning.courseFormat.CheckStatus
+import com.jetbrains.edu.learning.courseFormat.ext.getDependentTasks
+import com.jetbrains.edu.learning.courseFormat.ext.getUnsolvedTaskDependencies
+
+class PlaceholderDependencyGraphTest : EduTestCase() {
+
+  override fun createCourse() {
+    courseWithFiles {
+      lesson("lesson1") {
+        eduTask("task1") {
+          taskFile("Task.kt", "fun foo() = <p>TODO()</p>")
+        }
+        eduTask("task2") {
+          taskFile("Task.kt", "fun bar() = <p>TODO()</p>")
+        }
+      }
+      lesson("lesson2") {
+        eduTask("task1") {
+          taskFile("Task.kt", "fun foo() = <p>TODO()</p>\nfun bar() = <p>TODO()</p>") {
+            placeholder(0, dependency = "lesson1#task1#Task.kt#1")
+            placeholder(1, dependency = "lesson1#task2#Task.kt#1")
+          }
+        }
+        eduTask("task2") {
+          taskFile("Task.kt", "fun baz() = <p>TODO()</p>") {
+            placeholder(0, dependency = "lesson1#task1#Task.kt#1")
+          }
+        }
+      }
+    }
+  }
+
+  fun `test dependent and dependency tasks`() {
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), findTask(0, 0).getDependentTasks())
+    assertEquals(setOf(findTask(1, 0)), findTask(0, 1).getDependentTasks())
+    assertEquals(emptySet<Any>(), findTask(1, 0).getDependentTasks())
+    assertEquals(listOf(findTask(0, 0), findTask(0, 1)), findTask(1, 0).getUnsolvedTaskDependencies())
+  }
+
+  fun `test solved dependencies are filtered`() {
+    findTask(0, 0).status = CheckStatus.Solved
+    assertEquals(listOf(findTask(0, 1)), findTask(1, 0).getUnsolvedTaskDependencies())
+  }
+
+  fun `test graph is updated when dependency is changed`() {
+    findPlaceholder(1, 1, "Task.kt", 0).placeholderDependency = null
+    assertEquals(setOf(findTask(1, 0)), findTask(0, 0).getDependentTasks())
+    assertEquals(emptyList<Any>(), findTask(1, 1).getUnsolvedTaskDependencies())
+
+    val placeholder = findPlaceholder(1, 1, "Task.kt", 0)
+    placeholder.placeholderDependency = AnswerPlaceholderDependency.create(placeholder, "lesson1#task2#Task.kt#1")
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), findTask(0, 1).getDependentTasks())
+    assertEquals(listOf(findTask(0, 1)), findTask(1, 1).getUnsolvedTaskDependencies())
+  }
+
+  fun `test graph is updated after rename`() {
+    val task = findTask(0, 0)
+    task.name = "renamed"
+    assertEquals(emptySet<Any>(), task.getDependentTasks())
+    assertEquals(listOf(findTask(0, 1)), findTask(1, 0).getUnsolvedTaskDependencies())
+
+    task.name = "task1"
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), task.getDependentTasks())
+  }
+
+  fun `test graph is updated after task file removal`() {
+    val task = findTask(0, 0)
+    val taskFile = task.taskFiles.remove("Task.kt")!!
+    assertEquals(emptySet<Any>(), task.getDependentTasks())
+    assertEquals(emptyList<Any>(), findTask(1, 1).getUnsolvedTaskDependencies())
+
+    task.taskFiles["Task.kt"] = taskFile
+    assertEquals(listOf(findTask(0, 0)), findTask(1, 1).getUnsolvedTaskDependencies())
+  }
+
+  fun `test graph is updated after placeholder of dependency is removed`() {
+    val task = findTask(0, 0)
+    val taskFile = task.getTaskFile("Task.kt")!!
+    val placeholder = taskFile.answerPlaceholders[0]
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), task.getDependentTasks())
+
+    taskFile.removeAnswerPlaceholder(placeholder)
+    assertEquals(emptySet<Any>(), task.getDependentTasks())
+    assertEquals(emptyList<Any>(), findTask(1, 1).getUnsolvedTaskDependencies())
+
+    taskFile.addAnswerPlaceholder(placeholder)
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), task.getDependentTasks())
+    assertEquals(listOf(findTask(0, 0)), findTask(1, 1).getUnsolvedTaskDependencies())
+  }
+
+  fun `test graph is updated after dependent placeholder is removed`() {
+    val taskFile = findTask(1, 1).getTaskFile("Task.kt")!!
+    val placeholder = taskFile.answerPlaceholders[0]
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), findTask(0, 0).getDependentTasks())
+
+    taskFile.removeAnswerPlaceholder(placeholder)
+    assertEquals(setOf(findTask(1, 0)), findTask(0, 0).getDependentTasks())
+
+    taskFile.addAnswerPlaceholder(placeholder)
+    assertEquals(setOf(findTask(1, 0), findTask(1, 1)), findTask(0, 0).getDependentTasks())
+  }
+}
@@ -146,6 +146,7 @@ public class StepikFormatTest {
     assertNotNull(stepContainer);
     final StepikWrappers.StepSource step = stepContainer.steps.get(0);
     assertNotNull(step);
+    assertEquals(186010, step.id);
   }
 
   @Test
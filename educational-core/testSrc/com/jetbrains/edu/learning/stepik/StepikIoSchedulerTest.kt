@@ -0,0 +1,76 @@
+package com.jetbrains.edu.learning.stepik
+
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.Disposer
+import com.jetbrains.edu.learning.EduTestCase
+import com.jetbrains.edu.learning.stepik.StepikIoScheduler.Priority
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class StepikIoSchedulerTest : EduTestCase() {
+
+  private lateinit var scheduler: StepikIoScheduler
+
+  override fun setUp() {
+    super.setUp()
+    scheduler = StepikIoScheduler(1, 2, 1)
+    Disposer.register(testRootDisposable, scheduler)
+  }
+
+  fun `test high priority jobs are executed first`() {
+    val started = CountDownLatch(1)
+    val release = CountDownLatch(1)
+    val blocker = scheduler.submit(Priority.NORMAL) {
+      started.countDown()
+      release.await(10, TimeUnit.SECONDS)
+    }
+    started.await(10, TimeUnit.SECONDS)
+
+    val order = Collections.synchronizedList(ArrayList<String>())
+    val futures = listOf(scheduler.submit(Priority.LOW) { order.add("low") },
+                         scheduler.submit(Priority.NORMAL) { order.add("normal") },
+                         scheduler.submit(Priority.HIGH) { order.add("high") })
+    assertEquals(3, scheduler.queueDepth)
+    release.countDown()
+    blocker.get(10, TimeUnit.SECONDS)
+    futures.forEach { it.get(10, TimeUnit.SECONDS) }
+
+    assertEquals(listOf("high", "normal", "low"), order)
+    assertEquals(0, scheduler.queueDepth)
+  }
+
+  fun `test nested jobs do not wait for free thread`() {
+    val result = scheduler.submit(Priority.LOW) {
+      scheduler.submit(Priority.HIGH) { 42 }.get(10, TimeUnit.SECONDS)
+    }
+    assertEquals(42, result.get(10, TimeUnit.SECONDS))
+  }
+
+  fun `test queued job is completed when its indicator is cancelled before start`() {
+    val started = CountDownLatch(1)
+    val release = CountDownLatch(1)
+    val blocker = scheduler.submit(Priority.NORMAL) {
+      started.countDown()
+      release.await(10, TimeUnit.SECONDS)
+    }
+    started.await(10, TimeUnit.SECONDS)
+
+    val indicator = EmptyProgressIndicator()
+    val executed = AtomicBoolean()
+    var queued: Future<*>? = null
+    ProgressManager.getInstance().runProcess({ queued = scheduler.submit(Priority.LOW) { executed.set(true) } }, indicator)
+    indicator.cancel()
+    release.countDown()
+
+    val waiting = Thread { StepikIoScheduler.awaitAll(listOf(blocker, queued!!), null) }
+    waiting.start()
+    waiting.join(10_000)
+    assertFalse("Waiting for cancelled job didn't finish", waiting.isAlive)
+    assertTrue(queued!!.isCancelled)
+    assertFalse(executed.get())
+  }
+}
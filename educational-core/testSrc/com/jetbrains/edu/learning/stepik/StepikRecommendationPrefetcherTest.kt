@@ -0,0 +1,95 @@
+package com.jetbrains.edu.learning.stepik
+
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.Disposer
+import com.intellij.util.ThrowableConvertor
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.jetbrains.edu.learning.EduTestCase
+import com.jetbrains.edu.learning.courseFormat.Lesson
+import com.jetbrains.edu.learning.courseFormat.RemoteCourse
+import com.jetbrains.edu.learning.stepik.StepikRecommendationPrefetcher.RecommendedLesson
+import java.io.IOException
+import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class StepikRecommendationPrefetcherTest : EduTestCase() {
+
+  // lessons are loaded by prefetching in background too
+  private val results: Queue<() -> RecommendedLesson?> = ConcurrentLinkedQueue()
+  private val loadCount = AtomicInteger()
+  private lateinit var prefetcher: StepikRecommendationPrefetcher
+
+  override fun setUp() {
+    super.setUp()
+    prefetcher = StepikRecommendationPrefetcher(ThrowableConvertor<RemoteCourse, List<String>, IOException> { listOf("1") },
+                                                ThrowableConvertor<String, RecommendedLesson, IOException> {
+                                                  loadCount.incrementAndGet()
+                                                  results.remove()()
+                                                })
+    Disposer.register(testRootDisposable, prefetcher)
+  }
+
+  fun `test loaded lesson is cached`() {
+    val lesson = RecommendedLesson(Lesson(), emptyList())
+    results.add { lesson }
+
+    assertSame(lesson, prefetcher.getLesson("1"))
+    assertSame(lesson, prefetcher.getLesson("1"))
+    assertEquals(1, loadCount.get())
+  }
+
+  fun `test missing lesson is not cached`() {
+    val lesson = RecommendedLesson(Lesson(), emptyList())
+    results.add { null }
+    results.add { lesson }
+
+    assertNull(prefetcher.getLesson("1"))
+    assertFalse(prefetcher.isCached("1"))
+    assertSame(lesson, prefetcher.getLesson("1"))
+    assertEquals(2, loadCount.get())
+  }
+
+  fun `test failed loading is not cached`() {
+    val lesson = RecommendedLesson(Lesson(), emptyList())
+    results.add { throw IOException("Stepik is unavailable") }
+    results.add { lesson }
+
+    try {
+      prefetcher.getLesson("1")
+      fail("Loading error is expected")
+    }
+    catch (e: IOException) {
+      assertEquals("Stepik is unavailable", e.message)
+    }
+    assertFalse(prefetcher.isCached("1"))
+    assertSame(lesson, prefetcher.getLesson("1"))
+    assertTrue(prefetcher.isCached("1"))
+    assertEquals(2, loadCount.get())
+  }
+
+  fun `test lesson is loaded again after prefetching is cancelled by reaction`() {
+    val lesson = RecommendedLesson(Lesson(), emptyList())
+    val started = CountDownLatch(1)
+    val released = CountDownLatch(1)
+    results.add {
+      started.countDown()
+      released.await()
+      ProgressManager.checkCanceled()
+      lesson
+    }
+    results.add { lesson }
+
+    prefetcher.prefetch(RemoteCourse(), null)
+    assertTrue(started.await(10, TimeUnit.SECONDS))
+    prefetcher.onReaction("0")
+    // cancelled prefetching finishes while the lesson is requested or before it, result is the same
+    AppExecutorUtil.getAppScheduledExecutorService().schedule({ released.countDown() }, 100, TimeUnit.MILLISECONDS)
+
+    assertSame(lesson, prefetcher.getLesson("1"))
+    assertTrue(prefetcher.isCached("1"))
+    assertEquals(2, loadCount.get())
+  }
+}
@@ -0,0 +1,86 @@
+package com.jetbrains.edu.learning.stepik;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class StepikResponseCacheTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testStoredResponse() throws IOException {
+    StepikResponseCache cache = new StepikResponseCache(folder.getRoot(), 1024);
+    String url = StepikNames.STEPIK_API_URL + StepikNames.COURSES + "/1";
+    String key = StepikResponseCache.getKey(url, 0);
+    assertNull(cache.get(key));
+
+    cache.put(key, url, "\"etag\"", null, stream("{\"courses\": []}"));
+    StepikResponseCache.Entry entry = cache.get(key);
+    assertNotNull(entry);
+    assertEquals("\"etag\"", entry.getEtag());
+    assertNull(entry.getLastModified());
+    assertTrue(entry.canBeRevalidated());
+    assertEquals("{\"courses\": []}", read(entry));
+
+    cache.recordHit(entry);
+    cache.recordMiss();
+    assertEquals(0.5, cache.getHitRate(), 0.001);
+    assertEquals(entry.getSize(), cache.getBytesSaved());
+  }
+
+  @Test
+  public void testResponsesAreCachedPerUser() {
+    String url = StepikNames.STEPIK_API_URL + StepikNames.COURSES + "/1";
+    assertNotEquals(StepikResponseCache.getKey(url, 1), StepikResponseCache.getKey(url, 2));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedAreEvicted() throws IOException {
+    StepikResponseCache cache = new StepikResponseCache(folder.getRoot(), 150);
+    String content = "{\"data\": \"" + StringUtil.repeatSymbol('a', 30) + "\"}";
+    for (int i = 1; i <= 3; i++) {
+      cache.put("key" + i, "url" + i, null, "Thu, 01 Jan 2015 00:00:00 GMT", stream(content));
+      // make access order visible through file timestamps
+      assertTrue(folder.getRoot().toPath().resolve("key" + i + ".json").toFile().setLastModified(i * 1000L));
+    }
+    StepikResponseCache.Entry first = cache.get("key1");
+    assertNotNull(first);
+    cache.recordHit(first);
+
+    cache.put("key4", "url4", null, null, stream(content));
+    assertNotNull(cache.get("key1"));
+    assertNull(cache.get("key2"));
+    assertNotNull(cache.get("key4"));
+  }
+
+  @Test
+  public void testStaleResponsesAreUsedOnlyOnConnectionFailures() {
+    assertTrue(StepikResponseCache.isConnectionFailure(new UnknownHostException("stepik.org")));
+    assertTrue(StepikResponseCache.isConnectionFailure(new ConnectTimeoutException()));
+    assertTrue(StepikResponseCache.isConnectionFailure(new SocketTimeoutException()));
+    assertFalse(StepikResponseCache.isConnectionFailure(new IOException("Stepik returned non 200 status code")));
+  }
+
+  private static InputStream stream(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(StepikResponseCache.Entry entry) throws IOException {
+    try (InputStream stream = entry.openStream()) {
+      return FileUtil.loadTextAndClose(stream);
+    }
+  }
+}
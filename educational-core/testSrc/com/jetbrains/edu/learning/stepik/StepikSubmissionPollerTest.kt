@@ -0,0 +1,93 @@
+package com.jetbrains.edu.learning.stepik
+
+import com.intellij.openapi.util.Disposer
+import com.jetbrains.edu.learning.EduTestCase
+import com.jetbrains.edu.learning.stepik.StepikWrappers.ResultSubmissionWrapper.ResultSubmission
+import java.util.*
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class StepikSubmissionPollerTest : EduTestCase() {
+
+  private val statuses = ConcurrentHashMap<Int, String>()
+  private val requests = Collections.synchronizedList(ArrayList<List<Int>>())
+  private lateinit var poller: StepikSubmissionPoller
+
+  override fun setUp() {
+    super.setUp()
+    poller = StepikSubmissionPoller(StepikSubmissionPoller.SubmissionFetcher { ids ->
+      requests.add(ArrayList(ids))
+      ids.map { id -> submission(id, statuses[id] ?: StepikSubmissionPoller.EVALUATION_STATUS) }
+    }, 10, 40)
+    Disposer.register(testRootDisposable, poller)
+  }
+
+  fun `test result is delivered when submission is evaluated`() {
+    val future = poller.awaitResult(1, 10_000)
+    waitForRequests(2)
+    statuses[1] = "correct"
+
+    assertEquals("correct", future.get(10, TimeUnit.SECONDS).status)
+  }
+
+  fun `test pending submissions are polled together`() {
+    val first = poller.awaitResult(1, 10_000)
+    val second = poller.awaitResult(2, 10_000)
+    statuses[1] = "correct"
+    statuses[2] = "wrong"
+
+    assertEquals("correct", first.get(10, TimeUnit.SECONDS).status)
+    assertEquals("wrong", second.get(10, TimeUnit.SECONDS).status)
+    assertTrue(requests.toString(), requests.any { it.containsAll(listOf(1, 2)) })
+  }
+
+  fun `test cancelled submission is not polled`() {
+    val future = poller.awaitResult(1, 10_000)
+    waitForRequests(1)
+    future.cancel(false)
+    assertEquals(0, poller.pendingCount)
+
+    val requestCount = requests.size
+    val other = poller.awaitResult(2, 10_000)
+    statuses[2] = "correct"
+    other.get(10, TimeUnit.SECONDS)
+
+    assertTrue(requests.drop(requestCount).none { 1 in it })
+    try {
+      future.get()
+      fail("Cancelled future shouldn't have result")
+    }
+    catch (ignored: CancellationException) {
+    }
+  }
+
+  fun `test not evaluated submission times out`() {
+    val future = poller.awaitResult(1, 100)
+    try {
+      future.get(10, TimeUnit.SECONDS)
+      fail("Submission shouldn't be evaluated")
+    }
+    catch (e: ExecutionException) {
+      assertInstanceOf(e.cause, TimeoutException::class.java)
+    }
+  }
+
+  private fun waitForRequests(count: Int) {
+    val deadline = System.currentTimeMillis() + 10_000
+    while (requests.size < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10)
+    }
+    assertTrue("Expected $count requests but was ${requests.size}", requests.size >= count)
+  }
+
+  private fun submission(id: Int, status: String): ResultSubmission {
+    val submission = ResultSubmission()
+    submission.id = id
+    submission.status = status
+    submission.hint = ""
+    return submission
+  }
+}
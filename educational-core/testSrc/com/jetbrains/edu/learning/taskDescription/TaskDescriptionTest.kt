@@ -11,6 +11,7 @@ import com.jetbrains.edu.learning.EduUtils
 import com.jetbrains.edu.learning.StudyTaskManager
 import com.jetbrains.edu.learning.courseFormat.Course
 import com.jetbrains.edu.learning.ui.taskDescription.BrowserWindow
+import com.jetbrains.edu.learning.ui.taskDescription.TaskDescriptionHtmlCache
 import org.jsoup.Jsoup
 import java.awt.event.InputEvent
 import java.awt.event.KeyEvent
@@ -95,6 +96,22 @@ class TaskDescriptionTest : EduTestCase() {
     keymapManager.activeKeymap = oldActiveKeymap
   }
 
+  fun testRenderedDescriptionIsCached() {
+    configureByTaskFile(1, 1, "taskFile1.txt")
+    val task = EduUtils.getCurrentTask(project)!!
+    task.descriptionText = "Task <b>description</b>"
+    val cache = TaskDescriptionHtmlCache.getInstance(project)
+
+    val html = cache.getHtml(task)
+    assertNotNull(html)
+    assertSame(html, cache.getHtml(task))
+
+    task.descriptionText = "Changed <b>description</b>"
+    val changedHtml = cache.getHtml(task)
+    assertNotSame(html, changedHtml)
+    assertEquals("Changed description", changedHtml!!.getBody())
+  }
+
   @Throws(IOException::class)
   override fun createCourse() {
     myFixture.copyDirectoryToProject("lesson1", "lesson1")